@@ -20,6 +20,7 @@ import org.iplantc.de.commons.client.ErrorHandler;
 import org.iplantc.de.commons.client.info.ErrorAnnouncementConfig;
 import org.iplantc.de.commons.client.info.IplantAnnouncer;
 import org.iplantc.de.commons.client.info.SuccessAnnouncementConfig;
+import org.iplantc.de.commons.client.util.IncrementalStoreFiller;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
@@ -79,6 +80,7 @@ public class AdminAppsGridPresenterImpl implements AdminAppsGridView.Presenter,
 
     private final ListStore<App> listStore;
     private final AdminAppsGridView view;
+    private IncrementalStoreFiller<App> storeFiller;
     boolean isDocUpdate;
 
     @Inject
@@ -134,8 +136,7 @@ public class AdminAppsGridPresenterImpl implements AdminAppsGridView.Presenter,
 
             @Override
             public void onSuccess(final List<App> apps) {
-                listStore.clear();
-                listStore.addAll(apps);
+                fillStore(apps);
                 view.unmask();
             }
         });
@@ -170,8 +171,23 @@ public class AdminAppsGridPresenterImpl implements AdminAppsGridView.Presenter,
 
     @Override
     public void onAppSearchResultLoad(AppSearchResultLoadEvent event) {
+        fillStore(event.getResults());
+    }
+
+    /**
+     * Replaces the apps in the grid, a time slice at a time. Any apps still being added from an earlier
+     * listing are dropped.
+     */
+    void fillStore(final List<App> apps) {
+        if (storeFiller != null) {
+            storeFiller.cancel();
+        }
         listStore.clear();
-        listStore.addAll(event.getResults());
+        storeFiller = addAllIncrementally(apps);
+    }
+
+    IncrementalStoreFiller<App> addAllIncrementally(final List<App> apps) {
+        return IncrementalStoreFiller.addAll(listStore, apps, null);
     }
 
     @Override
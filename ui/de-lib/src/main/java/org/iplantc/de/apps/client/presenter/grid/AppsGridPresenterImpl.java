@@ -27,12 +27,14 @@ import org.iplantc.de.commons.client.ErrorHandler;
 import org.iplantc.de.commons.client.comments.view.dialogs.CommentsDialog;
 import org.iplantc.de.commons.client.info.ErrorAnnouncementConfig;
 import org.iplantc.de.commons.client.info.IplantAnnouncer;
+import org.iplantc.de.commons.client.util.IncrementalStoreFiller;
 import org.iplantc.de.shared.AsyncProviderWrapper;
 import org.iplantc.de.shared.exceptions.HttpRedirectException;
 
 import com.google.common.base.Preconditions;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.inject.Inject;
 
@@ -66,6 +68,7 @@ public class AppsGridPresenterImpl implements AppsGridView.Presenter,
     private final EventBus eventBus;
     private final AppsGridView view;
     private App desiredSelectedApp;
+    private IncrementalStoreFiller<App> storeFiller;
 
     @Inject
     AppsGridPresenterImpl(final AppsGridViewFactory viewFactory,
@@ -152,18 +155,21 @@ public class AppsGridPresenterImpl implements AppsGridView.Presenter,
 
             @Override
             public void onSuccess(final List<App> apps) {
-                listStore.clear();
-                listStore.addAll(apps);
-
-                if (getDesiredSelectedApp() != null) {
-
-                    view.getGrid().getSelectionModel().select(getDesiredSelectedApp(), false);
-
-                } else if (listStore.size() > 0) {
-                    // Select first app
-                    view.getGrid().getSelectionModel().select(listStore.get(0), false);
-                }
-                setDesiredSelectedApp(null);
+                // The desired app may be anywhere in the list, so it's selected once every app is added.
+                fillStore(apps, new Command() {
+                    @Override
+                    public void execute() {
+                        if (getDesiredSelectedApp() != null) {
+
+                            view.getGrid().getSelectionModel().select(getDesiredSelectedApp(), false);
+
+                        } else if (listStore.size() > 0) {
+                            // Select first app
+                            view.getGrid().getSelectionModel().select(listStore.get(0), false);
+                        }
+                        setDesiredSelectedApp(null);
+                    }
+                });
                 view.unmask();
             }
         });
@@ -229,8 +235,23 @@ public class AppsGridPresenterImpl implements AppsGridView.Presenter,
     @Override
     public void onAppSearchResultLoad(AppSearchResultLoadEvent event) {
         view.setSearchPattern(event.getSearchPattern());
+        fillStore(event.getResults(), null);
+    }
+
+    /**
+     * Replaces the apps in the grid, a time slice at a time, so that large categories and search
+     * results don't block the browser. Any apps still being added from an earlier listing are dropped.
+     */
+    void fillStore(final List<App> apps, final Command onComplete) {
+        if (storeFiller != null) {
+            storeFiller.cancel();
+        }
         listStore.clear();
-        listStore.addAll(event.getResults());
+        storeFiller = addAllIncrementally(apps, onComplete);
+    }
+
+    IncrementalStoreFiller<App> addAllIncrementally(final List<App> apps, final Command onComplete) {
+        return IncrementalStoreFiller.addAll(listStore, apps, onComplete);
     }
 
     @Override
@@ -9,6 +9,7 @@ import org.iplantc.de.client.util.AppTemplateUtils;
 import org.iplantc.de.client.util.DiskResourceUtil;
 import org.iplantc.de.client.util.JsonUtil;
 import org.iplantc.de.shared.services.DiscEnvApiService;
+import org.iplantc.de.shared.services.ServiceCallCoalescer;
 
 import com.google.gwt.inject.client.AbstractGinModule;
 import com.google.inject.Provides;
@@ -38,6 +39,7 @@ final class ServicesModule extends AbstractGinModule {
         bind(AppMetadataServiceFacade.class).to(AppMetadataServiceFacadeImpl.class);
         bind(PermIdRequestUserServiceFacade.class).to(PermIdRequestUserServiceFacadeImpl.class);
         bind(DiscEnvApiService.class).in(Singleton.class);
+        bind(ServiceCallCoalescer.class).in(Singleton.class);
     }
 
     @Provides public JsonUtil createJsonUtil() {
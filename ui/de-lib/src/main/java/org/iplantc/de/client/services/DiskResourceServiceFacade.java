@@ -31,7 +31,8 @@ public interface DiskResourceServiceFacade {
 
     /**
      * Calledto reload the given folder's subfolders from the service. After refreshing the folder,
-     * a global refresh event is fired so all views can update the folder's subfolders.
+     * a global refresh event is fired so all views can update the folder's subfolders. The cached
+     * listings of the folder's descendants are discarded, so they're listed again when next needed.
      *
      * @param folder The parent of the subfolders to refresh from the service.
      * @param callback executed when RPC call completes.
@@ -74,6 +75,18 @@ public interface DiskResourceServiceFacade {
      */
     void getSubFolders(final Folder parent, final AsyncCallback<List<Folder>> callback);
 
+    /**
+     * Called to retrieve the subfolders of every folder along the given path, so that the path can be
+     * expanded without waiting on a request for each level. The listings which aren't already cached
+     * are requested together in a single batch request, starting from the deepest cached folder along
+     * the path.
+     *
+     * @param path the path of the folder whose ancestors are to be listed.
+     * @param callback executed when the batch request completes, with the folders along the path which
+     *            are now cached with their subfolders, from the shallowest to the deepest.
+     */
+    void getSubFoldersAlongPath(String path, AsyncCallback<List<Folder>> callback);
+
     /**
      * Call service to create a new folder
      * 
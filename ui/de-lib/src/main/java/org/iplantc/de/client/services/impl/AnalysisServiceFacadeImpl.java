@@ -228,6 +228,7 @@ public class AnalysisServiceFacadeImpl implements AnalysisServiceFacade {
         }
 
         ServiceCallWrapper wrapper = new ServiceCallWrapper(address.toString());
+        wrapper.setLargeResponse(true);
         deServiceFacade.getServiceData(wrapper, new AsyncCallbackConverter<String, PagingLoadResultBean<Analysis>>(callback) {
 
             @Override
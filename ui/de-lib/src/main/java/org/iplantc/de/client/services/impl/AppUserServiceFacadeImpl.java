@@ -101,7 +101,7 @@ public class AppUserServiceFacadeImpl implements AppUserServiceFacade {
     public void getAppCategories(AsyncCallback<List<AppCategory>> callback) {
         String address = CATEGORIES;
         ServiceCallWrapper wrapper = new ServiceCallWrapper(address);
-        deServiceFacade.getServiceData(wrapper, new AppCategoryListCallbackConverter(callback));
+        deServiceFacade.getServiceDataBatched(wrapper, new AppCategoryListCallbackConverter(callback));
     }
 
     @Override
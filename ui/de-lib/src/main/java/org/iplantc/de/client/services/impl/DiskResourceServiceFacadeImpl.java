@@ -35,10 +35,12 @@ import org.iplantc.de.client.util.DiskResourceUtil;
 import org.iplantc.de.shared.services.DiscEnvApiService;
 import org.iplantc.de.shared.services.ServiceCallWrapper;
 
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.http.client.URL;
 import com.google.gwt.json.client.JSONArray;
@@ -63,6 +65,7 @@ import com.sencha.gxt.data.shared.loader.FilterPagingLoadConfigBean;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Provides access to remote services for folder operations.
@@ -138,7 +141,7 @@ public class DiskResourceServiceFacadeImpl extends TreeStore<Folder> implements
             String address = deProperties.getDataMgmtBaseUrl() + "root"; //$NON-NLS-1$
             ServiceCallWrapper wrapper = new ServiceCallWrapper(address);
 
-            callService(wrapper, new AsyncCallbackConverter<String, RootFolders>(callback) {
+            deServiceFacade.getServiceDataBatched(wrapper, new AsyncCallbackConverter<String, RootFolders>(callback) {
                 @Override
                 protected RootFolders convertFrom(final String json) {
                     RootFolders result = decode(RootFolders.class, json);
@@ -189,6 +192,7 @@ public class DiskResourceServiceFacadeImpl extends TreeStore<Folder> implements
             }
         }
         ServiceCallWrapper wrapper = new ServiceCallWrapper(address);
+        wrapper.setLargeResponse(true);
         callService(wrapper, new AsyncCallbackConverter<String, Folder>(callback) {
 
             @Override
@@ -222,6 +226,105 @@ public class DiskResourceServiceFacadeImpl extends TreeStore<Folder> implements
         }
     }
 
+    @Override
+    public void getSubFoldersAlongPath(final String path, final AsyncCallback<List<Folder>> callback) {
+        // The ancestors of the path, from the shallowest to the deepest.
+        final List<String> ancestorPaths = Lists.newArrayList();
+        String ancestorPath = "";
+        for (String name : Splitter.on("/").omitEmptyStrings().split(Strings.nullToEmpty(path))) {
+            if (!ancestorPath.isEmpty()) {
+                ancestorPaths.add(ancestorPath);
+            }
+            ancestorPath += "/" + name;
+        }
+
+        // Only the ancestors below the deepest cached one need to be listed; those above it are
+        // outside of the user's roots.
+        int first = ancestorPaths.size() - 1;
+        Folder cached = null;
+        while (first >= 0 && cached == null) {
+            cached = findModelWithPath(ancestorPaths.get(first));
+            if (cached == null) {
+                first--;
+            }
+        }
+        if (cached != null && hasFoldersLoaded(cached)) {
+            first++;
+        }
+        if (cached == null || first >= ancestorPaths.size()) {
+            callback.onSuccess(Lists.<Folder>newArrayList());
+            return;
+        }
+
+        // All listings are queued during this tick, so they are sent in one batch request.
+        final List<String> pathsToList = ancestorPaths.subList(first, ancestorPaths.size());
+        final String[] listings = new String[pathsToList.size()];
+        final Throwable[] failures = new Throwable[pathsToList.size()];
+        final int[] pending = {pathsToList.size()};
+        for (int i = 0; i < pathsToList.size(); i++) {
+            final int index = i;
+            ServiceCallWrapper wrapper = new ServiceCallWrapper(getDirectoryListingEndpoint(pathsToList.get(i), false));
+            deServiceFacade.getServiceDataBatched(wrapper, new AsyncCallback<String>() {
+                @Override
+                public void onFailure(Throwable caught) {
+                    failures[index] = caught;
+                    onListed();
+                }
+
+                @Override
+                public void onSuccess(String result) {
+                    listings[index] = result;
+                    onListed();
+                }
+
+                private void onListed() {
+                    if (--pending[0] == 0) {
+                        saveListingsAlongPath(listings, failures, callback);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Saves the given listings from the shallowest to the deepest, so that each folder is already
+     * cached under its parent when its own listing is saved. Saving stops at the first listing which
+     * failed, or which isn't for a cached folder, since the rest of the path can't be added below it.
+     */
+    private void saveListingsAlongPath(final String[] listings,
+                                       final Throwable[] failures,
+                                       final AsyncCallback<List<Folder>> callback) {
+        List<Folder> saved = Lists.newArrayList();
+        for (int i = 0; i < listings.length; i++) {
+            if (failures[i] != null) {
+                if (saved.isEmpty()) {
+                    callback.onFailure(failures[i]);
+                    return;
+                }
+                break;
+            }
+            Folder listing = decode(Folder.class, listings[i]);
+            Folder folder = findModel(listing);
+            if (folder == null) {
+                break;
+            }
+            saveSubFolders(listing);
+            saved.add(folder);
+        }
+
+        callback.onSuccess(saved);
+    }
+
+    private Folder findModelWithPath(final String path) {
+        for (Folder folder : getAll()) {
+            if (path.equals(folder.getPath())) {
+                return folder;
+            }
+        }
+
+        return null;
+    }
+
     private List<Folder> saveSubFolders(final Folder folder) {
         if (folder == null) {
             return null;
@@ -234,11 +337,28 @@ public class DiskResourceServiceFacadeImpl extends TreeStore<Folder> implements
         if (parent != null && subfolders != null) {
             parent.setFolders(subfolders);
 
+            // Drop the cached folders which are no longer in the listing, along with their subtrees.
+            Set<String> subfolderIds = Sets.newHashSet();
+            for (Folder child : subfolders) {
+                subfolderIds.add(child.getId());
+            }
+            for (Folder cached : Lists.newArrayList(getChildren(parent))) {
+                if (!subfolderIds.contains(cached.getId())) {
+                    remove(cached);
+                }
+            }
+
             for (Folder child : subfolders) {
                 Folder current = findModel(child);
                 if (current == null) {
                     add(parent, child);
+                } else if (getParent(current) != parent) {
+                    // Moved here from elsewhere; its subfolders will be listed when needed.
+                    remove(current);
+                    add(parent, child);
                 } else {
+                    // Keep the subfolders which are already cached under this folder, unless its
+                    // listing was discarded by a refresh.
                     child.setFolders(current.getFolders());
                     update(child);
                 }
@@ -443,7 +563,7 @@ public class DiskResourceServiceFacadeImpl extends TreeStore<Folder> implements
                                               final DiskResourceMove resourcesMoved,
                                               final AsyncCallback<DiskResourceMove> callback,
                                               final DiskResourcesMovedEvent movedEvent) {
-        refreshFolder(folder, new AsyncCallback<List<Folder>>() {
+        refreshFolder(folder, true, new AsyncCallback<List<Folder>>() {
 
             @Override
             public void onSuccess(List<Folder> folders) {
@@ -542,6 +662,18 @@ public class DiskResourceServiceFacadeImpl extends TreeStore<Folder> implements
 
     @Override
     public void refreshFolder(Folder parent, final AsyncCallback<List<Folder>> callback) {
+        refreshFolder(parent, false, callback);
+    }
+
+    /**
+     * Lists a folder's subfolders again, and reconciles the listing with the cached subfolders.
+     *
+     * @param keepListings true to keep the cached listings of the folder's descendants, such as after
+     *                     moving folders into or out of it. Otherwise they're discarded, so that each
+     *                     descendant is listed again the next time its subfolders are needed, while
+     *                     the descendants themselves stay cached.
+     */
+    private void refreshFolder(Folder parent, boolean keepListings, final AsyncCallback<List<Folder>> callback) {
         final Folder folder = findModel(parent);
         if (folder == null) {
             // If this folder is not in the cache, it may be a pseudo-folder like 'Favorites'.
@@ -552,7 +684,13 @@ public class DiskResourceServiceFacadeImpl extends TreeStore<Folder> implements
             return;
         }
 
-        removeChildren(folder);
+        if (!keepListings) {
+            for (Folder descendant : getAllChildren(folder)) {
+                descendant.setFolders(null);
+            }
+        }
+        // The new listing is reconciled with the cached subfolders, so that the subfolders which didn't
+        // change stay cached, along with their own listings if they're kept.
         folder.setFolders(null);
 
         getSubFolders(folder, new AsyncCallback<List<Folder>>() {
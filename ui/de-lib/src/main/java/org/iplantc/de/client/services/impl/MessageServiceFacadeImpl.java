@@ -97,7 +97,7 @@ public class MessageServiceFacadeImpl implements MessageServiceFacade {
                              + "notifications/last-ten-messages"; //$NON-NLS-1$
         ServiceCallWrapper wrapper = new ServiceCallWrapper(GET, address);
 
-        deServiceFacade.getServiceData(wrapper, new NotificationCallbackConverter(callback, notesFactory));
+        deServiceFacade.getServiceDataBatched(wrapper, new NotificationCallbackConverter(callback, notesFactory));
     }
 
     @Override
@@ -131,7 +131,7 @@ public class MessageServiceFacadeImpl implements MessageServiceFacade {
                                 + "notifications/count-messages?seen=false"; //$NON-NLS-1$
         final ServiceCallWrapper wrapper = new ServiceCallWrapper(Type.GET, addr);
         final AsyncCallback<String> convCB = new CountsCB(callback, notesFactory);
-        deServiceFacade.getServiceData(wrapper, convCB);
+        deServiceFacade.getServiceDataBatched(wrapper, convCB);
     }
 
     @Override
@@ -383,6 +383,7 @@ public class SearchServiceFacadeImpl implements SearchServiceFacade {
         addressSb.append(typeParameter);
         addressSb.append(sortParameter);
         ServiceCallWrapper wrapper = new ServiceCallWrapper(GET, addressSb.toString());
+        wrapper.setLargeResponse(true);
         deServiceFacade.getServiceData(wrapper, new SubmitSearchCallbackConverter(callback, queryTemplate, userInfo, drFactory));
 
     }
@@ -133,7 +133,7 @@ public final class SystemMessageServiceFacadeImpl implements SystemMessageServic
     private void getMessages(final String relSvcPath, final AsyncCallback<MessageList> callback) {
         final String address = makeAddress(relSvcPath);
         final ServiceCallWrapper wrapper = new ServiceCallWrapper(GET, address);
-        deServiceFacade.getServiceData(wrapper, new MsgListCB(callback, factory));
+        deServiceFacade.getServiceDataBatched(wrapper, new MsgListCB(callback, factory));
     }
 
     private String makeAddress(final String relPath) {
@@ -0,0 +1,112 @@
+package org.iplantc.de.commons.client.util;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.Command;
+
+import com.sencha.gxt.data.shared.ListStore;
+
+import java.util.List;
+
+/**
+ * Adds a large list of models to a {@link ListStore} in chunks, so that the browser isn't blocked while
+ * every row is rendered.
+ *
+ * As much of the list as fits in {@link #TIME_SLICE_MS} milliseconds is added right away, so the first
+ * rows are shown without waiting. The rest is added by an incremental command, one time slice per
+ * event loop tick. Models decoded from a service response are AutoBean proxies over the parsed JSON,
+ * and each one is only created when it's first read from the list, so the models of later chunks
+ * aren't created until those chunks are added.
+ */
+public class IncrementalStoreFiller<M> implements Scheduler.RepeatingCommand {
+
+    /**
+     * The number of models added to the store at a time.
+     */
+    static final int CHUNK_SIZE = 100;
+
+    /**
+     * How long chunks are added for before control is returned to the browser.
+     */
+    static final double TIME_SLICE_MS = 50;
+
+    private final ListStore<M> store;
+    private final List<? extends M> models;
+    private final Command onComplete;
+    private final Scheduler scheduler;
+    private int next;
+    private boolean cancelled;
+
+    IncrementalStoreFiller(final ListStore<M> store,
+                           final List<? extends M> models,
+                           final Command onComplete,
+                           final Scheduler scheduler) {
+        this.store = store;
+        this.models = models;
+        this.onComplete = onComplete;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Adds the given models to the end of the store, a time slice at a time.
+     *
+     * @param store the store to add the models to.
+     * @param models the models to add.
+     * @param onComplete executed once every model has been added; may be null.
+     * @return the filler, which should be cancelled if the store is cleared or refilled before it
+     * completes.
+     */
+    public static <M> IncrementalStoreFiller<M> addAll(final ListStore<M> store,
+                                                       final List<? extends M> models,
+                                                       final Command onComplete) {
+        IncrementalStoreFiller<M> filler = new IncrementalStoreFiller<>(store, models, onComplete, Scheduler.get());
+        filler.start();
+        return filler;
+    }
+
+    void start() {
+        if (execute()) {
+            scheduler.scheduleIncremental(this);
+        }
+    }
+
+    /**
+     * Stops adding models to the store. The models which have already been added are kept.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if every model has been added to the store.
+     */
+    public boolean isComplete() {
+        return !cancelled && next >= models.size();
+    }
+
+    @Override
+    public boolean execute() {
+        if (cancelled) {
+            return false;
+        }
+
+        final double start = now();
+        do {
+            int end = Math.min(next + CHUNK_SIZE, models.size());
+            store.addAll(models.subList(next, end));
+            next = end;
+        } while (next < models.size() && now() - start < TIME_SLICE_MS);
+
+        if (next < models.size()) {
+            return true;
+        }
+        if (onComplete != null) {
+            onComplete.execute();
+        }
+        return false;
+    }
+
+    double now() {
+        return Duration.currentTimeMillis();
+    }
+}
@@ -75,6 +75,7 @@ import com.google.gwt.json.client.JSONArray;
 import com.google.gwt.json.client.JSONObject;
 import com.google.gwt.json.client.JSONParser;
 import com.google.gwt.json.client.JSONString;
+import com.google.gwt.json.client.JSONValue;
 import com.google.gwt.safehtml.shared.SafeHtml;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.rpc.AsyncCallback;
@@ -107,13 +108,30 @@ import java.util.Map;
 public class DesktopPresenterImpl implements DesktopView.Presenter {
 
     private final class NewSysMessageCountCallback implements AsyncCallback<Counts> {
+		private final boolean polling;
+
+		/**
+		 * @param polling true if the counts are being polled because a websocket is down, in which case
+		 *                the unseen notification count is updated too, and failures aren't announced.
+		 */
+		NewSysMessageCountCallback(boolean polling) {
+			this.polling = polling;
+		}
+
 		@Override
 		public void onFailure(Throwable caught) {
+			if (polling) {
+				GWT.log("Unable to poll the message counts", caught);
+				return;
+			}
 			IplantAnnouncer.getInstance().schedule(new ErrorAnnouncementConfig(appearance.checkSysMessageError()));
 		}
 
 		@Override
 		public void onSuccess(Counts result) {
+			if (polling) {
+				view.setUnseenNotificationCount(result.getUnseenNotificationCount());
+			}
 			if(result.getNewSystemMessageCount() > 0) {
 				 eventBus.fireEvent(new NewSystemMessagesEvent());
 			}
@@ -168,6 +186,20 @@ public class DesktopPresenterImpl implements DesktopView.Presenter {
     private SystemMessageWebSocketManager systemMessageWebSocketManager;
     private boolean loggedOut;
 
+    /**
+     * Notification and system message changes are pushed over the websockets. While either of them
+     * is down, the counts are polled instead.
+     */
+    private final Runnable socketFallbackPoll = new Runnable() {
+        @Override
+        public void run() {
+            messageServiceFacade.getMessageCounts(new NewSysMessageCountCallback(true));
+        }
+    };
+    private boolean notificationSocketDown;
+    private boolean systemMessageSocketDown;
+    private boolean fallbackPolling;
+
     public static final int NEW_NOTIFICATION_LIMIT = 10;
 
     @Inject
@@ -209,7 +241,9 @@ public class DesktopPresenterImpl implements DesktopView.Presenter {
                 //if websocket connection closed unexpectedly, retry connection!
                 if(!loggedOut) {
                     GWT.log("reconnecting...");
-                    notificationWebSocketManager.openWebSocket(this);
+                    notificationSocketDown = true;
+                    updateFallbackPolling();
+                    notificationWebSocketManager.reconnect();
                 }
             }
 
@@ -222,6 +256,13 @@ public class DesktopPresenterImpl implements DesktopView.Presenter {
             @Override
             public void onOpen() {
                 GWT.log("websocket onOpen()");
+                notificationWebSocketManager.connected();
+                if (notificationSocketDown) {
+                    notificationSocketDown = false;
+                    updateFallbackPolling();
+                    // Catch up on anything which changed while the websocket was down.
+                    socketFallbackPoll.run();
+                }
             }
         });
     }
@@ -236,7 +277,9 @@ public class DesktopPresenterImpl implements DesktopView.Presenter {
                 //if websocket connection closed unexpectedly, retry connection!
                 if(!loggedOut) {
                     GWT.log("reconnecting...");
-                    systemMessageWebSocketManager.openWebSocket(this);
+                    systemMessageSocketDown = true;
+                    updateFallbackPolling();
+                    systemMessageWebSocketManager.reconnect();
                 }
             }
 
@@ -249,28 +292,66 @@ public class DesktopPresenterImpl implements DesktopView.Presenter {
             @Override
             public void onOpen() {
                 GWT.log("websocket onOpen()");
+                systemMessageWebSocketManager.connected();
+                if (systemMessageSocketDown) {
+                    systemMessageSocketDown = false;
+                    updateFallbackPolling();
+                    // Catch up on anything which changed while the websocket was down.
+                    socketFallbackPoll.run();
+                }
             }
         });
     }
 
+    /**
+     * Polls the message counts while either websocket is down, and stops once both are open.
+     */
+    private void updateFallbackPolling() {
+        final boolean socketDown = notificationSocketDown || systemMessageSocketDown;
+        if (socketDown && !fallbackPolling) {
+            messagePoller.addTask(socketFallbackPoll);
+            messagePoller.start();
+        } else if (!socketDown && fallbackPolling) {
+            messagePoller.removeTask(socketFallbackPoll);
+        }
+        fallbackPolling = socketDown;
+    }
+
     private void processSystemMessage(String msg){
-        JSONObject obj = null;
         try {
-            obj = JSONParser.parseStrict(msg).isObject();
-            eventBus.fireEvent(new NewSystemMessagesEvent());
+            // The server may coalesce several messages into one array frame.
+            JSONValue value = JSONParser.parseStrict(msg);
+            if (value.isObject() != null || value.isArray() != null) {
+                eventBus.fireEvent(new NewSystemMessagesEvent());
+            }
         } catch (Exception e) {
             //ignore error and message as it not in json format
           }
     }
 
     private void processNotification(String msg) {
-        JSONObject obj = null;
+        JSONValue value = null;
         try {
-             obj = JSONParser.parseStrict(msg).isObject();
+             value = JSONParser.parseStrict(msg);
         } catch (Exception e) {
             //ignore error and message as it not in json format
             return;
         }
+        // The server may coalesce several notifications into one array frame, oldest first.
+        JSONArray batch = value.isArray();
+        if (batch == null) {
+            processNotification(value.isObject());
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            processNotification(batch.get(i).isObject());
+        }
+    }
+
+    private void processNotification(JSONObject obj) {
+        if (obj == null) {
+            return;
+        }
         Number num = JsonUtil.getInstance().getNumber(obj, "total");
         view.setUnseenNotificationCount(num.intValue());
         GWT.log("count -->" + num.intValue());
@@ -646,7 +727,7 @@ public class DesktopPresenterImpl implements DesktopView.Presenter {
         panel.add(view);
         processQueryStrings();
         messageServiceFacade.getRecentMessages(new InitializationCallbacks.GetInitialNotificationsCallback(view, appearance, announcer));
-        messageServiceFacade.getMessageCounts(new NewSysMessageCountCallback());
+        messageServiceFacade.getMessageCounts(new NewSysMessageCountCallback(false));
    
    }
 
@@ -11,6 +11,10 @@ import java.util.logging.Logger;
 
 /**
  * Periodically performs registered tasks.
+ *
+ * While the browser tab is hidden, the interval doubles after each run, up to
+ * {@value #MAX_HIDDEN_BACKOFF} times the configured interval. It returns to the configured interval
+ * as soon as the tab is visible again.
  */
 public class TaskRunner {
 
@@ -19,11 +23,21 @@ public class TaskRunner {
      */
     private static final int DEFAULT_INTERVAL = 15;
 
+    /**
+     * The most the interval is multiplied by while the tab is hidden.
+     */
+    private static final int MAX_HIDDEN_BACKOFF = 8;
+
     /**
      * The interval for repeating tasks, in milliseconds.
      */
     private int interval;
 
+    /**
+     * The interval until the next run, in milliseconds.
+     */
+    private int currentInterval;
+
     /**
      * The single instance of this class.
      */
@@ -53,17 +67,21 @@ public class TaskRunner {
         }
 
         interval *= 1000;
+        currentInterval = interval;
 
         timer = new Timer() {
 
             @Override
             public void run() {
                 runTasks();
-                timer.schedule(interval);
+                currentInterval = isDocumentHidden() ? Math.min(currentInterval * 2, interval * MAX_HIDDEN_BACKOFF)
+                                                     : interval;
+                timer.schedule(currentInterval);
             }
         };
 
         timer.schedule(interval);
+        addVisibilityChangeHandler();
     }
 
     /**
@@ -100,6 +118,27 @@ public class TaskRunner {
         tasks.remove(task);
     }
 
+    /**
+     * Returns to the configured interval when the tab becomes visible after backing off.
+     */
+    private void onVisibilityChange() {
+        if (!isDocumentHidden() && currentInterval > interval) {
+            currentInterval = interval;
+            timer.schedule(interval);
+        }
+    }
+
+    private static native boolean isDocumentHidden() /*-{
+        return !!$doc.hidden;
+    }-*/;
+
+    private native void addVisibilityChangeHandler() /*-{
+        var runner = this;
+        $doc.addEventListener("visibilitychange", $entry(function () {
+            runner.@org.iplantc.de.desktop.client.presenter.util.TaskRunner::onVisibilityChange()();
+        }), false);
+    }-*/;
+
     private void runTasks() {
         for (Runnable task : tasks) {
             try {
@@ -5,24 +5,61 @@ import org.iplantc.de.client.DEClientConstants;
 import com.sksamuel.gwt.websockets.Websocket;
 import com.sksamuel.gwt.websockets.WebsocketListener;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.Window.Location;
 
 /**
  * Created by sriram on 4/8/16.
+ *
+ * A websocket which is reopened after it closes unexpectedly. The delay before reopening it
+ * doubles after each consecutive failure, up to a minute, so that an unavailable server isn't
+ * flooded with connection attempts.
  */
 public class WebSocketManager {
 
+    private static final int INITIAL_RECONNECT_DELAY = 1000;
+    private static final int MAX_RECONNECT_DELAY = 60000;
+
     protected Websocket ws;
 
     static DEClientConstants deClientConstants =  GWT.create(DEClientConstants.class);
 
+    private int reconnectDelay = INITIAL_RECONNECT_DELAY;
+    private Timer reconnectTimer;
+
     public void openWebSocket(WebsocketListener wl) {
         ws.addListener(wl);
         ws.open();
     }
 
+    /**
+     * Reopens the websocket after the current reconnection delay.
+     */
+    public void reconnect() {
+        if (reconnectTimer == null) {
+            reconnectTimer = new Timer() {
+                @Override
+                public void run() {
+                    ws.open();
+                }
+            };
+        }
+        reconnectTimer.schedule(reconnectDelay);
+        reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY);
+    }
+
+    /**
+     * Resets the reconnection delay; called once the websocket is open.
+     */
+    public void connected() {
+        reconnectDelay = INITIAL_RECONNECT_DELAY;
+    }
+
     public void closeWebSocket() {
+        if (reconnectTimer != null) {
+            reconnectTimer.cancel();
+        }
         ws.close();
     }
 
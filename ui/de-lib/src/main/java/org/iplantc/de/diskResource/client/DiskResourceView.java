@@ -14,6 +14,7 @@ import org.iplantc.de.diskResource.client.events.search.SubmitDiskResourceQueryE
 import org.iplantc.de.diskResource.client.events.selection.RefreshFolderSelected;
 import org.iplantc.de.diskResource.client.presenters.navigation.proxy.SelectFolderByPathLoadHandler;
 
+import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.ui.HasOneWidget;
 import com.google.gwt.user.client.ui.IsWidget;
 
@@ -43,6 +44,15 @@ public interface DiskResourceView extends IsWidget,
                                             HasRootFoldersRetrievedEventHandlers,
                                             HasSavedSearchesRetrievedEventHandlers {
         void setMaskable(IsMaskable maskable);
+
+        /**
+         * Lists the subfolders of every folder along the given path in a single request, so that the
+         * folders along the path are then loaded from the service facade's cache.
+         *
+         * @param path the path of the folder whose ancestors are to be listed.
+         * @param callback executed when the listings have been cached.
+         */
+        void loadPath(String path, AsyncCallback<List<Folder>> callback);
     }
 
 
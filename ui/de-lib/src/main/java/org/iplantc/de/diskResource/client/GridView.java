@@ -62,6 +62,10 @@ public interface GridView extends IsWidget,
 
         String dataDragDropStatusText(int totalSelectionCount);
 
+        String goToItemFieldEmptyText();
+
+        int goToItemFieldWidth();
+
         String lastModifiedColumnLabel();
 
         int lastModifiedColumnWidth();
@@ -217,5 +221,13 @@ public interface GridView extends IsWidget,
 
     LiveGridCheckBoxSelectionModel getSelectionModel();
 
+    /**
+     * Scrolls the grid to the item at the given offset within the current listing, loading the
+     * items around it if necessary.
+     *
+     * @param offset the zero-based offset of the item.
+     */
+    void scrollToOffset(int offset);
+
     void setSingleSelect();
 }
@@ -92,6 +92,17 @@ public interface NavigationView extends IsWidget,
          */
         void expandFolder(Folder folder);
 
+        /**
+         * Lists every folder along the given path below the given folder in a single request, then
+         * expands the given folder. Since the listings are cached, the folders along the path can then
+         * be expanded without waiting on the service.
+         * XXX ********Used by SelectFolderByPathLoadHandler*********
+         *
+         * @param folder the deepest folder along the path which is already in the tree.
+         * @param path the path of the folder to be loaded.
+         */
+        void expandFolderPath(Folder folder, String path);
+
         /**
          * @param el the element corresponding to a tree node
          * @return the TreeNode if it exists, null otherwise.
@@ -128,6 +139,16 @@ public interface NavigationView extends IsWidget,
 
         boolean rootsLoaded();
 
+        /**
+         * Brings the child folders under the given Folder in this view's TreeStore in line with the
+         * subfolders cached by the service facade, adding, removing and updating only the folders
+         * which changed. Falls back to {@link #reloadTreeStoreFolderChildren(Folder)} when the
+         * children aren't loaded in this view, or don't match the cached subfolders afterwards.
+         *
+         * @param folder The folder whose children were changed or refreshed.
+         */
+        void syncTreeStoreFolderChildren(Folder folder);
+
         void setMaskable(IsMaskable maskable);
 
         // FIXME Potentially do this via assisted inject
@@ -25,6 +25,7 @@ import org.iplantc.de.diskResource.client.presenters.DiskResourcePresenterImpl;
 import org.iplantc.de.diskResource.client.presenters.dataLink.DataLinkPresenterImpl;
 import org.iplantc.de.diskResource.client.presenters.details.DetailsViewPresenterImpl;
 import org.iplantc.de.diskResource.client.presenters.grid.GridViewPresenterImpl;
+import org.iplantc.de.diskResource.client.presenters.grid.proxy.FolderContentsPageCache;
 import org.iplantc.de.diskResource.client.presenters.grid.proxy.FolderContentsRpcProxyImpl;
 import org.iplantc.de.diskResource.client.presenters.navigation.NavigationPresenterImpl;
 import org.iplantc.de.diskResource.client.presenters.navigation.proxy.FolderRpcProxyImpl;
@@ -66,6 +67,8 @@ public class DiskResourceGinModule extends AbstractGinModule {
         install(new GinFactoryModuleBuilder()
                     .implement(GridView.FolderContentsRpcProxy.class, FolderContentsRpcProxyImpl.class)
                     .build(FolderContentsRpcProxyFactory.class));
+        // Eager, so that it sees folder events before the presenters which reload the grid.
+        bind(FolderContentsPageCache.class).asEagerSingleton();
 
         // Disk Resource Presenters
         bind(SearchView.Presenter.class).to(DataSearchPresenterImpl.class);
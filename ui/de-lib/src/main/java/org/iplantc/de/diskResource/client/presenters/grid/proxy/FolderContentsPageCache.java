@@ -0,0 +1,399 @@
+package org.iplantc.de.diskResource.client.presenters.grid.proxy;
+
+import org.iplantc.de.client.events.EventBus;
+import org.iplantc.de.client.events.diskResources.DiskResourcesMovedEvent;
+import org.iplantc.de.client.events.diskResources.FolderRefreshedEvent;
+import org.iplantc.de.client.models.HasPath;
+import org.iplantc.de.client.models.diskResources.DiskResource;
+import org.iplantc.de.client.models.diskResources.DiskResourceAutoBeanFactory;
+import org.iplantc.de.client.models.diskResources.File;
+import org.iplantc.de.client.models.diskResources.Folder;
+import org.iplantc.de.client.models.diskResources.TYPE;
+import org.iplantc.de.client.models.viewer.InfoType;
+import org.iplantc.de.client.services.DiskResourceServiceFacade;
+import org.iplantc.de.client.util.DiskResourceUtil;
+import org.iplantc.de.diskResource.client.events.DiskResourceRenamedEvent;
+import org.iplantc.de.diskResource.client.events.DiskResourcesDeletedEvent;
+import org.iplantc.de.diskResource.client.events.FileUploadedEvent;
+import org.iplantc.de.diskResource.client.events.FolderCreatedEvent;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.inject.Inject;
+
+import com.sencha.gxt.data.shared.SortDir;
+import com.sencha.gxt.data.shared.SortInfoBean;
+import com.sencha.gxt.data.shared.loader.FilterPagingLoadConfigBean;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used pages of directory listings, so that returning to a folder, changing
+ * the sort order back or scrolling back through a folder doesn't request and decode the same rows
+ * again.
+ *
+ * Pages are identified by the folder path, the sort column and direction, the offset and limit, the
+ * entity type and the info type filters. The live grid view asks for windows of rows whose offsets
+ * depend on the scroll position, so a request which doesn't match a cached page exactly is served
+ * from the cached pages of the same listing if together they hold every row in its range. Nothing is
+ * prefetched, since the live grid view already loads more rows than it shows.
+ *
+ * Cached pages are dropped after {@link #MAX_AGE_MS} milliseconds, and whenever one of the folder
+ * events which change a listing is fired. This cache has to be created before the presenters which
+ * reload the grid in response to those events, which is why it's bound as an eager singleton.
+ *
+ * @see FolderContentsRpcProxyImpl
+ */
+public class FolderContentsPageCache implements FolderCreatedEvent.FolderCreatedEventHandler,
+                                                DiskResourcesDeletedEvent.DiskResourcesDeletedEventHandler,
+                                                DiskResourceRenamedEvent.DiskResourceRenamedEventHandler,
+                                                DiskResourcesMovedEvent.DiskResourcesMovedEventHandler,
+                                                FolderRefreshedEvent.FolderRefreshedEventHandler,
+                                                FileUploadedEvent.FileUploadedEventHandler {
+
+    static final int MAX_PAGES = 50;
+    static final long MAX_AGE_MS = 60 * 1000;
+
+    /**
+     * A page which was loaded from the server.
+     */
+    private static final class CachedPage {
+        private final String key;
+        private final String path;
+        private final String listing;
+        private final int offset;
+        private final Folder contents;
+        private final List<DiskResource> rows;
+        private final boolean complete;
+        private final long loadedAt;
+
+        CachedPage(final String key,
+                   final String path,
+                   final String listing,
+                   final int offset,
+                   final int limit,
+                   final Folder contents,
+                   final long loadedAt) {
+            this.key = key;
+            this.path = path;
+            this.listing = listing;
+            this.offset = offset;
+            this.contents = contents;
+            this.rows = Lists.newArrayList(Iterables.concat(contents.getFolders(), contents.getFiles()));
+            this.loadedAt = loadedAt;
+            // Rows which the server left out of a short page would shift the positions of the rest.
+            this.complete = rows.size() >= limit || offset + rows.size() >= contents.getTotal();
+        }
+
+        boolean holds(final String listing, final int position) {
+            return complete
+                       && this.listing.equals(listing)
+                       && offset <= position
+                       && position < offset + rows.size();
+        }
+    }
+
+    /**
+     * A page which is being loaded, and the callbacks waiting for it.
+     */
+    private static final class PendingPage {
+        private final String path;
+        private final List<AsyncCallback<Folder>> callbacks = Lists.newArrayList();
+
+        PendingPage(final String path) {
+            this.path = path;
+        }
+    }
+
+    private final DiskResourceServiceFacade drService;
+    private final DiskResourceAutoBeanFactory drFactory;
+    private final DiskResourceUtil diskResourceUtil;
+    private final Map<String, PendingPage> pendingPages = Maps.newHashMap();
+    private final LinkedHashMap<String, CachedPage> pages = new LinkedHashMap<String, CachedPage>(MAX_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    @Inject
+    FolderContentsPageCache(final DiskResourceServiceFacade drService,
+                            final DiskResourceAutoBeanFactory drFactory,
+                            final EventBus eventBus) {
+        this(drService, drFactory, eventBus, DiskResourceUtil.getInstance());
+    }
+
+    FolderContentsPageCache(final DiskResourceServiceFacade drService,
+                            final DiskResourceAutoBeanFactory drFactory,
+                            final EventBus eventBus,
+                            final DiskResourceUtil diskResourceUtil) {
+        this.drService = drService;
+        this.drFactory = drFactory;
+        this.diskResourceUtil = diskResourceUtil;
+
+        eventBus.addHandler(FolderCreatedEvent.TYPE, this);
+        eventBus.addHandler(DiskResourcesDeletedEvent.TYPE, this);
+        eventBus.addHandler(DiskResourceRenamedEvent.TYPE, this);
+        eventBus.addHandler(DiskResourcesMovedEvent.TYPE, this);
+        eventBus.addHandler(FolderRefreshedEvent.TYPE, this);
+        eventBus.addHandler(FileUploadedEvent.TYPE, this);
+    }
+
+    /**
+     * Retrieves a page of the contents of the given folder, from the cache if possible. Takes the
+     * same arguments as
+     * {@link DiskResourceServiceFacade#getFolderContents(Folder, List, TYPE, FilterPagingLoadConfigBean, AsyncCallback)}.
+     */
+    public void getFolderContents(final Folder folder,
+                                  final List<InfoType> infoTypeFilterList,
+                                  final TYPE entityType,
+                                  final FilterPagingLoadConfigBean loadConfig,
+                                  final AsyncCallback<Folder> callback) {
+        final SortInfoBean sortInfo = Iterables.getFirst(loadConfig.getSortInfo(),
+                                                         new SortInfoBean("NAME", SortDir.ASC));
+        final String listing = listing(folder.getPath(), sortInfo, entityType, infoTypeFilterList);
+        final String key = Joiner.on('\n').join(listing, loadConfig.getOffset(), loadConfig.getLimit());
+
+        final CachedPage cached = pages.get(key);
+        if (cached != null && !isExpired(cached)) {
+            callback.onSuccess(cached.contents);
+            return;
+        }
+        final Folder covered = getCoveredRange(listing, loadConfig.getOffset(), loadConfig.getLimit());
+        if (covered != null) {
+            callback.onSuccess(covered);
+            return;
+        }
+
+        load(key, listing, folder, infoTypeFilterList, entityType, loadConfig, callback);
+    }
+
+    /**
+     * Assembles a page from the cached pages of a listing.
+     *
+     * @return the page, or null if the cached pages don't hold every row in the range.
+     */
+    private Folder getCoveredRange(final String listing, final int offset, final int limit) {
+        if (limit <= 0) {
+            return null;
+        }
+        final List<DiskResource> rows = Lists.newArrayList();
+        CachedPage last = null;
+        int position = offset;
+        int end = offset + limit;
+        while (position < end) {
+            final CachedPage page = findPage(listing, position);
+            if (page == null) {
+                return null;
+            }
+            end = Math.min(end, page.contents.getTotal());
+            final int to = Math.min(end, page.offset + page.rows.size());
+            if (to > position) {
+                rows.addAll(page.rows.subList(position - page.offset, to - page.offset));
+            }
+            position = to;
+            last = page;
+        }
+        if (last == null) {
+            return null;
+        }
+
+        final List<Folder> folders = Lists.newArrayList();
+        final List<File> files = Lists.newArrayList();
+        for (DiskResource row : rows) {
+            if (row instanceof Folder) {
+                folders.add((Folder)row);
+            } else {
+                files.add((File)row);
+            }
+        }
+        final Folder contents = drFactory.folder().as();
+        contents.setId(last.contents.getId());
+        contents.setPath(last.contents.getPath());
+        contents.setName(last.contents.getName());
+        contents.setTotal(last.contents.getTotal());
+        contents.setTotalFiltered(last.contents.getTotalFiltered());
+        contents.setFolders(folders);
+        contents.setFiles(files);
+        return contents;
+    }
+
+    /**
+     * Finds a cached page of a listing which holds the row at the given position, and marks it as
+     * used.
+     */
+    private CachedPage findPage(final String listing, final int position) {
+        for (CachedPage page : pages.values()) {
+            if (page.holds(listing, position) && !isExpired(page)) {
+                return pages.get(page.key);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Requests a page from the server, or waits for the request which is already loading it.
+     */
+    private void load(final String key,
+                      final String listing,
+                      final Folder folder,
+                      final List<InfoType> infoTypeFilterList,
+                      final TYPE entityType,
+                      final FilterPagingLoadConfigBean loadConfig,
+                      final AsyncCallback<Folder> callback) {
+        final PendingPage loading = pendingPages.get(key);
+        if (loading != null) {
+            loading.callbacks.add(callback);
+            return;
+        }
+
+        final int offset = loadConfig.getOffset();
+        final int limit = loadConfig.getLimit();
+        final PendingPage pending = new PendingPage(folder.getPath());
+        pending.callbacks.add(callback);
+        pendingPages.put(key, pending);
+        drService.getFolderContents(folder, infoTypeFilterList, entityType, loadConfig, new AsyncCallback<Folder>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                for (AsyncCallback<Folder> waiting : finish(key, pending)) {
+                    waiting.onFailure(caught);
+                }
+            }
+
+            @Override
+            public void onSuccess(Folder result) {
+                // A page whose folder changed while it was loading is handed out, but not kept.
+                final boolean current = pendingPages.get(key) == pending;
+                final List<AsyncCallback<Folder>> waiting = finish(key, pending);
+                if (current && result != null) {
+                    pages.put(key, new CachedPage(key, pending.path, listing, offset, limit, result, now()));
+                }
+                for (AsyncCallback<Folder> callback : waiting) {
+                    callback.onSuccess(result);
+                }
+            }
+        });
+    }
+
+    private List<AsyncCallback<Folder>> finish(final String key, final PendingPage pending) {
+        if (pendingPages.get(key) == pending) {
+            pendingPages.remove(key);
+        }
+        return Lists.newArrayList(pending.callbacks);
+    }
+
+    // <editor-fold desc="Event Handlers">
+    @Override
+    public void onFolderCreated(Folder parentFolder, Folder newFolder) {
+        if (parentFolder != null) {
+            invalidate(parentFolder.getPath(), false);
+        }
+    }
+
+    @Override
+    public void onDiskResourcesDeleted(Collection<DiskResource> resources, Folder parentFolder) {
+        // Deleted resources also show up in, or leave, the trash.
+        invalidateAll();
+    }
+
+    @Override
+    public void onRename(DiskResource originalDr, DiskResource newDr) {
+        invalidate(diskResourceUtil.parseParent(originalDr.getPath()), false);
+        if (originalDr instanceof Folder) {
+            invalidate(originalDr.getPath(), true);
+        }
+    }
+
+    @Override
+    public void onDiskResourcesMoved(DiskResourcesMovedEvent event) {
+        invalidate(event.getSrcFolder(), true);
+        invalidate(event.getDestinationFolder(), true);
+        if (event.getResourcesToMove() != null) {
+            for (DiskResource moved : event.getResourcesToMove()) {
+                invalidate(moved.getPath(), true);
+            }
+        }
+    }
+
+    @Override
+    public void onFolderRefreshed(FolderRefreshedEvent event) {
+        invalidate(event.getFolder(), true);
+    }
+
+    @Override
+    public void onFileUploaded(FileUploadedEvent event) {
+        invalidate(event.getUploadDestFolder(), false);
+    }
+    // </editor-fold>
+
+    /**
+     * Drops every cached page, and stops caching the pages which are loading.
+     */
+    public void invalidateAll() {
+        pages.clear();
+        pendingPages.clear();
+    }
+
+    private void invalidate(final HasPath folder, final boolean descendants) {
+        if (folder != null) {
+            invalidate(folder.getPath(), descendants);
+        }
+    }
+
+    /**
+     * Drops the cached pages of the folder with the given path, and stops caching its pages which
+     * are loading.
+     *
+     * @param descendants true if the pages of the folder's descendants should be dropped as well.
+     */
+    void invalidate(final String path, final boolean descendants) {
+        if (path == null) {
+            return;
+        }
+        for (Iterator<CachedPage> it = pages.values().iterator(); it.hasNext();) {
+            if (matches(it.next().path, path, descendants)) {
+                it.remove();
+            }
+        }
+        for (Iterator<PendingPage> it = pendingPages.values().iterator(); it.hasNext();) {
+            if (matches(it.next().path, path, descendants)) {
+                it.remove();
+            }
+        }
+    }
+
+    private static boolean matches(final String pagePath, final String path, final boolean descendants) {
+        return pagePath != null
+                   && (pagePath.equals(path) || (descendants && pagePath.startsWith(path + "/")));
+    }
+
+    private boolean isExpired(final CachedPage page) {
+        return now() - page.loadedAt > MAX_AGE_MS;
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * @return the part of a page's key which identifies the listing it belongs to.
+     */
+    private static String listing(final String path,
+                                  final SortInfoBean sortInfo,
+                                  final TYPE entityType,
+                                  final List<InfoType> infoTypeFilterList) {
+        return Joiner.on('\n').useForNull("")
+                     .join(path,
+                           sortInfo.getSortField(),
+                           sortInfo.getSortDir(),
+                           entityType,
+                           infoTypeFilterList == null ? "" : Joiner.on(',').join(infoTypeFilterList));
+    }
+}
@@ -6,7 +6,6 @@ import org.iplantc.de.client.models.diskResources.Folder;
 import org.iplantc.de.client.models.diskResources.TYPE;
 import org.iplantc.de.client.models.search.DiskResourceQueryTemplate;
 import org.iplantc.de.client.models.viewer.InfoType;
-import org.iplantc.de.client.services.DiskResourceServiceFacade;
 import org.iplantc.de.client.services.FileSystemMetadataServiceFacade;
 import org.iplantc.de.client.services.SearchServiceFacade;
 import org.iplantc.de.commons.client.info.ErrorAnnouncementConfig;
@@ -203,7 +202,7 @@ public class FolderContentsRpcProxyImpl extends RpcProxy<FolderContentsLoadConfi
         }
     }
 
-    private final DiskResourceServiceFacade drService;
+    private final FolderContentsPageCache pageCache;
     private final SearchServiceFacade searchService;
     private final FileSystemMetadataServiceFacade metadataService;
     private final IplantAnnouncer announcer;
@@ -215,14 +214,14 @@ public class FolderContentsRpcProxyImpl extends RpcProxy<FolderContentsLoadConfi
     final Logger LOG = Logger.getLogger(FolderContentsRpcProxyImpl.class.getName());
 
     @AssistedInject
-    FolderContentsRpcProxyImpl(final DiskResourceServiceFacade drService,
+    FolderContentsRpcProxyImpl(final FolderContentsPageCache pageCache,
                                final SearchServiceFacade searchService,
                                final FileSystemMetadataServiceFacade metadataService,
                                final IplantAnnouncer announcer,
                                final GridView.Presenter.Appearance appearance,
                                @Assisted final List<InfoType> infoTypeFilterList,
                                @Assisted final TYPE entityType){
-        this.drService = drService;
+        this.pageCache = pageCache;
         this.searchService = searchService;
         this.announcer = announcer;
         this.appearance = appearance;
@@ -267,7 +266,7 @@ public class FolderContentsRpcProxyImpl extends RpcProxy<FolderContentsLoadConfi
                                                                                   appearance,
                                                                                   hasSafeHtml));
         } else {
-            drService.getFolderContents(folder,
+            pageCache.getFolderContents(folder,
                                         infoTypeFilterList,
                                         entityType,
                                         loadConfig,
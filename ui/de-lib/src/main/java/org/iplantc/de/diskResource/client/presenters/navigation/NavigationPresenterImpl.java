@@ -36,9 +36,11 @@ import org.iplantc.de.diskResource.client.views.navigation.NavigationViewDnDHand
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.inject.Inject;
 
 import com.sencha.gxt.data.shared.TreeStore;
@@ -49,6 +51,7 @@ import com.sencha.gxt.widget.core.client.tree.Tree;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author jstroot
@@ -197,7 +200,7 @@ public class NavigationPresenterImpl implements
 
     @Override
     public void onDiskResourcesDeleted(Collection<DiskResource> resources, Folder parentFolder) {
-        reloadTreeStoreFolderChildren(parentFolder);
+        syncTreeStoreFolderChildren(parentFolder);
     }
 
     @Override
@@ -221,7 +224,7 @@ public class NavigationPresenterImpl implements
 
     @Override
     public void onFolderCreated(Folder parentFolder, Folder newFolder) {
-        reloadTreeStoreFolderChildren(parentFolder);
+        syncTreeStoreFolderChildren(parentFolder);
     }
 
     @Override
@@ -248,13 +251,14 @@ public class NavigationPresenterImpl implements
     public void onRename(DiskResource originalDr, DiskResource newDr) {
         Folder parent = getFolderByPath(diskResourceUtil.parseParent(newDr.getPath()));
         if (parent != null) {
-            reloadTreeStoreFolderChildren(parent);
+            syncTreeStoreFolderChildren(parent);
         }
     }
 
     @Override
     public void onFolderRefreshed(FolderRefreshedEvent event) {
-        reloadTreeStoreFolderChildren(event.getFolder());
+        // A refresh discards the cached listings of the folder's descendants as well.
+        syncTreeStoreFolderChildren(event.getFolder(), true);
     }
 
     @Override
@@ -323,6 +327,22 @@ public class NavigationPresenterImpl implements
         view.getTree().setExpanded(folder, true);
     }
 
+    @Override
+    public void expandFolderPath(final Folder folder, final String path) {
+        folderRpcProxy.loadPath(path, new AsyncCallback<List<Folder>>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                // The folders along the path will be listed as they are expanded instead.
+                expandFolder(folder);
+            }
+
+            @Override
+            public void onSuccess(List<Folder> result) {
+                expandFolder(folder);
+            }
+        });
+    }
+
     @Override
     public Tree.TreeNode<Folder> findTreeNode(Element el) {
         return view.getTree().findNode(el);
@@ -414,6 +434,57 @@ public class NavigationPresenterImpl implements
         }
     }
 
+    @Override
+    public void syncTreeStoreFolderChildren(final Folder folder) {
+        syncTreeStoreFolderChildren(folder, false);
+    }
+
+    /**
+     * @param syncDescendants true if the loaded descendants of the folder should be brought up to
+     *                        date as well, which is only needed after a refresh.
+     */
+    void syncTreeStoreFolderChildren(final Folder folder, final boolean syncDescendants) {
+        if (folder == null || treeStore.findModel(folder) == null) {
+            return;
+        }
+
+        final Tree.TreeNode<Folder> node = view.getTree().findNode(folder);
+        if (node == null || !node.isLoaded()) {
+            // There are no children to keep, so loading them is as cheap as merging them.
+            reloadTreeStoreFolderChildren(folder);
+            return;
+        }
+
+        // The service facade has already applied the change to its cached subfolders, so this is
+        // usually answered without a service call.
+        folderRpcProxy.load(folder, new AsyncCallback<List<Folder>>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                // The proxy has already reported the error, and the tree is left as it was.
+            }
+
+            @Override
+            public void onSuccess(List<Folder> subfolders) {
+                if (!mergeChildren(folder, subfolders)) {
+                    reloadTreeStoreFolderChildren(folder);
+                    return;
+                }
+                if (syncDescendants) {
+                    syncLoadedDescendants(folder);
+                }
+
+                Folder selectedFolder = getSelectedFolder();
+                if (selectedFolder != null
+                        && !(selectedFolder instanceof DiskResourceQueryTemplate)
+                        && (folder.getId().equals(selectedFolder.getId())
+                                || diskResourceUtil.isDescendantOfFolder(folder, selectedFolder))) {
+                    // Re-select selectedFolder to reload its contents.
+                    setSelectedFolder((HasPath)selectedFolder);
+                }
+            }
+        });
+    }
+
     @Override
     public boolean rootsLoaded() {
         return treeStore.getRootCount() > 0;
@@ -489,6 +560,80 @@ public class NavigationPresenterImpl implements
         view.getTree().findNode(folder).setLoaded(false);
     }
 
+    /**
+     * Brings the children of the given folder in this view's TreeStore in line with the given
+     * subfolders, by removing, adding and updating only the folders which differ. The nodes of the
+     * folders which didn't change are kept, along with any children they have loaded.
+     *
+     * @return false if the TreeStore doesn't match the subfolders afterwards, in which case the
+     * children have to be reloaded.
+     */
+    boolean mergeChildren(final Folder folder, final List<Folder> subfolders) {
+        if (subfolders == null || treeStore.findModel(folder) == null) {
+            return false;
+        }
+
+        final Set<String> subfolderIds = Sets.newHashSet();
+        for (Folder subfolder : subfolders) {
+            subfolderIds.add(subfolder.getId());
+        }
+        for (Folder child : Lists.newArrayList(treeStore.getChildren(folder))) {
+            if (!subfolderIds.contains(child.getId())) {
+                treeStore.remove(child);
+            }
+        }
+
+        for (Folder subfolder : subfolders) {
+            final Folder current = treeStore.findModelWithKey(subfolder.getId());
+            if (current == null) {
+                treeStore.add(folder, subfolder);
+            } else if (treeStore.getParent(current) == null
+                           || !folder.getId().equals(treeStore.getParent(current).getId())) {
+                // The folder was moved here from somewhere else in the tree.
+                treeStore.remove(current);
+                treeStore.add(folder, subfolder);
+            } else if (current != subfolder) {
+                treeStore.update(subfolder);
+            }
+        }
+
+        return treeStore.getChildCount(folder) == subfolders.size();
+    }
+
+    /**
+     * Brings the loaded descendants of the given folder up to date, since a refresh discards their
+     * cached listings. Expanded subfolders are merged with their listings in turn, which the service
+     * facade answers from its cache unless the listing was discarded; collapsed subfolders are
+     * unloaded, so that they're listed again when they're expanded.
+     */
+    void syncLoadedDescendants(final Folder folder) {
+        for (final Folder child : Lists.newArrayList(treeStore.getChildren(folder))) {
+            final Tree.TreeNode<Folder> node = view.getTree().findNode(child);
+            if (node == null || !node.isLoaded()) {
+                continue;
+            }
+            if (!view.getTree().isExpanded(child)) {
+                removeChildren(child);
+                continue;
+            }
+            folderRpcProxy.load(child, new AsyncCallback<List<Folder>>() {
+                @Override
+                public void onFailure(Throwable caught) {
+                    // The proxy has already reported the error, and the subtree is left as it was.
+                }
+
+                @Override
+                public void onSuccess(List<Folder> subfolders) {
+                    if (mergeChildren(child, subfolders)) {
+                        syncLoadedDescendants(child);
+                    } else {
+                        reloadTreeStoreFolderChildren(child);
+                    }
+                }
+            });
+        }
+    }
+
     void updateQueryTemplate(DiskResourceQueryTemplate queryTemplate) {
         Preconditions.checkNotNull(queryTemplate);
 
@@ -192,6 +192,11 @@ public class FolderRpcProxyImpl extends RpcProxy<Folder, List<Folder>> implement
         }
     }
 
+    @Override
+    public void loadPath(final String path, final AsyncCallback<List<Folder>> callback) {
+        drService.getSubFoldersAlongPath(path, callback);
+    }
+
     @Override
     public void setMaskable(IsMaskable maskable) {
         this.isMaskable = maskable;
@@ -171,9 +171,11 @@ public class SelectFolderByPathLoadHandler implements LoadHandler<Folder, List<F
                 // wasn't found, so refresh that parent.
                 refreshFolder(folder);
             } else {
-                // Once a valid folder is found in the view, remotely load the folder, which will add the
-                // next folder in the path to the view's treeStore.
-                navigationPresenter.expandFolder(folder);
+                // Once a valid folder is found in the view, list every folder along the rest of the path
+                // in one request, then expand the folder. Its load event adds the cached folders along
+                // the path to the view's treeStore, so each following expansion is served from the
+                // cache and the target is selected without another round trip.
+                navigationPresenter.expandFolderPath(folder, folderToSelect.getPath());
             }
         }
     }
@@ -0,0 +1,52 @@
+package org.iplantc.de.diskResource.client.views.grid;
+
+import org.iplantc.de.client.models.diskResources.DiskResource;
+import org.iplantc.de.diskResource.client.GridView;
+
+import com.sencha.gxt.widget.core.client.grid.LiveGridView;
+
+/**
+ * The buffered view of the data grid. Only the visible rows are rendered, and only a window of
+ * {@link #CACHE_SIZE} rows around them is kept in memory. Scrolling outside of the window loads the
+ * window around the new position through the grid's loader, so folders of any size can be browsed
+ * without paging.
+ */
+public class DiskResourceLiveGridView extends LiveGridView<DiskResource> {
+
+    /**
+     * The number of rows which are loaded and kept at a time.
+     */
+    static final int CACHE_SIZE = 500;
+
+    private final GridView.Appearance appearance;
+
+    public DiskResourceLiveGridView(final GridView.Appearance appearance) {
+        this.appearance = appearance;
+        setCacheSize(CACHE_SIZE);
+    }
+
+    /**
+     * Scrolls the grid so that the row at the given offset is the first visible row. The window
+     * around that row is loaded if it isn't already.
+     *
+     * @param offset the zero-based offset of the row within the listing.
+     */
+    public void scrollToOffset(final int offset) {
+        if (liveScroller == null) {
+            return;
+        }
+        final int lastTopRow = Math.max(0, totalCount - getVisibleRowCount());
+        final int row = Math.max(0, Math.min(offset, lastTopRow));
+        // The scroll handler of the live scroller loads the new window.
+        liveScroller.setScrollTop(row * getRowHeight());
+    }
+
+    @Override
+    protected void insertRows(int firstRow, int lastRow, boolean isUpdate) {
+        super.insertRows(firstRow, lastRow, isUpdate);
+
+        // CORE-5723 KLUDGE for Firefox bug with LiveGridView row height calculation.
+        // Always use a row height of 25 for now.
+        setRowHeight(appearance.liveGridViewRowHeight());
+    }
+}
@@ -22,6 +22,7 @@ import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.event.dom.client.KeyCodes;
 import com.google.gwt.event.dom.client.KeyPressEvent;
+import com.google.gwt.event.dom.client.KeyPressHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiFactory;
@@ -41,11 +42,12 @@ import com.sencha.gxt.dnd.core.client.DropTarget;
 import com.sencha.gxt.widget.core.client.ContentPanel;
 import com.sencha.gxt.widget.core.client.Status;
 import com.sencha.gxt.widget.core.client.container.VerticalLayoutContainer;
+import com.sencha.gxt.widget.core.client.form.NumberField;
+import com.sencha.gxt.widget.core.client.form.NumberPropertyEditor;
 import com.sencha.gxt.widget.core.client.form.TextField;
 import com.sencha.gxt.widget.core.client.grid.ColumnModel;
 import com.sencha.gxt.widget.core.client.grid.Grid;
 import com.sencha.gxt.widget.core.client.grid.LiveGridCheckBoxSelectionModel;
-import com.sencha.gxt.widget.core.client.grid.LiveGridView;
 import com.sencha.gxt.widget.core.client.grid.LiveToolItem;
 import com.sencha.gxt.widget.core.client.selection.SelectionChangedEvent;
 import com.sencha.gxt.widget.core.client.toolbar.FillToolItem;
@@ -65,7 +67,7 @@ public class GridViewImpl extends ContentPanel implements GridView,
     @UiField(provided = true) final ListStore<DiskResource> listStore;
     @UiField ColumnModel<DiskResource> cm;
     @UiField Grid<DiskResource> grid;
-    @UiField LiveGridView gridView;
+    @UiField DiskResourceLiveGridView gridView;
     @UiField ToolBar pagingToolBar;
     @UiField TextField pathField;
     private static final GridViewImplUiBinder ourUiBinder = GWT.create(GridViewImplUiBinder.class);
@@ -74,6 +76,7 @@ public class GridViewImpl extends ContentPanel implements GridView,
     private final PagingLoader<FolderContentsLoadConfig, PagingLoadResult<DiskResource>> gridLoader;
     private final Status selectionStatus;
     private final LiveGridCheckBoxSelectionModel sm;
+    private final NumberField<Integer> goToItemField;
 
     @Inject
     GridViewImpl(final GridView.Appearance appearance,
@@ -111,7 +114,20 @@ public class GridViewImpl extends ContentPanel implements GridView,
         liveToolItem.setWidth(appearance.liveToolItemWidth());
         selectionStatus.setWidth(appearance.selectionStatusItemWidth());
 
+        goToItemField = new NumberField<>(new NumberPropertyEditor.IntegerPropertyEditor());
+        goToItemField.setEmptyText(appearance.goToItemFieldEmptyText());
+        goToItemField.setWidth(appearance.goToItemFieldWidth());
+        goToItemField.setAllowNegative(false);
+        goToItemField.setAllowDecimals(false);
+        goToItemField.addKeyPressHandler(new KeyPressHandler() {
+            @Override
+            public void onKeyPress(KeyPressEvent event) {
+                onGoToItemFieldKeyPress(event);
+            }
+        });
+
         pagingToolBar.add(liveToolItem);
+        pagingToolBar.add(goToItemField);
         pagingToolBar.add(new FillToolItem());
         pagingToolBar.add(selectionStatus);
         appearance.setPagingToolBarStyle(pagingToolBar);
@@ -237,6 +253,11 @@ public class GridViewImpl extends ContentPanel implements GridView,
         return sm;
     }
 
+    @Override
+    public void scrollToOffset(int offset) {
+        gridView.scrollToOffset(offset);
+    }
+
     @Override
     public void setSingleSelect() {
         grid.getSelectionModel().setSelectionMode(SINGLE);
@@ -255,20 +276,8 @@ public class GridViewImpl extends ContentPanel implements GridView,
     }
 
     @UiFactory
-    LiveGridView<DiskResource> createLiveGridView() {
-        // CORE-5723 KLUDGE for Firefox bug with LiveGridView row height calculation.
-        // Always use a row height of 25 for now.
-
-        final LiveGridView<DiskResource> liveGridView = new LiveGridView<DiskResource>() {
-            @Override
-            protected void insertRows(int firstRow, int lastRow, boolean isUpdate) {
-                super.insertRows(firstRow, lastRow, isUpdate);
-
-                setRowHeight(appearance.liveGridViewRowHeight());
-            }
-        };
-        liveGridView.setCacheSize(500);
-        return liveGridView;
+    DiskResourceLiveGridView createLiveGridView() {
+        return new DiskResourceLiveGridView(appearance);
     }
 
     @UiHandler("pathField")
@@ -281,6 +290,16 @@ public class GridViewImpl extends ContentPanel implements GridView,
         }
     }
 
+    void onGoToItemFieldKeyPress(KeyPressEvent event) {
+        final Integer item = goToItemField.getCurrentValue();
+        if (event.getNativeEvent().getKeyCode() == KeyCodes.KEY_ENTER
+                && item != null
+                && item > 0) {
+            // Items are numbered from 1 in the live tool item.
+            scrollToOffset(item - 1);
+        }
+    }
+
     private void reconfigureToListingView() {
         sm.setShowSelectAll(true);
         // hide Path.
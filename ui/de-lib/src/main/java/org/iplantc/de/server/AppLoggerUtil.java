@@ -1,6 +1,8 @@
 package org.iplantc.de.server;
 
 import static org.iplantc.de.server.AppLoggerConstants.REQUEST_ID_HEADER;
+import static org.iplantc.de.server.AppLoggerConstants.REQUEST_KEY;
+import static org.iplantc.de.server.AppLoggerConstants.RESPONSE_KEY;
 import org.iplantc.de.shared.services.BaseServiceCallWrapper;
 
 import com.google.common.base.Preconditions;
@@ -8,17 +10,23 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
 import com.google.common.net.InetAddresses;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.apache.commons.io.output.StringBuilderWriter;
 import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.jasig.cas.client.authentication.AttributePrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.security.cas.authentication.CasAuthenticationToken;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +34,11 @@ import java.util.UUID;
 
 /**
  * Utility for creating objects for logging context.
+ *
+ * The API metrics request and response entries are written as JSON straight from the HTTP request
+ * or response, with a shared {@link JsonFactory} and a per-thread buffer, instead of being built up
+ * as maps first. Nothing is serialized when the API metrics logger is disabled.
+ *
  * @author jstroot
  */
 public class AppLoggerUtil {
@@ -33,6 +46,23 @@ public class AppLoggerUtil {
     private static AppLoggerUtil INSTANCE;
     private final Logger API_METRICS_LOG = LoggerFactory.getLogger(AppLoggerConstants.API_METRICS_LOGGER);
 
+    /**
+     * Object mappers are thread-safe once configured, so a single one is shared.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory JSON_FACTORY = MAPPER.getFactory();
+
+    /**
+     * Buffers larger than this aren't kept for reuse, so that one large entry doesn't pin memory.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024;
+    private static final ThreadLocal<StringBuilderWriter> JSON_BUFFER = new ThreadLocal<StringBuilderWriter>() {
+        @Override
+        protected StringBuilderWriter initialValue() {
+            return new StringBuilderWriter(1024);
+        }
+    };
+
     AppLoggerUtil() {
     }
 
@@ -108,8 +138,60 @@ public class AppLoggerUtil {
 
     public String createMdcRequestMapAsJsonString(final HttpRequestBase request) throws JsonProcessingException {
         Map<String, Object> requestMap = createMdcRequestMap(request, null);
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.writeValueAsString(requestMap);
+        return MAPPER.writeValueAsString(requestMap);
+    }
+
+    /**
+     * Serializes the same entry as {@link #createMdcRequestMap(HttpRequestBase, String)}, without
+     * building the intermediate maps.
+     */
+    public String createMdcRequestJson(final HttpRequestBase request, final String body) throws IOException {
+        final URI uri = request.getURI();
+        final StringBuilderWriter buffer = getJsonBuffer();
+        final JsonGenerator json = JSON_FACTORY.createGenerator(buffer);
+        json.writeStartObject();
+        if (API_METRICS_LOG.isTraceEnabled() && !Strings.isNullOrEmpty(body)) {
+            json.writeStringField("body", body);
+        }
+        json.writeStringField("uri", uri.getPath());
+        json.writeStringField("path-info", uri.getPath());
+        json.writeStringField("protocol", request.getProtocolVersion().toString());
+        writeHeaders(json, request.getAllHeaders());
+        json.writeStringField("server-port", Integer.toString(uri.getPort()));
+        json.writeStringField("server-name", uri.getHost());
+        json.writeStringField("query-string", uri.getQuery());
+        writeQueryParams(json, uri.getQuery());
+        json.writeStringField("scheme", uri.getScheme());
+        json.writeStringField("request-method", request.getMethod());
+        json.writeEndObject();
+        json.close();
+        return buffer.toString();
+    }
+
+    /**
+     * Logs a request sent to a backend service, with the request's details in the {@link MDC}.
+     * Nothing is serialized if the API metrics logger is disabled.
+     *
+     * @param request the request.
+     * @param body the request body, which is only logged at the trace level. May be null.
+     * @param method the request method, for the log message.
+     * @param endpoint the request's path, for the log message.
+     */
+    public void logApiRequest(final HttpRequestBase request,
+                              final String body,
+                              final String method,
+                              final String endpoint) {
+        if (!API_METRICS_LOG.isInfoEnabled()) {
+            return;
+        }
+        try {
+            MDC.put(REQUEST_KEY, createMdcRequestJson(request, body));
+            API_METRICS_LOG.info("{} {}", method, endpoint);
+        } catch (IOException e) {
+            API_METRICS_LOG.error(method + " " + endpoint, e);
+        } finally {
+            MDC.remove(REQUEST_KEY);
+        }
     }
 
     public Map<String, Object> createMdcResponseMap(final HttpResponse response,
@@ -139,8 +221,61 @@ public class AppLoggerUtil {
                                            final String body,
                                            final long requestTime) throws JsonProcessingException {
         final Map<String, Object> map = createMdcResponseMap(response, type, endpoint, body, requestTime);
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.writeValueAsString(map);
+        return MAPPER.writeValueAsString(map);
+    }
+
+    /**
+     * Serializes the same entry as {@link #createMdcResponseMap}, without building the
+     * intermediate maps.
+     */
+    public String createMdcResponseJson(final HttpResponse response,
+                                        final BaseServiceCallWrapper.Type type,
+                                        final String endpoint,
+                                        final String body,
+                                        final long requestTime) throws IOException {
+        final StringBuilderWriter buffer = getJsonBuffer();
+        final JsonGenerator json = JSON_FACTORY.createGenerator(buffer);
+        json.writeStartObject();
+        writeHeaders(json, response.getAllHeaders());
+        json.writeStringField("request-method", type.toString());
+        json.writeNumberField("status", response.getStatusLine().getStatusCode());
+        json.writeStringField("uri", endpoint);
+        json.writeStringField("path-info", endpoint);
+        json.writeNumberField("request-time", requestTime);
+        if (API_METRICS_LOG.isTraceEnabled() && !Strings.isNullOrEmpty(body)) {
+            json.writeStringField("body", body);
+        }
+        json.writeEndObject();
+        json.close();
+        return buffer.toString();
+    }
+
+    /**
+     * Logs a response from a backend service, with the response's details in the {@link MDC}.
+     * Nothing is serialized if the API metrics logger is disabled.
+     *
+     * @param response the response.
+     * @param type the request method.
+     * @param endpoint the request's path.
+     * @param body the response body, which is only logged at the trace level. May be null.
+     * @param requestTime the number of milliseconds the service took to respond.
+     */
+    public void logApiResponse(final HttpResponse response,
+                               final BaseServiceCallWrapper.Type type,
+                               final String endpoint,
+                               final String body,
+                               final long requestTime) {
+        if (!API_METRICS_LOG.isInfoEnabled()) {
+            return;
+        }
+        try {
+            MDC.put(RESPONSE_KEY, createMdcResponseJson(response, type, endpoint, body, requestTime));
+            API_METRICS_LOG.info("{} {}", type, endpoint);
+        } catch (IOException e) {
+            API_METRICS_LOG.error(type + " " + endpoint, e);
+        } finally {
+            MDC.remove(RESPONSE_KEY);
+        }
     }
 
     public Map<String, Object> createUserInfoMap(CasAuthenticationToken authenticationToken){
@@ -155,6 +290,55 @@ public class AppLoggerUtil {
         return userInfoMap;
     }
 
+    public String createUserInfoJson(CasAuthenticationToken authenticationToken) throws JsonProcessingException {
+        return MAPPER.writeValueAsString(createUserInfoMap(authenticationToken));
+    }
+
+    private StringBuilderWriter getJsonBuffer() {
+        StringBuilderWriter buffer = JSON_BUFFER.get();
+        if (buffer.getBuilder().capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            buffer = new StringBuilderWriter(1024);
+            JSON_BUFFER.set(buffer);
+        }
+        buffer.getBuilder().setLength(0);
+        return buffer;
+    }
+
+    /**
+     * Writes the headers as an object. As with {@link #getHeaderMap(Header[])}, only the last of
+     * several headers with the same name is kept.
+     */
+    private void writeHeaders(final JsonGenerator json, final Header[] headers) throws IOException {
+        json.writeObjectFieldStart("headers");
+        for (int i = 0; i < headers.length; i++) {
+            if (!isRepeatedLater(headers, i)) {
+                json.writeStringField(headers[i].getName(), headers[i].getValue());
+            }
+        }
+        json.writeEndObject();
+    }
+
+    private boolean isRepeatedLater(final Header[] headers, final int index) {
+        for (int j = index + 1; j < headers.length; j++) {
+            if (headers[j].getName().equals(headers[index].getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the query string parameters as an object, or null if there are none. As with
+     * {@link #getQueryStringMap(String)}, only the last of several values for a parameter is kept.
+     */
+    private void writeQueryParams(final JsonGenerator json, final String queryString) throws IOException {
+        if (Strings.isNullOrEmpty(queryString)) {
+            json.writeNullField("query-params");
+            return;
+        }
+        json.writeObjectField("query-params", getQueryStringMap(queryString));
+    }
+
     private Map<String, String> getHeaderMap(final Header[] headers){
         Map<String, String> headerMap = Maps.newHashMap();
         for(Header header : headers){
@@ -170,9 +354,12 @@ public class AppLoggerUtil {
         final Map<String, String> queryStringMap = Maps.newHashMap();
         String[] params = queryString.split("&");
         for(String param : params){
-            String name = param.split("=")[0];
-            String value = param.split("=")[1];
-            queryStringMap.put(name, value);
+            final int equals = param.indexOf('=');
+            if (equals < 0) {
+                queryStringMap.put(param, "");
+            } else {
+                queryStringMap.put(param.substring(0, equals), param.substring(equals + 1));
+            }
         }
         return queryStringMap;
     }
@@ -3,21 +3,37 @@ package org.iplantc.de.server;
 import org.iplantc.de.shared.exceptions.UnresolvableServiceNameException;
 import org.iplantc.de.shared.services.BaseServiceCallWrapper;
 
+import com.google.common.collect.ImmutableMap;
+
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
+ * Resolves service keys, such as {@code org.iplantc.services.apps.categories}, to service URLs.
+ *
+ * The base URLs of all services whose keys start with the configured prefix are read into an
+ * immutable index when the properties are set, and again whenever the application context is
+ * refreshed, so that resolving a key doesn't have to search every property source. Keys which are
+ * only found in non-enumerable property sources are still looked up in the environment.
+ *
  * @author jstroot
  */
 @Component
-public class ServiceCallResolver {
+public class ServiceCallResolver implements ApplicationListener<ContextRefreshedEvent> {
     private static final Logger LOG = LoggerFactory.getLogger(ServiceCallResolver.class);
     private static final String PREFIX_KEY = "prefix";
 
@@ -29,11 +45,62 @@ public class ServiceCallResolver {
         this.environment = environment;
         setPrefix();
         validatePrefix();
+        serviceCallPattern = NamedServiceCall.compilePattern(prefix);
+        refresh();
     }
 
 //    private Properties appProperties;
     private String prefix;
 
+    /**
+     * Matches named service calls; compiled once for the configured prefix.
+     */
+    private Pattern serviceCallPattern;
+
+    /**
+     * The base URL of each named service, keyed by service name. Replaced as a whole on refresh.
+     */
+    private volatile Map<String, String> serviceBaseUrls = ImmutableMap.of();
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Rebuilds the index of service base URLs from the environment's current property sources.
+     */
+    public void refresh() {
+        final Map<String, String> urls = new HashMap<>();
+        if (environment instanceof ConfigurableEnvironment) {
+            for (PropertySource<?> source : ((ConfigurableEnvironment)environment).getPropertySources()) {
+                if (!(source instanceof EnumerablePropertySource)) {
+                    continue;
+                }
+                for (String name : ((EnumerablePropertySource<?>)source).getPropertyNames()) {
+                    if (name.startsWith(prefix) && !urls.containsKey(name)) {
+                        final String url = environment.getProperty(name);
+                        if (url != null) {
+                            urls.put(name, url);
+                        }
+                    }
+                }
+            }
+        }
+        serviceBaseUrls = ImmutableMap.copyOf(urls);
+        LOG.info("Indexed {} service base URLs", urls.size());
+    }
+
+    /**
+     * Gets the base URL for a named service, preferring the index to the environment.
+     *
+     * @return the base URL, or null if the service name isn't defined.
+     */
+    private String getServiceBaseUrl(String serviceName) {
+        final String url = serviceBaseUrls.get(serviceName);
+        return url != null ? url : environment.getProperty(serviceName);
+    }
+
     private void validatePrefix() {
         if (StringUtils.isEmpty(prefix)) {
             throw new IllegalArgumentException("Properties argument must contain a property defining "
@@ -68,14 +135,25 @@ public class ServiceCallResolver {
      * @throws UnresolvableServiceNameException if the service name can't be resolved.
      */
     public String resolveAddress(String serviceName) {
-        NamedServiceCall serviceCall = NamedServiceCall.parse(prefix, serviceName);
-        final String retVal = serviceCall == null ? serviceName : serviceCall.resolve(environment);
+        NamedServiceCall serviceCall = NamedServiceCall.parse(serviceCallPattern, serviceName);
+        final String retVal = serviceCall == null ? serviceName : serviceCall.resolve(this);
         LOG.debug("\"{}\" resolved to: {}", serviceName, retVal);
         return retVal;
     }
 
     /**
-     * Represents a named service call that can be resolved against a set of properties.
+     * Gets the service key of a named service call, without any additional path or query string.
+     *
+     * @param address the address of the call, which may or may not be a named service call.
+     * @return the service key, or null if the address isn't a named service call.
+     */
+    public String getServiceKey(String address) {
+        final Matcher matcher = serviceCallPattern.matcher(address);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Represents a named service call that can be resolved against the index of service base URLs.
      */
     private static class NamedServiceCall {
 
@@ -124,24 +202,33 @@ public class ServiceCallResolver {
                          "query = {}", serviceName, additionalPath, query);
         }
 
+        /**
+         * Compiles the pattern which matches named service calls.
+         *
+         * @param prefix the property name prefix for named service calls.
+         * @return the pattern.
+         */
+        static Pattern compilePattern(String prefix) {
+            return Pattern.compile("(\\Q" + prefix + "\\E[^/?]+)(/[^?]*)?(\\?.*)?");
+        }
+
         /**
          * Parses an address into a named service call.  If the address appears to correspond to a named service
          * call then a new NamedServiceCall will be returned.  Otherwise, null will be returned.
          *
-         * @param prefix the property name prefix for named service calls.
+         * @param pattern the pattern which matches named service calls.
          * @param address the address to convert.
          * @return the NamedServiceCall instance or null if the address doesn't represent a named service call.
          */
-        public static NamedServiceCall parse(String prefix, String address) {
-            Pattern pattern = Pattern.compile("(\\Q" + prefix + "\\E[^/?]+)(/[^?]*)?(\\?.*)?");
+        public static NamedServiceCall parse(Pattern pattern, String address) {
             Matcher matcher = pattern.matcher(address);
             if (matcher.matches()) {
                 return new NamedServiceCall(matcher.group(1), matcher.group(2), matcher.group(3));
             }
             else {
                 LOG.debug("Parsing failed for;\n\t" +
-                              "prefix = {}\n\t" +
-                              "address = {}", prefix, address);
+                              "pattern = {}\n\t" +
+                              "address = {}", pattern, address);
                 return null;
             }
         }
@@ -149,12 +236,12 @@ public class ServiceCallResolver {
         /**
          * Resolves a named service call.
          *
-         * @param props the properties to use when resolving the call.
+         * @param resolver the resolver whose service base URLs are used to resolve the call.
          * @return the resolved URL.
          * @throws UnresolvableServiceNameException if the service name isn't found in the properties.
          */
-        public String resolve(Environment props) {
-            final String retVal = getServiceBaseUrl(props) + getAdditionalPath() + getQuery();
+        public String resolve(ServiceCallResolver resolver) {
+            final String retVal = getServiceBaseUrl(resolver) + getAdditionalPath() + getQuery();
             LOG.trace("RESOLVED\n\t" +
                           "service name: {}\n\t" +
                           "to: {}", serviceName, retVal);
@@ -164,12 +251,12 @@ public class ServiceCallResolver {
         /**
          * Gets the base URL for this named service call.
          *
-         * @param props the properties to use when resolving the service call.
+         * @param resolver the resolver whose service base URLs are used to resolve the call.
          * @return the base URL to use when connecting to the service.
          * @throws UnresolvableServiceNameException if the service name isn't found in the properties.
          */
-        private String getServiceBaseUrl(Environment props) {
-            String result = props.getProperty(serviceName);
+        private String getServiceBaseUrl(ServiceCallResolver resolver) {
+            String result = resolver.getServiceBaseUrl(serviceName);
             if (result == null) {
                 LOG.error("unknown service name: {}", serviceName);
 //                if (LOG.isDebugEnabled()) {
@@ -3,17 +3,19 @@ package org.iplantc.de.server.auth;
 import static org.iplantc.de.server.AppLoggerConstants.FWDED_FOR_IP_HEADER_NAME;
 import static org.iplantc.de.server.AppLoggerConstants.USER_IP_HEADER_NAME;
 import org.iplantc.de.server.AppLoggerUtil;
+import org.iplantc.de.server.http.PooledHttpClientEngine;
 
 import com.google.common.base.Strings;
 
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.client.params.HttpClientParams;
 import org.apache.http.client.utils.URIBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -28,15 +30,20 @@ abstract class BaseUrlConnector implements UrlConnector {
 
     private AppLoggerUtil appLoggerUtil = AppLoggerUtil.getInstance();
 
+    @Autowired private PooledHttpClientEngine httpClientEngine;
+
     /**
-     * Disables redirects for an HTTP request.
+     * Disables redirects for an HTTP request. The pool's default request configuration is copied so
+     * that its timeouts still apply to the request.
      *
      * @param request the request.
      * @param <T> the type of the request.
      * @return the original request.
      */
     protected <T extends HttpRequestBase> T disableRedirects(T request) {
-        HttpClientParams.setRedirecting(request.getParams(), false);
+        request.setConfig(RequestConfig.copy(httpClientEngine.getRequestConfig())
+                                       .setRedirectsEnabled(false)
+                                       .build());
         return request;
     }
 
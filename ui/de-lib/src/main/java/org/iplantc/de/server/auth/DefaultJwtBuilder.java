@@ -1,10 +1,17 @@
 package org.iplantc.de.server.auth;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 import org.jasig.cas.client.authentication.AttributePrincipal;
 import org.jose4j.jws.AlgorithmIdentifiers;
 import org.jose4j.jws.JsonWebSignature;
 import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.NumericDate;
 import org.jose4j.lang.JoseException;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -12,6 +19,12 @@ import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.security.PrivateKey;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import static org.iplantc.de.server.auth.PemKeyUtils.loadPrivateKey;
 import static org.iplantc.de.server.util.CasUtils.attributePrincipalFromServletRequest;
@@ -19,16 +32,60 @@ import static org.iplantc.de.server.util.CasUtils.attributePrincipalFromServletR
 /**
  * Builds signed JWTs for the current user.
  *
+ * Signing is expensive, so signed JWTs are cached for a short reuse window, keyed by the user's name
+ * and every attribute which is placed in the claims. A burst of requests from the same user will
+ * share a single signature, while any change to the user's attributes produces a new JWT. Each JWT
+ * expires at the end of its validity window, which must outlast the reuse window.
+ *
  * @author dennis
  */
 @Component
-public class DefaultJwtBuilder implements JwtBuilder {
+public class DefaultJwtBuilder implements JwtBuilder, InitializingBean {
+
+    private static final Pattern BLANK = Pattern.compile("^\\s*$");
+    private static final Pattern SURROUNDING_BRACKETS = Pattern.compile("^\\s*\\[|\\]\\s*$");
+    private static final Pattern GROUP_SEPARATOR = Pattern.compile(",\\s*");
 
     @Value("${org.iplantc.discoveryenvironment.jwt.private-key-path}") private String privateKeyPath;
     @Value("${org.iplantc.discoveryenvironment.jwt.private-key-password}") private String privateKeyPassword;
+    @Value("${org.iplantc.discoveryenvironment.jwt.validity-window.end:300}") private long validityWindowEnd;
+    @Value("${org.iplantc.discoveryenvironment.jwt.reuse-window:30}") private long reuseWindow;
+    @Value("${org.iplantc.discoveryenvironment.jwt.cache.max-size:10000}") private long maxCacheSize;
 
     private PrivateKey privateKey;
 
+    /**
+     * Signed JWTs keyed by the user's name and attributes. Null if JWTs are not reused.
+     */
+    private Cache<List<String>, String> jwtCache;
+
+    public DefaultJwtBuilder() {
+    }
+
+    DefaultJwtBuilder(PrivateKey privateKey, long validityWindowEnd, long reuseWindow, long maxCacheSize) {
+        this.privateKey = privateKey;
+        this.validityWindowEnd = validityWindowEnd;
+        this.reuseWindow = reuseWindow;
+        this.maxCacheSize = maxCacheSize;
+        afterPropertiesSet();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (reuseWindow >= validityWindowEnd) {
+            throw new IllegalArgumentException("The JWT reuse window (" + reuseWindow
+                                               + "s) must be shorter than the JWT validity window ("
+                                               + validityWindowEnd + "s)");
+        }
+        if (reuseWindow > 0 && maxCacheSize > 0) {
+            jwtCache = CacheBuilder.newBuilder()
+                                   .maximumSize(maxCacheSize)
+                                   .expireAfterWrite(reuseWindow, TimeUnit.SECONDS)
+                                   .recordStats()
+                                   .build();
+        }
+    }
+
     private PrivateKey getPrivateKey() {
         if (privateKey == null) {
             try {
@@ -46,18 +103,66 @@ public class DefaultJwtBuilder implements JwtBuilder {
     public String buildJwt(final HttpServletRequest request) throws JoseException {
         final AttributePrincipal principal = attributePrincipalFromServletRequest(request);
 
-        // Extract the user's first and last name from the attributes.
+        // Extract the user's details from the attributes.
+        final String username = principal.getName();
+        final String email = getStringAttribute(principal, "email");
         final String firstName = getStringAttribute(principal, "firstName");
         final String lastName = getStringAttribute(principal, "lastName");
+        final String entitlement = getStringAttribute(principal, "entitlement");
+
+        if (jwtCache == null) {
+            return signJwt(username, email, firstName, lastName, entitlement);
+        }
+
+        try {
+            return jwtCache.get(Arrays.asList(username, email, firstName, lastName, entitlement),
+                                new Callable<String>() {
+                                    @Override
+                                    public String call() throws JoseException {
+                                        return signJwt(username, email, firstName, lastName, entitlement);
+                                    }
+                                });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JoseException) {
+                throw (JoseException) e.getCause();
+            }
+            throw new JoseException("Unable to build and sign JWT", e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * @return the hit, miss and eviction counts for the signed JWT cache, or null if JWTs are not
+     * reused.
+     */
+    public CacheStats getCacheStats() {
+        return jwtCache == null ? null : jwtCache.stats();
+    }
+
+    /**
+     * Builds the claims for a user and signs them.
+     *
+     * @return the signed and encoded JWT.
+     * @throws JoseException if the JWT can't be signed.
+     */
+    private String signJwt(final String username,
+                           final String email,
+                           final String firstName,
+                           final String lastName,
+                           final String entitlement) throws JoseException {
 
         // Build the JWT claims.
+        final NumericDate issuedAt = NumericDate.now();
         JwtClaims claims = new JwtClaims();
-        claims.setSubject(principal.getName());
-        claims.setClaim("email", getStringAttribute(principal, "email"));
+        claims.setSubject(username);
+        claims.setIssuedAt(issuedAt);
+        claims.setExpirationTime(NumericDate.fromSeconds(issuedAt.getValue() + validityWindowEnd));
+        claims.setClaim("email", email);
         claims.setClaim("given_name", firstName);
         claims.setClaim("family_name", lastName);
         claims.setClaim("name", firstName + " " + lastName);
-        claims.setClaim("org.iplantc.de:entitlement", extractGroups(principal));
+        claims.setClaim("org.iplantc.de:entitlement", extractGroups(entitlement));
 
         // Sign the key.
         JsonWebSignature jws = new JsonWebSignature();
@@ -84,16 +189,15 @@ public class DefaultJwtBuilder implements JwtBuilder {
     /**
      * Extracts the groups from the user's {@code entitlement} attribute.
      *
-     * @param principal the attribute principal from the incoming request.
+     * @param groupStr the user's {@code entitlement} attribute.
      * @return the list of groups.
      */
-    private String[] extractGroups(final AttributePrincipal principal) {
-        final String groupStr = getStringAttribute(principal, "entitlement");
-        if (groupStr == null || groupStr.matches("^\\s*$")) {
+    private String[] extractGroups(final String groupStr) {
+        if (groupStr == null || BLANK.matcher(groupStr).matches()) {
             return null;
         }
 
         // Remove the leading and trailing square brackets then split the string.
-        return groupStr.replaceAll("^\\s*\\[|\\]\\s*$", "").split(",\\s*");
+        return GROUP_SEPARATOR.split(SURROUNDING_BRACKETS.matcher(groupStr).replaceAll(""));
     }
 }
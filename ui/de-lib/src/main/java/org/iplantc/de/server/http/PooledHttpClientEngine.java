@@ -0,0 +1,292 @@
+package org.iplantc.de.server.http;
+
+import org.iplantc.de.server.AppLoggerConstants;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the pooled HTTP clients used by the DE web tier to talk to backend services.
+ *
+ * Connections are kept alive and reused across requests, limited per route and in total, and
+ * evicted by a background monitor once they expire or have been idle for too long. Callers must
+ * never close the client returned by {@link #getClient()}; they should close (or fully consume)
+ * each response instead so that its connection is returned to the pool.
+ *
+ * A non-blocking client with its own pool of the same size is also available through
+ * {@link #executeAsync(HttpUriRequest, FutureCallback)}, which caps the number of asynchronous
+ * requests in flight.
+ */
+@Component
+public class PooledHttpClientEngine implements InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledHttpClientEngine.class);
+    private final Logger API_METRICS_LOG = LoggerFactory.getLogger(AppLoggerConstants.API_METRICS_LOGGER);
+
+    @Value("${org.iplantc.discoveryenvironment.http-client.max-connections:200}") private int maxTotal;
+    @Value("${org.iplantc.discoveryenvironment.http-client.max-connections-per-route:50}") private int maxPerRoute;
+    @Value("${org.iplantc.discoveryenvironment.http-client.connect-timeout-ms:10000}") private int connectTimeout;
+    @Value("${org.iplantc.discoveryenvironment.http-client.socket-timeout-ms:300000}") private int socketTimeout;
+    @Value("${org.iplantc.discoveryenvironment.http-client.connection-request-timeout-ms:10000}") private int connectionRequestTimeout;
+    @Value("${org.iplantc.discoveryenvironment.http-client.keep-alive-ms:60000}") private long keepAlive;
+    @Value("${org.iplantc.discoveryenvironment.http-client.idle-timeout-ms:30000}") private long idleTimeout;
+    @Value("${org.iplantc.discoveryenvironment.http-client.validate-after-inactivity-ms:2000}") private int validateAfterInactivity;
+    @Value("${org.iplantc.discoveryenvironment.http-client.async.max-in-flight:400}") private int maxAsyncInFlight;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient client;
+    private PoolingNHttpClientConnectionManager asyncConnectionManager;
+    private CloseableHttpAsyncClient asyncClient;
+    private Semaphore asyncPermits;
+    private RequestConfig requestConfig;
+    private ScheduledExecutorService monitor;
+
+    @Override
+    public void afterPropertiesSet() {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+
+        requestConfig = RequestConfig.custom()
+                                     .setConnectTimeout(connectTimeout)
+                                     .setSocketTimeout(socketTimeout)
+                                     .setConnectionRequestTimeout(connectionRequestTimeout)
+                                     .build();
+
+        client = HttpClients.custom()
+                            .setConnectionManager(connectionManager)
+                            .setDefaultRequestConfig(requestConfig)
+                            .setKeepAliveStrategy(new CappedKeepAliveStrategy(keepAlive))
+                            .build();
+
+        createAsyncClient();
+
+        monitor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "de-http-pool-monitor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final long period = Math.max(1000L, Math.min(idleTimeout, keepAlive) / 2);
+        monitor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                evictConnections();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+
+        LOG.info("HTTP connection pool created: max-connections = {}, max-connections-per-route = {}",
+                 maxTotal, maxPerRoute);
+    }
+
+    private void createAsyncClient() {
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                                                               .setConnectTimeout(connectTimeout)
+                                                               .setSoTimeout(socketTimeout)
+                                                               .build();
+        try {
+            asyncConnectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Unable to create the asynchronous HTTP connection pool", e);
+        }
+        asyncConnectionManager.setMaxTotal(maxTotal);
+        asyncConnectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+        asyncClient = HttpAsyncClients.custom()
+                                      .setConnectionManager(asyncConnectionManager)
+                                      .setDefaultRequestConfig(requestConfig)
+                                      .setKeepAliveStrategy(new CappedKeepAliveStrategy(keepAlive))
+                                      .build();
+        asyncClient.start();
+        asyncPermits = new Semaphore(maxAsyncInFlight);
+    }
+
+    @Override
+    public void destroy() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        IOUtils.closeQuietly(client);
+        IOUtils.closeQuietly(asyncClient);
+        if (connectionManager != null) {
+            connectionManager.shutdown();
+        }
+    }
+
+    /**
+     * @return the shared, pooled HTTP client. This client must not be closed by callers.
+     */
+    public CloseableHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Sends a request with the non-blocking client. The callback is invoked on one of the client's
+     * I/O threads once the whole response has been received, so it must not block.
+     *
+     * @param request the request to send.
+     * @param callback notified when the request completes, fails or is cancelled.
+     * @return the future response.
+     * @throws RejectedExecutionException if the maximum number of asynchronous requests are already
+     * in flight.
+     */
+    public Future<HttpResponse> executeAsync(final HttpUriRequest request,
+                                             final FutureCallback<HttpResponse> callback) {
+        if (!asyncPermits.tryAcquire()) {
+            throw new RejectedExecutionException("Too many asynchronous requests in flight: " + maxAsyncInFlight);
+        }
+        try {
+            return asyncClient.execute(request, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse result) {
+                    asyncPermits.release();
+                    callback.completed(result);
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    asyncPermits.release();
+                    callback.failed(ex);
+                }
+
+                @Override
+                public void cancelled() {
+                    asyncPermits.release();
+                    callback.cancelled();
+                }
+            });
+        } catch (RuntimeException e) {
+            asyncPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of asynchronous requests currently in flight.
+     */
+    public int getAsyncInFlight() {
+        return maxAsyncInFlight - asyncPermits.availablePermits();
+    }
+
+    /**
+     * Requests which need to override a setting should copy this configuration with
+     * {@link RequestConfig#copy(RequestConfig)} so that the pool timeouts still apply.
+     *
+     * @return the default configuration applied to every request sent through the pool.
+     */
+    public RequestConfig getRequestConfig() {
+        return requestConfig;
+    }
+
+    /**
+     * @return the utilization of the whole pool; leased, pending, available and max connections.
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * @return the utilization of the asynchronous client's pool.
+     */
+    public PoolStats getAsyncTotalStats() {
+        return asyncConnectionManager.getTotalStats();
+    }
+
+    /**
+     * @return the utilization of the pool for each route which currently has pooled connections,
+     * keyed by target host.
+     */
+    public Map<String, PoolStats> getRouteStats() {
+        Map<String, PoolStats> stats = new HashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            stats.put(route.getTargetHost().toURI(), connectionManager.getStats(route));
+        }
+        return stats;
+    }
+
+    /**
+     * Closes expired and idle connections, then logs the pool utilization.
+     */
+    void evictConnections() {
+        try {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            asyncConnectionManager.closeExpiredConnections();
+            asyncConnectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            if (API_METRICS_LOG.isDebugEnabled()) {
+                API_METRICS_LOG.debug("HTTP connection pool: {}, async pool: {}, async in flight: {}",
+                                      getTotalStats(), getAsyncTotalStats(), getAsyncInFlight());
+            }
+        } catch (Exception e) {
+            LOG.warn("Unable to evict pooled HTTP connections", e);
+        }
+    }
+
+    /**
+     * Honors the {@code Keep-Alive: timeout} value sent by the server, but never keeps a connection
+     * alive for longer than the configured maximum.
+     */
+    static final class CappedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+        private final long maxKeepAlive;
+
+        CappedKeepAliveStrategy(long maxKeepAlive) {
+            this.maxKeepAlive = maxKeepAlive;
+        }
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (it.hasNext()) {
+                HeaderElement element = it.nextElement();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Math.min(Long.parseLong(element.getValue()) * 1000, maxKeepAlive);
+                    } catch (NumberFormatException ignore) {
+                        // Fall through to the configured maximum.
+                    }
+                }
+            }
+            return maxKeepAlive;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package org.iplantc.de.server.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * In-process request metrics for the DE web tier.
+ *
+ * Requests are grouped by component, such as the services proxy or the file controllers. Each
+ * component has a gauge of the requests in flight, a count of errors, and a {@link LatencyHistogram}
+ * for every combination of endpoint, HTTP method and status class it has seen. Errors are requests
+ * which failed with an exception, and requests which ended with a 5xx status.
+ *
+ * This is a singleton, rather than a Spring bean, so that classes which aren't created by Spring,
+ * such as the websocket handlers, can record their requests too. Recording a request doesn't lock
+ * or allocate once its histogram exists. The number of endpoints per component is capped, and
+ * requests to any further endpoints are grouped under {@value #OTHER_ENDPOINT}, so that endpoint
+ * names containing IDs can't exhaust the heap.
+ */
+public final class ApiMetrics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ApiMetrics.class);
+
+    public static final String SERVICES = "services";
+    public static final String FILE_DOWNLOAD = "file-download";
+    public static final String FILE_UPLOAD = "file-upload";
+    public static final String WEBSOCKET = "websocket";
+
+    /**
+     * The status to record for a request which failed with an exception instead of a response.
+     */
+    public static final int FAILED = 0;
+
+    static final String OTHER_ENDPOINT = "other";
+    static final int MAX_ENDPOINTS = 250;
+
+    private static final String[] STATUS_CLASSES = {"error", "1xx", "2xx", "3xx", "4xx", "5xx"};
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+    private static final Pattern ID_SEGMENT = Pattern.compile("/[^/]*[0-9][^/]*");
+
+    private static final ApiMetrics INSTANCE = new ApiMetrics();
+
+    private final ConcurrentMap<String, ComponentMetrics> components = new ConcurrentHashMap<>();
+
+    ApiMetrics() {
+    }
+
+    public static ApiMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Marks the start of a request.
+     *
+     * @param component the component handling the request.
+     * @return the start time, to be passed to {@link #end}.
+     */
+    public long begin(String component) {
+        getComponent(component).inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a request which was started with {@link #begin}, and records its latency.
+     *
+     * @param component the component handling the request.
+     * @param method the HTTP method, or another verb describing the request.
+     * @param endpoint the endpoint label, usually from {@link #endpointLabel(String)}.
+     * @param status the response status, or {@link #FAILED} if the request failed with an exception.
+     * @param startTime the start time returned by {@link #begin}.
+     */
+    public void end(String component, String method, String endpoint, int status, long startTime) {
+        final ComponentMetrics metrics = getComponent(component);
+        metrics.inFlight.decrementAndGet();
+        metrics.record(method, endpoint, status, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Records the latency of a request without affecting the in-flight gauge.
+     *
+     * @param nanos the latency, in nanoseconds.
+     */
+    public void record(String component, String method, String endpoint, int status, long nanos) {
+        getComponent(component).record(method, endpoint, status, nanos);
+    }
+
+    /**
+     * Counts an error which isn't associated with a single request, such as a dropped connection.
+     */
+    public void error(String component) {
+        getComponent(component).errors.incrementAndGet();
+    }
+
+    /**
+     * Increments a component's in-flight gauge for a long-lived request, such as a websocket.
+     */
+    public void opened(String component) {
+        getComponent(component).inFlight.incrementAndGet();
+    }
+
+    /**
+     * Decrements a component's in-flight gauge once a long-lived request ends.
+     */
+    public void closed(String component) {
+        getComponent(component).inFlight.decrementAndGet();
+    }
+
+    public int getInFlight(String component) {
+        return getComponent(component).inFlight.get();
+    }
+
+    public long getErrorCount(String component) {
+        return getComponent(component).errors.get();
+    }
+
+    /**
+     * @return the histogram for an endpoint, method and status, or null if nothing was recorded.
+     */
+    LatencyHistogram getHistogram(String component, String method, String endpoint, int status) {
+        final EndpointMetrics endpointMetrics = getComponent(component).endpoints.get(endpoint);
+        if (endpointMetrics == null) {
+            return null;
+        }
+        final AtomicReferenceArray<LatencyHistogram> histograms = endpointMetrics.methods.get(method);
+        return histograms == null ? null : histograms.get(statusClass(status));
+    }
+
+    /**
+     * Builds a summary of every component's metrics, suitable for serializing as JSON. Latencies are
+     * reported in milliseconds.
+     *
+     * @return the summary, keyed by component name.
+     */
+    public Map<String, Object> snapshot() {
+        final Map<String, Object> result = new TreeMap<>();
+        for (Map.Entry<String, ComponentMetrics> component : components.entrySet()) {
+            result.put(component.getKey(), component.getValue().snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * Reduces a request address to a low-cardinality label. The scheme, host and query string are
+     * removed, and every path segment containing a digit, such as an ID, is replaced by {@code *}.
+     *
+     * @param address the address or path of the request.
+     * @return the label.
+     */
+    public static String endpointLabel(String address) {
+        if (address == null || address.isEmpty()) {
+            return OTHER_ENDPOINT;
+        }
+        int start = 0;
+        final int schemeEnd = address.indexOf("://");
+        if (schemeEnd >= 0) {
+            final int pathStart = address.indexOf('/', schemeEnd + 3);
+            start = pathStart < 0 ? address.length() : pathStart;
+        }
+        int end = address.indexOf('?', start);
+        if (end < 0) {
+            end = address.length();
+        }
+        final String path = address.substring(start, end);
+        return path.isEmpty() ? "/" : ID_SEGMENT.matcher(path).replaceAll("/*");
+    }
+
+    private static int statusClass(int status) {
+        return status >= 100 && status < 600 ? status / 100 : 0;
+    }
+
+    private ComponentMetrics getComponent(String component) {
+        ComponentMetrics metrics = components.get(component);
+        if (metrics == null) {
+            final ComponentMetrics created = new ComponentMetrics(component);
+            metrics = components.putIfAbsent(component, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    private static final class ComponentMetrics {
+
+        private final String name;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong errors = new AtomicLong();
+        private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+        ComponentMetrics(String name) {
+            this.name = name;
+        }
+
+        void record(String method, String endpoint, int status, long nanos) {
+            final int statusClass = statusClass(status);
+            if (statusClass == 0 || statusClass == 5) {
+                errors.incrementAndGet();
+            }
+            getEndpoint(endpoint).getHistogram(method, statusClass).record(nanos);
+        }
+
+        private EndpointMetrics getEndpoint(String endpoint) {
+            EndpointMetrics metrics = endpoints.get(endpoint);
+            if (metrics != null) {
+                return metrics;
+            }
+            if (endpoints.size() >= MAX_ENDPOINTS) {
+                endpoint = OTHER_ENDPOINT;
+                metrics = endpoints.get(OTHER_ENDPOINT);
+                if (metrics != null) {
+                    return metrics;
+                }
+                LOG.warn("More than {} {} endpoints; recording the rest as \"{}\"",
+                         MAX_ENDPOINTS, name, OTHER_ENDPOINT);
+            }
+            final EndpointMetrics created = new EndpointMetrics();
+            metrics = endpoints.putIfAbsent(endpoint, created);
+            return metrics == null ? created : metrics;
+        }
+
+        Map<String, Object> snapshot() {
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("in-flight", inFlight.get());
+            result.put("errors", errors.get());
+
+            final Map<String, Object> latencies = new TreeMap<>();
+            for (Map.Entry<String, EndpointMetrics> endpoint : endpoints.entrySet()) {
+                endpoint.getValue().snapshot(endpoint.getKey(), latencies);
+            }
+            result.put("latency-ms", latencies);
+            return result;
+        }
+    }
+
+    private static final class EndpointMetrics {
+
+        private final ConcurrentMap<String, AtomicReferenceArray<LatencyHistogram>> methods = new ConcurrentHashMap<>();
+
+        LatencyHistogram getHistogram(String method, int statusClass) {
+            AtomicReferenceArray<LatencyHistogram> histograms = methods.get(method);
+            if (histograms == null) {
+                final AtomicReferenceArray<LatencyHistogram> created = new AtomicReferenceArray<>(STATUS_CLASSES.length);
+                histograms = methods.putIfAbsent(method, created);
+                if (histograms == null) {
+                    histograms = created;
+                }
+            }
+            LatencyHistogram histogram = histograms.get(statusClass);
+            if (histogram == null) {
+                histograms.compareAndSet(statusClass, null, new LatencyHistogram());
+                histogram = histograms.get(statusClass);
+            }
+            return histogram;
+        }
+
+        void snapshot(String endpoint, Map<String, Object> latencies) {
+            for (Map.Entry<String, AtomicReferenceArray<LatencyHistogram>> method : methods.entrySet()) {
+                final AtomicReferenceArray<LatencyHistogram> histograms = method.getValue();
+                for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                    final LatencyHistogram histogram = histograms.get(i);
+                    if (histogram != null) {
+                        latencies.put(method.getKey() + " " + endpoint + " " + STATUS_CLASSES[i],
+                                      summarize(histogram));
+                    }
+                }
+            }
+        }
+
+        private static Map<String, Object> summarize(LatencyHistogram histogram) {
+            final Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", histogram.getCount());
+            summary.put("mean", toMillis(histogram.getMeanMicros()));
+            final long[] percentiles = histogram.getPercentileMicros(PERCENTILES);
+            for (int i = 0; i < percentiles.length; i++) {
+                summary.put(PERCENTILE_NAMES[i], toMillis(percentiles[i]));
+            }
+            summary.put("max", toMillis(histogram.getMaxMicros()));
+            return summary;
+        }
+
+        private static double toMillis(double micros) {
+            return Math.round(micros / TimeUnit.MILLISECONDS.toMicros(1) * 1000) / 1000.0;
+        }
+    }
+}
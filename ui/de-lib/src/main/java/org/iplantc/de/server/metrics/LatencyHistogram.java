@@ -0,0 +1,127 @@
+package org.iplantc.de.server.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free histogram of latencies, in the style of an HDR histogram.
+ *
+ * Latencies are recorded in microseconds into log-linear buckets: every power of two is split into
+ * {@value #SUB_BUCKETS} equal sub-buckets, so each recorded value is accurate to within about 6%
+ * from one microsecond up to the cap of about 19 hours. Recording a value is a handful of atomic
+ * increments, with no allocation and no locking, so it is cheap enough for every request.
+ *
+ * Percentiles are computed from a snapshot of the bucket counts, which is not atomic with respect
+ * to concurrent recordings; this is good enough for monitoring.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The largest recordable latency, in microseconds; larger values are recorded as this one.
+     */
+    static final long MAX_MICROS = (1L << 36) - 1;
+
+    private static final int BUCKET_COUNT = bucketIndex(MAX_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency, in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        final long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_MICROS);
+        counts.incrementAndGet(bucketIndex(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return the mean latency, in microseconds.
+     */
+    public double getMeanMicros() {
+        final long n = count.get();
+        return n == 0 ? 0 : (double)totalMicros.get() / n;
+    }
+
+    /**
+     * @return the largest recorded latency, in microseconds.
+     */
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Computes several percentiles from a single snapshot of the bucket counts.
+     *
+     * @param percentiles the percentiles to compute, each between 0 and 100, in ascending order.
+     * @return the latency at each percentile, in microseconds. Each value is the upper bound of the
+     *         bucket containing the percentile, capped at the largest recorded latency.
+     */
+    public long[] getPercentileMicros(double... percentiles) {
+        final long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+
+        final long[] values = new long[percentiles.length];
+        if (total == 0) {
+            return values;
+        }
+        final long max = maxMicros.get();
+        int bucket = 0;
+        long seen = snapshot[0];
+        for (int p = 0; p < percentiles.length; p++) {
+            final long rank = Math.max(1, (long)Math.ceil(percentiles[p] / 100.0 * total));
+            while (seen < rank && bucket < BUCKET_COUNT - 1) {
+                seen += snapshot[++bucket];
+            }
+            values[p] = Math.min(bucketUpperBound(bucket), max);
+        }
+        return values;
+    }
+
+    /**
+     * @return the index of the bucket which holds a latency.
+     */
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int)micros;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int)(micros >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the largest latency, in microseconds, which is recorded in a bucket.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lowerBound = (long)(SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
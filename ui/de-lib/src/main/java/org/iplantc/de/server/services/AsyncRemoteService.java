@@ -0,0 +1,44 @@
+package org.iplantc.de.server.services;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+import org.apache.http.concurrent.Cancellable;
+
+import java.lang.reflect.Method;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * This interface is for wrapped RPC implementations which can complete some of their methods
+ * without holding the servlet thread while a backend service responds.
+ *
+ * The RPC controller decodes the request as usual, then hands asynchronous methods to
+ * {@link #invokeAsync(HttpServletRequest, Method, Object[], AsyncCallback)} and suspends the servlet
+ * request until the callback is notified.
+ */
+public interface AsyncRemoteService {
+
+    /**
+     * @param method the decoded RPC method.
+     * @return true if the method should be invoked with
+     * {@link #invokeAsync(HttpServletRequest, Method, Object[], AsyncCallback)}.
+     */
+    boolean isAsync(Method method);
+
+    /**
+     * Starts an asynchronous method call. Any work which requires the servlet request must be done
+     * before this method returns, since the callback may be notified on another thread.
+     *
+     * @param request the servlet request on whose behalf the call is made.
+     * @param method the decoded RPC method.
+     * @param parameters the decoded RPC parameters.
+     * @param callback notified exactly once with the method's return value or the exception it
+     * would have thrown.
+     * @return a handle which aborts the requests the call still has in flight, e.g. when the RPC
+     * request times out, or null if the call has nothing in flight.
+     */
+    Cancellable invokeAsync(HttpServletRequest request,
+                     Method method,
+                     Object[] parameters,
+                     AsyncCallback<Object> callback);
+}
@@ -1,60 +1,97 @@
 package org.iplantc.de.server.services;
 
-import static org.iplantc.de.server.AppLoggerConstants.REQUEST_KEY;
-import static org.iplantc.de.server.AppLoggerConstants.RESPONSE_KEY;
 import org.iplantc.de.server.AppLoggerConstants;
 import org.iplantc.de.server.AppLoggerUtil;
 import org.iplantc.de.server.ServiceCallResolver;
 import org.iplantc.de.server.auth.UrlConnector;
+import org.iplantc.de.server.http.PooledHttpClientEngine;
+import org.iplantc.de.server.metrics.ApiMetrics;
+import org.iplantc.de.server.util.ServletUtils;
 import org.iplantc.de.shared.exceptions.AuthenticationException;
 import org.iplantc.de.shared.exceptions.HttpException;
 import org.iplantc.de.shared.exceptions.HttpRedirectException;
 import org.iplantc.de.shared.services.BaseServiceCallWrapper;
 import org.iplantc.de.shared.services.DEService;
+import org.iplantc.de.shared.services.ServiceCallResult;
 import org.iplantc.de.shared.services.ServiceCallWrapper;
 
+import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.rpc.SerializationException;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import org.apache.commons.io.IOUtils;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.Cancellable;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 /**
  * Dispatches HTTP requests to other services.
  *
+ * Calls to {@code getServiceData} may also be dispatched asynchronously, in which case the request
+ * is sent with the non-blocking client and the servlet thread is released while the service
+ * responds. The calls in a {@code getServiceDataBatch} request are always sent concurrently.
+ *
+ * If a {@link ServiceResponseCache} is set, the responses to cacheable GET calls are served from it
+ * while they are fresh, and revalidated with the service once they become stale.
+ *
+ * The latency and status of every call are recorded in {@link ApiMetrics}, keyed by the service key
+ * of the call, or by its path if it doesn't use a service key.
+ *
  * @author jstroot
  */
 public class DEServiceImpl implements DEService,
-                                      HasHttpServletRequest {
+                                      HasHttpServletRequest,
+                                      AsyncRemoteService {
     private final Logger API_METRICS_LOG = LoggerFactory.getLogger(AppLoggerConstants.API_METRICS_LOGGER);
     private final AppLoggerUtil loggerUtil = AppLoggerUtil.getInstance();
+    private final ApiMetrics metrics = ApiMetrics.getInstance();
+
 
     /**
-     * The current servlet request.
+     * The default for {@link #setBatchTimeout(long)}, which matches the default asynchronous RPC
+     * timeout.
      */
-    private HttpServletRequest request = null;
+    static final long DEFAULT_BATCH_TIMEOUT_MS = 330000;
+
+    /**
+     * The servlet request being handled by the current thread. This service is shared by all
+     * servlet threads, so the request must never be stored in a plain field.
+     */
+    private final ThreadLocal<HttpServletRequest> request = new ThreadLocal<>();
 
     private ServiceCallResolver serviceResolver;
 
@@ -63,10 +100,39 @@ public class DEServiceImpl implements DEService,
      */
     private UrlConnector urlConnector;
 
+    /**
+     * The shared, pooled client used to send requests to the services.
+     */
+    private PooledHttpClientEngine httpClientEngine;
+
+    /**
+     * The cache for responses to read-mostly service calls, or null if responses aren't cached.
+     */
+    private ServiceResponseCache responseCache;
+
+    /**
+     * How long {@link #getServiceDataBatch(ArrayList)} waits for the calls of a batch.
+     */
+    private long batchTimeout = DEFAULT_BATCH_TIMEOUT_MS;
+
     public DEServiceImpl(final ServiceCallResolver serviceResolver,
-                         final UrlConnector urlConnector) {
+                         final UrlConnector urlConnector,
+                         final PooledHttpClientEngine httpClientEngine) {
         this.urlConnector = urlConnector;
         this.serviceResolver = serviceResolver;
+        this.httpClientEngine = httpClientEngine;
+    }
+
+    public void setResponseCache(final ServiceResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * @param batchTimeout the number of milliseconds a batch dispatched synchronously may take;
+     * this should match the RPC controller's asynchronous timeout.
+     */
+    public void setBatchTimeout(final long batchTimeout) {
+        this.batchTimeout = batchTimeout;
     }
 
     /**
@@ -84,17 +150,12 @@ public class DEServiceImpl implements DEService,
         if (isValidServiceCall(wrapper)) {
             String address = retrieveServiceAddress(wrapper);
 
-            CloseableHttpClient client = HttpClients.createDefault();
             try {
-                json = getResponse(client, wrapper, address);
-
-
+                json = getResponse(httpClientEngine.getClient(), getRequest(), wrapper, address);
             } catch (AuthenticationException | HttpException ex) {
                 throw ex;
             } catch (Exception ex) {
                 throw new SerializationException(ex);
-            } finally {
-                IOUtils.closeQuietly(client);
             }
         }
         return json;
@@ -125,21 +186,359 @@ public class DEServiceImpl implements DEService,
     }
 
     /**
-     * Sets the current servlet request.
+     * Dispatches the calls concurrently with the non-blocking client and waits for all of them to
+     * complete, for at most {@link #setBatchTimeout(long) the batch timeout}. This is only used when
+     * the RPC controller can't dispatch the batch asynchronously.
+     */
+    @Override
+    public ArrayList<ServiceCallResult> getServiceDataBatch(final ArrayList<ServiceCallWrapper> wrappers) throws SerializationException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<ArrayList<ServiceCallResult>> results = new AtomicReference<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Cancellable inFlight = dispatchBatch(getRequest(), wrappers, new AsyncCallback<ArrayList<ServiceCallResult>>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                failure.set(caught);
+                latch.countDown();
+            }
+
+            @Override
+            public void onSuccess(ArrayList<ServiceCallResult> result) {
+                results.set(result);
+                latch.countDown();
+            }
+        });
+        try {
+            if (!latch.await(batchTimeout, TimeUnit.MILLISECONDS)) {
+                if (inFlight != null) {
+                    inFlight.cancel();
+                }
+                throw new SerializationException("Batch of " + wrappers.size() + " calls timed out after "
+                                                 + batchTimeout + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SerializationException(e);
+        }
+
+        final Throwable caught = failure.get();
+        if (caught instanceof SerializationException) {
+            throw (SerializationException)caught;
+        } else if (caught != null) {
+            throw new SerializationException(caught);
+        }
+        return results.get();
+    }
+
+    @Override
+    public boolean isAsync(Method method) {
+        return "getServiceData".equals(method.getName())
+                   || "getServiceDataBatch".equals(method.getName());
+    }
+
+    /**
+     * Asynchronous entry point for the services dispatcher. Each request is resolved, built and
+     * logged on the calling thread, then sent with the non-blocking client. The callback receives
+     * the same value or exception as the corresponding synchronous call.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Cancellable invokeAsync(final HttpServletRequest servletRequest,
+                                   final Method method,
+                                   final Object[] parameters,
+                                   final AsyncCallback<Object> callback) {
+        if ("getServiceDataBatch".equals(method.getName())) {
+            return dispatchBatch(servletRequest, (ArrayList<ServiceCallWrapper>)parameters[0], callback);
+        }
+
+        final ServiceCallWrapper wrapper = (ServiceCallWrapper)parameters[0];
+        final Map<String, String> extraLoggerMdcItems = parameters.length > 1
+                                                            ? (Map<String, String>)parameters[1]
+                                                            : new HashMap<String, String>();
+        for (Map.Entry<String, String> entry : extraLoggerMdcItems.entrySet()) {
+            MDC.put(entry.getKey(), entry.getValue());
+        }
+        try {
+            return dispatchAsync(servletRequest, wrapper, callback);
+        } finally {
+            for (Map.Entry<String, String> entry : extraLoggerMdcItems.entrySet()) {
+                MDC.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Sends every call in a batch at once, then notifies the callback with all of the results once
+     * the last call completes.
+     *
+     * @return a handle which aborts every call of the batch which is still in flight.
+     */
+    private Cancellable dispatchBatch(final HttpServletRequest servletRequest,
+                                      final List<ServiceCallWrapper> wrappers,
+                                      final AsyncCallback<? super ArrayList<ServiceCallResult>> callback) {
+        final int size = wrappers == null ? 0 : wrappers.size();
+        final ServiceCallResult[] results = new ServiceCallResult[size];
+        if (size == 0) {
+            callback.onSuccess(new ArrayList<ServiceCallResult>());
+            return null;
+        }
+
+        final AtomicInteger remaining = new AtomicInteger(size);
+        final List<Cancellable> inFlight = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final int index = i;
+            final Cancellable call = dispatchAsync(servletRequest, wrappers.get(i), new AsyncCallback<Object>() {
+                @Override
+                public void onFailure(Throwable caught) {
+                    done(ServiceCallResult.failure(caught));
+                }
+
+                @Override
+                public void onSuccess(Object result) {
+                    done(ServiceCallResult.success((String)result));
+                }
+
+                private void done(ServiceCallResult result) {
+                    results[index] = result;
+                    if (remaining.decrementAndGet() == 0) {
+                        callback.onSuccess(new ArrayList<>(Arrays.asList(results)));
+                    }
+                }
+            });
+            if (call != null) {
+                inFlight.add(call);
+            }
+        }
+
+        return new Cancellable() {
+            @Override
+            public boolean cancel() {
+                boolean cancelled = false;
+                for (Cancellable call : inFlight) {
+                    cancelled |= call.cancel();
+                }
+                return cancelled;
+            }
+        };
+    }
+
+    /**
+     * Sends a single services call with the non-blocking client.
+     *
+     * @return a handle which aborts the request and releases its connection, or null if the call
+     * was completed without sending a request.
+     */
+    private Cancellable dispatchAsync(final HttpServletRequest servletRequest,
+                                      final ServiceCallWrapper wrapper,
+                                      final AsyncCallback<Object> rpcCallback) {
+        if (!isValidServiceCall(wrapper)) {
+            rpcCallback.onSuccess(null);
+            return null;
+        }
+
+        final AsyncCallback<Object> callback = new RecordingCallback(wrapper, rpcCallback);
+        try {
+            final String address = retrieveServiceAddress(wrapper);
+            final String endpoint = getEndpointFromRequestAddress(address);
+            final String cacheKey = getCacheKey(servletRequest, wrapper, address);
+            final ServiceResponseCache.CachedResponse cached = cacheKey == null ? null : responseCache.get(cacheKey);
+            if (cached != null && cached.isFresh()) {
+                callback.onSuccess(cached.getBody());
+                return null;
+            }
+
+            final HttpRequestBase request;
+            try {
+                request = buildRequest(servletRequest, wrapper, address, endpoint);
+                addConditionalHeaders(request, cached);
+            } catch (Exception e) {
+                API_METRICS_LOG.error(wrapper.getType().toString() + " " + endpoint, e);
+                callback.onFailure(toRpcException(e));
+                return null;
+            }
+
+            // The response is handled on an I/O thread, which needs this thread's logging context.
+            final Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+            final long requestStartTime = System.currentTimeMillis();
+            try {
+                final Future<HttpResponse> future = httpClientEngine.executeAsync(request, new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void completed(HttpResponse response) {
+                        restoreMdc(mdcContext);
+                        try {
+                            callback.onSuccess(processResponse(request,
+                                                               response,
+                                                               wrapper,
+                                                               endpoint,
+                                                               requestStartTime,
+                                                               cacheKey,
+                                                               cached));
+                        } catch (Exception e) {
+                            API_METRICS_LOG.error(wrapper.getType().toString() + " " + endpoint, e);
+                            callback.onFailure(toRpcException(e));
+                        } finally {
+                            EntityUtils.consumeQuietly(response.getEntity());
+                            MDC.clear();
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        restoreMdc(mdcContext);
+                        try {
+                            API_METRICS_LOG.error(wrapper.getType().toString() + " " + endpoint, e);
+                            callback.onFailure(toRpcException(e));
+                        } finally {
+                            MDC.clear();
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        restoreMdc(mdcContext);
+                        try {
+                            API_METRICS_LOG.warn("{} {} cancelled", wrapper.getType(), endpoint);
+                            callback.onFailure(new SerializationException("Request cancelled: "
+                                                                          + wrapper.getType() + " " + endpoint));
+                        } finally {
+                            MDC.clear();
+                        }
+                    }
+                });
+                return future == null ? null : new Cancellable() {
+                    @Override
+                    public boolean cancel() {
+                        return future.cancel(true);
+                    }
+                };
+            } catch (RejectedExecutionException e) {
+                API_METRICS_LOG.warn("{} {} rejected: {}", wrapper.getType(), endpoint, e.getMessage());
+                callback.onFailure(new HttpException(503, e.getMessage()));
+            }
+        } catch (RuntimeException e) {
+            callback.onFailure(e);
+        }
+        return null;
+    }
+
+    private void restoreMdc(final Map<String, String> mdcContext) {
+        if (mdcContext == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(mdcContext);
+        }
+    }
+
+    /**
+     * Converts an exception raised while dispatching a services call to one which
+     * {@code getServiceData} declares.
+     */
+    private Exception toRpcException(final Exception e) {
+        if (e instanceof AuthenticationException || e instanceof HttpException) {
+            return e;
+        }
+        return new SerializationException(e);
+    }
+
+    /**
+     * Sends a services call and streams the response entity straight to the servlet response,
+     * without reading it into memory. The status and content type of the service's response are
+     * relayed with the entity, so the client must treat non-2xx statuses as errors.
+     *
+     * @param servletRequest the servlet request on whose behalf the call is made.
+     * @param wrapper the services call wrapper.
+     * @param servletResponse the response to stream the service's response to.
+     * @throws IOException if the request can't be built or sent, or the response can't be copied.
+     */
+    public void relayServiceData(final HttpServletRequest servletRequest,
+                                 final ServiceCallWrapper wrapper,
+                                 final HttpServletResponse servletResponse) throws IOException {
+        if (!isValidServiceCall(wrapper)) {
+            servletResponse.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid service call");
+            return;
+        }
+
+        final String metricsEndpoint = getMetricsEndpoint(wrapper);
+        final long metricsStartTime = metrics.begin(ApiMetrics.SERVICES);
+        int status = ApiMetrics.FAILED;
+        String endpoint = metricsEndpoint;
+        CloseableHttpResponse response = null;
+        try {
+            final String address = retrieveServiceAddress(wrapper);
+            endpoint = getEndpointFromRequestAddress(address);
+            final HttpRequestBase request = buildRequest(servletRequest, wrapper, address, endpoint);
+
+            final long requestStartTime = System.currentTimeMillis();
+            response = loggerUtil.copyRequestIdHeader(request, httpClientEngine.getClient().execute(request));
+            loggerUtil.logApiResponse(response,
+                                      wrapper.getType(),
+                                      endpoint,
+                                      null,
+                                      System.currentTimeMillis() - requestStartTime);
+
+            relayResponse(response, servletResponse);
+            status = response.getStatusLine().getStatusCode();
+        } catch (Exception e) {
+            API_METRICS_LOG.error(wrapper.getType().toString() + " " + endpoint, e);
+            throw e;
+        } finally {
+            // Return the connection to the pool.
+            IOUtils.closeQuietly(response);
+            metrics.end(ApiMetrics.SERVICES, wrapper.getType().name(), metricsEndpoint, status, metricsStartTime);
+        }
+    }
+
+    /**
+     * Copies the status, content headers and entity of a service's response to the servlet
+     * response, through a fixed-size buffer.
+     */
+    private void relayResponse(final HttpResponse response,
+                               final HttpServletResponse servletResponse) throws IOException {
+        servletResponse.setStatus(response.getStatusLine().getStatusCode());
+        final Header location = response.getFirstHeader(HttpHeaders.LOCATION);
+        if (location != null) {
+            servletResponse.setHeader(HttpHeaders.LOCATION, location.getValue());
+        }
+
+        final HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return;
+        }
+        if (entity.getContentType() != null) {
+            servletResponse.setContentType(entity.getContentType().getValue());
+        }
+        if (entity.getContentLength() >= 0) {
+            servletResponse.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(entity.getContentLength()));
+        }
+
+        ServletUtils.streamToResponse(entity.getContent(), servletResponse);
+    }
+
+    /**
+     * Sets the servlet request for the current thread.
      *
      * @param request the request to use.
      */
+    @Override
     public void setRequest(HttpServletRequest request) {
-        this.request = request;
+        this.request.set(request);
+    }
+
+    /**
+     * Clears the servlet request for the current thread.
+     */
+    @Override
+    public void clearRequest() {
+        this.request.remove();
     }
 
     /**
-     * Gets the current servlet request.
+     * Gets the servlet request for the current thread.
      *
      * @return the request to use.
      */
     HttpServletRequest getRequest() {
-        return request;
+        return request.get();
     }
 
     /**
@@ -192,91 +591,220 @@ public class DEServiceImpl implements DEService,
      * Gets the response for an HTTP connection.
      *
      * @param client  the HTTP client to use.
+     * @param servletRequest the servlet request on whose behalf the call is made.
      * @param wrapper the services call wrapper.
      * @return the response.
      * @throws IOException if an I/O error occurs.
      */
-    private String getResponse(final HttpClient client,
+    private String getResponse(final CloseableHttpClient client,
+                                     final HttpServletRequest servletRequest,
                                      final ServiceCallWrapper wrapper,
                                      final String resolvedAddress) throws IOException {
 
-        String body = updateRequestBody(wrapper.getBody());
         String endpoint = getEndpointFromRequestAddress(resolvedAddress);
-
-        BaseServiceCallWrapper.Type type = wrapper.getType();
-        HttpRequestBase request = null;
-        HttpResponse response;
-        String responseBody;
+        final String metricsEndpoint = getMetricsEndpoint(wrapper);
+        final long metricsStartTime = metrics.begin(ApiMetrics.SERVICES);
+        int status = HttpStatus.SC_OK;
+        CloseableHttpResponse response = null;
 
         try {
+            final String cacheKey = getCacheKey(servletRequest, wrapper, resolvedAddress);
+            final ServiceResponseCache.CachedResponse cached = cacheKey == null ? null : responseCache.get(cacheKey);
+            if (cached != null && cached.isFresh()) {
+                return cached.getBody();
+            }
+
+            final HttpRequestBase request = buildRequest(servletRequest, wrapper, resolvedAddress, endpoint);
+            addConditionalHeaders(request, cached);
+
+            // Send request to API
+            final long requestStartTime = System.currentTimeMillis();
+            response = client.execute(request);
+            return processResponse(request, response, wrapper, endpoint, requestStartTime, cacheKey, cached);
+
+        } catch (Exception e) {
+            status = getMetricsStatus(e);
+            API_METRICS_LOG.error(wrapper.getType().toString() + " " + endpoint, e);
+            throw e;
+        } finally {
+            // Return the connection to the pool.
+            IOUtils.closeQuietly(response);
+            metrics.end(ApiMetrics.SERVICES, wrapper.getType().name(), metricsEndpoint, status, metricsStartTime);
+        }
+    }
 
-            switch (type) {
-                case GET:
-                    request = urlConnector.getRequest(getRequest(), resolvedAddress);
-                    break;
+    /**
+     * Gets the endpoint under which a services call is recorded in the metrics; the service key if
+     * the call uses one, or the call's path otherwise.
+     */
+    private String getMetricsEndpoint(final BaseServiceCallWrapper wrapper) {
+        final String serviceKey = serviceResolver.getServiceKey(wrapper.getAddress());
+        return serviceKey != null ? serviceKey : ApiMetrics.endpointLabel(wrapper.getAddress());
+    }
 
-                case PUT:
-                    request = urlConnector.putRequest(getRequest(), resolvedAddress);
-                    ((HttpPut)request).setEntity(createEntity(body));
-                    break;
+    /**
+     * Gets the status recorded in the metrics for a services call which failed.
+     */
+    private static int getMetricsStatus(final Throwable e) {
+        return e instanceof HttpException ? ((HttpException)e).getStatusCode() : ApiMetrics.FAILED;
+    }
 
-                case POST:
-                    request = urlConnector.postRequest(getRequest(), resolvedAddress);
-                    ((HttpPost)request).setEntity(createEntity(body));
-                    break;
+    /**
+     * Records the latency and outcome of an asynchronous services call when its callback is first
+     * notified, then passes the result on.
+     */
+    private final class RecordingCallback implements AsyncCallback<Object> {
+
+        private final BaseServiceCallWrapper wrapper;
+        private final AsyncCallback<Object> callback;
+        private final String endpoint;
+        private final long startTime;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        RecordingCallback(final BaseServiceCallWrapper wrapper, final AsyncCallback<Object> callback) {
+            this.wrapper = wrapper;
+            this.callback = callback;
+            this.endpoint = getMetricsEndpoint(wrapper);
+            this.startTime = metrics.begin(ApiMetrics.SERVICES);
+        }
 
-                case DELETE:
-                    request = urlConnector.deleteRequest(getRequest(), resolvedAddress);
-                    break;
+        @Override
+        public void onFailure(Throwable caught) {
+            end(getMetricsStatus(caught));
+            callback.onFailure(caught);
+        }
 
-                case PATCH:
-                    request = urlConnector.patchRequest(getRequest(), resolvedAddress);
-                    ((HttpPatch)request).setEntity(createEntity(body));
-                    break;
+        @Override
+        public void onSuccess(Object result) {
+            end(HttpStatus.SC_OK);
+            callback.onSuccess(result);
+        }
 
-                default:
-                    throw new UnsupportedOperationException("HTTP method " + type + " not supported");
+        private void end(int status) {
+            if (ended.compareAndSet(false, true)) {
+                metrics.end(ApiMetrics.SERVICES, wrapper.getType().name(), endpoint, status, startTime);
             }
+        }
+    }
 
-            // Add request to MDC
-            final Map<String, Object> requestMap = loggerUtil.createMdcRequestMap(request, body);
-            final String mapAsString = new ObjectMapper().writeValueAsString(requestMap);
-
-            // Log Request
-            MDC.put(REQUEST_KEY, mapAsString);
-            API_METRICS_LOG.info("{} {}", type.toString(), endpoint);
-            MDC.remove(REQUEST_KEY);
+    /**
+     * Gets the key under which the response to a services call is cached.
+     *
+     * @return the cache key, or null if the response must not be cached.
+     */
+    private String getCacheKey(final HttpServletRequest servletRequest,
+                               final ServiceCallWrapper wrapper,
+                               final String resolvedAddress) {
+        if (responseCache == null) {
+            return null;
+        }
+        return responseCache.getKey(wrapper.getType(), resolvedAddress, servletRequest);
+    }
 
-            // Send request to API
-            final long requestStartTime = System.currentTimeMillis();
-            response = client.execute(request);
-            response = loggerUtil.copyRequestIdHeader(request, response);
+    /**
+     * Makes a request conditional if a stale response which can be revalidated is cached for it.
+     */
+    private void addConditionalHeaders(final HttpRequestBase request,
+                                       final ServiceResponseCache.CachedResponse cached) {
+        if (cached != null && cached.isRevalidatable()) {
+            cached.addConditionalHeaders(request);
+        }
+    }
 
-            // Set return value
-            responseBody = getResponseBody(response);
-            final long requestEndTime = System.currentTimeMillis();
+    /**
+     * Builds the request for a services call and logs it.
+     *
+     * @param servletRequest the servlet request on whose behalf the call is made.
+     * @param wrapper the services call wrapper.
+     * @param resolvedAddress the resolved services address.
+     * @param endpoint the path of the services address, used for logging.
+     * @return the request.
+     * @throws IOException if the request can't be built.
+     */
+    private HttpRequestBase buildRequest(final HttpServletRequest servletRequest,
+                                         final ServiceCallWrapper wrapper,
+                                         final String resolvedAddress,
+                                         final String endpoint) throws IOException {
+        String body = updateRequestBody(wrapper.getBody());
+        BaseServiceCallWrapper.Type type = wrapper.getType();
+        HttpRequestBase request;
+
+        switch (type) {
+            case GET:
+                request = urlConnector.getRequest(servletRequest, resolvedAddress);
+                break;
+
+            case PUT:
+                request = urlConnector.putRequest(servletRequest, resolvedAddress);
+                ((HttpPut)request).setEntity(createEntity(body));
+                break;
+
+            case POST:
+                request = urlConnector.postRequest(servletRequest, resolvedAddress);
+                ((HttpPost)request).setEntity(createEntity(body));
+                break;
+
+            case DELETE:
+                request = urlConnector.deleteRequest(servletRequest, resolvedAddress);
+                break;
+
+            case PATCH:
+                request = urlConnector.patchRequest(servletRequest, resolvedAddress);
+                ((HttpPatch)request).setEntity(createEntity(body));
+                break;
+
+            default:
+                throw new UnsupportedOperationException("HTTP method " + type + " not supported");
+        }
 
-            final String responseMapJson = loggerUtil.createMdcResponseMapJson(response,
-                                                                               wrapper.getType(),
-                                                                               endpoint,
-                                                                               responseBody,
-                                                                               requestEndTime - requestStartTime);
+        // Log Request
+        loggerUtil.logApiRequest(request, body, type.toString(), endpoint);
 
-            // Log Response
-            MDC.put(RESPONSE_KEY, responseMapJson);
-            API_METRICS_LOG.info("{} {}", wrapper.getType(), endpoint);
-            MDC.remove(RESPONSE_KEY);
+        return request;
+    }
 
-        } catch (Exception e) {
-            API_METRICS_LOG.error(type.toString() + " " + endpoint, e);
-            throw e;
-        } finally {
-            MDC.remove(REQUEST_KEY);
-            MDC.remove(RESPONSE_KEY);
+    /**
+     * Reads the response to a services call and logs it.
+     *
+     * @param request the request which was sent.
+     * @param response the response to the request.
+     * @param wrapper the services call wrapper.
+     * @param endpoint the path of the services address, used for logging.
+     * @param requestStartTime the time at which the request was sent.
+     * @param cacheKey the key under which the response is cached, or null if it isn't cacheable.
+     * @param cached the stale cached response which the request revalidates, or null.
+     * @return the response body.
+     * @throws IOException if an I/O error occurs or the server returns an error status.
+     */
+    private String processResponse(final HttpRequestBase request,
+                                   HttpResponse response,
+                                   final ServiceCallWrapper wrapper,
+                                   final String endpoint,
+                                   final long requestStartTime,
+                                   final String cacheKey,
+                                   final ServiceResponseCache.CachedResponse cached) throws IOException {
+        response = loggerUtil.copyRequestIdHeader(request, response);
+
+        // Set return value
+        final String responseBody;
+        if (cached != null && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+            responseBody = responseCache.revalidated(cacheKey, cached);
+        } else {
+            responseBody = getResponseBody(response);
+            if (cacheKey != null) {
+                responseCache.put(cacheKey, response, responseBody);
+            }
         }
+        final long requestEndTime = System.currentTimeMillis();
 
-        return responseBody;
+        // Log Response
+        loggerUtil.logApiResponse(response,
+                                  wrapper.getType(),
+                                  endpoint,
+                                  responseBody,
+                                  requestEndTime - requestStartTime);
 
+        return responseBody;
     }
 
     /**
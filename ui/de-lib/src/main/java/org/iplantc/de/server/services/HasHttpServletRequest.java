@@ -4,9 +4,24 @@ import javax.servlet.http.HttpServletRequest;
 
 /**
  * This interface is for wrapped RPC implementations which require access to the servlet's request.
+ *
+ * Implementations are shared by every servlet thread, so the request must be confined to the thread
+ * which is handling it. Callers set the request before invoking the service and clear it once the
+ * call has completed.
+ *
  * @author jstroot
  */
 public interface HasHttpServletRequest {
 
+    /**
+     * Binds the servlet request to the calling thread.
+     *
+     * @param request the request currently being handled by this thread.
+     */
     void setRequest(HttpServletRequest request);
+
+    /**
+     * Releases the servlet request bound to the calling thread.
+     */
+    void clearRequest();
 }
@@ -1,16 +1,15 @@
 package org.iplantc.de.server.services;
 
+import org.iplantc.de.server.http.PooledHttpClientEngine;
 import org.iplantc.de.shared.exceptions.ServiceCallFailedException;
 
 import net.sf.json.JSONObject;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -29,6 +28,8 @@ public class IplantEmailClient {
      */
     private static final Logger LOG = LoggerFactory.getLogger(IplantEmailClient.class);
 
+    @Autowired private PooledHttpClientEngine httpClientEngine;
+
     @Value("${org.iplantc.services.email-base}")
     public void setBaseUrl(String baseUrl) {
         this.baseUrl = baseUrl;
@@ -47,12 +48,11 @@ public class IplantEmailClient {
      * @throws ServiceCallFailedException if the request fails.
      */
     public void sendMessage(MessageRequest request) {
-        CloseableHttpClient client = HttpClients.createDefault();
         HttpPost post = new HttpPost(baseUrl);
         try {
             post.setEntity(new StringEntity(request.toString()));
             post.setHeader("Content-Type", "application/json");
-            String responseBody = client.execute(post, new ServiceResponseHandler());
+            String responseBody = httpClientEngine.getClient().execute(post, new ServiceResponseHandler());
             LOG.trace(responseBody);
         } catch (IOException e) {
             LOG.error("message request failed", e);
@@ -62,9 +62,6 @@ public class IplantEmailClient {
             LOG.error("message request failed", e);
             throw e;
         }
-        finally {
-            IOUtils.closeQuietly(client);
-        }
     }
 
     /**
@@ -0,0 +1,316 @@
+package org.iplantc.de.server.services;
+
+import org.iplantc.de.server.AppLoggerConstants;
+import org.iplantc.de.server.ServiceCallResolver;
+import org.iplantc.de.shared.services.BaseServiceCallWrapper;
+
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Caches the responses to read-mostly GET calls proxied by {@link DEServiceImpl}.
+ *
+ * Only calls to allowlisted services are cached. Each allowlist entry is a service key or URL,
+ * which is resolved with the {@link ServiceCallResolver} at startup and matched against the path of
+ * the resolved call address. Responses from "shared" services are cached once for every user, while
+ * responses from "user" services are cached per user. The cache key is the resolved address,
+ * including its query string, plus the user's name where relevant.
+ *
+ * An entry is served without contacting the service until its TTL expires. It is then kept for the
+ * rest of the retention period so that it can be revalidated with {@code If-None-Match} or
+ * {@code If-Modified-Since}; a 304 from the service refreshes the entry without transferring the
+ * body again.
+ *
+ * Any other call may change what the user services return to its user, such as the app counts
+ * listed with their app categories, so it evicts every per-user entry of the user who made it.
+ */
+@Component
+public class ServiceResponseCache implements InitializingBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceResponseCache.class);
+    private final Logger API_METRICS_LOG = LoggerFactory.getLogger(AppLoggerConstants.API_METRICS_LOGGER);
+
+    private static final Splitter LIST_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    @Value("${org.iplantc.discoveryenvironment.api-cache.enabled:true}") private boolean enabled;
+    @Value("${org.iplantc.discoveryenvironment.api-cache.ttl-seconds:300}") private long ttl;
+    @Value("${org.iplantc.discoveryenvironment.api-cache.retention-seconds:3600}") private long retention;
+    @Value("${org.iplantc.discoveryenvironment.api-cache.max-entries:2000}") private long maxEntries;
+    @Value("${org.iplantc.discoveryenvironment.api-cache.shared-services:}") private String sharedServices;
+    @Value("${org.iplantc.discoveryenvironment.api-cache.user-services:}") private String userServices;
+
+    @Autowired private ServiceCallResolver serviceResolver;
+
+    private Set<String> sharedPaths = ImmutableSet.of();
+    private Set<String> userPaths = ImmutableSet.of();
+    private Cache<String, CachedResponse> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ServiceResponseCache() {
+    }
+
+    ServiceResponseCache(ServiceCallResolver serviceResolver,
+                         String sharedServices,
+                         String userServices,
+                         long ttl,
+                         long retention,
+                         long maxEntries) {
+        this.serviceResolver = serviceResolver;
+        this.sharedServices = sharedServices;
+        this.userServices = userServices;
+        this.ttl = ttl;
+        this.retention = retention;
+        this.maxEntries = maxEntries;
+        this.enabled = true;
+        afterPropertiesSet();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (retention < ttl) {
+            throw new IllegalArgumentException("The API cache retention period (" + retention
+                                               + "s) must not be shorter than its TTL (" + ttl + "s)");
+        }
+        sharedPaths = resolveAll(sharedServices);
+        userPaths = resolveAll(userServices);
+        cache = CacheBuilder.newBuilder()
+                            .maximumSize(maxEntries)
+                            .expireAfterWrite(retention, TimeUnit.SECONDS)
+                            .recordStats()
+                            .build();
+        LOG.info("API response cache {}: {} shared and {} per-user services",
+                 isEnabled() ? "enabled" : "disabled", sharedPaths.size(), userPaths.size());
+    }
+
+    private Set<String> resolveAll(String services) {
+        ImmutableSet.Builder<String> paths = ImmutableSet.builder();
+        if (services != null) {
+            for (String service : LIST_SPLITTER.split(services)) {
+                paths.add(serviceResolver.resolveAddress(service));
+            }
+        }
+        return paths.build();
+    }
+
+    /**
+     * @return true if caching is enabled and the response to at least one service may be cached.
+     */
+    public boolean isEnabled() {
+        return enabled && !(sharedPaths.isEmpty() && userPaths.isEmpty());
+    }
+
+    /**
+     * Determines whether the response to a call may be cached. A call which isn't a GET evicts the
+     * cached per-user responses of the user making it.
+     *
+     * @param type the call's HTTP method.
+     * @param resolvedAddress the call's resolved address.
+     * @param request the servlet request on whose behalf the call is made.
+     * @return the cache key for the call, or null if the response must not be cached.
+     */
+    public String getKey(BaseServiceCallWrapper.Type type,
+                         String resolvedAddress,
+                         HttpServletRequest request) {
+        if (!isEnabled()) {
+            return null;
+        }
+        if (type != BaseServiceCallWrapper.Type.GET) {
+            evictUserEntries(request);
+            return null;
+        }
+        final int queryStart = resolvedAddress.indexOf('?');
+        final String path = queryStart < 0 ? resolvedAddress : resolvedAddress.substring(0, queryStart);
+        if (sharedPaths.contains(path)) {
+            return resolvedAddress;
+        }
+        if (userPaths.contains(path) && request != null) {
+            final Principal user = request.getUserPrincipal();
+            if (user != null) {
+                return user.getName() + " " + resolvedAddress;
+            }
+        }
+        return null;
+    }
+
+    private void evictUserEntries(HttpServletRequest request) {
+        if (userPaths.isEmpty() || request == null || request.getUserPrincipal() == null) {
+            return;
+        }
+        final String prefix = request.getUserPrincipal().getName() + " ";
+        for (String key : cache.asMap().keySet()) {
+            if (key.startsWith(prefix)) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * @return the cached response for the key, which may need revalidation, or null.
+     */
+    public CachedResponse get(String key) {
+        final CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && cached.isFresh()) {
+            hits.incrementAndGet();
+            API_METRICS_LOG.debug("API cache hit: {}", key);
+        } else {
+            // A stale entry counts as a miss until the service confirms that it hasn't changed.
+            misses.incrementAndGet();
+        }
+        return cached;
+    }
+
+    /**
+     * Caches a successful response unless the service forbids it.
+     *
+     * @param key the cache key.
+     * @param response the service's response.
+     * @param body the response body.
+     */
+    public void put(String key, HttpResponse response, String body) {
+        final Header cacheControl = response.getFirstHeader(HttpHeaders.CACHE_CONTROL);
+        if (cacheControl != null && cacheControl.getValue().contains("no-store")) {
+            return;
+        }
+        cache.put(key, new CachedResponse(body,
+                                          headerValue(response, HttpHeaders.ETAG),
+                                          headerValue(response, HttpHeaders.LAST_MODIFIED),
+                                          System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttl)));
+    }
+
+    /**
+     * Refreshes an entry after the service confirmed that it has not changed.
+     *
+     * @param key the cache key.
+     * @param cached the entry which was revalidated.
+     * @return the cached response body.
+     */
+    public String revalidated(String key, CachedResponse cached) {
+        revalidations.incrementAndGet();
+        misses.decrementAndGet();
+        API_METRICS_LOG.debug("API cache entry revalidated: {}", key);
+        cache.put(key, new CachedResponse(cached.body,
+                                          cached.etag,
+                                          cached.lastModified,
+                                          System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttl)));
+        return cached.body;
+    }
+
+    private static String headerValue(HttpResponse response, String name) {
+        final Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * @return responses served without contacting the service.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return responses served from the cache after the service confirmed they had not changed.
+     */
+    public long getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return cacheable calls for which the whole response had to be fetched.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the fraction of cacheable calls whose body was served from the cache.
+     */
+    public double getHitRatio() {
+        final long served = hits.get() + revalidations.get();
+        final long total = served + misses.get();
+        return total == 0 ? 0 : (double)served / total;
+    }
+
+    /**
+     * @return the number of entries evicted because the cache was full or they had expired.
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * A cached response body, with the validators needed to revalidate it.
+     */
+    public static final class CachedResponse {
+
+        private final String body;
+        private final String etag;
+        private final String lastModified;
+        private final long freshUntil;
+
+        CachedResponse(String body, String etag, String lastModified, long freshUntil) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.freshUntil = freshUntil;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * @return true if the response may be served without revalidating it.
+         */
+        public boolean isFresh() {
+            return System.currentTimeMillis() < freshUntil;
+        }
+
+        /**
+         * Makes a request conditional on the cached response having changed.
+         *
+         * @param request the request which would fetch the response again.
+         */
+        public void addConditionalHeaders(HttpRequestBase request) {
+            if (etag != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+
+        /**
+         * @return true if the response has validators which the service can check.
+         */
+        public boolean isRevalidatable() {
+            return etag != null || lastModified != null;
+        }
+    }
+}
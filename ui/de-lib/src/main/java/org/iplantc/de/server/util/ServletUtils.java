@@ -5,10 +5,12 @@ import org.apache.commons.lang.StringUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Properties;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
+import javax.servlet.ServletResponse;
 
 /**
  * Some utility methods for use within servlets.
@@ -17,6 +19,11 @@ import javax.servlet.ServletException;
  */
 public class ServletUtils {
 
+    /**
+     * The size of the buffer used to stream service responses to the client.
+     */
+    static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Prevent instantiation.
      */
@@ -74,4 +81,30 @@ public class ServletUtils {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Streams a service response body to the client, then closes it. The body is read to the end, so
+     * that a pooled connection it came from can be reused.
+     *
+     * @param in the response body.
+     * @param response the response to the client.
+     * @return the number of bytes copied.
+     * @throws IOException if the body can't be read or the response can't be written.
+     */
+    public static long streamToResponse(InputStream in, ServletResponse response) throws IOException {
+        try {
+            final OutputStream out = response.getOutputStream();
+            final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            long total = 0;
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+                total += count;
+            }
+            out.flush();
+            return total;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
 }
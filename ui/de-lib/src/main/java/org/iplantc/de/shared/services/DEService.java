@@ -7,6 +7,7 @@ import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.RemoteServiceRelativePath;
 import com.google.gwt.user.client.rpc.SerializationException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 
 /**
@@ -33,4 +34,14 @@ public interface DEService extends RemoteService {
                           HashMap<String, String> extraLoggerMdcItems) throws SerializationException, AuthenticationException,
                                                                               HttpException;
 
+    /**
+     * Dispatches several service calls concurrently and returns all of their results in one
+     * response. A failed call does not fail the batch; its exception is returned in its result.
+     *
+     * @param wrappers the service calls to make.
+     * @return the result of each call, in the same order as {@code wrappers}.
+     * @throws SerializationException if the batch could not be dispatched.
+     */
+    ArrayList<ServiceCallResult> getServiceDataBatch(ArrayList<ServiceCallWrapper> wrappers) throws SerializationException;
+
 }
@@ -1,11 +1,21 @@
 package org.iplantc.de.shared.services;
 
 import org.iplantc.de.shared.AsyncCallbackWrapper;
+import org.iplantc.de.shared.exceptions.HttpException;
 
+import com.google.gwt.core.client.GWT;
 import com.google.gwt.http.client.Request;
+import com.google.gwt.http.client.RequestBuilder;
+import com.google.gwt.http.client.RequestCallback;
+import com.google.gwt.http.client.RequestException;
+import com.google.gwt.http.client.Response;
+import com.google.gwt.http.client.URL;
 import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.gwt.user.client.rpc.StatusCodeException;
 import com.google.inject.Inject;
 
+import org.apache.http.HttpStatus;
+
 import java.util.HashMap;
 
 /**
@@ -13,11 +23,21 @@ import java.util.HashMap;
  * It simply wraps the given {@code AsyncCallback} in an {@code AsyncCallbackWrapper}, which performs
  * common operations for DE API and auth-related transactions.
  *
+ * Calls flagged with {@link ServiceCallWrapper#setLargeResponse(boolean)} are sent to the streaming
+ * relay endpoint with a {@link RequestBuilder} instead of over RPC, so that the server does not have
+ * to buffer and re-encode the response.
+ *
  * @author jstroot
  */
 public class DiscEnvApiService {
 
+    /**
+     * The path of the streaming relay endpoint, relative to the module base URL.
+     */
+    static final String STREAM_SERVICE_PATH = "api-stream.rpc";
+
     @Inject DEServiceAsync deService;
+    @Inject ServiceCallCoalescer coalescer;
 
     @Inject
     public DiscEnvApiService() {
@@ -25,6 +45,9 @@ public class DiscEnvApiService {
 
     public Request getServiceData(ServiceCallWrapper wrapper,
                                   AsyncCallback<String> callback) {
+        if (wrapper.isLargeResponse()) {
+            return streamServiceData(wrapper, new AsyncCallbackWrapper<>(callback));
+        }
         return deService.getServiceData(wrapper,
                                         new AsyncCallbackWrapper<>(callback));
     }
@@ -32,8 +55,72 @@ public class DiscEnvApiService {
     public Request getServiceData(ServiceCallWrapper wrapper,
                                   HashMap<String, String> mdcMap,
                                   AsyncCallback<String> callback) {
+        if (wrapper.isLargeResponse()) {
+            return streamServiceData(wrapper, new AsyncCallbackWrapper<>(callback));
+        }
         return deService.getServiceData(wrapper,
                                         mdcMap,
                                         new AsyncCallbackWrapper<>(callback));
     }
+
+    /**
+     * Sends the call together with any others issued during the current event loop tick, in a
+     * single batch request. Use this for independent reads, such as those made while the desktop
+     * loads, where saving round trips matters more than being able to cancel the request.
+     */
+    public void getServiceDataBatched(ServiceCallWrapper wrapper,
+                                      AsyncCallback<String> callback) {
+        if (wrapper.isLargeResponse()) {
+            getServiceData(wrapper, callback);
+            return;
+        }
+        coalescer.enqueue(wrapper, callback);
+    }
+
+    /**
+     * Sends a call to the streaming relay endpoint. Error statuses are reported the same way as
+     * they are for RPC calls; as a {@link StatusCodeException} if the user isn't logged in, or as an
+     * {@link HttpException} otherwise.
+     */
+    Request streamServiceData(final ServiceCallWrapper wrapper,
+                              final AsyncCallback<String> callback) {
+        final StringBuilder url = new StringBuilder(GWT.getModuleBaseURL()).append(STREAM_SERVICE_PATH)
+                                                                           .append("?type=")
+                                                                           .append(wrapper.getType().name())
+                                                                           .append("&address=")
+                                                                           .append(URL.encodeQueryString(wrapper.getAddress()));
+        if (wrapper.hasArguments()) {
+            url.append("&arguments=").append(URL.encodeQueryString(wrapper.getArguments()));
+        }
+
+        final RequestBuilder builder = new RequestBuilder(RequestBuilder.POST, url.toString());
+        builder.setHeader("Content-Type", "application/json; charset=utf-8");
+        // Required by the server, which rejects cross-site requests to the stream endpoint.
+        builder.setHeader("X-GWT-Permutation", GWT.getPermutationStrongName());
+        try {
+            return builder.sendRequest(wrapper.getBody(), new RequestCallback() {
+                @Override
+                public void onResponseReceived(Request request, Response response) {
+                    final int status = response.getStatusCode();
+                    if (status >= 200 && status < 300) {
+                        callback.onSuccess(response.getText());
+                    } else if (status == 0
+                                   || status == HttpStatus.SC_MOVED_TEMPORARILY
+                                   || status == HttpStatus.SC_UNAUTHORIZED) {
+                        callback.onFailure(new StatusCodeException(status, response.getText()));
+                    } else {
+                        callback.onFailure(new HttpException(status, response.getText()));
+                    }
+                }
+
+                @Override
+                public void onError(Request request, Throwable exception) {
+                    callback.onFailure(exception);
+                }
+            });
+        } catch (RequestException e) {
+            callback.onFailure(e);
+            return null;
+        }
+    }
 }
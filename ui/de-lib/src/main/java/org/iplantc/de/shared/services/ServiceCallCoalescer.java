@@ -0,0 +1,144 @@
+package org.iplantc.de.shared.services;
+
+import org.iplantc.de.shared.AsyncCallbackWrapper;
+import org.iplantc.de.shared.exceptions.AuthenticationException;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.gwt.user.client.rpc.StatusCodeException;
+import com.google.inject.Inject;
+
+import org.apache.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the service calls issued during the same event loop tick and sends them to the server
+ * in a single {@link DEServiceAsync#getServiceDataBatch} request.
+ *
+ * The batch is flushed by a finally command, so calls made while handling one event (for example,
+ * while the desktop is starting up) share one round trip. A tick which issues a single call sends it
+ * with {@link DEServiceAsync#getServiceData(ServiceCallWrapper, AsyncCallback)} instead.
+ */
+public class ServiceCallCoalescer {
+
+    /**
+     * The largest number of calls sent in one batch; larger ticks are split across batches.
+     */
+    static final int MAX_BATCH_SIZE = 20;
+
+    private final DEServiceAsync deService;
+    private final Scheduler scheduler;
+
+    private List<ServiceCallWrapper> pendingCalls = new ArrayList<>();
+    private List<AsyncCallback<String>> pendingCallbacks = new ArrayList<>();
+
+    private final Scheduler.ScheduledCommand flushCommand = new Scheduler.ScheduledCommand() {
+        @Override
+        public void execute() {
+            flush();
+        }
+    };
+
+    @Inject
+    public ServiceCallCoalescer(final DEServiceAsync deService) {
+        this(deService, Scheduler.get());
+    }
+
+    ServiceCallCoalescer(final DEServiceAsync deService, final Scheduler scheduler) {
+        this.deService = deService;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Queues a service call to be sent at the end of the current event loop tick.
+     *
+     * @param wrapper the service call.
+     * @param callback notified with the call's response. Authentication and redirect failures are
+     * handled the same way as {@link DiscEnvApiService#getServiceData(ServiceCallWrapper, AsyncCallback)}.
+     */
+    public void enqueue(final ServiceCallWrapper wrapper, final AsyncCallback<String> callback) {
+        if (pendingCalls.isEmpty()) {
+            scheduler.scheduleFinally(flushCommand);
+        }
+        pendingCalls.add(wrapper);
+        pendingCallbacks.add(callback);
+    }
+
+    void flush() {
+        final List<ServiceCallWrapper> calls = pendingCalls;
+        final List<AsyncCallback<String>> callbacks = pendingCallbacks;
+        pendingCalls = new ArrayList<>();
+        pendingCallbacks = new ArrayList<>();
+
+        for (int from = 0; from < calls.size(); from += MAX_BATCH_SIZE) {
+            final int to = Math.min(from + MAX_BATCH_SIZE, calls.size());
+            send(calls.subList(from, to), callbacks.subList(from, to));
+        }
+    }
+
+    private void send(final List<ServiceCallWrapper> calls, final List<AsyncCallback<String>> callbacks) {
+        if (calls.size() == 1) {
+            deService.getServiceData(calls.get(0), new AsyncCallbackWrapper<>(callbacks.get(0)));
+            return;
+        }
+
+        // The batch callback is wrapped so that a failure of the whole batch, such as an expired
+        // session, is only handled once.
+        deService.getServiceDataBatch(new ArrayList<>(calls),
+                                      new AsyncCallbackWrapper<>(new BatchCallback(new ArrayList<>(callbacks))));
+    }
+
+    /**
+     * @return true if {@link AsyncCallbackWrapper} treats the failure as the user not being logged
+     * in, which it handles by logging the user out instead of notifying the callback.
+     */
+    static boolean isAuthFailure(final Throwable caught) {
+        if (caught instanceof AuthenticationException) {
+            return true;
+        }
+        if (caught instanceof StatusCodeException) {
+            final int statusCode = ((StatusCodeException)caught).getStatusCode();
+            return statusCode == HttpStatus.SC_MOVED_TEMPORARILY || statusCode == HttpStatus.SC_UNAUTHORIZED;
+        }
+        return false;
+    }
+
+    private static final class BatchCallback implements AsyncCallback<ArrayList<ServiceCallResult>> {
+
+        private final List<AsyncCallback<String>> callbacks;
+
+        BatchCallback(final List<AsyncCallback<String>> callbacks) {
+            this.callbacks = callbacks;
+        }
+
+        @Override
+        public void onFailure(Throwable caught) {
+            for (AsyncCallback<String> callback : callbacks) {
+                callback.onFailure(caught);
+            }
+        }
+
+        /**
+         * Authentication failures of individual calls are handled once per batch, since every call
+         * fails the same way when the session has expired.
+         */
+        @Override
+        public void onSuccess(ArrayList<ServiceCallResult> results) {
+            boolean authFailureHandled = false;
+            for (int i = 0; i < callbacks.size(); i++) {
+                final AsyncCallback<String> callback = new AsyncCallbackWrapper<>(callbacks.get(i));
+                final ServiceCallResult result = results.get(i);
+                if (result.isSuccess()) {
+                    callback.onSuccess(result.getResponse());
+                } else if (!isAuthFailure(result.getFailure())) {
+                    callback.onFailure(result.getFailure());
+                } else if (!authFailureHandled) {
+                    authFailureHandled = true;
+                    callback.onFailure(result.getFailure());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.iplantc.de.shared.services;
+
+import org.iplantc.de.shared.exceptions.AuthenticationException;
+import org.iplantc.de.shared.exceptions.HttpException;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+import com.google.gwt.user.client.rpc.SerializationException;
+
+/**
+ * The outcome of a single call in a {@link DEService#getServiceDataBatch} request; either the
+ * response body or the exception the corresponding {@code getServiceData} call would have thrown.
+ */
+public class ServiceCallResult implements IsSerializable {
+
+    private String response;
+    private HttpException httpException;
+    private AuthenticationException authenticationException;
+    private String failureMessage;
+    private boolean failed;
+
+    public ServiceCallResult() {
+    }
+
+    public static ServiceCallResult success(String response) {
+        ServiceCallResult result = new ServiceCallResult();
+        result.response = response;
+        return result;
+    }
+
+    /**
+     * @param caught the exception raised by the call. HTTP and authentication errors are preserved,
+     * any other error is reported to the client as a {@link SerializationException}.
+     */
+    public static ServiceCallResult failure(Throwable caught) {
+        ServiceCallResult result = new ServiceCallResult();
+        result.failed = true;
+        if (caught instanceof HttpException) {
+            result.httpException = (HttpException)caught;
+        } else if (caught instanceof AuthenticationException) {
+            result.authenticationException = (AuthenticationException)caught;
+        } else {
+            result.failureMessage = caught.getMessage();
+        }
+        return result;
+    }
+
+    public boolean isSuccess() {
+        return !failed;
+    }
+
+    /**
+     * @return the response body, or null if the call failed.
+     */
+    public String getResponse() {
+        return response;
+    }
+
+    /**
+     * @return the exception raised by the call, or null if the call succeeded.
+     */
+    public Throwable getFailure() {
+        if (!failed) {
+            return null;
+        }
+        if (httpException != null) {
+            return httpException;
+        }
+        if (authenticationException != null) {
+            return authenticationException;
+        }
+        return new SerializationException(failureMessage);
+    }
+}
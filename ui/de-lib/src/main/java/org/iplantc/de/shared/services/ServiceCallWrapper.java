@@ -9,6 +9,11 @@ public class ServiceCallWrapper extends BaseServiceCallWrapper implements IsSeri
     private static final long serialVersionUID = 8930304388034394781L;
     private String body = "";
 
+    /**
+     * Not sent to the server; large responses are streamed instead of being returned over RPC.
+     */
+    private transient boolean largeResponse;
+
     public ServiceCallWrapper() {
     }
 
@@ -28,4 +33,23 @@ public class ServiceCallWrapper extends BaseServiceCallWrapper implements IsSeri
     public String getBody() {
         return body;
     }
+
+    /**
+     * @return true if the response to this call may be large enough that it should be streamed to
+     * the client rather than returned over RPC.
+     */
+    public boolean isLargeResponse() {
+        return largeResponse;
+    }
+
+    /**
+     * Flags this call as one which may return a large response, such as a directory listing.
+     *
+     * @param largeResponse true if the response should be streamed.
+     * @return this wrapper.
+     */
+    public ServiceCallWrapper setLargeResponse(boolean largeResponse) {
+        this.largeResponse = largeResponse;
+        return this;
+    }
 }
@@ -63,6 +63,16 @@ public class GridViewDefaultAppearance implements GridView.Appearance {
         return diskResourceMessages.dataDragDropStatusText(totalSelectionCount).asString();
     }
 
+    @Override
+    public String goToItemFieldEmptyText() {
+        return displayStrings.goToItemFieldEmptyText();
+    }
+
+    @Override
+    public int goToItemFieldWidth() {
+        return 80;
+    }
+
     @Override
     public String lastModifiedColumnLabel() {
         return iplantDisplayStrings.lastModified();
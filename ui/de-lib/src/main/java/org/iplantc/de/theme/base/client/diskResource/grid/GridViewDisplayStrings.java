@@ -15,6 +15,9 @@ public interface GridViewDisplayStrings extends Messages {
 
     String favoritesError(String message);
 
+    @Key("goToItemFieldEmptyText")
+    String goToItemFieldEmptyText();
+
     @Key("markFavoriteError")
     String markFavoriteError();
 
@@ -1,9 +1,13 @@
 package org.iplantc.de.admin.apps.client.presenter.grid;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -23,8 +27,11 @@ import org.iplantc.de.client.models.apps.AppCategory;
 import org.iplantc.de.client.models.apps.AppDoc;
 import org.iplantc.de.client.services.AppServiceFacade;
 import org.iplantc.de.commons.client.info.IplantAnnouncer;
+import org.iplantc.de.commons.client.util.IncrementalStoreFiller;
+import org.iplantc.de.commons.client.util.SteppedStoreFiller;
 
 import com.google.common.collect.Lists;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwtmockito.GwtMockitoTestRunner;
 
@@ -60,10 +67,12 @@ public class AdminAppsGridPresenterImplTest {
     @Mock Grid<App> gridMock;
     @Mock GridSelectionModel<App> selectionModelMock;
     @Mock IplantAnnouncer announcerMock;
+    @Mock Scheduler schedulerMock;
 
     @Captor ArgumentCaptor<AsyncCallback<List<App>>> appListCallbackCaptor;
     @Captor ArgumentCaptor<AsyncCallback<App>> appCallbackCaptor;
     @Captor ArgumentCaptor<AsyncCallback<Void>> voidCallbackCaptor;
+    @Captor ArgumentCaptor<Scheduler.RepeatingCommand> repeatingCommandCaptor;
 
     private AdminAppsGridPresenterImpl uut;
 
@@ -71,7 +80,12 @@ public class AdminAppsGridPresenterImplTest {
         when(viewFactoryMock.create(Matchers.<ListStore<App>>any())).thenReturn(viewMock);
         when(viewMock.getGrid()).thenReturn(gridMock);
         when(gridMock.getSelectionModel()).thenReturn(selectionModelMock);
-        uut = new AdminAppsGridPresenterImpl(viewFactoryMock, listStoreMock);
+        uut = new AdminAppsGridPresenterImpl(viewFactoryMock, listStoreMock) {
+            @Override
+            IncrementalStoreFiller<App> addAllIncrementally(List<App> apps) {
+                return SteppedStoreFiller.addAll(listStoreMock, apps, null, schedulerMock);
+            }
+        };
         uut.adminAppService = adminAppServiceMock;
         uut.appService = appServiceMock;
         uut.appearance = appearanceMock;
@@ -125,6 +139,46 @@ public class AdminAppsGridPresenterImplTest {
                                  listStoreMock);
     }
 
+    @Test public void appsAddedInChunks_onAppCategorySelectionChanged() {
+        final List<App> apps = createApps(2 * SteppedStoreFiller.CHUNK_SIZE + 50);
+
+        /*** CALL METHOD UNDER TEST ***/
+        loadCategory(apps);
+
+        verify(listStoreMock).clear();
+        verify(listStoreMock).addAll(eq(apps.subList(0, 100)));
+        verify(viewMock).unmask();
+        verify(schedulerMock).scheduleIncremental(repeatingCommandCaptor.capture());
+
+        assertTrue(repeatingCommandCaptor.getValue().execute());
+        verify(listStoreMock).addAll(eq(apps.subList(100, 200)));
+
+        assertFalse(repeatingCommandCaptor.getValue().execute());
+        verify(listStoreMock).addAll(eq(apps.subList(200, 250)));
+        verifyNoMoreInteractions(listStoreMock);
+    }
+
+    @Test public void earlierCategoryDropped_onAppSearchResultLoad() {
+        final List<App> apps = createApps(2 * SteppedStoreFiller.CHUNK_SIZE + 50);
+        loadCategory(apps);
+        verify(schedulerMock).scheduleIncremental(repeatingCommandCaptor.capture());
+
+        AppSearchResultLoadEvent eventMock = mock(AppSearchResultLoadEvent.class);
+        final List<App> results = createApps(2);
+        when(eventMock.getResults()).thenReturn(results);
+
+        /*** CALL METHOD UNDER TEST ***/
+        uut.onAppSearchResultLoad(eventMock);
+
+        verify(listStoreMock, times(2)).clear();
+        verify(listStoreMock).addAll(eq(results));
+
+        assertFalse(repeatingCommandCaptor.getValue().execute());
+        verify(listStoreMock, never()).addAll(eq(apps.subList(100, 200)));
+        verify(listStoreMock, never()).addAll(eq(apps.subList(200, 250)));
+        verifyNoMoreInteractions(schedulerMock);
+    }
+
     @Test public void verifyServiceCalled_onAppInfoSelected() {
         // Record keeping
         verify(viewMock).addAppInfoSelectedEventHandler(Matchers.<AppInfoSelectedEvent.AppInfoSelectedEventHandler>any());
@@ -284,4 +338,25 @@ public class AdminAppsGridPresenterImplTest {
         verifyZeroInteractions(appServiceMock);
     }
 
+    /**
+     * Selects a category, and returns the given apps from the service.
+     */
+    private void loadCategory(List<App> apps) {
+        AppCategorySelectionChangedEvent eventMock = mock(AppCategorySelectionChangedEvent.class);
+        AppCategory appCategoryMock = mock(AppCategory.class);
+        when(eventMock.getAppCategorySelection()).thenReturn(Lists.newArrayList(appCategoryMock));
+
+        uut.onAppCategorySelectionChanged(eventMock);
+
+        verify(appServiceMock).getApps(eq(appCategoryMock), appListCallbackCaptor.capture());
+        appListCallbackCaptor.getValue().onSuccess(apps);
+    }
+
+    private List<App> createApps(int count) {
+        List<App> apps = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            apps.add(mock(App.class));
+        }
+        return apps;
+    }
 }
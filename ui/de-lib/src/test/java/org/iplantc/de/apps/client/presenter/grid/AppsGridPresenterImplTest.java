@@ -1,9 +1,13 @@
 package org.iplantc.de.apps.client.presenter.grid;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -33,10 +37,14 @@ import org.iplantc.de.client.models.apps.AppCategory;
 import org.iplantc.de.client.services.AppMetadataServiceFacade;
 import org.iplantc.de.client.services.AppUserServiceFacade;
 import org.iplantc.de.commons.client.comments.view.dialogs.CommentsDialog;
+import org.iplantc.de.commons.client.util.IncrementalStoreFiller;
+import org.iplantc.de.commons.client.util.SteppedStoreFiller;
 import org.iplantc.de.shared.AsyncProviderWrapper;
 
 import com.google.common.collect.Lists;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwtmockito.GwtMockitoTestRunner;
@@ -87,6 +95,8 @@ public class AppsGridPresenterImplTest {
     @Captor ArgumentCaptor<AsyncCallback<Void>> voidCallbackCaptor;
     @Captor ArgumentCaptor<AsyncCallback<List<App>>> appListCallbackCaptor;
     @Mock EventBus eventBusMock;
+    @Mock Scheduler schedulerMock;
+    @Captor ArgumentCaptor<Scheduler.RepeatingCommand> repeatingCommandCaptor;
 
 
     private AppsGridPresenterImpl uut;
@@ -97,7 +107,12 @@ public class AppsGridPresenterImplTest {
         when(gridMock.getSelectionModel()).thenReturn(selectionModelMock);
         uut = new AppsGridPresenterImpl(viewFactoryMock,
                                         listStoreMock,
-                                        eventBusMock);
+                                        eventBusMock) {
+            @Override
+            IncrementalStoreFiller<App> addAllIncrementally(List<App> apps, Command onComplete) {
+                return SteppedStoreFiller.addAll(listStoreMock, apps, onComplete, schedulerMock);
+            }
+        };
         uut.appService = appServiceMock;
         uut.appUserService = appUserServiceMock;
         uut.appearance = appearanceMock;
@@ -182,6 +197,69 @@ public class AppsGridPresenterImplTest {
                                  appearanceMock);
     }
 
+    @Test public void appsAddedInChunks_onAppCategorySelected() {
+        final List<App> apps = createApps(2 * SteppedStoreFiller.CHUNK_SIZE + 50);
+        when(listStoreMock.size()).thenReturn(apps.size());
+        when(listStoreMock.get(0)).thenReturn(apps.get(0));
+
+        /*** CALL METHOD UNDER TEST ***/
+        loadCategory(apps);
+
+        verify(listStoreMock).clear();
+        verify(listStoreMock).addAll(eq(apps.subList(0, 100)));
+        verify(viewMock).unmask();
+        verify(schedulerMock).scheduleIncremental(repeatingCommandCaptor.capture());
+        verifyZeroInteractions(selectionModelMock);
+
+        assertTrue(repeatingCommandCaptor.getValue().execute());
+        verify(listStoreMock).addAll(eq(apps.subList(100, 200)));
+        verifyZeroInteractions(selectionModelMock);
+
+        assertFalse(repeatingCommandCaptor.getValue().execute());
+        verify(listStoreMock).addAll(eq(apps.subList(200, 250)));
+        verify(selectionModelMock).select(eq(apps.get(0)), eq(false));
+    }
+
+    @Test public void desiredAppSelectedOnceEveryChunkIsAdded_onAppCategorySelected() {
+        final List<App> apps = createApps(2 * SteppedStoreFiller.CHUNK_SIZE + 50);
+        final App desiredApp = apps.get(220);
+        uut.setDesiredSelectedApp(desiredApp);
+
+        /*** CALL METHOD UNDER TEST ***/
+        loadCategory(apps);
+
+        verify(schedulerMock).scheduleIncremental(repeatingCommandCaptor.capture());
+        assertTrue(repeatingCommandCaptor.getValue().execute());
+        verifyZeroInteractions(selectionModelMock);
+
+        assertFalse(repeatingCommandCaptor.getValue().execute());
+        verify(selectionModelMock).select(eq(desiredApp), eq(false));
+        verifyNoMoreInteractions(selectionModelMock);
+        assertNull(uut.getDesiredSelectedApp());
+    }
+
+    @Test public void earlierCategoryDropped_onAppSearchResultLoad() {
+        final List<App> apps = createApps(2 * SteppedStoreFiller.CHUNK_SIZE + 50);
+        loadCategory(apps);
+        verify(schedulerMock).scheduleIncremental(repeatingCommandCaptor.capture());
+
+        AppSearchResultLoadEvent eventMock = mock(AppSearchResultLoadEvent.class);
+        List<App> results = createApps(2);
+        when(eventMock.getResults()).thenReturn(results);
+
+        /*** CALL METHOD UNDER TEST ***/
+        uut.onAppSearchResultLoad(eventMock);
+
+        verify(listStoreMock, times(2)).clear();
+        verify(listStoreMock).addAll(eq(results));
+
+        assertFalse(repeatingCommandCaptor.getValue().execute());
+        verify(listStoreMock, never()).addAll(eq(apps.subList(100, 200)));
+        verify(listStoreMock, never()).addAll(eq(apps.subList(200, 250)));
+        verifyNoMoreInteractions(schedulerMock);
+        verifyZeroInteractions(selectionModelMock);
+    }
+
     @Test public void doNothingIfSelectionIsEmpty_onAppCategorySelected() {
 
         AppCategorySelectionChangedEvent eventMock = mock(AppCategorySelectionChangedEvent.class);
@@ -387,6 +465,28 @@ public class AppsGridPresenterImplTest {
                                  mock2);
     }
 
+    /**
+     * Selects a category, and returns the given apps from the service.
+     */
+    private void loadCategory(List<App> apps) {
+        AppCategorySelectionChangedEvent eventMock = mock(AppCategorySelectionChangedEvent.class);
+        AppCategory appCategoryMock = mock(AppCategory.class);
+        when(eventMock.getAppCategorySelection()).thenReturn(Lists.newArrayList(appCategoryMock));
+
+        uut.onAppCategorySelectionChanged(eventMock);
+
+        verify(appServiceMock).getApps(eq(appCategoryMock), appListCallbackCaptor.capture());
+        appListCallbackCaptor.getValue().onSuccess(apps);
+    }
+
+    private List<App> createApps(int count) {
+        List<App> apps = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            apps.add(mock(App.class));
+        }
+        return apps;
+    }
+
     private void verifyConstructor() {
         verify(viewFactoryMock).create(eq(uut.listStore));
 
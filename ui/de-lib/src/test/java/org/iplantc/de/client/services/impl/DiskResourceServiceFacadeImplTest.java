@@ -48,6 +48,7 @@ public class DiskResourceServiceFacadeImplTest {
 
     @Test public void refreshFolder_onSuccess() {
         final Folder folderMock = mock(Folder.class);
+        final Folder descendantMock = mock(Folder.class);
         DiskResourceServiceFacadeImpl spy = spy(new DiskResourceServiceFacadeImpl(deServiceFacadeMock,
                                                                                   dePropertiesMock,
                                                                                   deConstantsMock,
@@ -57,6 +58,9 @@ public class DiskResourceServiceFacadeImplTest {
             public Folder findModel(Folder model) {
                 return folderMock;
             }
+            public List<Folder> getAllChildren(Folder parent) {
+                return Lists.newArrayList(descendantMock);
+            }
             public void removeChildren(Folder parent){
 
             }
@@ -72,8 +76,11 @@ public class DiskResourceServiceFacadeImplTest {
 
 
         ArgumentCaptor<FolderRefreshedEvent> folderRefreshedEventCaptor = ArgumentCaptor.forClass(FolderRefreshedEvent.class);
-        verify(spy).removeChildren(eq(folderMock));
+        verify(spy, never()).removeChildren(Matchers.<Folder>any());
         verify(folderMock).setFolders(Matchers.<List<Folder>>eq(null));
+        // The descendants stay cached, but will be listed again.
+        verify(spy, never()).remove(Matchers.<Folder>any());
+        verify(descendantMock).setFolders(Matchers.<List<Folder>>eq(null));
 
         verify(folderListCallbackMock).onSuccess(Matchers.<List<Folder>>any());
         verify(eventBusMock).fireEvent(folderRefreshedEventCaptor.capture());
@@ -93,6 +100,10 @@ public class DiskResourceServiceFacadeImplTest {
                 return folderMock;
             }
 
+            public List<Folder> getAllChildren(Folder parent) {
+                return Lists.newArrayList();
+            }
+
             public void removeChildren(Folder parent){ }
 
             public void getSubFolders(Folder parent, AsyncCallback<List<Folder>> callback){
@@ -105,7 +116,7 @@ public class DiskResourceServiceFacadeImplTest {
         // Call unit under test
         spy.refreshFolder(folderMock, folderListCallbackMock);
 
-        verify(spy).removeChildren(eq(folderMock));
+        verify(spy, never()).removeChildren(Matchers.<Folder>any());
         verify(folderMock).setFolders(Matchers.<List<Folder>>eq(null));
 
         verify(folderListCallbackMock).onFailure(eq(throwableMock));
@@ -158,4 +169,62 @@ public class DiskResourceServiceFacadeImplTest {
                                 Matchers.<AsyncCallbackConverter<String, List<Folder>>>any());
         verify(folderListCallbackMock, never()).onSuccess(Matchers.<List<Folder>>any());
     }
-}
\ No newline at end of file
+
+    @Test public void getSubFoldersAlongPath_batchesUncachedListings() {
+        final DiskResourceServiceFacadeImpl uut = facadeWithCachedFolder("/iplant/home/ipctest", null);
+
+        // Call unit under test
+        uut.getSubFoldersAlongPath("/iplant/home/ipctest/a/b/target", folderListCallbackMock);
+
+        // The cached root and the two folders below it are listed; the folders above the root aren't.
+        verify(deServiceFacadeMock, times(3)).getServiceDataBatched(any(ServiceCallWrapper.class),
+                                                                    Matchers.<AsyncCallback<String>>any());
+        verify(deServiceFacadeMock, never()).getServiceData(any(ServiceCallWrapper.class),
+                                                            Matchers.<AsyncCallback<String>>any());
+        verifyZeroInteractions(folderListCallbackMock);
+    }
+
+    @Test public void getSubFoldersAlongPath_skipsCachedListings() {
+        final List<Folder> subFolders = Lists.newArrayList();
+        final DiskResourceServiceFacadeImpl uut = facadeWithCachedFolder("/iplant/home/ipctest/a", subFolders);
+
+        // Call unit under test
+        uut.getSubFoldersAlongPath("/iplant/home/ipctest/a/target", folderListCallbackMock);
+
+        verifyZeroInteractions(deServiceFacadeMock);
+        verify(folderListCallbackMock).onSuccess(Matchers.<List<Folder>>any());
+    }
+
+    @Test public void getSubFoldersAlongPath_onFailure() {
+        final Throwable throwableMock = mock(Throwable.class);
+        final DiskResourceServiceFacadeImpl uut = facadeWithCachedFolder("/iplant/home/ipctest", null);
+
+        // Call unit under test
+        uut.getSubFoldersAlongPath("/iplant/home/ipctest/a/target", folderListCallbackMock);
+
+        ArgumentCaptor<AsyncCallback> callbackCaptor = ArgumentCaptor.forClass(AsyncCallback.class);
+        verify(deServiceFacadeMock, times(2)).getServiceDataBatched(any(ServiceCallWrapper.class),
+                                                                    callbackCaptor.capture());
+        callbackCaptor.getAllValues().get(1).onFailure(throwableMock);
+        verifyZeroInteractions(folderListCallbackMock);
+
+        callbackCaptor.getAllValues().get(0).onFailure(throwableMock);
+        verify(folderListCallbackMock).onFailure(throwableMock);
+    }
+
+    private DiskResourceServiceFacadeImpl facadeWithCachedFolder(final String path, final List<Folder> subFolders) {
+        final Folder cachedFolderMock = mock(Folder.class);
+        when(cachedFolderMock.getPath()).thenReturn(path);
+        when(cachedFolderMock.getFolders()).thenReturn(subFolders);
+        return new DiskResourceServiceFacadeImpl(deServiceFacadeMock,
+                                                 dePropertiesMock,
+                                                 deConstantsMock,
+                                                 drAutoBeanFactoryMock,
+                                                 userInfoMock,
+                                                 eventBusMock) {
+            public List<Folder> getAll() {
+                return Lists.newArrayList(cachedFolderMock);
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package org.iplantc.de.commons.client.util;
+
+import com.google.common.collect.Lists;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.Command;
+import com.google.gwtmockito.GxtMockitoTestRunner;
+
+import com.sencha.gxt.data.shared.ListStore;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+import java.util.List;
+
+@RunWith(GxtMockitoTestRunner.class)
+public class IncrementalStoreFillerTest {
+
+    @Mock ListStore<String> storeMock;
+    @Mock Scheduler schedulerMock;
+    @Mock Command onCompleteMock;
+
+    private double now;
+    private List<String> models;
+
+    @Before public void setUp() {
+        models = Lists.newArrayList();
+        for (int i = 0; i < 250; i++) {
+            models.add("model " + i);
+        }
+    }
+
+    @Test public void smallListsAreAddedRightAway() {
+        final List<String> smallList = models.subList(0, 10);
+        final IncrementalStoreFiller<String> uut = filler(smallList, 0);
+
+        uut.start();
+
+        verify(storeMock).addAll(smallList);
+        verify(onCompleteMock).execute();
+        verifyZeroInteractions(schedulerMock);
+        assertTrue(uut.isComplete());
+    }
+
+    @Test public void chunksAreAddedOneTimeSliceAtATime() {
+        // Each chunk takes a whole time slice.
+        final IncrementalStoreFiller<String> uut = filler(models, IncrementalStoreFiller.TIME_SLICE_MS);
+
+        uut.start();
+        verify(storeMock).addAll(models.subList(0, 100));
+        verify(schedulerMock).scheduleIncremental(uut);
+        verify(onCompleteMock, never()).execute();
+
+        assertTrue(uut.execute());
+        verify(storeMock).addAll(models.subList(100, 200));
+
+        assertFalse(uut.execute());
+        verify(storeMock).addAll(models.subList(200, 250));
+        verify(onCompleteMock).execute();
+        assertTrue(uut.isComplete());
+    }
+
+    @Test public void cancelledFillersStop() {
+        final IncrementalStoreFiller<String> uut = filler(models, IncrementalStoreFiller.TIME_SLICE_MS);
+        uut.start();
+        verify(storeMock).addAll(models.subList(0, 100));
+
+        uut.cancel();
+
+        assertFalse(uut.execute());
+        verifyNoMoreInteractions(storeMock);
+        verifyZeroInteractions(onCompleteMock);
+        assertFalse(uut.isComplete());
+    }
+
+    private IncrementalStoreFiller<String> filler(final List<String> models, final double chunkDuration) {
+        return new IncrementalStoreFiller<String>(storeMock, models, onCompleteMock, schedulerMock) {
+            @Override
+            double now() {
+                final double current = now;
+                now += chunkDuration;
+                return current;
+            }
+        };
+    }
+}
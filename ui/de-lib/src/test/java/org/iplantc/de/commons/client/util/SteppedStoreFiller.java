@@ -0,0 +1,46 @@
+package org.iplantc.de.commons.client.util;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.Command;
+
+import com.sencha.gxt.data.shared.ListStore;
+
+import java.util.List;
+
+/**
+ * An {@link IncrementalStoreFiller} for presenter tests, where every chunk takes a whole time slice.
+ * One chunk is added when the filler starts, and one more each time the command scheduled with the
+ * given scheduler is executed.
+ */
+public class SteppedStoreFiller<M> extends IncrementalStoreFiller<M> {
+
+    public static final int CHUNK_SIZE = IncrementalStoreFiller.CHUNK_SIZE;
+
+    private double now;
+
+    public SteppedStoreFiller(final ListStore<M> store,
+                              final List<? extends M> models,
+                              final Command onComplete,
+                              final Scheduler scheduler) {
+        super(store, models, onComplete, scheduler);
+    }
+
+    /**
+     * Adds the first chunk of the given models to the store, and schedules the rest.
+     */
+    public static <M> SteppedStoreFiller<M> addAll(final ListStore<M> store,
+                                                   final List<? extends M> models,
+                                                   final Command onComplete,
+                                                   final Scheduler scheduler) {
+        SteppedStoreFiller<M> filler = new SteppedStoreFiller<>(store, models, onComplete, scheduler);
+        filler.start();
+        return filler;
+    }
+
+    @Override
+    double now() {
+        final double current = now;
+        now += TIME_SLICE_MS;
+        return current;
+    }
+}
@@ -0,0 +1,216 @@
+package org.iplantc.de.diskResource.client.presenters.grid.proxy;
+
+import org.iplantc.de.client.events.EventBus;
+import org.iplantc.de.client.models.diskResources.DiskResourceAutoBeanFactory;
+import org.iplantc.de.client.models.diskResources.File;
+import org.iplantc.de.client.models.diskResources.Folder;
+import org.iplantc.de.client.models.diskResources.TYPE;
+import org.iplantc.de.client.models.viewer.InfoType;
+import org.iplantc.de.client.services.DiskResourceServiceFacade;
+import org.iplantc.de.client.util.DiskResourceUtil;
+
+import com.google.common.collect.Lists;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.gwtmockito.GxtMockitoTestRunner;
+import com.google.web.bindery.autobean.shared.AutoBean;
+
+import com.sencha.gxt.data.shared.SortDir;
+import com.sencha.gxt.data.shared.SortInfoBean;
+import com.sencha.gxt.data.shared.loader.FilterPagingLoadConfigBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(GxtMockitoTestRunner.class)
+public class FolderContentsPageCacheTest {
+
+    private static final String PATH = "/iplant/home/ipctest/analyses";
+
+    @Mock DiskResourceServiceFacade drServiceMock;
+    @Mock DiskResourceAutoBeanFactory drFactoryMock;
+    @Mock AutoBean<Folder> folderBeanMock;
+    @Mock Folder rangeMock;
+    @Mock EventBus eventBusMock;
+    @Mock DiskResourceUtil diskResourceUtilMock;
+    @Mock Folder folderMock;
+    @Mock AsyncCallback<Folder> callbackMock;
+
+    @Captor ArgumentCaptor<AsyncCallback<Folder>> folderCallbackCaptor;
+    @Captor ArgumentCaptor<FilterPagingLoadConfigBean> loadConfigCaptor;
+    @Captor ArgumentCaptor<List<File>> filesCaptor;
+
+    private long now;
+    private FolderContentsPageCache uut;
+
+    @Before public void setUp() {
+        when(folderMock.getPath()).thenReturn(PATH);
+        when(drFactoryMock.folder()).thenReturn(folderBeanMock);
+        when(folderBeanMock.as()).thenReturn(rangeMock);
+        uut = new FolderContentsPageCache(drServiceMock, drFactoryMock, eventBusMock, diskResourceUtilMock) {
+            @Override
+            long now() {
+                return now;
+            }
+        };
+    }
+
+    @Test public void repeatedLoadsAreServedFromTheCache() {
+        final FolderContentsLoadConfig loadConfig = loadConfig(0, 100, "NAME", SortDir.ASC);
+        final Folder page = page(50);
+
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig, callbackMock);
+        respond(1, page);
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig, callbackMock);
+
+        verify(callbackMock, times(2)).onSuccess(page);
+        verifyNoMoreInteractions(drServiceMock);
+    }
+
+    @Test public void pagesAreKeyedBySortOrder() {
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig(0, 100, "NAME", SortDir.ASC), callbackMock);
+        respond(1, page(50));
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig(0, 100, "NAME", SortDir.DESC), callbackMock);
+
+        verify(drServiceMock, times(2)).getFolderContents(eq(folderMock),
+                                                          anyListOf(InfoType.class),
+                                                          eq(TYPE.ANY),
+                                                          any(FilterPagingLoadConfigBean.class),
+                                                          folderCallbackCaptor.capture());
+    }
+
+    @Test public void nothingIsPrefetched() {
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig(0, 500, "NAME", SortDir.ASC), callbackMock);
+        respond(1, page(2000, 500));
+
+        verifyNoMoreInteractions(drServiceMock);
+    }
+
+    @Test public void aScrollOffsetIsServedFromACoveringPage() {
+        final Folder page = page(500, 500);
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig(0, 500, "NAME", SortDir.ASC), callbackMock);
+        respond(1, page);
+
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig(120, 500, "NAME", SortDir.ASC), callbackMock);
+
+        verifyNoMoreInteractions(drServiceMock);
+        verify(callbackMock).onSuccess(rangeMock);
+        verify(rangeMock).setFiles(filesCaptor.capture());
+        assertEquals(page.getFiles().subList(120, 500), filesCaptor.getValue());
+        verify(rangeMock).setTotal(500);
+    }
+
+    @Test public void aScrollOffsetIsServedFromAdjacentPages() {
+        final Folder firstPage = page(1200, 500);
+        final Folder secondPage = page(1200, 500);
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig(0, 500, "SIZE", SortDir.DESC), callbackMock);
+        respond(1, firstPage);
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig(500, 500, "SIZE", SortDir.DESC), callbackMock);
+        respond(2, secondPage);
+
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig(380, 500, "SIZE", SortDir.DESC), callbackMock);
+
+        verifyNoMoreInteractions(drServiceMock);
+        verify(rangeMock).setFiles(filesCaptor.capture());
+        final List<File> expected = Lists.newArrayList(firstPage.getFiles().subList(380, 500));
+        expected.addAll(secondPage.getFiles().subList(0, 380));
+        assertEquals(expected, filesCaptor.getValue());
+    }
+
+    @Test public void aScrollOffsetPastTheCachedRowsIsLoaded() {
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig(0, 500, "NAME", SortDir.ASC), callbackMock);
+        respond(1, page(1200, 500));
+
+        final FolderContentsLoadConfig scrolled = loadConfig(380, 500, "NAME", SortDir.ASC);
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, scrolled, callbackMock);
+
+        verify(drServiceMock, times(2)).getFolderContents(eq(folderMock),
+                                                          anyListOf(InfoType.class),
+                                                          eq(TYPE.ANY),
+                                                          loadConfigCaptor.capture(),
+                                                          folderCallbackCaptor.capture());
+        assertSame(scrolled, loadConfigCaptor.getValue());
+    }
+
+    @Test public void creatingAFolderDropsThePagesOfItsParent() {
+        final FolderContentsLoadConfig loadConfig = loadConfig(0, 100, "NAME", SortDir.ASC);
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig, callbackMock);
+        respond(1, page(50));
+
+        uut.onFolderCreated(folderMock, mock(Folder.class));
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig, callbackMock);
+
+        verify(drServiceMock, times(2)).getFolderContents(eq(folderMock),
+                                                          anyListOf(InfoType.class),
+                                                          eq(TYPE.ANY),
+                                                          eq(loadConfig),
+                                                          folderCallbackCaptor.capture());
+    }
+
+    @Test public void pagesExpire() {
+        final FolderContentsLoadConfig loadConfig = loadConfig(0, 100, "NAME", SortDir.ASC);
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig, callbackMock);
+        respond(1, page(50));
+
+        now += FolderContentsPageCache.MAX_AGE_MS + 1;
+        uut.getFolderContents(folderMock, Collections.<InfoType>emptyList(), TYPE.ANY, loadConfig, callbackMock);
+
+        verify(drServiceMock, times(2)).getFolderContents(eq(folderMock),
+                                                          anyListOf(InfoType.class),
+                                                          eq(TYPE.ANY),
+                                                          eq(loadConfig),
+                                                          folderCallbackCaptor.capture());
+    }
+
+    private void respond(int requests, Folder page) {
+        verify(drServiceMock, times(requests)).getFolderContents(eq(folderMock),
+                                                                 anyListOf(InfoType.class),
+                                                                 eq(TYPE.ANY),
+                                                                 any(FilterPagingLoadConfigBean.class),
+                                                                 folderCallbackCaptor.capture());
+        folderCallbackCaptor.getValue().onSuccess(page);
+    }
+
+    private static Folder page(int total) {
+        return page(total, 0);
+    }
+
+    /**
+     * @return a page with the given number of files.
+     */
+    private static Folder page(int total, int rows) {
+        final List<File> files = Lists.newArrayList();
+        for (int i = 0; i < rows; i++) {
+            files.add(mock(File.class));
+        }
+        final Folder page = mock(Folder.class);
+        when(page.getTotal()).thenReturn(total);
+        when(page.getFiles()).thenReturn(files);
+        return page;
+    }
+
+    private static FolderContentsLoadConfig loadConfig(int offset, int limit, String sortField, SortDir sortDir) {
+        final FolderContentsLoadConfig loadConfig = new FolderContentsLoadConfig();
+        final List<SortInfoBean> sortInfo = Lists.newArrayList(new SortInfoBean(sortField, sortDir));
+        loadConfig.setSortInfo(sortInfo);
+        loadConfig.setOffset(offset);
+        loadConfig.setLimit(limit);
+        return loadConfig;
+    }
+}
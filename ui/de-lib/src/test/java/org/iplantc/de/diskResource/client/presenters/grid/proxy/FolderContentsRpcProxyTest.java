@@ -5,7 +5,6 @@ import org.iplantc.de.client.models.diskResources.Folder;
 import org.iplantc.de.client.models.diskResources.TYPE;
 import org.iplantc.de.client.models.search.DiskResourceQueryTemplate;
 import org.iplantc.de.client.models.viewer.InfoType;
-import org.iplantc.de.client.services.DiskResourceServiceFacade;
 import org.iplantc.de.client.services.FileSystemMetadataServiceFacade;
 import org.iplantc.de.client.services.SearchServiceFacade;
 import org.iplantc.de.commons.client.info.IplantAnnouncer;
@@ -50,7 +49,7 @@ import java.util.List;
 @RunWith(GxtMockitoTestRunner.class)
 public class FolderContentsRpcProxyTest {
 
-    @Mock DiskResourceServiceFacade diskResourceService;
+    @Mock FolderContentsPageCache pageCacheMock;
     @Mock SearchServiceFacade searchServiceMock;
     @Mock IplantAnnouncer announcer;
 
@@ -66,7 +65,7 @@ public class FolderContentsRpcProxyTest {
 
     @Before
     public void setUp() {
-        folderContentsRpcProxy = new FolderContentsRpcProxyImpl(diskResourceService,
+        folderContentsRpcProxy = new FolderContentsRpcProxyImpl(pageCacheMock,
                                                                 searchServiceMock,
                                                                 mockFileSystemMetadataService,
                                                                 announcer,
@@ -97,12 +96,12 @@ public class FolderContentsRpcProxyTest {
 
         ArgumentCaptor<FolderContentsRpcProxyImpl.FolderContentsCallback> callBackCaptor
             = ArgumentCaptor.forClass(FolderContentsRpcProxyImpl.FolderContentsCallback.class);
-        verify(diskResourceService).getFolderContents(eq(mockFolder), anyList(), any(TYPE.class), eq(loadConfigMock), callBackCaptor.capture());
+        verify(pageCacheMock).getFolderContents(eq(mockFolder), anyList(), any(TYPE.class), eq(loadConfigMock), callBackCaptor.capture());
 
         assertEquals(loadConfigMock, callBackCaptor.getValue().getLoadConfig());
         assertEquals(pagingAsyncMock, callBackCaptor.getValue().getCallback());
         verifyZeroInteractions(searchServiceMock);
-        verifyNoMoreInteractions(diskResourceService, pagingAsyncMock);
+        verifyNoMoreInteractions(pageCacheMock, pagingAsyncMock);
     }
 
     /**
@@ -124,7 +123,7 @@ public class FolderContentsRpcProxyTest {
         assertTrue(pagingLoadResultArgumentCaptor.getValue().getData().isEmpty());
 
         verifyNoMoreInteractions(pagingAsyncMock);
-        verifyZeroInteractions(diskResourceService, searchServiceMock);
+        verifyZeroInteractions(pageCacheMock, searchServiceMock);
     }
 
     /**
@@ -146,7 +145,7 @@ public class FolderContentsRpcProxyTest {
         assertEquals(pagingAsyncMock, callBackCaptor.getValue().getCallback());
 
         verifyNoMoreInteractions(searchServiceMock, pagingAsyncMock);
-        verifyZeroInteractions(diskResourceService);
+        verifyZeroInteractions(pageCacheMock);
     }
 
     /**
@@ -167,7 +166,7 @@ public class FolderContentsRpcProxyTest {
 
         ArgumentCaptor<FolderContentsRpcProxyImpl.FolderContentsCallback> callBackCaptor
             = ArgumentCaptor.forClass(FolderContentsRpcProxyImpl.FolderContentsCallback.class);
-        verify(diskResourceService).getFolderContents(any(Folder.class), anyList(), any(TYPE.class), eq(loadConfigMock), callBackCaptor.capture());
+        verify(pageCacheMock).getFolderContents(any(Folder.class), anyList(), any(TYPE.class), eq(loadConfigMock), callBackCaptor.capture());
 
         // Call method under test
         Folder f = mock(Folder.class);
@@ -177,7 +176,7 @@ public class FolderContentsRpcProxyTest {
         verify(pagingAsyncMock).onSuccess(any(PagingLoadResultBean.class));
         verify(mockHasSafeHtml).setHTML(SafeHtmlUtils.fromString((f.getName() != null) ? f.getName() : ""));
 
-        verifyNoMoreInteractions(mockHasSafeHtml, diskResourceService, pagingAsyncMock);
+        verifyNoMoreInteractions(mockHasSafeHtml, pageCacheMock, pagingAsyncMock);
         verifyZeroInteractions(searchServiceMock);
     }
 
@@ -196,7 +195,7 @@ public class FolderContentsRpcProxyTest {
 
         ArgumentCaptor<FolderContentsRpcProxyImpl.FolderContentsCallback> callBackCaptor
             = ArgumentCaptor.forClass(FolderContentsRpcProxyImpl.FolderContentsCallback.class);
-        verify(diskResourceService).getFolderContents(any(Folder.class), anyList(), any(TYPE.class), eq(loadConfigMock), callBackCaptor.capture());
+        verify(pageCacheMock).getFolderContents(any(Folder.class), anyList(), any(TYPE.class), eq(loadConfigMock), callBackCaptor.capture());
 
         callBackCaptor.getValue().onSuccess(null);
         verify(pagingAsyncMock).onFailure(any(Throwable.class));
@@ -217,7 +216,7 @@ public class FolderContentsRpcProxyTest {
 
         ArgumentCaptor<FolderContentsRpcProxyImpl.FolderContentsCallback> callBackCaptor
             = ArgumentCaptor.forClass(FolderContentsRpcProxyImpl.FolderContentsCallback.class);
-        verify(diskResourceService).getFolderContents(any(Folder.class), anyList(), any(TYPE.class), eq(loadConfigMock), callBackCaptor.capture());
+        verify(pageCacheMock).getFolderContents(any(Folder.class), anyList(), any(TYPE.class), eq(loadConfigMock), callBackCaptor.capture());
 
         callBackCaptor.getValue().onFailure(mock(Throwable.class));
         verify(pagingAsyncMock).onFailure(any(Throwable.class));
@@ -259,7 +258,7 @@ public class FolderContentsRpcProxyTest {
         verify(mockHasSafeHtml).setHTML(SafeHtmlUtils.fromString(searchText));
 
         verifyNoMoreInteractions(mockHasSafeHtml, searchServiceMock, pagingAsyncMock);
-        verifyZeroInteractions(diskResourceService);
+        verifyZeroInteractions(pageCacheMock);
     }
 
 }
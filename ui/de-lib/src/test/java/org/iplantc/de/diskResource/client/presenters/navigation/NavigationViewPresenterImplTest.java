@@ -18,6 +18,7 @@ import org.iplantc.de.diskResource.client.views.navigation.NavigationViewDnDHand
 
 import com.google.common.collect.Lists;
 import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwtmockito.GxtMockitoTestRunner;
 
 import com.sencha.gxt.data.shared.TreeStore;
@@ -36,6 +37,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import org.junit.Before;
 import org.junit.Test;
@@ -265,7 +267,7 @@ public class NavigationViewPresenterImplTest {
     @Test public void onFolderRefreshed_methodCalled() {
         final NavigationPresenterImpl spy = spy(new NavigationPresenterImpl(viewFactoryMock, treeStoreMock, folderRpcProxyMock, diskResourceUtilMock, eventBusMock, appearanceMock) {
             @Override
-            public void reloadTreeStoreFolderChildren(Folder folder) {
+            void syncTreeStoreFolderChildren(Folder folder, boolean syncDescendants) {
             }
         });
         verify(viewMock, times(2)).addFolderSelectedEventHandler(Matchers.<FolderSelectionEvent.FolderSelectionEventHandler>any());
@@ -279,7 +281,7 @@ public class NavigationViewPresenterImplTest {
         spy.onFolderRefreshed(eventMock);
 
         verify(eventMock).getFolder();
-        verify(spy).reloadTreeStoreFolderChildren(eq(folderMock));
+        verify(spy).syncTreeStoreFolderChildren(eq(folderMock), eq(true));
 
         verifyNoMoreInteractions(viewMock,
                                  eventMock,
@@ -427,6 +429,226 @@ public class NavigationViewPresenterImplTest {
         verify(treeLoaderMock, never()).load(Matchers.<Folder>any());
     }
 
+    @Test public void syncTreeStoreFolderChildren_notLoaded_reloads() {
+        final NavigationPresenterImpl spy = spy(new NavigationPresenterImpl(viewFactoryMock,
+                                                                            treeStoreMock,
+                                                                            folderRpcProxyMock,
+                                                                            diskResourceUtilMock,
+                                                                            eventBusMock,
+                                                                            appearanceMock){
+            TreeLoader<Folder> initTreeLoader(final DiskResourceView.FolderRpcProxy rpcProxy){
+                return treeLoaderMock;
+            }
+        });
+
+        Folder folderMock = initMockFolder("/test/path1");
+        when(folderMock.getId()).thenReturn("mockId");
+        when(treeStoreMock.findModel(eq(folderMock))).thenReturn(folderMock);
+        when(treeMock.findNode(Matchers.<Folder>any())).thenReturn(treeNodeMock);
+        when(treeNodeMock.isLoaded()).thenReturn(false);
+
+        /** CALL METHOD UNDER TEST **/
+        spy.syncTreeStoreFolderChildren(folderMock);
+
+        verify(spy).reloadTreeStoreFolderChildren(eq(folderMock));
+        verifyZeroInteractions(folderRpcProxyMock);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test public void syncTreeStoreFolderChildren_loaded_onlyChangedFoldersApplied() {
+        final NavigationPresenterImpl spy = spy(new NavigationPresenterImpl(viewFactoryMock,
+                                                                            treeStoreMock,
+                                                                            folderRpcProxyMock,
+                                                                            diskResourceUtilMock,
+                                                                            eventBusMock,
+                                                                            appearanceMock){
+            TreeLoader<Folder> initTreeLoader(final DiskResourceView.FolderRpcProxy rpcProxy){
+                return treeLoaderMock;
+            }
+        });
+
+        Folder folderMock = initMockFolder("/test/path1");
+        when(folderMock.getId()).thenReturn("parentId");
+        Folder keptMock = initMockFolder("/test/path1/kept");
+        when(keptMock.getId()).thenReturn("keptId");
+        Folder removedMock = initMockFolder("/test/path1/removed");
+        when(removedMock.getId()).thenReturn("removedId");
+        Folder createdMock = initMockFolder("/test/path1/created");
+        when(createdMock.getId()).thenReturn("createdId");
+
+        when(treeStoreMock.findModel(eq(folderMock))).thenReturn(folderMock);
+        when(treeStoreMock.getChildren(eq(folderMock))).thenReturn(Lists.newArrayList(keptMock, removedMock),
+                                                                   Lists.newArrayList(keptMock, createdMock));
+        when(treeStoreMock.findModelWithKey("keptId")).thenReturn(keptMock);
+        when(treeStoreMock.getParent(keptMock)).thenReturn(folderMock);
+        when(treeStoreMock.getChildCount(eq(folderMock))).thenReturn(2);
+        when(treeMock.findNode(Matchers.<Folder>any())).thenReturn(treeNodeMock);
+        when(treeNodeMock.isLoaded()).thenReturn(true);
+
+        /** CALL METHOD UNDER TEST **/
+        spy.syncTreeStoreFolderChildren(folderMock);
+
+        ArgumentCaptor<AsyncCallback> callbackCaptor = ArgumentCaptor.forClass(AsyncCallback.class);
+        verify(folderRpcProxyMock).load(eq(folderMock), callbackCaptor.capture());
+        callbackCaptor.getValue().onSuccess(Lists.newArrayList(keptMock, createdMock));
+
+        verify(treeStoreMock).remove(removedMock);
+        verify(treeStoreMock).add(folderMock, createdMock);
+        verify(treeStoreMock, never()).update(Matchers.<Folder>any());
+        verify(treeStoreMock, never()).removeChildren(Matchers.<Folder>any());
+        verify(spy, never()).reloadTreeStoreFolderChildren(Matchers.<Folder>any());
+        verifyZeroInteractions(treeLoaderMock);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test public void onFolderCreated_siblingSubtreesKept() {
+        final NavigationPresenterImpl spy = spy(new NavigationPresenterImpl(viewFactoryMock,
+                                                                            treeStoreMock,
+                                                                            folderRpcProxyMock,
+                                                                            diskResourceUtilMock,
+                                                                            eventBusMock,
+                                                                            appearanceMock){
+            TreeLoader<Folder> initTreeLoader(final DiskResourceView.FolderRpcProxy rpcProxy){
+                return treeLoaderMock;
+            }
+        });
+
+        Folder folderMock = initMockFolder("/test/path1");
+        when(folderMock.getId()).thenReturn("parentId");
+        Folder expandedMock = initMockFolder("/test/path1/expanded");
+        when(expandedMock.getId()).thenReturn("expandedId");
+        Folder collapsedMock = initMockFolder("/test/path1/collapsed");
+        when(collapsedMock.getId()).thenReturn("collapsedId");
+        Folder createdMock = initMockFolder("/test/path1/created");
+        when(createdMock.getId()).thenReturn("createdId");
+        Tree.TreeNode<Folder> collapsedNodeMock = mock(Tree.TreeNode.class);
+
+        when(treeStoreMock.findModel(eq(folderMock))).thenReturn(folderMock);
+        when(treeStoreMock.getChildren(eq(folderMock))).thenReturn(Lists.newArrayList(expandedMock, collapsedMock));
+        when(treeStoreMock.findModelWithKey("expandedId")).thenReturn(expandedMock);
+        when(treeStoreMock.findModelWithKey("collapsedId")).thenReturn(collapsedMock);
+        when(treeStoreMock.getParent(expandedMock)).thenReturn(folderMock);
+        when(treeStoreMock.getParent(collapsedMock)).thenReturn(folderMock);
+        when(treeStoreMock.getChildCount(eq(folderMock))).thenReturn(3);
+        when(treeMock.findNode(Matchers.<Folder>any())).thenReturn(treeNodeMock);
+        when(treeMock.findNode(eq(collapsedMock))).thenReturn(collapsedNodeMock);
+        when(treeNodeMock.isLoaded()).thenReturn(true);
+        when(collapsedNodeMock.isLoaded()).thenReturn(true);
+        when(treeMock.isExpanded(eq(expandedMock))).thenReturn(true);
+
+        /** CALL METHOD UNDER TEST **/
+        spy.onFolderCreated(folderMock, createdMock);
+
+        ArgumentCaptor<AsyncCallback> callbackCaptor = ArgumentCaptor.forClass(AsyncCallback.class);
+        verify(folderRpcProxyMock).load(eq(folderMock), callbackCaptor.capture());
+        callbackCaptor.getValue().onSuccess(Lists.newArrayList(expandedMock, collapsedMock, createdMock));
+
+        verify(treeStoreMock).add(folderMock, createdMock);
+        verify(treeStoreMock, never()).remove(Matchers.<Folder>any());
+        verify(treeStoreMock, never()).removeChildren(Matchers.<Folder>any());
+        verify(collapsedNodeMock, never()).setLoaded(false);
+        verify(folderRpcProxyMock, never()).load(eq(expandedMock), Matchers.<AsyncCallback<List<Folder>>>any());
+        verify(spy, never()).reloadTreeStoreFolderChildren(Matchers.<Folder>any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test public void onFolderRefreshed_expandedMerged_collapsedUnloaded() {
+        final NavigationPresenterImpl spy = spy(new NavigationPresenterImpl(viewFactoryMock,
+                                                                            treeStoreMock,
+                                                                            folderRpcProxyMock,
+                                                                            diskResourceUtilMock,
+                                                                            eventBusMock,
+                                                                            appearanceMock){
+            TreeLoader<Folder> initTreeLoader(final DiskResourceView.FolderRpcProxy rpcProxy){
+                return treeLoaderMock;
+            }
+        });
+
+        Folder folderMock = initMockFolder("/test/path1");
+        when(folderMock.getId()).thenReturn("parentId");
+        Folder expandedMock = initMockFolder("/test/path1/expanded");
+        when(expandedMock.getId()).thenReturn("expandedId");
+        Folder collapsedMock = initMockFolder("/test/path1/collapsed");
+        when(collapsedMock.getId()).thenReturn("collapsedId");
+        Folder newMock = initMockFolder("/test/path1/expanded/new");
+        when(newMock.getId()).thenReturn("newId");
+        Tree.TreeNode<Folder> parentNodeMock = mock(Tree.TreeNode.class);
+        Tree.TreeNode<Folder> collapsedNodeMock = mock(Tree.TreeNode.class);
+        FolderRefreshedEvent eventMock = mock(FolderRefreshedEvent.class);
+        when(eventMock.getFolder()).thenReturn(folderMock);
+
+        when(treeStoreMock.findModel(eq(folderMock))).thenReturn(folderMock);
+        when(treeStoreMock.getChildren(eq(folderMock))).thenReturn(Lists.newArrayList(expandedMock, collapsedMock));
+        when(treeStoreMock.findModelWithKey("expandedId")).thenReturn(expandedMock);
+        when(treeStoreMock.findModelWithKey("collapsedId")).thenReturn(collapsedMock);
+        when(treeStoreMock.getParent(expandedMock)).thenReturn(folderMock);
+        when(treeStoreMock.getParent(collapsedMock)).thenReturn(folderMock);
+        when(treeStoreMock.getChildCount(eq(folderMock))).thenReturn(2);
+        when(treeStoreMock.findModel(eq(expandedMock))).thenReturn(expandedMock);
+        when(treeStoreMock.findModel(eq(collapsedMock))).thenReturn(collapsedMock);
+        when(treeStoreMock.getChildren(eq(expandedMock))).thenReturn(Lists.<Folder>newArrayList());
+        when(treeStoreMock.getChildCount(eq(expandedMock))).thenReturn(1);
+        when(treeMock.findNode(eq(folderMock))).thenReturn(parentNodeMock);
+        when(treeMock.findNode(eq(expandedMock))).thenReturn(treeNodeMock);
+        when(treeMock.findNode(eq(collapsedMock))).thenReturn(collapsedNodeMock);
+        when(parentNodeMock.isLoaded()).thenReturn(true);
+        when(treeNodeMock.isLoaded()).thenReturn(true);
+        when(collapsedNodeMock.isLoaded()).thenReturn(true);
+        when(treeMock.isExpanded(eq(expandedMock))).thenReturn(true);
+
+        /** CALL METHOD UNDER TEST **/
+        spy.onFolderRefreshed(eventMock);
+
+        ArgumentCaptor<AsyncCallback> parentCallbackCaptor = ArgumentCaptor.forClass(AsyncCallback.class);
+        verify(folderRpcProxyMock).load(eq(folderMock), parentCallbackCaptor.capture());
+        parentCallbackCaptor.getValue().onSuccess(Lists.newArrayList(expandedMock, collapsedMock));
+
+        verify(treeStoreMock).removeChildren(collapsedMock);
+        verify(collapsedNodeMock).setLoaded(false);
+
+        ArgumentCaptor<AsyncCallback> callbackCaptor = ArgumentCaptor.forClass(AsyncCallback.class);
+        verify(folderRpcProxyMock).load(eq(expandedMock), callbackCaptor.capture());
+        verify(folderRpcProxyMock, never()).load(eq(collapsedMock), Matchers.<AsyncCallback<List<Folder>>>any());
+        callbackCaptor.getValue().onSuccess(Lists.newArrayList(newMock));
+
+        verify(treeStoreMock).add(expandedMock, newMock);
+        verify(spy, never()).reloadTreeStoreFolderChildren(Matchers.<Folder>any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test public void syncTreeStoreFolderChildren_mismatch_reloads() {
+        final NavigationPresenterImpl spy = spy(new NavigationPresenterImpl(viewFactoryMock,
+                                                                            treeStoreMock,
+                                                                            folderRpcProxyMock,
+                                                                            diskResourceUtilMock,
+                                                                            eventBusMock,
+                                                                            appearanceMock){
+            TreeLoader<Folder> initTreeLoader(final DiskResourceView.FolderRpcProxy rpcProxy){
+                return treeLoaderMock;
+            }
+        });
+
+        Folder folderMock = initMockFolder("/test/path1");
+        when(folderMock.getId()).thenReturn("parentId");
+        Folder createdMock = initMockFolder("/test/path1/created");
+        when(createdMock.getId()).thenReturn("createdId");
+
+        when(treeStoreMock.findModel(eq(folderMock))).thenReturn(folderMock);
+        when(treeStoreMock.getChildren(eq(folderMock))).thenReturn(Lists.<Folder>newArrayList());
+        when(treeStoreMock.getChildCount(eq(folderMock))).thenReturn(0);
+        when(treeMock.findNode(Matchers.<Folder>any())).thenReturn(treeNodeMock);
+        when(treeNodeMock.isLoaded()).thenReturn(true);
+
+        /** CALL METHOD UNDER TEST **/
+        spy.syncTreeStoreFolderChildren(folderMock);
+
+        ArgumentCaptor<AsyncCallback> callbackCaptor = ArgumentCaptor.forClass(AsyncCallback.class);
+        verify(folderRpcProxyMock).load(eq(folderMock), callbackCaptor.capture());
+        callbackCaptor.getValue().onSuccess(Lists.newArrayList(createdMock));
+
+        verify(spy).reloadTreeStoreFolderChildren(eq(folderMock));
+    }
+
     private Folder initMockFolder(String path) {
         Folder folder = mock(Folder.class);
         when(folder.getPath()).thenReturn(path);
@@ -113,12 +113,12 @@ public class SelectFolderByPathLoadHandlerTest {
                                                                      folderRefresherMock, appearanceMock,
                                                                      maskableMock, announcerMock,
                                                                      handlerRegistrationMock));
-        // The initPathsToLoad method should call presenterMock#expandFolder on rootPath.
+        // The initPathsToLoad method should list the rest of the path and expand rootPath.
         loadHandlerUnderTest.initPathsToLoad();
         verifyPresenterInit();
         verify(presenterMock, times(4)).getFolderByPath(anyString());
         verify(presenterMock).isLoaded(rootPathFolderMock);
-        expandInOrder.verify(presenterMock).expandFolder(rootPathFolderMock);
+        expandInOrder.verify(presenterMock).expandFolderPath(rootPathFolderMock, targetFolderPath);
 
         // The next onLoad method should call presenterMock#expandFolder on targetFolderParentParentPath.
         when(eventMock.getLoadConfig()).thenReturn(rootPathFolderMock);
@@ -170,7 +170,7 @@ public class SelectFolderByPathLoadHandlerTest {
         verifyPresenterInit();
         verify(presenterMock, times(4)).getFolderByPath(anyString());
         verify(presenterMock).isLoaded(rootPathFolderMock);
-        expandInOrder.verify(presenterMock).expandFolder(rootPathFolderMock);
+        expandInOrder.verify(presenterMock).expandFolderPath(rootPathFolderMock, targetFolderPath);
 
         // The next onLoad method should call presenterMock#expandFolder on targetFolderParentParentPath.
         when(eventMock.getLoadConfig()).thenReturn(rootPathFolderMock);
@@ -0,0 +1,59 @@
+package org.iplantc.de.server;
+
+import org.iplantc.de.shared.services.BaseServiceCallWrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class AppLoggerUtilTest {
+
+    private final AppLoggerUtil uut = AppLoggerUtil.getInstance();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test public void requestJsonMatchesRequestMap() throws Exception {
+        final HttpGet get = new HttpGet("https://terrain:8443/secured/filesystem/paged-directory?path=/iplant/home&limit=100&flag");
+        get.addHeader("X-DE-request-id", "UI-1");
+        get.addHeader("Accept", "text/plain");
+        get.addHeader("Accept", "application/json");
+
+        final Map<?, ?> expected = uut.createMdcRequestMap(get, null);
+        assertEquals(mapper.readTree(mapper.writeValueAsString(expected)),
+                     mapper.readTree(uut.createMdcRequestJson(get, null)));
+    }
+
+    @Test public void requestJsonWithoutQuery() throws Exception {
+        final HttpGet get = new HttpGet("http://apps/apps/categories");
+
+        final Map<?, ?> expected = uut.createMdcRequestMap(get, null);
+        assertEquals(mapper.readTree(mapper.writeValueAsString(expected)),
+                     mapper.readTree(uut.createMdcRequestJson(get, null)));
+    }
+
+    @Test public void responseJsonMatchesResponseMap() throws Exception {
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        response.addHeader("X-DE-request-id", "UI-1");
+        response.addHeader("Content-Type", "application/json");
+
+        final Map<?, ?> expected = uut.createMdcResponseMap(response,
+                                                           BaseServiceCallWrapper.Type.GET,
+                                                           "/apps/categories",
+                                                           "{}",
+                                                           42);
+        assertEquals(mapper.readTree(mapper.writeValueAsString(expected)),
+                     mapper.readTree(uut.createMdcResponseJson(response,
+                                                               BaseServiceCallWrapper.Type.GET,
+                                                               "/apps/categories",
+                                                               "{}",
+                                                               42)));
+    }
+}
@@ -0,0 +1,142 @@
+package org.iplantc.de.server;
+
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the cost of resolving named service calls from several threads at once, with the
+ * {@link ServiceCallResolver} and with the previous approach of compiling the service-name pattern
+ * for every call and looking each service name up through every property source.
+ *
+ * The environment has several property sources, with the named services in the last one, so that
+ * every environment lookup has to search them all.
+ *
+ * This isn't run with the tests. Run it with the test classpath and logging at INFO or above,
+ * optionally passing the number of resolutions per thread and the number of threads.
+ */
+public class ServiceCallResolverBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int PROPERTY_SOURCES = 7;
+    private static final int SERVICES = 150;
+    private static final String PREFIX = "org.iplantc.services";
+
+    public static void main(String[] args) throws Exception {
+        final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        final StandardEnvironment environment = createEnvironment();
+        final ServiceCallResolver resolver = new ServiceCallResolver();
+        resolver.setAppProperties(environment);
+        final String[] addresses = new String[SERVICES];
+        for (int i = 0; i < SERVICES; i++) {
+            addresses[i] = PREFIX + ".service" + i + "/items/" + i + "?limit=100";
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            System.out.printf("%d threads, %d property sources, %d services%n", threads, PROPERTY_SOURCES, SERVICES);
+            for (int round = 1; round <= ROUNDS; round++) {
+                final long legacy = run(executor, threads, iterations, new Resolution() {
+                    @Override
+                    public String resolve(String address) {
+                        return legacyResolve(environment, address);
+                    }
+                }, addresses);
+                final long indexed = run(executor, threads, iterations, new Resolution() {
+                    @Override
+                    public String resolve(String address) {
+                        return resolver.resolveAddress(address);
+                    }
+                }, addresses);
+                System.out.printf("round %d: per-call pattern and environment lookup %,d ns, resolver %,d ns%n",
+                                  round,
+                                  legacy,
+                                  indexed);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Resolution {
+        String resolve(String address);
+    }
+
+    /**
+     * Resolves the addresses from every thread at once.
+     *
+     * @return the wall-clock time per resolution, across all threads.
+     */
+    private static long run(ExecutorService executor,
+                            int threads,
+                            final int iterations,
+                            final Resolution resolution,
+                            final String[] addresses) throws Exception {
+        final List<Future<Long>> results = new ArrayList<>();
+        final long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    long sink = 0;
+                    for (int i = 0; i < iterations; i++) {
+                        sink += resolution.resolve(addresses[i % addresses.length]).length();
+                    }
+                    return sink;
+                }
+            }));
+        }
+        long sink = 0;
+        for (Future<Long> result : results) {
+            sink += result.get();
+        }
+        final long elapsed = System.nanoTime() - start;
+        // Use the results, so that the loops can't be optimized away.
+        return sink == Long.MIN_VALUE ? 0 : elapsed / ((long)iterations * threads);
+    }
+
+    /**
+     * Resolves an address the way the resolver did before its pattern was precompiled and its
+     * service base URLs were indexed.
+     */
+    private static String legacyResolve(StandardEnvironment environment, String address) {
+        final Pattern pattern = Pattern.compile("(\\Q" + PREFIX + "\\E[^/?]+)(/[^?]*)?(\\?.*)?");
+        final Matcher matcher = pattern.matcher(address);
+        if (!matcher.matches()) {
+            return address;
+        }
+        final String path = matcher.group(2) == null ? "" : matcher.group(2);
+        final String query = matcher.group(3) == null ? "" : matcher.group(3);
+        return environment.getProperty(matcher.group(1)) + path + query;
+    }
+
+    private static StandardEnvironment createEnvironment() {
+        final StandardEnvironment environment = new StandardEnvironment();
+        for (int s = 0; s < PROPERTY_SOURCES - 3; s++) {
+            final Map<String, Object> properties = new HashMap<>();
+            for (int i = 0; i < 20; i++) {
+                properties.put("source" + s + ".setting" + i, "value" + i);
+            }
+            environment.getPropertySources().addLast(new MapPropertySource("source" + s, properties));
+        }
+        final Map<String, Object> services = new HashMap<>();
+        services.put("prefix", PREFIX);
+        for (int i = 0; i < SERVICES; i++) {
+            services.put(PREFIX + ".service" + i, "http://services.example.org:31300/service" + i);
+        }
+        environment.getPropertySources().addLast(new MapPropertySource("services", services));
+        return environment;
+    }
+}
@@ -1,5 +1,6 @@
 package org.iplantc.de.server;
 
+import org.iplantc.de.shared.exceptions.UnresolvableServiceNameException;
 import org.iplantc.de.shared.services.BaseServiceCallWrapper;
 import org.iplantc.de.shared.services.ServiceCallWrapper;
 
@@ -10,10 +11,20 @@ import org.junit.Before;
 import org.junit.Test;
 import org.springframework.core.env.AbstractEnvironment;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class TestDefaultServiceCallResolver {
     /**
@@ -137,6 +148,61 @@ public class TestDefaultServiceCallResolver {
         resolver.setAppProperties(testEnv);
     }
 
+    @Test public void testIndexedPropertiesResolveCorrectly() {
+        final Map<String, Object> props = new HashMap<>();
+        props.put("prefix", "org.iplantc.services");
+        props.put("terrain.base", "http://terrain");
+        props.put("org.iplantc.services.apps", "${terrain.base}/apps");
+        final StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("test", props));
+        resolver = new ServiceCallResolver();
+        resolver.setAppProperties(env);
+
+        props.put("org.iplantc.services.apps", "http://changed/apps");
+        assertEquals("http://terrain/apps/categories?public=true",
+                     resolver.resolveAddress("org.iplantc.services.apps/categories?public=true"));
+
+        resolver.refresh();
+        assertEquals("http://changed/apps", resolver.resolveAddress("org.iplantc.services.apps"));
+    }
+
+    @Test(expected = UnresolvableServiceNameException.class)
+    public void testUnknownServiceNameFails() {
+        resolver.resolveAddress(wrapper("org.iplantc.services.unknown"));
+    }
+
+    @Test public void testServiceKeyIsExtracted() {
+        assertEquals("org.iplantc.services.acctmgmt.fetchStates",
+                     resolver.getServiceKey("org.iplantc.services.acctmgmt.fetchStates/1?a=b"));
+        assertNull(resolver.getServiceKey("http://ndy.sixfifty.org/accountmanagementv2/fetch-states"));
+    }
+
+    @Test public void testConcurrentResolution() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int j = 0; j < 10000; j++) {
+                            final String actual = resolver.resolveAddress("org.iplantc.services.acctmgmt.fetchStates/" + j);
+                            if (!actual.equals("http://ndy.sixfifty.org/accountmanagementv2/fetch-states/" + j)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Before
     public void setUp() {
         wrappedProperties = createProperties();
@@ -0,0 +1,95 @@
+package org.iplantc.de.server.auth;
+
+import org.jasig.cas.client.authentication.AttributePrincipalImpl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Measures the cost of building the JWT sent with every proxied call, signing a new JWT for every
+ * call as was done before, compared with reusing the signed JWTs cached by {@link DefaultJwtBuilder}.
+ * The requests come from a handful of users in turn, as they would from users with several RPCs in
+ * flight.
+ *
+ * This isn't run with the tests. Run it with the test classpath, optionally passing the number of
+ * iterations per measurement.
+ */
+public class DefaultJwtBuilderBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int USERS = 20;
+    private static final long VALIDITY_WINDOW = 300;
+    private static final long REUSE_WINDOW = 30;
+
+    public static void main(String[] args) throws Exception {
+        final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        // JOSE requires RSA keys of at least 2048 bits.
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        final PrivateKey privateKey = generator.generateKeyPair().getPrivate();
+
+        final DefaultJwtBuilder uncached = new DefaultJwtBuilder(privateKey, VALIDITY_WINDOW, 0, 0);
+        final DefaultJwtBuilder cached = new DefaultJwtBuilder(privateKey, VALIDITY_WINDOW, REUSE_WINDOW, 10000);
+        final HttpServletRequest[] requests = new HttpServletRequest[USERS];
+        for (int i = 0; i < USERS; i++) {
+            requests[i] = createRequest("ipcdev" + i);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("round %d: signed per call %,d ns, cached %,d ns%n",
+                              round,
+                              build(uncached, requests, iterations),
+                              build(cached, requests, iterations));
+        }
+        System.out.println("cache: " + cached.getCacheStats());
+    }
+
+    private static long build(DefaultJwtBuilder builder, HttpServletRequest[] requests, int iterations)
+            throws Exception {
+        long sink = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += builder.buildJwt(requests[i % requests.length]).length();
+        }
+        return perCall(start, iterations, sink);
+    }
+
+    private static long perCall(long start, int iterations, long sink) {
+        final long elapsed = System.nanoTime() - start;
+        // Use the results, so that the loops can't be optimized away.
+        return sink == Long.MIN_VALUE ? 0 : elapsed / iterations;
+    }
+
+    /**
+     * @return a request from an authenticated user. Only the user principal is available, which is
+     * all the JWT builder reads, and the request isn't a mock, so that its cost isn't measured.
+     */
+    private static HttpServletRequest createRequest(String username) {
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put("email", username + "@example.org");
+        attributes.put("firstName", "Ipc");
+        attributes.put("lastName", "Dev");
+        attributes.put("entitlement", "[de-users, de-preview-access, community-data-curators]");
+        final AttributePrincipalImpl principal = new AttributePrincipalImpl(username, attributes);
+
+        return (HttpServletRequest)Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                                                          new Class<?>[] {HttpServletRequest.class},
+                                                          new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("getUserPrincipal".equals(method.getName())) {
+                    return principal;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package org.iplantc.de.server.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.jasig.cas.client.authentication.AttributePrincipalImpl;
+import org.jose4j.base64url.Base64Url;
+import org.jose4j.jwt.JwtClaims;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+public class DefaultJwtBuilderTest {
+
+    private static final long VALIDITY_WINDOW = 300;
+    private static final long REUSE_WINDOW = 30;
+
+    private static PrivateKey privateKey;
+    private DefaultJwtBuilder uut;
+
+    @BeforeClass public static void createKey() throws Exception {
+        // JOSE requires RSA keys of at least 2048 bits.
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        privateKey = generator.generateKeyPair().getPrivate();
+    }
+
+    @Before public void setUp() {
+        uut = new DefaultJwtBuilder(privateKey, VALIDITY_WINDOW, REUSE_WINDOW, 100);
+    }
+
+    @Test public void burstFromSameUserReusesSignature() throws Exception {
+        final String first = uut.buildJwt(request("ipcdev", "ipcdev@example.org", "[de-users, admins]"));
+        final String second = uut.buildJwt(request("ipcdev", "ipcdev@example.org", "[de-users, admins]"));
+
+        assertEquals(first, second);
+        assertEquals(1, uut.getCacheStats().missCount());
+        assertEquals(1, uut.getCacheStats().hitCount());
+    }
+
+    @Test public void changedAttributesProduceNewJwt() throws Exception {
+        final String first = uut.buildJwt(request("ipcdev", "ipcdev@example.org", "[de-users]"));
+        final String second = uut.buildJwt(request("ipcdev", "ipcdev@example.org", "[de-users, admins]"));
+
+        assertNotEquals(first, second);
+        assertEquals(2, uut.getCacheStats().missCount());
+    }
+
+    @Test public void differentUsersProduceDifferentJwts() throws Exception {
+        final String first = uut.buildJwt(request("ipcdev", "ipcdev@example.org", "[de-users]"));
+        final String second = uut.buildJwt(request("ipctest", "ipcdev@example.org", "[de-users]"));
+
+        assertNotEquals(first, second);
+        assertEquals("ipctest", claims(second).getSubject());
+    }
+
+    @Test public void claimsExpireAtEndOfValidityWindow() throws Exception {
+        final JwtClaims claims = claims(uut.buildJwt(request("ipcdev", "ipcdev@example.org", "[de-users, admins]")));
+
+        assertEquals(VALIDITY_WINDOW,
+                     claims.getExpirationTime().getValue() - claims.getIssuedAt().getValue());
+        assertEquals("ipcdev", claims.getSubject());
+        assertEquals("Ipc Dev", claims.getClaimValue("name"));
+        @SuppressWarnings("unchecked")
+        List<String> groups = (List<String>) claims.getClaimValue("org.iplantc.de:entitlement");
+        assertEquals(2, groups.size());
+        assertEquals("de-users", groups.get(0));
+        assertEquals("admins", groups.get(1));
+    }
+
+    @Test public void zeroReuseWindowDisablesCache() throws Exception {
+        uut = new DefaultJwtBuilder(privateKey, VALIDITY_WINDOW, 0, 100);
+        uut.buildJwt(request("ipcdev", "ipcdev@example.org", "[de-users]"));
+
+        assertNull(uut.getCacheStats());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reuseWindowMustBeShorterThanValidityWindow() {
+        new DefaultJwtBuilder(privateKey, VALIDITY_WINDOW, VALIDITY_WINDOW, 100);
+    }
+
+    private HttpServletRequest request(String username, String email, String entitlement) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("email", email);
+        attributes.put("firstName", "Ipc");
+        attributes.put("lastName", "Dev");
+        attributes.put("entitlement", entitlement);
+
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getUserPrincipal()).thenReturn(new AttributePrincipalImpl(username, attributes));
+        return request;
+    }
+
+    private JwtClaims claims(String jwt) throws Exception {
+        return JwtClaims.parse(new String(Base64Url.decode(jwt.split("\\.")[1]), "UTF-8"));
+    }
+}
@@ -0,0 +1,77 @@
+package org.iplantc.de.server.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class ApiMetricsTest {
+
+    private ApiMetrics uut;
+
+    @Before public void setUp() {
+        uut = new ApiMetrics();
+    }
+
+    @Test public void requestsAreRecordedByMethodEndpointAndStatusClass() {
+        final long startTime = uut.begin(ApiMetrics.SERVICES);
+        assertEquals(1, uut.getInFlight(ApiMetrics.SERVICES));
+        uut.end(ApiMetrics.SERVICES, "GET", "org.iplantc.services.apps", 200, startTime);
+        uut.record(ApiMetrics.SERVICES, "GET", "org.iplantc.services.apps", 204, 1000);
+        uut.record(ApiMetrics.SERVICES, "GET", "org.iplantc.services.apps", 404, 1000);
+
+        assertEquals(0, uut.getInFlight(ApiMetrics.SERVICES));
+        assertEquals(2, uut.getHistogram(ApiMetrics.SERVICES, "GET", "org.iplantc.services.apps", 200).getCount());
+        assertEquals(1, uut.getHistogram(ApiMetrics.SERVICES, "GET", "org.iplantc.services.apps", 404).getCount());
+        assertNull(uut.getHistogram(ApiMetrics.SERVICES, "POST", "org.iplantc.services.apps", 200));
+        assertEquals(0, uut.getErrorCount(ApiMetrics.SERVICES));
+    }
+
+    @Test public void failuresAndServerErrorsAreCounted() {
+        uut.record(ApiMetrics.FILE_UPLOAD, "POST", "/de/secured/fileUpload", 500, 1000);
+        uut.record(ApiMetrics.FILE_UPLOAD, "POST", "/de/secured/fileUpload", ApiMetrics.FAILED, 1000);
+        uut.error(ApiMetrics.FILE_UPLOAD);
+
+        assertEquals(3, uut.getErrorCount(ApiMetrics.FILE_UPLOAD));
+        assertNotNull(uut.getHistogram(ApiMetrics.FILE_UPLOAD, "POST", "/de/secured/fileUpload", ApiMetrics.FAILED));
+        assertEquals(0, uut.getErrorCount(ApiMetrics.SERVICES));
+    }
+
+    @Test public void endpointsAreCapped() {
+        for (int i = 0; i < ApiMetrics.MAX_ENDPOINTS + 10; i++) {
+            uut.record(ApiMetrics.SERVICES, "GET", "endpoint-" + i, 200, 1000);
+        }
+
+        assertEquals(10, uut.getHistogram(ApiMetrics.SERVICES, "GET", ApiMetrics.OTHER_ENDPOINT, 200).getCount());
+    }
+
+    @Test public void endpointLabelsHaveLowCardinality() {
+        assertEquals("/secured/filesystem/paged-directory",
+                     ApiMetrics.endpointLabel("http://terrain:8080/secured/filesystem/paged-directory?path=/a"));
+        assertEquals("/apps/de/*/parameters",
+                     ApiMetrics.endpointLabel("/apps/de/2d2b5d3c-1a3e-4c5b-9d52-aa0e5f8c6b11/parameters"));
+        assertEquals("/", ApiMetrics.endpointLabel("http://terrain?a=b"));
+        assertEquals(ApiMetrics.OTHER_ENDPOINT, ApiMetrics.endpointLabel(null));
+    }
+
+    @Test @SuppressWarnings("unchecked")
+    public void snapshotSummarizesEachHistogram() {
+        uut.opened(ApiMetrics.WEBSOCKET);
+        uut.record(ApiMetrics.WEBSOCKET, "SEND", "/de/websocket/notifications", 200, 2000000);
+
+        final Map<String, Object> websocket = (Map<String, Object>)uut.snapshot().get(ApiMetrics.WEBSOCKET);
+        assertEquals(1, websocket.get("in-flight"));
+        assertEquals(0L, websocket.get("errors"));
+        final Map<String, Object> latencies = (Map<String, Object>)websocket.get("latency-ms");
+        final Map<String, Object> summary = (Map<String, Object>)latencies.get("SEND /de/websocket/notifications 2xx");
+        assertEquals(1L, summary.get("count"));
+        assertEquals(2.0, (Double)summary.get("p50"), 0.001);
+        assertEquals(2.0, (Double)summary.get("max"), 0.001);
+        assertTrue(summary.containsKey("p999"));
+    }
+}
@@ -0,0 +1,63 @@
+package org.iplantc.de.server.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+    @Test public void bucketsCoverEveryValueInOrder() {
+        long previousUpperBound = -1;
+        for (int i = 0; i <= LatencyHistogram.bucketIndex(LatencyHistogram.MAX_MICROS); i++) {
+            final long upperBound = LatencyHistogram.bucketUpperBound(i);
+            assertTrue(upperBound > previousUpperBound);
+            assertEquals(i, LatencyHistogram.bucketIndex(previousUpperBound + 1));
+            assertEquals(i, LatencyHistogram.bucketIndex(upperBound));
+            previousUpperBound = upperBound;
+        }
+        assertEquals(LatencyHistogram.MAX_MICROS, previousUpperBound);
+    }
+
+    @Test public void bucketsAreWithinSixPercent() {
+        for (long micros = 1; micros < LatencyHistogram.MAX_MICROS; micros = micros * 3 + 1) {
+            final long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(micros));
+            assertTrue(upperBound >= micros);
+            assertTrue((upperBound - micros) <= micros / LatencyHistogram.SUB_BUCKETS);
+        }
+    }
+
+    @Test public void percentilesOfUniformLatencies() {
+        final LatencyHistogram uut = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            uut.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(1000, uut.getCount());
+        assertEquals(500500, uut.getMeanMicros(), 0.001);
+        assertEquals(1000000, uut.getMaxMicros());
+        final long[] percentiles = uut.getPercentileMicros(50, 90, 99, 100);
+        assertWithin(500000, percentiles[0]);
+        assertWithin(900000, percentiles[1]);
+        assertWithin(990000, percentiles[2]);
+        assertEquals(1000000, percentiles[3]);
+    }
+
+    @Test public void emptyAndOutOfRangeLatencies() {
+        final LatencyHistogram uut = new LatencyHistogram();
+        assertArrayEquals(new long[]{0, 0}, uut.getPercentileMicros(50, 99));
+
+        uut.record(-5);
+        uut.record(Long.MAX_VALUE);
+        assertEquals(2, uut.getCount());
+        assertArrayEquals(new long[]{0, LatencyHistogram.MAX_MICROS}, uut.getPercentileMicros(50, 99));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " isn't close to " + expected,
+                   actual >= expected && actual - expected <= expected / LatencyHistogram.SUB_BUCKETS);
+    }
+}
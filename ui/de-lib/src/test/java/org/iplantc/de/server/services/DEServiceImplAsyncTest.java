@@ -0,0 +1,230 @@
+package org.iplantc.de.server.services;
+
+import org.iplantc.de.server.AppLoggerUtil;
+import org.iplantc.de.server.ServiceCallResolver;
+import org.iplantc.de.server.auth.UrlConnector;
+import org.iplantc.de.server.http.PooledHttpClientEngine;
+import org.iplantc.de.shared.exceptions.HttpException;
+import org.iplantc.de.shared.services.DEService;
+import org.iplantc.de.shared.services.ServiceCallResult;
+import org.iplantc.de.shared.services.ServiceCallWrapper;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.gwt.user.client.rpc.SerializationException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.Cancellable;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.AbstractEnvironment;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.servlet.http.HttpServletRequest;
+
+public class DEServiceImplAsyncTest {
+
+    private DEServiceImpl uut;
+    private HttpResponse nextResponse;
+    private boolean rejectNext;
+    private Future<HttpResponse> nextFuture;
+    private Method getServiceData;
+
+    @Before public void setUp() throws Exception {
+        final ServiceCallResolver resolver = new ServiceCallResolver();
+        resolver.setAppProperties(new AbstractEnvironment() {
+            @Override
+            public String getProperty(String key) {
+                return "prefix".equals(key) ? "org.iplantc.services" : null;
+            }
+        });
+        final UrlConnector urlConnector = mock(UrlConnector.class);
+        when(urlConnector.getRequest(any(HttpServletRequest.class), anyString()))
+            .thenReturn(AppLoggerUtil.getInstance().addRequestIdHeader(new HttpGet("http://localhost/apps")));
+
+        final PooledHttpClientEngine engine = new PooledHttpClientEngine() {
+            @Override
+            public Future<HttpResponse> executeAsync(HttpUriRequest request,
+                                                     FutureCallback<HttpResponse> callback) {
+                if (rejectNext) {
+                    throw new RejectedExecutionException("full");
+                }
+                if (nextResponse != null) {
+                    callback.completed(nextResponse);
+                }
+                return nextFuture;
+            }
+        };
+        uut = new DEServiceImpl(resolver, urlConnector, engine);
+        getServiceData = DEService.class.getMethod("getServiceData", ServiceCallWrapper.class, HashMap.class);
+    }
+
+    @Test public void getServiceDataIsAsync() throws Exception {
+        assertTrue(uut.isAsync(getServiceData));
+        assertTrue(uut.isAsync(DEService.class.getMethod("getServiceData", ServiceCallWrapper.class)));
+        assertFalse(uut.isAsync(Object.class.getMethod("toString")));
+    }
+
+    @Test public void successfulResponseBodyIsReturned() throws Exception {
+        nextResponse = response(HttpStatus.SC_OK, "{\"apps\":[]}");
+
+        final RecordingCallback callback = invoke();
+
+        assertEquals("{\"apps\":[]}", callback.result);
+        assertNull(callback.caught);
+    }
+
+    @Test public void errorStatusIsReturnedAsHttpException() throws Exception {
+        nextResponse = response(HttpStatus.SC_NOT_FOUND, "not found");
+
+        final RecordingCallback callback = invoke();
+
+        assertEquals(HttpStatus.SC_NOT_FOUND, ((HttpException)callback.caught).getStatusCode());
+    }
+
+    @Test public void rejectedCallIsReturnedAsServiceUnavailable() throws Exception {
+        rejectNext = true;
+
+        final RecordingCallback callback = invoke();
+
+        assertEquals(HttpStatus.SC_SERVICE_UNAVAILABLE, ((HttpException)callback.caught).getStatusCode());
+    }
+
+    @Test public void batchReturnsResultForEachCallInOrder() throws Exception {
+        nextResponse = response(HttpStatus.SC_OK, "{\"apps\":[]}");
+        final ArrayList<ServiceCallWrapper> batch = new ArrayList<>();
+        batch.add(new ServiceCallWrapper("http://localhost/apps"));
+        batch.add(new ServiceCallWrapper(""));
+
+        final ArrayList<ServiceCallResult> results = uut.getServiceDataBatch(batch);
+
+        assertEquals(2, results.size());
+        assertEquals("{\"apps\":[]}", results.get(0).getResponse());
+        assertTrue(results.get(1).isSuccess());
+        assertNull(results.get(1).getResponse());
+        assertTrue(uut.isAsync(DEService.class.getMethod("getServiceDataBatch", ArrayList.class)));
+    }
+
+    @Test public void failedCallDoesNotFailBatch() throws Exception {
+        rejectNext = true;
+        final ArrayList<ServiceCallWrapper> batch = new ArrayList<>();
+        batch.add(new ServiceCallWrapper("http://localhost/apps"));
+
+        final ArrayList<ServiceCallResult> results = uut.getServiceDataBatch(batch);
+
+        assertFalse(results.get(0).isSuccess());
+        assertEquals(HttpStatus.SC_SERVICE_UNAVAILABLE, ((HttpException)results.get(0).getFailure()).getStatusCode());
+    }
+
+    @Test @SuppressWarnings("unchecked")
+    public void inFlightCallsCanBeCancelled() throws Exception {
+        nextFuture = mock(Future.class);
+
+        final RecordingCallback callback = new RecordingCallback();
+        final Cancellable call = uut.invokeAsync(mock(HttpServletRequest.class), getServiceData,
+                                                 new Object[] {new ServiceCallWrapper("http://localhost/apps"),
+                                                               new HashMap<String, String>()},
+                                                 callback);
+        call.cancel();
+
+        verify(nextFuture).cancel(true);
+        assertFalse(callback.notified);
+    }
+
+    @Test @SuppressWarnings("unchecked")
+    public void inFlightBatchesCanBeCancelled() throws Exception {
+        nextFuture = mock(Future.class);
+        final ArrayList<ServiceCallWrapper> batch = new ArrayList<>();
+        batch.add(new ServiceCallWrapper("http://localhost/apps"));
+        batch.add(new ServiceCallWrapper("http://localhost/apps"));
+
+        final Cancellable call = uut.invokeAsync(mock(HttpServletRequest.class),
+                                                 DEService.class.getMethod("getServiceDataBatch", ArrayList.class),
+                                                 new Object[] {batch},
+                                                 new RecordingCallback());
+        call.cancel();
+
+        verify(nextFuture, times(2)).cancel(true);
+    }
+
+    @Test @SuppressWarnings("unchecked")
+    public void stuckBatchTimesOut() throws Exception {
+        nextFuture = mock(Future.class);
+        uut.setBatchTimeout(10);
+        final ArrayList<ServiceCallWrapper> batch = new ArrayList<>();
+        batch.add(new ServiceCallWrapper("http://localhost/apps"));
+
+        try {
+            uut.getServiceDataBatch(batch);
+            fail("The batch should have timed out");
+        } catch (SerializationException expected) {
+            verify(nextFuture).cancel(true);
+        }
+    }
+
+    @Test public void invalidCallReturnsNull() throws Exception {
+        final RecordingCallback callback = new RecordingCallback();
+        uut.invokeAsync(mock(HttpServletRequest.class), getServiceData,
+                        new Object[] {new ServiceCallWrapper(""), new HashMap<String, String>()}, callback);
+
+        assertTrue(callback.notified);
+        assertNull(callback.result);
+        assertNull(callback.caught);
+    }
+
+    private RecordingCallback invoke() {
+        final RecordingCallback callback = new RecordingCallback();
+        uut.invokeAsync(mock(HttpServletRequest.class), getServiceData,
+                        new Object[] {new ServiceCallWrapper("http://localhost/apps"), new HashMap<String, String>()},
+                        callback);
+        assertTrue(callback.notified);
+        return callback;
+    }
+
+    private HttpResponse response(int status, String body) throws Exception {
+        final BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "");
+        response.setEntity(new StringEntity(body));
+        return response;
+    }
+
+    private static class RecordingCallback implements AsyncCallback<Object> {
+        boolean notified;
+        Object result;
+        Throwable caught;
+
+        @Override
+        public void onFailure(Throwable caught) {
+            this.notified = true;
+            this.caught = caught;
+        }
+
+        @Override
+        public void onSuccess(Object result) {
+            this.notified = true;
+            this.result = result;
+        }
+    }
+}
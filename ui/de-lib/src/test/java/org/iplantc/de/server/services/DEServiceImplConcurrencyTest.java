@@ -0,0 +1,210 @@
+package org.iplantc.de.server.services;
+
+import org.iplantc.de.server.AppLoggerUtil;
+import org.iplantc.de.server.ServiceCallResolver;
+import org.iplantc.de.server.auth.UrlConnector;
+import org.iplantc.de.server.http.PooledHttpClientEngine;
+import org.iplantc.de.shared.services.ServiceCallWrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.AbstractEnvironment;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Verifies that concurrent RPCs handled by the shared {@link DEServiceImpl} are always sent on
+ * behalf of the user whose servlet request is being handled by the calling thread.
+ */
+public class DEServiceImplConcurrencyTest {
+
+    private static final String USER_HEADER = "X-Test-User";
+    private static final int USERS = 16;
+    private static final int CALLS_PER_USER = 50;
+
+    private DEServiceImpl uut;
+    private ExecutorService executor;
+
+    @Before public void setUp() {
+        final ServiceCallResolver resolver = new ServiceCallResolver();
+        resolver.setAppProperties(new AbstractEnvironment() {
+            @Override
+            public String getProperty(String key) {
+                return "prefix".equals(key) ? "org.iplantc.services" : null;
+            }
+        });
+        final PooledHttpClientEngine engine = new PooledHttpClientEngine() {
+            final CloseableHttpClient client = new EchoUserHttpClient();
+
+            @Override
+            public CloseableHttpClient getClient() {
+                return client;
+            }
+        };
+        uut = new DEServiceImpl(resolver, new UserHeaderUrlConnector(), engine);
+        executor = Executors.newFixedThreadPool(USERS);
+    }
+
+    @After public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test public void concurrentCallsAreSignedForTheirOwnUser() throws Exception {
+        final CyclicBarrier barrier = new CyclicBarrier(USERS);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            final String username = "user" + i;
+            final HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+            when(servletRequest.getRemoteUser()).thenReturn(username);
+
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    barrier.await();
+                    for (int call = 0; call < CALLS_PER_USER; call++) {
+                        // Mirrors GwtRpcController.handleRequest
+                        uut.setRequest(servletRequest);
+                        try {
+                            ServiceCallWrapper wrapper = new ServiceCallWrapper("http://localhost/users/" + username);
+                            assertEquals(username, uut.getServiceData(wrapper));
+                        } finally {
+                            uut.clearRequest();
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        for (Future<Void> result : results) {
+            // Rethrows any assertion failure from the worker thread.
+            result.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test public void clearRequestOnlyReleasesCallingThread() throws Exception {
+        final HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+        uut.setRequest(servletRequest);
+
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                uut.setRequest(mock(HttpServletRequest.class));
+                uut.clearRequest();
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        assertEquals(servletRequest, uut.getRequest());
+        uut.clearRequest();
+        assertNull(uut.getRequest());
+    }
+
+    /**
+     * Tags each outgoing GET with the remote user of the servlet request it was built for.
+     */
+    private static class UserHeaderUrlConnector implements UrlConnector {
+
+        @Override
+        public HttpGet getRequest(HttpServletRequest request, String address) {
+            HttpGet get = new HttpGet(address);
+            get.addHeader(USER_HEADER, request.getRemoteUser());
+            return AppLoggerUtil.getInstance().addRequestIdHeader(get);
+        }
+
+        @Override
+        public HttpPut putRequest(HttpServletRequest request, String address) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public HttpPost postRequest(HttpServletRequest request, String address) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public HttpDelete deleteRequest(HttpServletRequest request, String address) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public HttpPatch patchRequest(HttpServletRequest request, String address) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Responds to each request with the value of its user header, after a short delay which
+     * encourages the worker threads to interleave.
+     */
+    private static class EchoUserHttpClient extends CloseableHttpClient {
+
+        @Override
+        protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context)
+                throws IOException {
+            Thread.yield();
+            EchoResponse response = new EchoResponse();
+            response.setEntity(new StringEntity(request.getFirstHeader(USER_HEADER).getValue()));
+            return response;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public HttpParams getParams() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public ClientConnectionManager getConnectionManager() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class EchoResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+        EchoResponse() {
+            super(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.iplantc.de.server.services;
+
+import org.iplantc.de.server.AppLoggerUtil;
+import org.iplantc.de.server.ServiceCallResolver;
+import org.iplantc.de.server.auth.UrlConnector;
+import org.iplantc.de.server.http.PooledHttpClientEngine;
+import org.iplantc.de.shared.services.ServiceCallWrapper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.core.env.AbstractEnvironment;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class DEServiceImplRelayTest {
+
+    private DEServiceImpl uut;
+    private HttpServletResponse servletResponse;
+    private final ByteArrayOutputStream relayed = new ByteArrayOutputStream();
+    private int nextStatus = HttpStatus.SC_OK;
+    private byte[] nextBody;
+
+    @Before public void setUp() throws Exception {
+        final ServiceCallResolver resolver = new ServiceCallResolver();
+        resolver.setAppProperties(new AbstractEnvironment() {
+            @Override
+            public String getProperty(String key) {
+                return "prefix".equals(key) ? "org.iplantc.services" : null;
+            }
+        });
+        final UrlConnector urlConnector = mock(UrlConnector.class);
+        when(urlConnector.getRequest(any(HttpServletRequest.class), anyString()))
+            .thenReturn(AppLoggerUtil.getInstance().addRequestIdHeader(new HttpGet("http://localhost/paged-directory")));
+
+        final CloseableHttpClient client = new CloseableHttpClient() {
+            @Override
+            protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context) {
+                RelayResponse response = new RelayResponse(nextStatus);
+                response.setEntity(new ByteArrayEntity(nextBody, ContentType.APPLICATION_JSON));
+                return response;
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            @SuppressWarnings("deprecation")
+            public HttpParams getParams() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            @SuppressWarnings("deprecation")
+            public ClientConnectionManager getConnectionManager() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        final PooledHttpClientEngine engine = new PooledHttpClientEngine() {
+            @Override
+            public CloseableHttpClient getClient() {
+                return client;
+            }
+        };
+        uut = new DEServiceImpl(resolver, urlConnector, engine);
+
+        final ServletOutputStream out = mock(ServletOutputStream.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                Object[] args = invocation.getArguments();
+                relayed.write((byte[])args[0], (Integer)args[1], (Integer)args[2]);
+                return null;
+            }
+        }).when(out).write(any(byte[].class), anyInt(), anyInt());
+        servletResponse = mock(HttpServletResponse.class);
+        when(servletResponse.getOutputStream()).thenReturn(out);
+    }
+
+    @Test public void largeResponseIsCopiedVerbatim() throws Exception {
+        nextBody = new byte[1024 * 1024 + 17];
+        new Random(42).nextBytes(nextBody);
+
+        uut.relayServiceData(mock(HttpServletRequest.class),
+                             new ServiceCallWrapper("http://localhost/paged-directory"),
+                             servletResponse);
+
+        verify(servletResponse).setStatus(HttpStatus.SC_OK);
+        verify(servletResponse).setContentType(ContentType.APPLICATION_JSON.toString());
+        verify(servletResponse).setHeader("Content-Length", Integer.toString(nextBody.length));
+        assertArrayEquals(nextBody, relayed.toByteArray());
+    }
+
+    @Test public void errorStatusIsRelayed() throws Exception {
+        nextStatus = HttpStatus.SC_NOT_FOUND;
+        nextBody = "{\"error_code\":\"ERR_DOES_NOT_EXIST\"}".getBytes("UTF-8");
+
+        uut.relayServiceData(mock(HttpServletRequest.class),
+                             new ServiceCallWrapper("http://localhost/paged-directory"),
+                             servletResponse);
+
+        verify(servletResponse).setStatus(HttpStatus.SC_NOT_FOUND);
+        assertArrayEquals(nextBody, relayed.toByteArray());
+    }
+
+    @Test public void invalidCallIsRejected() throws Exception {
+        uut.relayServiceData(mock(HttpServletRequest.class), new ServiceCallWrapper(""), servletResponse);
+
+        verify(servletResponse).sendError(HttpStatus.SC_BAD_REQUEST, "Invalid service call");
+        verify(servletResponse, never()).getOutputStream();
+    }
+
+    private static class RelayResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+        RelayResponse(int status) {
+            super(HttpVersion.HTTP_1_1, status, "");
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
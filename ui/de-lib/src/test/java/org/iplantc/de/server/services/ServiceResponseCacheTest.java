@@ -0,0 +1,161 @@
+package org.iplantc.de.server.services;
+
+import org.iplantc.de.server.ServiceCallResolver;
+import org.iplantc.de.shared.services.BaseServiceCallWrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.AbstractEnvironment;
+
+import java.security.Principal;
+
+import javax.servlet.http.HttpServletRequest;
+
+public class ServiceResponseCacheTest {
+
+    private static final String INFO_TYPES = "http://terrain/apps/elements/info-types";
+    private static final String CATEGORIES = "http://terrain/apps/categories";
+
+    private ServiceCallResolver resolver;
+    private ServiceResponseCache uut;
+
+    @Before public void setUp() {
+        resolver = new ServiceCallResolver();
+        resolver.setAppProperties(new AbstractEnvironment() {
+            @Override
+            public String getProperty(String key) {
+                switch (key) {
+                    case "prefix":
+                        return "org.iplantc.services";
+                    case "org.iplantc.services.apps.elements.infoTypes":
+                        return INFO_TYPES;
+                    case "org.iplantc.services.apps.categories":
+                        return CATEGORIES;
+                    default:
+                        return null;
+                }
+            }
+        });
+        uut = new ServiceResponseCache(resolver,
+                                       "org.iplantc.services.apps.elements.infoTypes, http://terrain/filetypes",
+                                       "org.iplantc.services.apps.categories",
+                                       300,
+                                       3600,
+                                       100);
+    }
+
+    @Test public void onlyAllowlistedGetsAreCacheable() {
+        assertEquals(INFO_TYPES, uut.getKey(BaseServiceCallWrapper.Type.GET, INFO_TYPES, null));
+        assertEquals(INFO_TYPES + "?a=b", uut.getKey(BaseServiceCallWrapper.Type.GET, INFO_TYPES + "?a=b", null));
+        assertEquals("http://terrain/filetypes",
+                     uut.getKey(BaseServiceCallWrapper.Type.GET, "http://terrain/filetypes", null));
+        assertNull(uut.getKey(BaseServiceCallWrapper.Type.POST, INFO_TYPES, null));
+        assertNull(uut.getKey(BaseServiceCallWrapper.Type.GET, INFO_TYPES + "/1", null));
+        assertNull(uut.getKey(BaseServiceCallWrapper.Type.GET, "http://terrain/apps", null));
+    }
+
+    @Test public void userServicesAreCachedPerUser() {
+        final String ipcdev = uut.getKey(BaseServiceCallWrapper.Type.GET, CATEGORIES, requestFor("ipcdev"));
+        final String ipctest = uut.getKey(BaseServiceCallWrapper.Type.GET, CATEGORIES, requestFor("ipctest"));
+
+        assertNotEquals(ipcdev, ipctest);
+        assertNull(uut.getKey(BaseServiceCallWrapper.Type.GET, CATEGORIES, mock(HttpServletRequest.class)));
+        assertNull(uut.getKey(BaseServiceCallWrapper.Type.GET, CATEGORIES, null));
+    }
+
+    @Test public void nonGetCallsEvictTheUsersEntries() {
+        final HttpServletRequest ipcdev = requestFor("ipcdev");
+        uut.put(uut.getKey(BaseServiceCallWrapper.Type.GET, CATEGORIES, ipcdev), response(null), "{}");
+        uut.put(uut.getKey(BaseServiceCallWrapper.Type.GET, CATEGORIES, requestFor("ipctest")), response(null), "{}");
+        uut.put(INFO_TYPES, response(null), "{}");
+
+        assertNull(uut.getKey(BaseServiceCallWrapper.Type.PUT, "http://terrain/apps/1/favorite", ipcdev));
+
+        assertEquals(2, uut.size());
+        assertNull(uut.get(uut.getKey(BaseServiceCallWrapper.Type.GET, CATEGORIES, ipcdev)));
+        assertTrue(uut.get(uut.getKey(BaseServiceCallWrapper.Type.GET, CATEGORIES, requestFor("ipctest"))).isFresh());
+        assertTrue(uut.get(INFO_TYPES).isFresh());
+    }
+
+    @Test public void freshResponsesAreHits() {
+        assertNull(uut.get(INFO_TYPES));
+        uut.put(INFO_TYPES, response(null), "{\"types\":[]}");
+
+        final ServiceResponseCache.CachedResponse cached = uut.get(INFO_TYPES);
+        assertTrue(cached.isFresh());
+        assertEquals("{\"types\":[]}", cached.getBody());
+        assertEquals(1, uut.getHitCount());
+        assertEquals(1, uut.getMissCount());
+        assertEquals(0.5, uut.getHitRatio(), 0.001);
+    }
+
+    @Test public void staleResponsesAreRevalidated() {
+        uut = new ServiceResponseCache(resolver, INFO_TYPES, "", 0, 3600, 100);
+        final HttpResponse response = response(null);
+        response.setHeader(HttpHeaders.ETAG, "\"v1\"");
+        uut.put(INFO_TYPES, response, "{}");
+
+        final ServiceResponseCache.CachedResponse cached = uut.get(INFO_TYPES);
+        assertFalse(cached.isFresh());
+        assertTrue(cached.isRevalidatable());
+        final HttpGet request = new HttpGet(INFO_TYPES);
+        cached.addConditionalHeaders(request);
+        assertEquals("\"v1\"", request.getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue());
+
+        assertEquals("{}", uut.revalidated(INFO_TYPES, cached));
+        assertEquals(1, uut.getRevalidationCount());
+        assertEquals(0, uut.getMissCount());
+        assertEquals(1.0, uut.getHitRatio(), 0.001);
+    }
+
+    @Test public void noStoreResponsesAreNotCached() {
+        uut.put(INFO_TYPES, response("no-store"), "{}");
+
+        assertNull(uut.get(INFO_TYPES));
+    }
+
+    @Test public void cacheIsBounded() {
+        uut = new ServiceResponseCache(resolver, INFO_TYPES, "", 300, 3600, 10);
+        for (int i = 0; i < 50; i++) {
+            uut.put(INFO_TYPES + "?page=" + i, response(null), "{}");
+        }
+
+        assertTrue(uut.size() <= 10);
+        assertTrue(uut.getEvictionCount() >= 40);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void retentionMustCoverTtl() {
+        new ServiceResponseCache(resolver, INFO_TYPES, "", 600, 300, 10);
+    }
+
+    private HttpServletRequest requestFor(String username) {
+        final Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(username);
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getUserPrincipal()).thenReturn(principal);
+        return request;
+    }
+
+    private HttpResponse response(String cacheControl) {
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        if (cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,144 @@
+package org.iplantc.de.shared.services;
+
+import org.iplantc.de.client.events.EventBus;
+import org.iplantc.de.shared.events.UserLoggedOutEvent;
+import org.iplantc.de.shared.exceptions.AuthenticationException;
+import org.iplantc.de.shared.exceptions.HttpException;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.gwtmockito.GxtMockitoTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+
+@RunWith(GxtMockitoTestRunner.class)
+public class ServiceCallCoalescerTest {
+
+    @Mock DEServiceAsync deServiceMock;
+    @Mock Scheduler schedulerMock;
+    @Mock AsyncCallback<String> firstCallbackMock;
+    @Mock AsyncCallback<String> secondCallbackMock;
+
+    @Captor ArgumentCaptor<Scheduler.ScheduledCommand> commandCaptor;
+    @Captor ArgumentCaptor<ArrayList<ServiceCallWrapper>> batchCaptor;
+    @Captor ArgumentCaptor<AsyncCallback<ArrayList<ServiceCallResult>>> batchCallbackCaptor;
+
+    private ServiceCallCoalescer uut;
+
+    @Before public void setUp() {
+        uut = new ServiceCallCoalescer(deServiceMock, schedulerMock);
+    }
+
+    @Test public void callsInSameTickAreSentAsOneBatch() {
+        final ServiceCallWrapper first = new ServiceCallWrapper("first");
+        final ServiceCallWrapper second = new ServiceCallWrapper("second");
+
+        uut.enqueue(first, firstCallbackMock);
+        uut.enqueue(second, secondCallbackMock);
+        verify(schedulerMock).scheduleFinally(commandCaptor.capture());
+        verifyZeroInteractions(deServiceMock);
+
+        commandCaptor.getValue().execute();
+
+        verify(deServiceMock).getServiceDataBatch(batchCaptor.capture(), batchCallbackCaptor.capture());
+        assertEquals(2, batchCaptor.getValue().size());
+        assertEquals(first, batchCaptor.getValue().get(0));
+        assertEquals(second, batchCaptor.getValue().get(1));
+
+        final ArrayList<ServiceCallResult> results = new ArrayList<>();
+        results.add(ServiceCallResult.success("{}"));
+        final HttpException notFound = new HttpException(404, "not found");
+        results.add(ServiceCallResult.failure(notFound));
+        batchCallbackCaptor.getValue().onSuccess(results);
+
+        verify(firstCallbackMock).onSuccess("{}");
+        verify(secondCallbackMock).onFailure(notFound);
+    }
+
+    @Test public void singleCallIsSentUnbatched() {
+        final ServiceCallWrapper only = new ServiceCallWrapper("only");
+
+        uut.enqueue(only, firstCallbackMock);
+        verify(schedulerMock).scheduleFinally(commandCaptor.capture());
+        commandCaptor.getValue().execute();
+
+        verify(deServiceMock).getServiceData(eq(only), Matchers.<AsyncCallback<String>>any());
+        verify(deServiceMock, never()).getServiceDataBatch(Matchers.<ArrayList<ServiceCallWrapper>>any(),
+                                                          Matchers.<AsyncCallback<ArrayList<ServiceCallResult>>>any());
+    }
+
+    @Test public void largeTicksAreSplitIntoSeveralBatches() {
+        for (int i = 0; i < ServiceCallCoalescer.MAX_BATCH_SIZE + 2; i++) {
+            uut.enqueue(new ServiceCallWrapper("call" + i), firstCallbackMock);
+        }
+        verify(schedulerMock).scheduleFinally(commandCaptor.capture());
+        commandCaptor.getValue().execute();
+
+        verify(deServiceMock, times(2)).getServiceDataBatch(batchCaptor.capture(),
+                                                            Matchers.<AsyncCallback<ArrayList<ServiceCallResult>>>any());
+        assertEquals(ServiceCallCoalescer.MAX_BATCH_SIZE, batchCaptor.getAllValues().get(0).size());
+        assertEquals(2, batchCaptor.getAllValues().get(1).size());
+    }
+
+    @Test public void failedBatchFailsEveryCall() {
+        uut.enqueue(new ServiceCallWrapper("first"), firstCallbackMock);
+        uut.enqueue(new ServiceCallWrapper("second"), secondCallbackMock);
+        verify(schedulerMock).scheduleFinally(commandCaptor.capture());
+        commandCaptor.getValue().execute();
+        verify(deServiceMock).getServiceDataBatch(batchCaptor.capture(), batchCallbackCaptor.capture());
+
+        final Throwable caught = mock(Throwable.class);
+        batchCallbackCaptor.getValue().onFailure(caught);
+
+        verify(firstCallbackMock).onFailure(caught);
+        verify(secondCallbackMock).onFailure(caught);
+        verify(firstCallbackMock, never()).onSuccess(any(String.class));
+    }
+
+    @Test public void authFailuresAreHandledOncePerBatch() {
+        uut.enqueue(new ServiceCallWrapper("first"), firstCallbackMock);
+        uut.enqueue(new ServiceCallWrapper("second"), secondCallbackMock);
+        verify(schedulerMock).scheduleFinally(commandCaptor.capture());
+        commandCaptor.getValue().execute();
+        verify(deServiceMock).getServiceDataBatch(batchCaptor.capture(), batchCallbackCaptor.capture());
+
+        final int[] logouts = {0};
+        final HandlerRegistration registration = EventBus.getInstance().addHandler(UserLoggedOutEvent.TYPE,
+                                                                                   new UserLoggedOutEvent.UserLoggedOutEventHandler() {
+            @Override
+            public void OnLoggedOut(UserLoggedOutEvent event) {
+                logouts[0]++;
+            }
+        });
+        try {
+            final ArrayList<ServiceCallResult> results = new ArrayList<>();
+            results.add(ServiceCallResult.failure(new AuthenticationException()));
+            results.add(ServiceCallResult.failure(new AuthenticationException()));
+            batchCallbackCaptor.getValue().onSuccess(results);
+        } finally {
+            registration.removeHandler();
+        }
+
+        assertEquals(1, logouts[0]);
+        verify(firstCallbackMock, never()).onFailure(any(Throwable.class));
+        verify(secondCallbackMock, never()).onFailure(any(Throwable.class));
+    }
+}
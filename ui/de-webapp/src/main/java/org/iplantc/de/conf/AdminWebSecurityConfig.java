@@ -4,12 +4,14 @@ import org.iplantc.de.server.CacheControlFilter;
 import org.iplantc.de.server.DeCasAuthenticationEntryPoint;
 import org.iplantc.de.server.DeLandingPage;
 import org.iplantc.de.server.MDCFilter;
+import org.iplantc.de.server.MaintenanceStateWatcher;
 import org.iplantc.de.server.auth.CasGroupUserDetailsService;
 import org.iplantc.de.server.auth.CasLogoutSuccessHandler;
 
 import static org.springframework.security.web.header.writers.frameoptions.XFrameOptionsHeaderWriter.XFrameOptionsMode.SAMEORIGIN;
 import org.jasig.cas.client.session.SingleSignOutFilter;
 import org.jasig.cas.client.validation.Cas20ServiceTicketValidator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -47,7 +49,7 @@ public class AdminWebSecurityConfig extends WebSecurityConfigurerAdapter {
     @Value("${org.iplantc.discoveryenvironment.cas.base-url}/login") private String casLoginUrl;
     @Value("${org.iplantc.discoveryenvironment.cas.base-url}/logout") private String casLogoutUrl;
     @Value("${org.iplantc.discoveryenvironment.cas.base-url}") private String casServerUrlPrefix;
-    @Value("${org.iplantc.discoveryenvironment.maintenance-file}") private String deMaintenanceFile;
+    @Autowired private MaintenanceStateWatcher maintenanceStateWatcher;
     @Value("${org.iplantc.discoveryenvironment.cas.logout-url}") private String logoutUrl;
     @Value("${org.iplantc.discoveryenvironment.cas.server-name}/belphegor") private String serverName;
     @Value("${org.iplantc.discoveryenvironment.cas.validation}") private String validation;
@@ -89,7 +91,7 @@ public class AdminWebSecurityConfig extends WebSecurityConfigurerAdapter {
     public DeLandingPage adminLandingPage() {
         DeLandingPage landingPage = new DeLandingPage();
         landingPage.setCasService(adminServiceProperties());
-        landingPage.setDeMaintenanceFile(deMaintenanceFile);
+        landingPage.setMaintenanceState(maintenanceStateWatcher);
         landingPage.setLoginUrl(casLoginUrl);
         return landingPage;
     }
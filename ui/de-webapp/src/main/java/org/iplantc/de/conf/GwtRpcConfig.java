@@ -3,13 +3,16 @@ package org.iplantc.de.conf;
 import org.iplantc.de.server.ServiceCallResolver;
 import org.iplantc.de.server.auth.JwtUrlConnector;
 import org.iplantc.de.server.auth.UrlConnector;
+import org.iplantc.de.server.http.PooledHttpClientEngine;
 import org.iplantc.de.server.rpc.DeGwtRemoteLoggingServiceImpl;
 import org.iplantc.de.server.rpc.GwtRpcController;
+import org.iplantc.de.server.rpc.SerializationPolicyCache;
 import org.iplantc.de.server.services.AboutApplicationServiceImpl;
 import org.iplantc.de.server.services.DEServiceImpl;
 import org.iplantc.de.server.services.EmailServiceImpl;
 import org.iplantc.de.server.services.IplantEmailClient;
 import org.iplantc.de.server.services.PropertyServiceImpl;
+import org.iplantc.de.server.services.ServiceResponseCache;
 import org.iplantc.de.server.services.UUIDServiceImpl;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,42 +39,74 @@ public class GwtRpcConfig {
     @Autowired private ServiceCallResolver serviceCallResolver;
     @Autowired private IplantEmailClient emailClient;
     @Autowired private UrlConnector urlConnector;
+    @Autowired private PooledHttpClientEngine httpClientEngine;
+    @Autowired private ServiceResponseCache serviceResponseCache;
     @Autowired private ServletConfig servletConfig;
 
     @Value("${org.iplantc.discoveryenvironment.about.defaultBuildNumber}") private String defaultBuildNumber;
     @Value("${org.iplantc.discoveryenvironment.about.releaseVersion}") private String releaseVersion;
+    @Value("${org.iplantc.discoveryenvironment.api-rpc.async.enabled:true}") private boolean apiRpcAsyncEnabled;
+    @Value("${org.iplantc.discoveryenvironment.api-rpc.async.timeout-ms:330000}") private long apiRpcAsyncTimeout;
+    @Value("${org.iplantc.discoveryenvironment.rpc.compression-threshold:" + GwtRpcController.DEFAULT_COMPRESSION_THRESHOLD + "}")
+    private int rpcCompressionThreshold;
+
+    @Bean
+    public SerializationPolicyCache serializationPolicyCache() {
+        return new SerializationPolicyCache();
+    }
 
     @Bean
     public GwtRpcController aboutRpcService(){
-        return new GwtRpcController(new AboutApplicationServiceImpl(defaultBuildNumber,
-                                                                    releaseVersion,
-                                                                    servletConfig));
+        return configure(new GwtRpcController(new AboutApplicationServiceImpl(defaultBuildNumber,
+                                                                              releaseVersion,
+                                                                              servletConfig)));
     }
 
     @Bean
     public GwtRpcController uuidRpcService(){
-        return new GwtRpcController(new UUIDServiceImpl());
+        return configure(new GwtRpcController(new UUIDServiceImpl()));
     }
 
     @Bean
     public GwtRpcController emailRpcService(){
-        return new GwtRpcController(new EmailServiceImpl(emailClient));
+        return configure(new GwtRpcController(new EmailServiceImpl(emailClient)));
     }
 
     @Bean
     public GwtRpcController propertiesRpcService(){
-        return new GwtRpcController(new PropertyServiceImpl(environment));
+        return configure(new GwtRpcController(new PropertyServiceImpl(environment)));
+    }
+
+    /**
+     * Shared by the API RPC service and the controller which streams large responses.
+     */
+    @Bean
+    public DEServiceImpl deService(){
+        final DEServiceImpl service = new DEServiceImpl(serviceCallResolver,
+                                                        urlConnector,
+                                                        httpClientEngine);
+        service.setResponseCache(serviceResponseCache);
+        service.setBatchTimeout(apiRpcAsyncTimeout);
+        return service;
     }
 
     @Bean
     public GwtRpcController apiRpcService(){
-        return new GwtRpcController(new DEServiceImpl(serviceCallResolver,
-                                                      urlConnector));
+        final GwtRpcController controller = configure(new GwtRpcController(deService()));
+        controller.setAsyncEnabled(apiRpcAsyncEnabled);
+        controller.setAsyncTimeout(apiRpcAsyncTimeout);
+        return controller;
     }
 
     @Bean
     public GwtRpcController remoteLogging() {
-        return new GwtRpcController(new DeGwtRemoteLoggingServiceImpl());
+        return configure(new GwtRpcController(new DeGwtRemoteLoggingServiceImpl()));
+    }
+
+    private GwtRpcController configure(GwtRpcController controller) {
+        controller.setSerializationPolicyCache(serializationPolicyCache());
+        controller.setCompressionThreshold(rpcCompressionThreshold);
+        return controller;
     }
 
     @Bean
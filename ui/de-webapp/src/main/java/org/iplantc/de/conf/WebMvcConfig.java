@@ -1,17 +1,35 @@
 package org.iplantc.de.conf;
 
+import org.iplantc.de.server.assets.StaticAssetHandler;
+import org.iplantc.de.server.compression.CompressionFilter;
+import org.iplantc.de.server.compression.DeflaterPool;
+import org.iplantc.de.server.controllers.file.SecuredFileUploadController;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.embedded.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.config.annotation.DefaultServletHandlerConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 import org.springframework.web.servlet.view.JstlView;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
 /**
  * @author jstroot
  */
@@ -19,6 +37,13 @@ import org.springframework.web.servlet.view.JstlView;
 @EnableWebMvc
 public class WebMvcConfig extends WebMvcConfigurerAdapter {
 
+    @Value("${org.iplantc.discoveryenvironment.compression.enabled:true}") private boolean compressionEnabled;
+    @Value("${org.iplantc.discoveryenvironment.compression.min-size-bytes:1024}") private int compressionMinSize;
+    @Value("${org.iplantc.discoveryenvironment.compression.level:6}") private int compressionLevel;
+    @Value("${org.iplantc.discoveryenvironment.compression.pool-size:64}") private int compressionPoolSize;
+    @Value("${org.iplantc.discoveryenvironment.compression.excluded-paths:/de/websocket,/de/secured/fileDownload}")
+    private String[] compressionExcludedPaths;
+
     @Autowired
     public WebMvcConfig() {
     }
@@ -39,9 +64,26 @@ public class WebMvcConfig extends WebMvcConfigurerAdapter {
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         super.addResourceHandlers(registry);
         registry.addResourceHandler("/*.css").addResourceLocations("/");
+    }
+
+    /**
+     * Maps the static files of each module to the {@link StaticAssetHandler}, after the controllers
+     * and before the container's default servlet.
+     */
+    @Bean
+    public SimpleUrlHandlerMapping staticAssetHandlerMapping() {
+        final SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping();
+        final Map<String, Object> urlMap = new LinkedHashMap<>();
+        urlMap.put("/de/**", staticAssetHandler());
+        urlMap.put("/belphegor/**", staticAssetHandler());
+        mapping.setUrlMap(urlMap);
+        mapping.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return mapping;
+    }
 
-        registry.addResourceHandler("/de/**").addResourceLocations("/");
-        registry.addResourceHandler("/belphegor/**").addResourceLocations("/");
+    @Bean
+    public StaticAssetHandler staticAssetHandler() {
+        return new StaticAssetHandler();
     }
 
     @Override
@@ -49,6 +91,35 @@ public class WebMvcConfig extends WebMvcConfigurerAdapter {
         configurer.enable();
     }
 
+    /**
+     * Resolves multipart requests, except for file uploads, which are parsed as they are streamed by
+     * {@link SecuredFileUploadController}.
+     */
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public MultipartResolver multipartResolver() {
+        return new StandardServletMultipartResolver() {
+            @Override
+            public boolean isMultipart(HttpServletRequest request) {
+                return !request.getRequestURI().endsWith(SecuredFileUploadController.STREAMING_UPLOAD_PATH)
+                       && super.isMultipart(request);
+            }
+        };
+    }
+
+    /**
+     * Compresses responses, except for websockets and file downloads, which are usually large and
+     * often already compressed.
+     */
+    @Bean
+    public FilterRegistrationBean compressionFilter() {
+        final FilterRegistrationBean registration =
+                new FilterRegistrationBean(new CompressionFilter(compressionMinSize,
+                                                                 new DeflaterPool(compressionLevel, compressionPoolSize),
+                                                                 Arrays.asList(compressionExcludedPaths)));
+        registration.setEnabled(compressionEnabled);
+        return registration;
+    }
+
     @Bean
     public InternalResourceViewResolver jspViewResolver() {
         InternalResourceViewResolver viewResolver = new InternalResourceViewResolver();
@@ -15,6 +15,10 @@ import javax.servlet.http.HttpServletResponse;
 /**
  * 
  * A filter set no cache headers to GWT .nocache files, and turns caching on for .cache. files.
+ *
+ * The names of .cache. files contain a hash of their content, so a client may keep them for a year
+ * without revalidating them. Only the file name of the request path is checked, so that directories
+ * which happen to contain either marker aren't affected.
  * 
  * @author sriram
  * @author jstroot
@@ -22,6 +26,11 @@ import javax.servlet.http.HttpServletResponse;
  */
 public class CacheControlFilter implements Filter {
 
+    /**
+     * One year, the longest lifetime clients are expected to honour.
+     */
+    static final long IMMUTABLE_MAX_AGE_SECONDS = 31536000L;
+
     @Override
     public void destroy() {
         // TODO Auto-generated method stub
@@ -32,8 +41,9 @@ public class CacheControlFilter implements Filter {
             throws IOException, ServletException {
         HttpServletRequest httpRequest = (HttpServletRequest)request;
         String requestURI = httpRequest.getRequestURI();
+        String fileName = requestURI.substring(requestURI.lastIndexOf('/') + 1);
 
-        if (requestURI.contains(".nocache.")) {
+        if (fileName.contains(".nocache.")) {
             Date now = new Date();
             HttpServletResponse httpResponse = (HttpServletResponse)response;
             httpResponse.setDateHeader("Date", now.getTime());
@@ -41,11 +51,10 @@ public class CacheControlFilter implements Filter {
             httpResponse.setDateHeader("Expires", now.getTime() - 86400000L);
             httpResponse.setHeader("Pragma", "no-cache");
             httpResponse.setHeader("Cache-control", "no-cache, no-store, must-revalidate");
-        }else if(requestURI.contains(".cache.")){
+        }else if(fileName.contains(".cache.")){
             HttpServletResponse httpResponse = (HttpServletResponse)response;
 
-            httpResponse.setHeader("Cache-control", "cache, private, max-age=2592000");
-            httpResponse.setHeader("Pragma", "cache");
+            httpResponse.setHeader("Cache-control", "private, max-age=" + IMMUTABLE_MAX_AGE_SECONDS + ", immutable");
         }
 
         filterChain.doFilter(request, response);
@@ -10,6 +10,7 @@ import org.springframework.util.Assert;
 import org.stringtemplate.v4.ST;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.net.URLEncoder;
 import java.util.Map;
 
@@ -19,6 +20,10 @@ import javax.servlet.http.HttpServletResponse;
 /**
  * Used to present a landing page to an unauthenticated DE user.
  *
+ * The page is rendered once and reused until the maintenance state, the context path or the CAS
+ * settings change. Only the hidden inputs carrying the request parameters are built per request; they
+ * are inserted where the login form expects them.
+ *
  * TODO Convert to jsp.
  * @see org.springframework.web.servlet.View#render(Map, HttpServletRequest, HttpServletResponse)
  *
@@ -28,6 +33,11 @@ public class DeLandingPage implements LandingPage, InitializingBean {
 
     private static final String ENCODING = "UTF-8";
 
+    /**
+     * Stands in for the request parameters in the rendered page.
+     */
+    private static final String EXTRA_PARAMS_MARKER = "\u0000extra_params\u0000";
+
     private enum Templates {
         BOUNDED_MAINTENANCE_DIV(loadResource("bounded-maintenance-div-template.html")),
         UNBOUNDED_MAINTENANCE_DIV(loadResource("unbounded-maintenance-div-template.html")),
@@ -47,53 +57,69 @@ public class DeLandingPage implements LandingPage, InitializingBean {
     }
 
     private final Logger LOG = LoggerFactory.getLogger(DeLandingPage.class);
-    private String deMaintenanceFile;
+    private MaintenanceStateWatcher maintenanceState;
     private String loginUrl;
     private ServiceProperties casService;
+    private volatile RenderedPage renderedPage;
 
-    public void setDeMaintenanceFile(String deMaintenanceFile) {
-        this.deMaintenanceFile = deMaintenanceFile;
+    public void setMaintenanceState(MaintenanceStateWatcher maintenanceState) {
+        this.maintenanceState = maintenanceState;
     }
 
     public void setLoginUrl(String loginUrl) {
         LOG.info("LoginUrl = {}", loginUrl);
         this.loginUrl = loginUrl;
+        renderedPage = null;
     }
 
 
     public void setCasService(ServiceProperties casService) {
         this.casService = casService;
+        renderedPage = null;
     }
 
     public void afterPropertiesSet() throws Exception {
-        Assert.hasLength(deMaintenanceFile, "the path to the DE maintenance file must be specified");
+        Assert.notNull(maintenanceState, "the DE maintenance state must be specified");
         Assert.hasLength(loginUrl, "the CAS login URL must be specified");
         Assert.notNull(casService, "the CAS service properties must be specified");
         Assert.hasLength(casService.getService(), "the CAS service name must be specified");
     }
 
     public void display(HttpServletRequest req, HttpServletResponse res) throws IOException {
-        String contextPath = req.getContextPath();
-        String loginDiv = buildLoginDiv(req);
-        ST st = new ST(Templates.LANDING_PAGE.toString(), '$', '$');
-        st.add("context_path", contextPath);
-        st.add("login_div", loginDiv);
+        RenderedPage page = getRenderedPage(req.getContextPath());
         res.setContentType("text/html");
-        res.getWriter().print(st.render());
+        PrintWriter writer = res.getWriter();
+        writer.print(page.head);
+        if (page.tail != null) {
+            writer.print(buildExtraParams(req));
+            writer.print(page.tail);
+        }
+    }
+
+    private RenderedPage getRenderedPage(String contextPath) {
+        DiscoveryEnvironmentMaintenance deMaintenance = maintenanceState.getMaintenance();
+        RenderedPage page = renderedPage;
+        if (page == null || page.maintenance != deMaintenance || !page.contextPath.equals(contextPath)) {
+            page = new RenderedPage(deMaintenance, contextPath, render(contextPath, deMaintenance));
+            renderedPage = page;
+        }
+        return page;
     }
 
-    private DiscoveryEnvironmentMaintenance getDeMaintenance() {
-        return new DiscoveryEnvironmentMaintenance(deMaintenanceFile);
+    private String render(String contextPath, DiscoveryEnvironmentMaintenance deMaintenance) {
+        ST st = new ST(Templates.LANDING_PAGE.toString(), '$', '$');
+        st.add("context_path", contextPath);
+        st.add("login_div", buildLoginDiv(deMaintenance));
+        return st.render();
     }
 
-    private String buildLoginDiv(HttpServletRequest req) throws IOException {
-        DiscoveryEnvironmentMaintenance deMaintenance = getDeMaintenance();
+    private String buildLoginDiv(DiscoveryEnvironmentMaintenance deMaintenance) {
         if (deMaintenance.hasMaintenanceTimes()) {
             return buildBoundedMaintenanceDiv(deMaintenance);
         } else if (deMaintenance.isUnderMaintenance()) {
             return buildUnboundedMaintenanceDiv();
         } else {
-            return buildLoginButtonDiv(req);
+            return buildLoginButtonDiv();
         }
     }
 
@@ -108,9 +134,9 @@ public class DeLandingPage implements LandingPage, InitializingBean {
         return Templates.UNBOUNDED_MAINTENANCE_DIV.toString();
     }
 
-    private String buildLoginButtonDiv(HttpServletRequest req) throws IOException {
+    private String buildLoginButtonDiv() {
         ST st = new ST(Templates.LOGIN_DIV.toString(), '$', '$');
-        st.add("extra_params", buildExtraParams(req));
+        st.add("extra_params", EXTRA_PARAMS_MARKER);
         st.add("login_url", loginUrl);
         st.add("service_url", casService.getService());
         return st.render();
@@ -135,4 +161,29 @@ public class DeLandingPage implements LandingPage, InitializingBean {
         }
         return extraParams.toString();
     }
+
+    /**
+     * The landing page rendered for one maintenance state and context path, split where the request
+     * parameters go. The tail is null if the page has no login form.
+     */
+    private static final class RenderedPage {
+
+        private final DiscoveryEnvironmentMaintenance maintenance;
+        private final String contextPath;
+        private final String head;
+        private final String tail;
+
+        RenderedPage(DiscoveryEnvironmentMaintenance maintenance, String contextPath, String page) {
+            this.maintenance = maintenance;
+            this.contextPath = contextPath;
+            int marker = page.indexOf(EXTRA_PARAMS_MARKER);
+            if (marker < 0) {
+                this.head = page;
+                this.tail = null;
+            } else {
+                this.head = page.substring(0, marker);
+                this.tail = page.substring(marker + EXTRA_PARAMS_MARKER.length());
+            }
+        }
+    }
 }
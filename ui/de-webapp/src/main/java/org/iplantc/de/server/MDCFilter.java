@@ -5,8 +5,6 @@ import static org.iplantc.de.server.AppLoggerConstants.USER_IP_KEY;
 
 import com.google.common.base.Strings;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -15,7 +13,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
-import java.util.Map;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -46,10 +43,8 @@ public class MDCFilter implements Filter {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if(authentication != null){
             final HttpServletRequestWrapper servletRequestWrapper = (HttpServletRequestWrapper) servletRequest;
-            Map<String, Object> userMap = AppLoggerUtil.getInstance().createUserInfoMap((CasAuthenticationToken) authentication);
-            ObjectMapper mapper = new ObjectMapper();
             // This put is also performed in the ApplicationAuthenticationListener. This is intentional.
-            MDC.put(USERINFO_KEY, mapper.writeValueAsString(userMap));
+            MDC.put(USERINFO_KEY, AppLoggerUtil.getInstance().createUserInfoJson((CasAuthenticationToken) authentication));
 
             // Look for NGINX ip header. If it doesn't exist, use the default.
             String remoteIP = servletRequestWrapper.getHeader(AppLoggerConstants.USER_IP_HEADER_NAME);
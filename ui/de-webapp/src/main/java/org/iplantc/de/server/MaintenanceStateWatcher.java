@@ -0,0 +1,171 @@
+package org.iplantc.de.server;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Keeps the maintenance state of the DE in memory, so that the landing page and the DE page don't
+ * have to read the maintenance file on every request.
+ *
+ * The directory containing the maintenance file is watched, and the state is reloaded whenever the
+ * file is created, changed or deleted. If the directory can't be watched, e.g. because it doesn't
+ * exist yet, the file is checked at most once every {@link #POLL_INTERVAL_MS} milliseconds instead.
+ */
+@Component
+public class MaintenanceStateWatcher implements InitializingBean, DisposableBean {
+
+    static final long POLL_INTERVAL_MS = 5000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaintenanceStateWatcher.class);
+
+    @Value("${org.iplantc.discoveryenvironment.maintenance-file}") private String maintenanceFileName;
+
+    private File maintenanceFile;
+    private volatile DiscoveryEnvironmentMaintenance maintenance;
+    private volatile boolean watching;
+    private WatchService watchService;
+    private Thread watcher;
+
+    private long lastChecked;
+    private long lastModified;
+
+    public MaintenanceStateWatcher() {
+    }
+
+    MaintenanceStateWatcher(String maintenanceFileName) {
+        this.maintenanceFileName = maintenanceFileName;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        maintenanceFile = new File(maintenanceFileName).getAbsoluteFile();
+        reload();
+        final Path directory = maintenanceFile.getParentFile().toPath();
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        } catch (IOException e) {
+            LOG.warn("Unable to watch {}; it will be checked every {} ms instead", directory, POLL_INTERVAL_MS, e);
+            closeWatchService();
+            return;
+        }
+        watching = true;
+        final WatchService service = watchService;
+        watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch(service);
+            }
+        }, "maintenance-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public void destroy() {
+        watching = false;
+        closeWatchService();
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+
+    /**
+     * @return the current maintenance state. The same instance is returned until the state changes.
+     */
+    public DiscoveryEnvironmentMaintenance getMaintenance() {
+        if (!watching) {
+            pollIfDue();
+        }
+        return maintenance;
+    }
+
+    private void watch(WatchService service) {
+        while (watching) {
+            final WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW || maintenanceFile.getName().equals(String.valueOf(event.context()))) {
+                    changed = true;
+                }
+            }
+            if (changed) {
+                reload();
+            }
+            if (!key.reset()) {
+                LOG.warn("{} can no longer be watched; it will be checked every {} ms instead",
+                         maintenanceFile.getParent(), POLL_INTERVAL_MS);
+                watching = false;
+                closeWatchService();
+                return;
+            }
+        }
+    }
+
+    private synchronized void pollIfDue() {
+        final long now = System.currentTimeMillis();
+        if (now - lastChecked < POLL_INTERVAL_MS) {
+            return;
+        }
+        lastChecked = now;
+        if (maintenanceFile.lastModified() != lastModified) {
+            reload();
+        }
+    }
+
+    /**
+     * Reads the maintenance file, keeping the current state if the file's contents describe the
+     * same state, since the pages rendered for a state are cached by its instance.
+     */
+    synchronized void reload() {
+        lastModified = maintenanceFile.lastModified();
+        final DiscoveryEnvironmentMaintenance previous = maintenance;
+        final DiscoveryEnvironmentMaintenance current = new DiscoveryEnvironmentMaintenance(maintenanceFile.getPath());
+        if (previous != null && isSameState(previous, current)) {
+            return;
+        }
+        maintenance = current;
+        if (previous == null || previous.isUnderMaintenance() != current.isUnderMaintenance()) {
+            LOG.info("The DE is {}under maintenance", current.isUnderMaintenance() ? "" : "not ");
+        }
+    }
+
+    private static boolean isSameState(DiscoveryEnvironmentMaintenance a, DiscoveryEnvironmentMaintenance b) {
+        return a.isUnderMaintenance() == b.isUnderMaintenance()
+                   && a.getStartTime().equals(b.getStartTime())
+                   && a.getEndTime().equals(b.getEndTime());
+    }
+
+    private synchronized void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOG.debug("Unable to close the maintenance file watcher", e);
+            }
+            watchService = null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.iplantc.de.server.assets;
+
+import com.google.common.io.BaseEncoding;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.servlet.ServletContext;
+
+/**
+ * One representation of a static file in the web application: either the file itself, or the gzip
+ * variant which was written next to it at build time.
+ *
+ * The entity tag is a strong validator derived from a hash of the representation's content, so that
+ * it changes whenever the content does and is the same on every server which serves the same build.
+ */
+final class StaticAsset {
+
+    private final String path;
+    private final File file;
+    private final long length;
+    private final long lastModified;
+    private final String etag;
+
+    private StaticAsset(String path, File file, long length, long lastModified, String etag) {
+        this.path = path;
+        this.file = file;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.etag = etag;
+    }
+
+    /**
+     * Loads a representation, hashing its content.
+     *
+     * @param servletContext the context the representation is a resource of.
+     * @param path the resource path of the representation.
+     * @param etagSuffix appended to the content hash, to tell apart the entity tags of the
+     *                   representations of one file.
+     * @return the representation, or null if the resource doesn't exist or is a directory.
+     */
+    static StaticAsset load(ServletContext servletContext, String path, String etagSuffix) throws IOException {
+        final File file = realFile(servletContext, path);
+        final long length;
+        final long lastModified;
+        final InputStream content;
+        if (file != null) {
+            if (!file.isFile()) {
+                return null;
+            }
+            length = file.length();
+            lastModified = file.lastModified();
+            content = servletContext.getResourceAsStream(path);
+        } else {
+            final URL url = servletContext.getResource(path);
+            if (url == null || path.endsWith("/")) {
+                return null;
+            }
+            final URLConnection connection = url.openConnection();
+            length = connection.getContentLengthLong();
+            lastModified = connection.getLastModified();
+            content = connection.getInputStream();
+        }
+        if (content == null) {
+            return null;
+        }
+        return new StaticAsset(path, file, length, lastModified, '"' + hash(content) + etagSuffix + '"');
+    }
+
+    /**
+     * @return the file a resource is stored in, or null if the web application isn't unpacked.
+     */
+    static File realFile(ServletContext servletContext, String path) {
+        final String realPath = servletContext.getRealPath(path);
+        return realPath == null ? null : new File(realPath);
+    }
+
+    private static String hash(InputStream content) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+        try (InputStream in = new DigestInputStream(content, digest)) {
+            final byte[] buffer = new byte[8192];
+            while (in.read(buffer) >= 0) {
+                // Read the whole resource through the digest.
+            }
+        }
+        return BaseEncoding.base64Url().omitPadding().encode(digest.digest());
+    }
+
+    /**
+     * @return true if the file this representation was loaded from has changed since.
+     */
+    boolean isStale() {
+        return file != null && (file.lastModified() != lastModified || file.length() != length);
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the file the representation is stored in, or null if it's only available as a
+     * resource of a packed web application.
+     */
+    File getFile() {
+        return file;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    String getETag() {
+        return etag;
+    }
+}
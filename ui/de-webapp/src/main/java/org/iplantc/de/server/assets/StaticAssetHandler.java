@@ -0,0 +1,214 @@
+package org.iplantc.de.server.assets;
+
+import org.iplantc.de.server.compression.CompressionFilter;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.context.ServletContextAware;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the static files of the web application, such as the compiled GWT modules, style sheets
+ * and scripts.
+ *
+ * Every file is served with its last modified time and a strong entity tag derived from its content,
+ * and conditional requests which match either are answered with a 304. The entity tags are
+ * remembered, and are only recomputed when a file changes.
+ *
+ * When the build wrote a gzip variant next to a file, clients which accept gzip are sent the variant
+ * as it is, instead of having the file compressed on every request. Files are sent with the
+ * container's sendfile support when it's available, and otherwise transferred from a file channel;
+ * files of a packed web application are copied from the resource stream.
+ *
+ * The caching policy of each file is set by {@link org.iplantc.de.server.CacheControlFilter}.
+ */
+public class StaticAssetHandler implements HttpRequestHandler, ServletContextAware {
+
+    /**
+     * The suffix of the gzip variants written by the build.
+     */
+    public static final String GZIP_SUFFIX = ".gz";
+
+    static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaticAssetHandler.class);
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private ServletContext servletContext;
+
+    @Override
+    public void setServletContext(ServletContext servletContext) {
+        this.servletContext = servletContext;
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        final String method = request.getMethod();
+        final boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            throw new HttpRequestMethodNotSupportedException(method, new String[] {"GET", "HEAD"});
+        }
+
+        final String path = (String)request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        final Entry entry = path == null || isInvalidPath(path) ? null : lookup("/" + path);
+        if (entry == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        final boolean gzip = entry.gzip != null && CompressionFilter.acceptsGzip(request);
+        final StaticAsset asset = gzip ? entry.gzip : entry.identity;
+        if (entry.gzip != null && !response.containsHeader("Vary")) {
+            response.addHeader("Vary", "Accept-Encoding");
+        }
+        response.setHeader("ETag", asset.getETag());
+        if (entry.identity.getLastModified() > 0) {
+            response.setDateHeader("Last-Modified", entry.identity.getLastModified());
+        }
+        if (isNotModified(request, asset.getETag(), entry.identity.getLastModified())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (entry.contentType != null) {
+            response.setContentType(entry.contentType);
+        }
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLengthLong(asset.getLength());
+        if (!head) {
+            send(request, response, asset, gzip);
+        }
+    }
+
+    private Entry lookup(String path) throws IOException {
+        final Entry cached = entries.get(path);
+        if (cached != null && !cached.isStale()) {
+            return cached;
+        }
+        final StaticAsset identity = StaticAsset.load(servletContext, path, "");
+        if (identity == null) {
+            entries.remove(path);
+            return null;
+        }
+        StaticAsset gzip = StaticAsset.load(servletContext, path + GZIP_SUFFIX, "-gz");
+        if (gzip != null && gzip.getLastModified() < identity.getLastModified()) {
+            LOG.warn("Ignoring {}, which is older than the file it was compressed from", gzip.getPath());
+            gzip = null;
+        }
+        final Entry entry = new Entry(identity, gzip, servletContext.getMimeType(path));
+        entries.put(path, entry);
+        return entry;
+    }
+
+    private void send(HttpServletRequest request, HttpServletResponse response, StaticAsset asset, boolean gzip)
+            throws IOException {
+        final File file = asset.getFile();
+        if (file == null) {
+            try (InputStream in = servletContext.getResourceAsStream(asset.getPath())) {
+                IOUtils.copyLarge(in, response.getOutputStream());
+            }
+            return;
+        }
+
+        // A file which the compression filter may compress has to be written through the response.
+        final boolean mayCompress = !gzip
+                                        && request.getAttribute(CompressionFilter.COMPRESSING_ATTRIBUTE) != null
+                                        && CompressionFilter.isCompressibleType(response.getContentType());
+        if (!mayCompress && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, asset.getLength());
+            return;
+        }
+
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            final WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            final long length = Math.min(asset.getLength(), channel.size());
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, out);
+            }
+        }
+    }
+
+    /**
+     * @return true if the request's validators match the current representation.
+     */
+    static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                final String trimmed = tag.trim();
+                // If-None-Match uses the weak comparison.
+                if (trimmed.equals("*") || trimmed.equals(etag) || trimmed.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (lastModified <= 0) {
+            return false;
+        }
+        final long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private static boolean isInvalidPath(String path) {
+        final String upper = path.toUpperCase(Locale.ENGLISH);
+        return path.contains("..")
+                   || path.contains(":")
+                   || path.contains("\\")
+                   || upper.startsWith("WEB-INF")
+                   || upper.startsWith("META-INF");
+    }
+
+    /**
+     * The representations of one file.
+     */
+    private static final class Entry {
+
+        private final StaticAsset identity;
+        private final StaticAsset gzip;
+        private final String contentType;
+
+        Entry(StaticAsset identity, StaticAsset gzip, String contentType) {
+            this.identity = identity;
+            this.gzip = gzip;
+            this.contentType = contentType;
+        }
+
+        boolean isStale() {
+            return identity.isStale() || (gzip != null && gzip.isStale());
+        }
+    }
+}
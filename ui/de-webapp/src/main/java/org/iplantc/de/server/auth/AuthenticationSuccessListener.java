@@ -9,7 +9,6 @@ import org.iplantc.de.server.AppLoggerUtil;
 import com.google.common.base.Strings;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,8 +19,6 @@ import org.springframework.security.authentication.event.AuthenticationSuccessEv
 import org.springframework.security.cas.authentication.CasAuthenticationToken;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-
 import javax.servlet.http.HttpServletRequest;
 
 /**
@@ -42,10 +39,8 @@ public class AuthenticationSuccessListener implements ApplicationListener<Authen
     @Override
     public void onApplicationEvent(AuthenticationSuccessEvent event) {
 
-        Map<String, Object> userMap = AppLoggerUtil.getInstance().createUserInfoMap((CasAuthenticationToken) event.getAuthentication());
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            MDC.put(USERINFO_KEY, mapper.writeValueAsString(userMap));
+            MDC.put(USERINFO_KEY, AppLoggerUtil.getInstance().createUserInfoJson((CasAuthenticationToken) event.getAuthentication()));
         } catch (JsonProcessingException e) {
             LOG.error("Error logging user info", e);
         }
@@ -0,0 +1,319 @@
+package org.iplantc.de.server.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * A response which decides whether to gzip its content once it has seen enough of it.
+ *
+ * Content is held back until either the declared content length or the content written so far
+ * reaches the minimum size, at which point the response is compressed if its content type is
+ * compressible and it has no content encoding yet. Content which is still held back when the
+ * response is finished is sent as it is, with its length. Flushes are ignored while content is held
+ * back.
+ */
+final class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    private final int minSize;
+    private final DeflaterPool deflaterPool;
+    private final CompressionMetrics metrics;
+
+    /**
+     * The content held back until the response is large enough. Null once the decision is made.
+     */
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    /**
+     * The stream content is written to once the decision is made.
+     */
+    private OutputStream target;
+    private PooledGzipOutputStream gzip;
+    private long declaredLength = -1;
+
+    private CompressingStream body;
+    private PrintWriter writer;
+    private boolean finished;
+
+    CompressingResponseWrapper(HttpServletResponse response,
+                               int minSize,
+                               DeflaterPool deflaterPool,
+                               CompressionMetrics metrics) {
+        super(response);
+        this.minSize = minSize;
+        this.deflaterPool = deflaterPool;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        if (body == null) {
+            body = new CompressingStream();
+        }
+        return body;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (body != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            body = new CompressingStream();
+            writer = new PrintWriter(new OutputStreamWriter(body, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (pending != null) {
+            declaredLength = len;
+        } else if (gzip == null) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (body != null) {
+            body.flush();
+        }
+        if (pending == null) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void reset() {
+        checkResettable();
+        super.reset();
+        if (pending != null) {
+            pending.reset();
+            declaredLength = -1;
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        checkResettable();
+        super.resetBuffer();
+        if (pending != null) {
+            pending.reset();
+        }
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        discardPending();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        discardPending();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        discardPending();
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Sends any content which is still held back, or completes the compressed content. Calling this
+     * more than once has no effect.
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (pending != null && body != null) {
+                if (declaredLength < 0) {
+                    declaredLength = pending.size();
+                }
+                decide(declaredLength >= minSize);
+            } else if (pending != null && declaredLength >= 0) {
+                // Nothing was written through this response, e.g. because the container sends the
+                // content itself, but the length still has to reach the client.
+                super.setContentLengthLong(declaredLength);
+            }
+            if (gzip != null) {
+                gzip.finish();
+            }
+        } finally {
+            finished = true;
+            pending = null;
+        }
+    }
+
+    private void checkResettable() {
+        if (gzip != null) {
+            throw new IllegalStateException("The response is already being compressed");
+        }
+    }
+
+    private void discardPending() {
+        if (pending != null) {
+            pending = null;
+            finished = true;
+        }
+    }
+
+    /**
+     * Chooses the stream to write the content to, and writes any content which was held back.
+     *
+     * @param largeEnough true if the content is at least the minimum size.
+     */
+    private void decide(boolean largeEnough) throws IOException {
+        final ByteArrayOutputStream held = pending;
+        pending = null;
+        if (largeEnough && isCompressibleResponse()) {
+            super.setHeader(CONTENT_ENCODING, "gzip");
+            target = gzip = new PooledGzipOutputStream(super.getOutputStream(), deflaterPool, metrics);
+        } else {
+            if (largeEnough) {
+                metrics.notCompressible();
+            } else {
+                metrics.belowThreshold();
+            }
+            if (declaredLength >= 0) {
+                super.setContentLengthLong(declaredLength);
+            }
+            target = super.getOutputStream();
+        }
+        if (held.size() > 0) {
+            held.writeTo(target);
+        }
+    }
+
+    private boolean isCompressibleResponse() {
+        final int status = getStatus();
+        if (status < 200 || status == SC_NO_CONTENT || status == SC_NOT_MODIFIED) {
+            return false;
+        }
+        if (containsHeader(CONTENT_ENCODING)) {
+            return false;
+        }
+        return CompressionFilter.isCompressibleType(getContentType());
+    }
+
+    /**
+     * The stream returned to the servlet.
+     */
+    private final class CompressingStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                throw new IOException("The response is already finished");
+            }
+            if (pending != null) {
+                if (declaredLength >= 0) {
+                    decide(declaredLength >= minSize);
+                } else if (pending.size() + len >= minSize) {
+                    decide(true);
+                } else {
+                    pending.write(b, off, len);
+                    return;
+                }
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null && !finished) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return getContainerStream().isReady();
+        }
+
+        /**
+         * Passes the listener to the container's stream, which the data written here ends up in,
+         * whether or not it's compressed.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            getContainerStream().setWriteListener(writeListener);
+        }
+    }
+
+    private ServletOutputStream getContainerStream() {
+        try {
+            return super.getOutputStream();
+        } catch (IOException e) {
+            throw new IllegalStateException("The response's output stream isn't available", e);
+        }
+    }
+}
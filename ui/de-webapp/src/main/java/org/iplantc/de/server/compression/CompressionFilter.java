@@ -0,0 +1,211 @@
+package org.iplantc.de.server.compression;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Gzips text, JSON and GWT-RPC responses for clients which accept it.
+ *
+ * Responses are compressed as they are written, with deflaters from a {@link DeflaterPool}. The
+ * first bytes of a response are held back until it's known to be at least the minimum size, or to
+ * have a compressible content type; smaller responses, responses of other types, and responses which
+ * already have a content encoding are sent as they are. Requests under the excluded paths, such as
+ * file downloads and websockets, aren't wrapped at all.
+ *
+ * A request which is still in asynchronous mode when the filter chain returns has its response
+ * finished by whoever completes it, by calling {@link #finish(ServletResponse)}, or otherwise when
+ * the asynchronous request completes.
+ */
+public class CompressionFilter implements Filter {
+
+    /**
+     * Set on requests whose responses are being compressed by this filter, so that servlets which
+     * can compress their own responses don't.
+     */
+    public static final String COMPRESSING_ATTRIBUTE = CompressionFilter.class.getName() + ".COMPRESSING";
+
+    private static final String GZIP = "gzip";
+
+    private final int minSize;
+    private final DeflaterPool deflaterPool;
+    private final List<String> excludedPaths;
+    private final CompressionMetrics metrics;
+
+    /**
+     * @param minSize the size, in bytes, below which responses aren't compressed.
+     * @param deflaterPool the pool of deflaters to compress responses with.
+     * @param excludedPaths the path prefixes, relative to the context path, of requests whose
+     *                      responses are never compressed.
+     */
+    public CompressionFilter(int minSize, DeflaterPool deflaterPool, List<String> excludedPaths) {
+        this(minSize, deflaterPool, excludedPaths, CompressionMetrics.getInstance());
+    }
+
+    CompressionFilter(int minSize, DeflaterPool deflaterPool, List<String> excludedPaths, CompressionMetrics metrics) {
+        this.minSize = minSize;
+        this.deflaterPool = deflaterPool;
+        this.excludedPaths = new ArrayList<>(excludedPaths);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException { }
+
+    @Override
+    public void destroy() { }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest)
+                || !(response instanceof HttpServletResponse)
+                || !isCompressible((HttpServletRequest)request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final HttpServletResponse httpResponse = (HttpServletResponse)response;
+        httpResponse.addHeader("Vary", "Accept-Encoding");
+        if (!acceptsGzip((HttpServletRequest)request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final CompressingResponseWrapper wrapper =
+                new CompressingResponseWrapper(httpResponse, minSize, deflaterPool, metrics);
+        request.setAttribute(COMPRESSING_ATTRIBUTE, Boolean.TRUE);
+        boolean async = false;
+        try {
+            chain.doFilter(request, wrapper);
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new FinishingListener(wrapper));
+            }
+        } finally {
+            if (!async) {
+                wrapper.finish();
+            }
+        }
+    }
+
+    /**
+     * Finishes the compressed response of a request which was processed asynchronously. This must
+     * be called before the asynchronous request is completed; calling it for a response which isn't
+     * being compressed has no effect.
+     */
+    public static void finish(ServletResponse response) throws IOException {
+        ServletResponse current = response;
+        while (current instanceof ServletResponseWrapper) {
+            if (current instanceof CompressingResponseWrapper) {
+                ((CompressingResponseWrapper)current).finish();
+                return;
+            }
+            current = ((ServletResponseWrapper)current).getResponse();
+        }
+    }
+
+    private boolean isCompressible(HttpServletRequest request) {
+        if ("HEAD".equals(request.getMethod())) {
+            return false;
+        }
+        final String uri = request.getRequestURI();
+        final String path = uri.substring(Math.min(request.getContextPath().length(), uri.length()));
+        for (String excludedPath : excludedPaths) {
+            if (path.startsWith(excludedPath)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param contentType a response's content type, which may be null.
+     * @return true if responses of the type are compressed.
+     */
+    public static boolean isCompressibleType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        final String type = contentType.toLowerCase(Locale.ENGLISH);
+        return type.startsWith("text/")
+                   || type.contains("json")
+                   || type.contains("javascript")
+                   || type.contains("xml");
+    }
+
+    /**
+     * @return true if the request's Accept-Encoding header accepts gzip with a non-zero quality.
+     */
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        final String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.split(";");
+            final String name = parts[0].trim().toLowerCase(Locale.ENGLISH);
+            final boolean accepted = parts.length < 2 || !isZeroQuality(parts[1]);
+            if (name.equals(GZIP) || name.equals("x-gzip")) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        final String[] nameValue = parameter.split("=");
+        if (nameValue.length != 2 || !nameValue[0].trim().equalsIgnoreCase("q")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(nameValue[1].trim()) <= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Finishes the response of an asynchronous request if it wasn't finished before the request
+     * completed.
+     */
+    private static final class FinishingListener implements AsyncListener {
+
+        private final CompressingResponseWrapper wrapper;
+
+        FinishingListener(CompressingResponseWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+            wrapper.finish();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) { }
+
+        @Override
+        public void onError(AsyncEvent event) { }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) { }
+    }
+}
@@ -0,0 +1,96 @@
+package org.iplantc.de.server.compression;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the responses handled by the {@link CompressionFilter}, and the bytes and time spent
+ * compressing them, so that its threshold and level can be tuned.
+ */
+public final class CompressionMetrics {
+
+    private static final CompressionMetrics INSTANCE = new CompressionMetrics();
+
+    private final AtomicLong compressed = new AtomicLong();
+    private final AtomicLong belowThreshold = new AtomicLong();
+    private final AtomicLong notCompressible = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong deflateNanos = new AtomicLong();
+
+    CompressionMetrics() {
+    }
+
+    public static CompressionMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a compressed response.
+     *
+     * @param uncompressedBytes the size of the response before compression.
+     * @param compressedBytes the size of the response after compression, including the gzip framing.
+     * @param nanos the time spent compressing the response.
+     */
+    void compressed(long uncompressedBytes, long compressedBytes, long nanos) {
+        compressed.incrementAndGet();
+        bytesIn.addAndGet(uncompressedBytes);
+        bytesOut.addAndGet(compressedBytes);
+        deflateNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Records a response which was sent uncompressed because it was smaller than the threshold.
+     */
+    void belowThreshold() {
+        belowThreshold.incrementAndGet();
+    }
+
+    /**
+     * Records a response which was sent uncompressed because of its content type or encoding.
+     */
+    void notCompressible() {
+        notCompressible.incrementAndGet();
+    }
+
+    public long getCompressedCount() {
+        return compressed.get();
+    }
+
+    public long getBelowThresholdCount() {
+        return belowThreshold.get();
+    }
+
+    public long getNotCompressibleCount() {
+        return notCompressible.get();
+    }
+
+    /**
+     * @return the total size of the compressed responses divided by their uncompressed size, or 1
+     *         if nothing has been compressed.
+     */
+    public double getCompressionRatio() {
+        final long in = bytesIn.get();
+        return in == 0 ? 1 : (double)bytesOut.get() / in;
+    }
+
+    /**
+     * Builds a summary of the metrics, suitable for serializing as JSON.
+     */
+    public Map<String, Object> snapshot() {
+        final long count = compressed.get();
+        final long nanos = deflateNanos.get();
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("compressed", count);
+        result.put("below-threshold", belowThreshold.get());
+        result.put("not-compressible", notCompressible.get());
+        result.put("bytes-in", bytesIn.get());
+        result.put("bytes-out", bytesOut.get());
+        result.put("ratio", Math.round(getCompressionRatio() * 1000) / 1000.0);
+        result.put("deflate-ms", TimeUnit.NANOSECONDS.toMillis(nanos));
+        result.put("mean-deflate-us", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanos / count));
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package org.iplantc.de.server.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded pool of raw deflaters.
+ *
+ * A {@link Deflater} holds native memory which is only released when it's ended or finalized, and
+ * allocating one for every response is expensive, so deflaters are reset and reused instead.
+ * Deflaters returned while the pool is full are ended.
+ */
+public class DeflaterPool {
+
+    private final int level;
+    private final BlockingQueue<Deflater> idle;
+
+    /**
+     * @param level the compression level, from 1 to 9.
+     * @param size the largest number of idle deflaters to keep.
+     */
+    public DeflaterPool(int level, int size) {
+        this.level = level;
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * @return an idle deflater, or a new one if there aren't any.
+     */
+    public Deflater borrow() {
+        final Deflater deflater = idle.poll();
+        return deflater == null ? new Deflater(level, true) : deflater;
+    }
+
+    /**
+     * Returns a deflater to the pool. It must not be used afterwards.
+     */
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (!idle.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return the number of idle deflaters.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+}
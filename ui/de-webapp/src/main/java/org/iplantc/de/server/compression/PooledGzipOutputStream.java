@@ -0,0 +1,146 @@
+package org.iplantc.de.server.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the gzip encoding of the bytes written to it, using a deflater from a {@link DeflaterPool}.
+ *
+ * The deflater is returned to the pool by {@link #finish()}, which must be called once the content
+ * is complete, even if writing it failed. Flushing the stream flushes the content compressed so far
+ * to the underlying stream, so that a client can start decompressing a streamed response.
+ */
+public class PooledGzipOutputStream extends OutputStream {
+
+    private static final byte[] HEADER = {
+            0x1f, (byte)0x8b,   // magic number
+            Deflater.DEFLATED,  // compression method
+            0,                  // flags
+            0, 0, 0, 0,         // modification time
+            0,                  // extra flags
+            (byte)0xff          // operating system: unknown
+    };
+
+    private final OutputStream out;
+    private final DeflaterPool pool;
+    private final CompressionMetrics metrics;
+    private final CRC32 crc = new CRC32();
+    private final byte[] buffer = new byte[8192];
+
+    private Deflater deflater;
+    private long bytesOut;
+    private long nanos;
+
+    public PooledGzipOutputStream(OutputStream out, DeflaterPool pool, CompressionMetrics metrics) throws IOException {
+        this.out = out;
+        this.pool = pool;
+        this.metrics = metrics;
+        this.deflater = pool.borrow();
+        try {
+            writeBytes(HEADER, HEADER.length);
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte)b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (deflater == null) {
+            throw new IOException("The stream is finished");
+        }
+        if (len == 0) {
+            return;
+        }
+        final long start = System.nanoTime();
+        crc.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+        nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (deflater != null) {
+            final long start = System.nanoTime();
+            int count;
+            do {
+                count = deflate(Deflater.SYNC_FLUSH);
+            } while (count == buffer.length);
+            nanos += System.nanoTime() - start;
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the rest of the compressed content and the gzip trailer, and returns the deflater to the
+     * pool. Calling this more than once has no effect.
+     */
+    public void finish() throws IOException {
+        if (deflater == null) {
+            return;
+        }
+        try {
+            final long start = System.nanoTime();
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+            nanos += System.nanoTime() - start;
+
+            final long bytesIn = deflater.getBytesRead();
+            final byte[] trailer = new byte[8];
+            writeInt(trailer, 0, crc.getValue());
+            writeInt(trailer, 4, bytesIn);
+            writeBytes(trailer, trailer.length);
+            metrics.compressed(bytesIn, bytesOut, nanos);
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private int deflate(int flush) throws IOException {
+        final int count = deflater.deflate(buffer, 0, buffer.length, flush);
+        if (count > 0) {
+            writeBytes(buffer, count);
+        }
+        return count;
+    }
+
+    private void writeBytes(byte[] bytes, int count) throws IOException {
+        out.write(bytes, 0, count);
+        bytesOut += count;
+    }
+
+    private void release() {
+        if (deflater != null) {
+            pool.release(deflater);
+            deflater = null;
+        }
+    }
+
+    private static void writeInt(byte[] bytes, int offset, long value) {
+        bytes[offset] = (byte)value;
+        bytes[offset + 1] = (byte)(value >> 8);
+        bytes[offset + 2] = (byte)(value >> 16);
+        bytes[offset + 3] = (byte)(value >> 24);
+    }
+}
@@ -1,11 +1,12 @@
 package org.iplantc.de.server.controllers;
 
-import org.iplantc.de.server.DiscoveryEnvironmentMaintenance;
+import org.iplantc.de.server.MaintenanceStateWatcher;
 
 import com.google.common.base.Strings;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -25,7 +26,7 @@ public class DeController {
 
     private final Logger LOG = LoggerFactory.getLogger(DeController.class);
 
-    @Value("${org.iplantc.discoveryenvironment.maintenance-file}") private String maintenanceFile;
+    @Autowired private MaintenanceStateWatcher maintenanceState;
     @Value("${org.iplantc.discoveryenvironment.environment.prod-deployment}") private String isProduction;
 
     @RequestMapping("/")
@@ -49,9 +50,7 @@ public class DeController {
     @RequestMapping("/de/")
     public String showDe(final HttpSession session,
                          final Model model) {
-        DiscoveryEnvironmentMaintenance maintenance = new DiscoveryEnvironmentMaintenance(System.getProperty("user.dir")
-                + "/" + maintenanceFile);
-        if(maintenance.isUnderMaintenance()){
+        if(maintenanceState.getMaintenance().isUnderMaintenance()){
             session.invalidate();
             LOG.info("Invalidating session");
             return "redirect:/de/logout";
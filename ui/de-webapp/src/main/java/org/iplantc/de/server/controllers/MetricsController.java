@@ -0,0 +1,74 @@
+package org.iplantc.de.server.controllers;
+
+import org.iplantc.de.server.compression.CompressionMetrics;
+import org.iplantc.de.server.metrics.ApiMetrics;
+import org.iplantc.de.server.services.ServiceResponseCache;
+import org.iplantc.de.server.websocket.amqp.AMQPConnectionManager;
+import org.iplantc.de.server.websocket.amqp.AMQPSubscriptionHub;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports the in-process request metrics as JSON: the in-flight gauges, error counts and latency
+ * percentiles recorded in {@link ApiMetrics}, the statistics of the API response cache, the
+ * response compression ratio and time, and the health and throughput of the AMQP connection used by
+ * the websocket handlers.
+ *
+ * This is mapped under {@code /belphegor}, so only administrators can see it.
+ */
+@Controller
+public class MetricsController {
+
+    @Autowired private ServiceResponseCache serviceResponseCache;
+
+    @RequestMapping(value = "/belphegor/metrics",
+                    method = RequestMethod.GET,
+                    produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> getMetrics() {
+        final Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("timestamp", System.currentTimeMillis());
+        metrics.putAll(ApiMetrics.getInstance().snapshot());
+        metrics.put("api-cache", getCacheMetrics());
+        metrics.put("compression", CompressionMetrics.getInstance().snapshot());
+        metrics.put("amqp", getAmqpMetrics());
+        return metrics;
+    }
+
+    private Map<String, Object> getCacheMetrics() {
+        final Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("enabled", serviceResponseCache.isEnabled());
+        cache.put("size", serviceResponseCache.size());
+        cache.put("hits", serviceResponseCache.getHitCount());
+        cache.put("revalidations", serviceResponseCache.getRevalidationCount());
+        cache.put("misses", serviceResponseCache.getMissCount());
+        cache.put("hit-ratio", serviceResponseCache.getHitRatio());
+        cache.put("evictions", serviceResponseCache.getEvictionCount());
+        return cache;
+    }
+
+    private Map<String, Object> getAmqpMetrics() {
+        final AMQPConnectionManager connectionManager = AMQPConnectionManager.getInstance();
+        final AMQPSubscriptionHub hub = AMQPSubscriptionHub.getInstance();
+        final Map<String, Object> amqp = new LinkedHashMap<>();
+        amqp.put("connected", connectionManager.isConnected());
+        amqp.put("connection-attempts", connectionManager.getConnectionAttemptCount());
+        amqp.put("connection-failures", connectionManager.getConnectionFailureCount());
+        amqp.put("disconnections", connectionManager.getDisconnectionCount());
+        amqp.put("recoveries", connectionManager.getRecoveryCount());
+        amqp.put("channels", connectionManager.getOpenChannelCount());
+        amqp.put("messages-received", connectionManager.getMessagesReceivedCount());
+        amqp.put("bytes-received", connectionManager.getBytesReceivedCount());
+        amqp.put("bindings", hub.getBindingCount());
+        amqp.put("subscribers", hub.getSubscriberCount());
+        return amqp;
+    }
+}
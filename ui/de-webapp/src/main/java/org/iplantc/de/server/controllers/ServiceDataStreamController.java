@@ -0,0 +1,94 @@
+package org.iplantc.de.server.controllers;
+
+import org.iplantc.de.server.services.DEServiceImpl;
+import org.iplantc.de.shared.exceptions.AuthenticationException;
+import org.iplantc.de.shared.services.BaseServiceCallWrapper;
+import org.iplantc.de.shared.services.ServiceCallWrapper;
+
+import com.google.common.base.Strings;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Relays services calls whose responses may be too large to return over GWT RPC, such as directory
+ * listings and search results. The service's response is streamed straight to the client instead
+ * of being buffered, decoded and re-encoded.
+ *
+ * The path ends in {@code .rpc} so that an unauthenticated call is rejected with a 401, the same as
+ * an RPC call, instead of being redirected to the login page.
+ *
+ * Like GWT RPC, a call must carry the {@value #PERMUTATION_HEADER} header and a content type which
+ * a form can't send. Browsers only allow other sites to send those with a CORS preflight, so another
+ * site can't make the user's browser call the services through this endpoint. Only GET calls are
+ * relayed, since those are the only large-response calls the client makes.
+ */
+@Controller
+public class ServiceDataStreamController {
+
+    static final String PERMUTATION_HEADER = "X-GWT-Permutation";
+
+    /**
+     * The content types a cross-site form may send without a CORS preflight.
+     */
+    private static final String[] SIMPLE_CONTENT_TYPES = {"application/x-www-form-urlencoded",
+                                                          "multipart/form-data",
+                                                          "text/plain"};
+
+    @Autowired private DEServiceImpl deService;
+
+    public ServiceDataStreamController() {
+    }
+
+    ServiceDataStreamController(DEServiceImpl deService) {
+        this.deService = deService;
+    }
+
+    @RequestMapping(value = "/**/api-stream.rpc", method = RequestMethod.POST)
+    public void relayServiceData(@RequestParam("type") final BaseServiceCallWrapper.Type type,
+                                 @RequestParam("address") final String address,
+                                 @RequestParam(value = "arguments", required = false) final String arguments,
+                                 final HttpServletRequest request,
+                                 final HttpServletResponse response) throws IOException {
+        if (Strings.isNullOrEmpty(request.getHeader(PERMUTATION_HEADER)) || isSimpleContentType(request.getContentType())) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        if (type != BaseServiceCallWrapper.Type.GET) {
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED, "Only GET calls may be streamed");
+            return;
+        }
+
+        final ServiceCallWrapper wrapper = new ServiceCallWrapper(type, address);
+        wrapper.setArguments(arguments);
+        try {
+            deService.relayServiceData(request, wrapper, response);
+        } catch (AuthenticationException e) {
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isSimpleContentType(final String contentType) {
+        if (Strings.isNullOrEmpty(contentType)) {
+            return true;
+        }
+        final String mediaType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ENGLISH);
+        for (String simpleType : SIMPLE_CONTENT_TYPES) {
+            if (simpleType.equals(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
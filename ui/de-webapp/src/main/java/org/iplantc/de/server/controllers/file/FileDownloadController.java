@@ -1,16 +1,20 @@
 package org.iplantc.de.server.controllers.file;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.iplantc.de.server.AppLoggerConstants;
 import org.iplantc.de.server.AppLoggerUtil;
 import org.iplantc.de.server.auth.DESecurityConstants;
 import org.iplantc.de.server.auth.JwtBuilder;
+import org.iplantc.de.server.http.PooledHttpClientEngine;
+import org.iplantc.de.server.metrics.ApiMetrics;
+import org.iplantc.de.server.util.ServletUtils;
 import org.iplantc.de.shared.services.BaseServiceCallWrapper;
 import org.jose4j.lang.JoseException;
 import org.slf4j.Logger;
@@ -31,12 +35,19 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
-import static org.iplantc.de.server.AppLoggerConstants.REQUEST_KEY;
 import static org.iplantc.de.server.AppLoggerConstants.RESPONSE_KEY;
 
 /**
  * Processes simple file download requests.
  *
+ * The file is streamed from the file download service to the client through a fixed-size buffer,
+ * on a connection borrowed from the shared pool. Range and conditional request headers are passed
+ * through, so that downloads can be resumed or split, and partial content (206) and not modified
+ * (304) responses are relayed along with the headers which describe them.
+ *
+ * The latency and status of every download are recorded in {@link ApiMetrics}, keyed by the path of
+ * the service which provides the file.
+ *
  * @author jstroot
  */
 @Controller
@@ -45,12 +56,31 @@ public class FileDownloadController {
     private final Logger API_REQUEST_LOG = LoggerFactory.getLogger(AppLoggerConstants.API_METRICS_LOGGER);
     private final AppLoggerUtil loggerUtil = AppLoggerUtil.getInstance();
     private final AppLoggerUtil appLoggerUtil = loggerUtil;
+    private final ApiMetrics metrics = ApiMetrics.getInstance();
+
+    /**
+     * The client request headers which are passed through to the file download service.
+     */
+    private static final String[] FORWARDED_REQUEST_HEADERS = {HttpHeaders.RANGE,
+                                                               HttpHeaders.IF_RANGE,
+                                                               HttpHeaders.IF_NONE_MATCH,
+                                                               HttpHeaders.IF_MODIFIED_SINCE};
+
+    /**
+     * The file download service's response headers which are relayed to the client.
+     */
+    private static final String[] RELAYED_RESPONSE_HEADERS = {HttpHeaders.CONTENT_DISPOSITION,
+                                                              HttpHeaders.CONTENT_RANGE,
+                                                              HttpHeaders.ACCEPT_RANGES,
+                                                              HttpHeaders.ETAG,
+                                                              HttpHeaders.LAST_MODIFIED};
 
     @Value("${org.iplantc.services.de-data-mgmt.base}") String dataMgmtServiceBaseUrl;
 
     @Value("${org.iplantc.services.file-io.base.secured}download") String fileIoBaseUrl;
 
     @Autowired private JwtBuilder jwtBuilder;
+    @Autowired private PooledHttpClientEngine httpClientEngine;
 
     @RequestMapping(value = "/de/secured/fileDownload", method = RequestMethod.GET)
     public void doSecureFileDownload(@RequestParam("path") final String path,
@@ -70,9 +100,33 @@ public class FileDownloadController {
         // Create the request.
         final URI uri = buildUri(url, path);
         final HttpGet get = new HttpGet(uri);
+        final String endpoint = ApiMetrics.endpointLabel(uri.getPath());
+        final long startTime = metrics.begin(ApiMetrics.FILE_DOWNLOAD);
+        int status = ApiMetrics.FAILED;
+        try {
+            forwardFileDownload(get, logRequestUri, request, response);
+            status = response.getStatus();
+        } finally {
+            metrics.end(ApiMetrics.FILE_DOWNLOAD, "GET", endpoint, status, startTime);
+        }
+    }
+
+    /**
+     * Sends the download request to the service and relays its response to the client.
+     */
+    private void forwardFileDownload(final HttpGet get,
+                                     final URI logRequestUri,
+                                     final HttpServletRequest request,
+                                     final HttpServletResponse response) throws IOException {
         try {
             get.setHeader(DESecurityConstants.JWT_CUSTOM_HEADER, jwtBuilder.buildJwt(request));
             get.setHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            for (String name : FORWARDED_REQUEST_HEADERS) {
+                final String value = request.getHeader(name);
+                if (value != null) {
+                    get.setHeader(name, value);
+                }
+            }
             prepareForRequest(get, logRequestUri.toString());
         } catch (JoseException e) {
             API_REQUEST_LOG.error("GET " + logRequestUri.toString(), e);
@@ -81,25 +135,24 @@ public class FileDownloadController {
         }
 
         // Send the request.
-        CloseableHttpClient client = HttpClients.createDefault();
+        CloseableHttpResponse incomingResponse = null;
         try {
             final long requestStartTime = System.currentTimeMillis();
-            final CloseableHttpResponse incomingResponse = loggerUtil.copyRequestIdHeader(get, client.execute(get));
+            incomingResponse = loggerUtil.copyRequestIdHeader(get, httpClientEngine.getClient().execute(get));
             final long responseRecvTime = System.currentTimeMillis();
-            final String responseJson = appLoggerUtil.createMdcResponseMapJson(incomingResponse,
-                                                                               BaseServiceCallWrapper.Type.GET,
-                                                                               logRequestUri.toString(),
-                                                                               null,
-                                                                               responseRecvTime - requestStartTime);
-            MDC.put(RESPONSE_KEY, responseJson);
-            API_REQUEST_LOG.info("GET {}", logRequestUri.toString());
+            appLoggerUtil.logApiResponse(incomingResponse,
+                                         BaseServiceCallWrapper.Type.GET,
+                                         logRequestUri.toString(),
+                                         null,
+                                         responseRecvTime - requestStartTime);
             sendResponse(response, incomingResponse);
         } catch (Exception e) {
             API_REQUEST_LOG.error("GET " + logRequestUri.toString(), e);
             throw e;
         } finally {
             MDC.remove(RESPONSE_KEY);
-            client.close();
+            // Return the connection to the pool.
+            IOUtils.closeQuietly(incomingResponse);
         }
     }
 
@@ -113,17 +166,8 @@ public class FileDownloadController {
      */
     private void prepareForRequest(HttpGet get, final String logRequestUri) {
 
-        try {
-            HttpGet reqWithIdHeader = loggerUtil.addRequestIdHeader(get);
-            String request = appLoggerUtil.createMdcRequestMapAsJsonString(reqWithIdHeader);
-            MDC.put(REQUEST_KEY, request);
-            API_REQUEST_LOG.info("GET {}", logRequestUri);
-        } catch (Exception e) {
-            API_REQUEST_LOG.error("GET " + logRequestUri, e);
-        } finally {
-            MDC.remove(REQUEST_KEY);
-
-        }
+        HttpGet reqWithIdHeader = loggerUtil.addRequestIdHeader(get);
+        appLoggerUtil.logApiRequest(reqWithIdHeader, null, "GET", logRequestUri);
     }
 
     /**
@@ -136,21 +180,32 @@ public class FileDownloadController {
     private void sendResponse(HttpServletResponse outgoingResponse, CloseableHttpResponse incomingResponse)
         throws IOException {
 
-        HttpEntity responseEntity = incomingResponse.getEntity();
+        final int status = incomingResponse.getStatusLine().getStatusCode();
 
         // Prepare the outgoing response.
-        outgoingResponse.setStatus(incomingResponse.getStatusLine().getStatusCode());
-        outgoingResponse.setContentType(responseEntity.getContentType().getValue());
-        outgoingResponse.setHeader(HttpHeaders.CONTENT_DISPOSITION,
-                incomingResponse.getFirstHeader(HttpHeaders.CONTENT_DISPOSITION).getValue());
-        outgoingResponse.setContentLength(new Long(responseEntity.getContentLength()).intValue());
+        outgoingResponse.setStatus(status);
+        for (String name : RELAYED_RESPONSE_HEADERS) {
+            final Header header = incomingResponse.getFirstHeader(name);
+            if (header != null) {
+                outgoingResponse.setHeader(name, header.getValue());
+            }
+        }
 
-        // Copy the response entity.
-        try {
-            responseEntity.writeTo(outgoingResponse.getOutputStream());
-        } finally {
-            incomingResponse.close();
+        final HttpEntity responseEntity = incomingResponse.getEntity();
+        if (status == HttpStatus.SC_NOT_MODIFIED || responseEntity == null) {
+            return;
         }
+        if (responseEntity.getContentType() != null) {
+            outgoingResponse.setContentType(responseEntity.getContentType().getValue());
+        }
+        if (responseEntity.getContentLength() >= 0) {
+            // Set as a header, since setContentLength only accepts an int.
+            outgoingResponse.setHeader(HttpHeaders.CONTENT_LENGTH,
+                                       Long.toString(responseEntity.getContentLength()));
+        }
+
+        // Copy the response entity. Reading it to the end allows the connection to be reused.
+        ServletUtils.streamToResponse(responseEntity.getContent(), outgoingResponse);
     }
 
     /**
@@ -1,23 +1,30 @@
 package org.iplantc.de.server.controllers.file;
 
 import static org.iplantc.de.server.AppLoggerConstants.API_METRICS_LOGGER;
-import static org.iplantc.de.server.AppLoggerConstants.REQUEST_KEY;
 import static org.iplantc.de.server.AppLoggerConstants.RESPONSE_KEY;
 
 import org.iplantc.de.server.AppLoggerUtil;
 import org.iplantc.de.server.auth.DESecurityConstants;
 import org.iplantc.de.server.auth.JwtBuilder;
+import org.iplantc.de.server.http.PooledHttpClientEngine;
+import org.iplantc.de.server.metrics.ApiMetrics;
 import org.iplantc.de.shared.services.BaseServiceCallWrapper;
 
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.util.Streams;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.http.HttpEntity;
+import org.apache.http.NameValuePair;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.jose4j.lang.JoseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,8 +39,12 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import javax.servlet.ServletException;
@@ -42,6 +53,17 @@ import javax.servlet.http.HttpServletRequest;
 /**
  * Performs secured file uploads.
  *
+ * File uploads are streamed: the incoming multipart request is parsed as it arrives, and the file
+ * part is piped straight into the request to the upload service, which is sent with chunked
+ * transfer encoding, so the client is only read from as fast as the upload service accepts the data.
+ * This requires the {@code dest} field to arrive before the file, or to be passed in the query
+ * string. If the file comes first, it is spooled to a temporary file until the destination is
+ * known, and relayed from there. Multipart resolution is disabled for this path in
+ * {@link org.iplantc.de.conf.WebMvcConfig}, since it would spool the file before this controller
+ * is called.
+ *
+ * The latency and outcome of every upload are recorded in {@link ApiMetrics}.
+ *
  * @author jstroot
  * @author dennis
  */
@@ -50,70 +72,250 @@ public class SecuredFileUploadController {
 
     private final Logger logger = LoggerFactory.getLogger(SecuredFileUploadController.class);
     public static final int ENTITY_TOO_LARGE = 413;
+    public static final String STREAMING_UPLOAD_PATH = "/de/secured/fileUpload";
+    private static final String DEST_FIELD = "dest";
+    private static final String ONTOLOGY_UPLOAD_PATH = "/de/secured/ontologyFileUpload";
     private final Logger API_REQUEST_LOG = LoggerFactory.getLogger(API_METRICS_LOGGER);
     private final AppLoggerUtil loggerUtil = AppLoggerUtil.getInstance();
+    private final ApiMetrics metrics = ApiMetrics.getInstance();
 
     @Autowired private JwtBuilder jwtBuilder;
+    @Autowired private PooledHttpClientEngine httpClientEngine;
+
+    public SecuredFileUploadController() {
+    }
+
+    SecuredFileUploadController(JwtBuilder jwtBuilder, PooledHttpClientEngine httpClientEngine) {
+        this.jwtBuilder = jwtBuilder;
+        this.httpClientEngine = httpClientEngine;
+    }
 
     @Value("${org.iplantc.services.file-io.secured.file-upload}") String securedFileUploadUrl;
     @Value("${org.iplantc.services.admin.ontologies}") String ontologyFileUploadUrl;
+    @Value("${org.iplantc.discoveryenvironment.file-upload.max-request-bytes:2147483648}") long maxUploadRequestBytes;
 
 
-    @RequestMapping(value = "/de/secured/fileUpload", method = RequestMethod.POST)
-    public ResponseEntity<Object> doSecureFileUpload(@RequestParam("dest") final String dest,
-                                                     @RequestParam("file") final MultipartFile file,
-                                                     HttpServletRequest request)
+    @RequestMapping(value = STREAMING_UPLOAD_PATH, method = RequestMethod.POST)
+    public ResponseEntity<Object> doSecureFileUpload(HttpServletRequest request)
             throws IOException, URISyntaxException, ServletException {
 
+        final long startTime = metrics.begin(ApiMetrics.FILE_UPLOAD);
+        ResponseEntity<Object> response = null;
+        try {
+            response = streamFileUpload(request);
+            return response;
+        } finally {
+            metrics.end(ApiMetrics.FILE_UPLOAD, "POST", STREAMING_UPLOAD_PATH, getMetricsStatus(response), startTime);
+        }
+    }
+
+    /**
+     * Parses the incoming multipart request until the file part is reached, then relays the file. A
+     * file that arrives before the destination is spooled until the destination has been read.
+     *
+     * @param request the incoming request.
+     * @return the response to send back, or null if the upload failed.
+     */
+    private ResponseEntity<Object> streamFileUpload(HttpServletRequest request)
+            throws IOException, URISyntaxException {
+
+        if (!ServletFileUpload.isMultipartContent(request)) {
+            return new ResponseEntity<Object>("Expected a multipart request", HttpStatus.BAD_REQUEST);
+        }
+
+        final ServletFileUpload upload = new ServletFileUpload();
+        upload.setSizeMax(maxUploadRequestBytes);
+        String dest = getQueryParameter(request, DEST_FIELD);
+        FilePart spooledFile = null;
+        try {
+            final FileItemIterator items = upload.getItemIterator(request);
+            while (items.hasNext() && (dest == null || spooledFile == null)) {
+                final FileItemStream item = items.next();
+                if (item.isFormField()) {
+                    if (DEST_FIELD.equals(item.getFieldName())) {
+                        dest = Streams.asString(item.openStream(), "UTF-8");
+                    }
+                } else if (dest != null) {
+                    return relayFileUpload(dest, new FilePart(item), item.openStream(), request);
+                } else if (spooledFile == null) {
+                    spooledFile = spool(item);
+                }
+            }
+
+            if (spooledFile == null) {
+                return new ResponseEntity<Object>("No file was uploaded", HttpStatus.BAD_REQUEST);
+            }
+            if (dest == null) {
+                return new ResponseEntity<Object>("No destination was given", HttpStatus.BAD_REQUEST);
+            }
+            final InputStream spooledStream = new FileInputStream(spooledFile.spool);
+            try {
+                return relayFileUpload(dest, spooledFile, spooledStream, request);
+            } finally {
+                IOUtils.closeQuietly(spooledStream);
+            }
+        } catch (FileUploadBase.FileUploadIOException e) {
+            return rejectUpload((FileUploadException)e.getCause());
+        } catch (FileUploadException e) {
+            return rejectUpload(e);
+        } finally {
+            if (spooledFile != null && !spooledFile.spool.delete()) {
+                logger.warn("Unable to delete the spooled upload {}", spooledFile.spool);
+            }
+        }
+    }
+
+    /**
+     * Builds the response to an upload that couldn't be parsed or was too large.
+     */
+    private ResponseEntity<Object> rejectUpload(FileUploadException e) {
+        API_REQUEST_LOG.error("POST " + securedFileUploadUrl, e);
+        final HttpStatus status = e instanceof FileUploadBase.SizeLimitExceededException
+                                      ? HttpStatus.PAYLOAD_TOO_LARGE
+                                      : HttpStatus.BAD_REQUEST;
+        return new ResponseEntity<Object>(e.getMessage(), status);
+    }
+
+    /**
+     * Copies a file part that arrived before the destination to a temporary file.
+     *
+     * @param item the file part of the incoming request, which hasn't been read yet.
+     * @return the file part, with the temporary file it was copied to.
+     */
+    private FilePart spool(final FileItemStream item) throws IOException {
+        final FilePart part = new FilePart(item);
+        part.spool = File.createTempFile("de-upload-", ".tmp");
+        final InputStream in = item.openStream();
+        final OutputStream out = new FileOutputStream(part.spool);
+        try {
+            IOUtils.copyLarge(in, out);
+        } catch (IOException e) {
+            if (!part.spool.delete()) {
+                logger.warn("Unable to delete the spooled upload {}", part.spool);
+            }
+            throw e;
+        } finally {
+            IOUtils.closeQuietly(out);
+            IOUtils.closeQuietly(in);
+        }
+        return part;
+    }
+
+    /**
+     * Sends a file to the upload service while it is being read.
+     *
+     * @param dest the destination folder.
+     * @param part the file part of the incoming request.
+     * @param in the stream from which to read the file's contents.
+     * @param request the incoming request.
+     * @return the response to send back, or null if the upload failed.
+     */
+    private ResponseEntity<Object> relayFileUpload(final String dest,
+                                                   final FilePart part,
+                                                   final InputStream in,
+                                                   final HttpServletRequest request)
+            throws IOException, URISyntaxException {
+
         // Prepare to process the request.
         final URI logRequestUri = buildUri(dest);
 
         // Create the request.
         final URI uri = buildUri(dest);
         final HttpPost post = new HttpPost(uri);
+        final CountingInputStream fileStream = new CountingInputStream(in);
         try {
             post.setHeader(DESecurityConstants.JWT_CUSTOM_HEADER, jwtBuilder.buildJwt(request));
-            post.setEntity(buildMultipartEntity(file));
+            post.setEntity(buildMultipartEntity(part, fileStream));
             prepareForRequest(post, logRequestUri.toString());
         } catch (JoseException e) {
-            API_REQUEST_LOG.error("GET " + logRequestUri.toString(), e);
+            API_REQUEST_LOG.error("POST " + logRequestUri.toString(), e);
             MDC.remove(RESPONSE_KEY);
             throw new IOException("unable to generate JWT", e);
         }
 
         // Send the request.
-        CloseableHttpClient client = HttpClients.createDefault();
+        CloseableHttpResponse incomingResponse = null;
         ResponseEntity<Object> response = null;
         try {
             final long requestStartTime = System.currentTimeMillis();
-            final CloseableHttpResponse incomingResponse = loggerUtil.copyRequestIdHeader(post, client.execute(post));
+            incomingResponse = loggerUtil.copyRequestIdHeader(post, httpClientEngine.getClient().execute(post));
             if(incomingResponse.getStatusLine().getStatusCode() == ENTITY_TOO_LARGE) {
                 throw new Exception("File too large to upload!");
             }
             final long responseRecvTime = System.currentTimeMillis();
-            final String responseJson = loggerUtil.createMdcResponseMapJson(incomingResponse,
-                                                                            BaseServiceCallWrapper.Type.GET,
-                                                                            logRequestUri.toString(),
-                                                                            null,
-                                                                            responseRecvTime - requestStartTime);
-            MDC.put(RESPONSE_KEY, responseJson);
-            API_REQUEST_LOG.info("POST {}", logRequestUri.toString());
+            loggerUtil.logApiResponse(incomingResponse,
+                                      BaseServiceCallWrapper.Type.POST,
+                                      logRequestUri.toString(),
+                                      null,
+                                      responseRecvTime - requestStartTime);
+            logUploadThroughput(logRequestUri, fileStream.getByteCount(), responseRecvTime - requestStartTime);
             response = formatResponse(incomingResponse);
         } catch(Exception e) {
             API_REQUEST_LOG.error("POST " + logRequestUri.toString(), e);
         } finally {
             MDC.remove(RESPONSE_KEY);
-            client.close();
+            // Return the connection to the pool.
+            IOUtils.closeQuietly(incomingResponse);
         }
 
         return response;
     }
 
-    @RequestMapping(value = "/de/secured/ontologyFileUpload", method = RequestMethod.POST)
+    /**
+     * Logs the size of an upload and the rate at which it was relayed.
+     */
+    private void logUploadThroughput(final URI logRequestUri, final long bytes, final long elapsedMillis) {
+        final long bytesPerSecond = elapsedMillis > 0 ? bytes * 1000 / elapsedMillis : bytes;
+        API_REQUEST_LOG.info("POST {} streamed {} bytes in {} ms ({} KB/s)",
+                             logRequestUri.toString(),
+                             bytes,
+                             elapsedMillis,
+                             bytesPerSecond / 1024);
+    }
+
+    /**
+     * Gets a parameter from the query string without calling {@code getParameter}, which would make
+     * the container parse, and spool, the multipart request body.
+     */
+    private String getQueryParameter(final HttpServletRequest request, final String name)
+            throws URISyntaxException {
+        if (request.getQueryString() == null) {
+            return null;
+        }
+        for (NameValuePair param : new URIBuilder("?" + request.getQueryString()).getQueryParams()) {
+            if (name.equals(param.getName())) {
+                return param.getValue();
+            }
+        }
+        return null;
+    }
+
+    @RequestMapping(value = ONTOLOGY_UPLOAD_PATH, method = RequestMethod.POST)
     public ResponseEntity<Object> doSecureOntologyFileUpload(
             @RequestParam("file") final MultipartFile file, HttpServletRequest request)
             throws IOException, URISyntaxException, ServletException {
 
+        final long startTime = metrics.begin(ApiMetrics.FILE_UPLOAD);
+        ResponseEntity<Object> response = null;
+        try {
+            response = uploadOntologyFile(file, request);
+            return response;
+        } finally {
+            metrics.end(ApiMetrics.FILE_UPLOAD, "POST", ONTOLOGY_UPLOAD_PATH, getMetricsStatus(response), startTime);
+        }
+    }
+
+    /**
+     * Gets the status recorded in the metrics for an upload.
+     *
+     * @param response the response to the upload, or null if it failed.
+     */
+    private static int getMetricsStatus(ResponseEntity<Object> response) {
+        return response == null ? ApiMetrics.FAILED : response.getStatusCode().value();
+    }
+
+    private ResponseEntity<Object> uploadOntologyFile(final MultipartFile file, HttpServletRequest request)
+            throws IOException {
 
         final HttpPost post = new HttpPost(ontologyFileUploadUrl);
         logger.info("ontology url &&&&&&&&&&&& " + ontologyFileUploadUrl + " &&&&&&&&&&&");
@@ -129,21 +331,17 @@ public class SecuredFileUploadController {
         }
 
         // Send the request.
-        CloseableHttpClient client = HttpClients.createDefault();
+        CloseableHttpResponse incomingResponse = null;
         ResponseEntity<Object> response = null;
         try {
             final long requestStartTime = System.currentTimeMillis();
-            final CloseableHttpResponse incomingResponse =
-                    loggerUtil.copyRequestIdHeader(post, client.execute(post));
+            incomingResponse = loggerUtil.copyRequestIdHeader(post, httpClientEngine.getClient().execute(post));
             final long responseRecvTime = System.currentTimeMillis();
-            final String responseJson = loggerUtil.createMdcResponseMapJson(incomingResponse,
-                                                                            BaseServiceCallWrapper.Type.GET,
-                                                                            ontologyFileUploadUrl.toString(),
-                                                                            null,
-                                                                            responseRecvTime
-                                                                            - requestStartTime);
-            MDC.put(RESPONSE_KEY, responseJson);
-            API_REQUEST_LOG.info("POST {}", ontologyFileUploadUrl.toString());
+            loggerUtil.logApiResponse(incomingResponse,
+                                      BaseServiceCallWrapper.Type.POST,
+                                      ontologyFileUploadUrl.toString(),
+                                      null,
+                                      responseRecvTime - requestStartTime);
             response = formatResponse(incomingResponse);
             logger.info(
                     "ontology file upload response  ^^^^^^^^^^^^" + response.getStatusCode().toString()
@@ -153,7 +351,8 @@ public class SecuredFileUploadController {
             API_REQUEST_LOG.error("POST " + ontologyFileUploadUrl.toString(), e);
         } finally {
             MDC.remove(RESPONSE_KEY);
-            client.close();
+            // Return the connection to the pool.
+            IOUtils.closeQuietly(incomingResponse);
         }
 
         return response;
@@ -170,16 +369,8 @@ public class SecuredFileUploadController {
      */
     private void prepareForRequest(HttpPost post, final String logRequestUri) {
 
-        try {
-            HttpPost reqWithHeader = loggerUtil.addRequestIdHeader(post);
-            String request = loggerUtil.createMdcRequestMapAsJsonString(reqWithHeader);
-            MDC.put(REQUEST_KEY, request);
-            API_REQUEST_LOG.info("POST {}", logRequestUri);
-        } catch (Exception e) {
-            API_REQUEST_LOG.error("POST " + logRequestUri, e);
-        } finally {
-            MDC.remove(REQUEST_KEY);
-        }
+        HttpPost reqWithHeader = loggerUtil.addRequestIdHeader(post);
+        loggerUtil.logApiRequest(reqWithHeader, null, "POST", logRequestUri);
 
     }
 
@@ -213,6 +404,41 @@ public class SecuredFileUploadController {
                 .build();
     }
 
+    /**
+     * Builds a streaming entity for the forwarded request. The entity has no length, so it is sent
+     * with chunked transfer encoding as the file is read from the client.
+     *
+     * @param part the file part of the incoming request.
+     * @param fileStream the stream from which to read the file's contents.
+     * @return the outgoing request entity.
+     */
+    private HttpEntity buildMultipartEntity(FilePart part, InputStream fileStream) {
+        final ContentType contentType = part.contentType == null
+                                            ? ContentType.APPLICATION_OCTET_STREAM
+                                            : ContentType.parse(part.contentType);
+        return MultipartEntityBuilder.create()
+                .addBinaryBody(part.fieldName, fileStream, contentType, part.name)
+                .build();
+    }
+
+    /**
+     * The headers of the file part of an incoming request, which have to be kept once the parser
+     * has moved past the part.
+     */
+    private static final class FilePart {
+        final String fieldName;
+        final String contentType;
+        final String name;
+        /** The temporary file holding the contents, if they arrived before the destination. */
+        File spool;
+
+        FilePart(FileItemStream item) {
+            fieldName = item.getFieldName();
+            contentType = item.getContentType();
+            name = item.getName();
+        }
+    }
+
     /**
      * Formats the response to send back to the client. The response body is also added to the
      * Mapped Diagnostic Context (MDC) after it is read.
@@ -222,11 +448,7 @@ public class SecuredFileUploadController {
      * @throws IOException if an I/O error occurs.
      */
     private ResponseEntity<Object> formatResponse(CloseableHttpResponse response) throws IOException {
-        try {
-            final String body = IOUtils.toString(response.getEntity().getContent());
-            return new ResponseEntity<Object>(body, HttpStatus.OK);
-        } finally {
-            response.close();
-        }
+        final String body = IOUtils.toString(response.getEntity().getContent());
+        return new ResponseEntity<Object>(body, HttpStatus.OK);
     }
 }
@@ -1,19 +1,36 @@
 package org.iplantc.de.server.rpc;
 
 import org.iplantc.de.conf.WebMvcConfig;
+import org.iplantc.de.server.compression.CompressionFilter;
+import org.iplantc.de.server.services.AsyncRemoteService;
 import org.iplantc.de.server.services.HasHttpServletRequest;
 
+import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.rpc.IncompatibleRemoteServiceException;
 import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.SerializationException;
 import com.google.gwt.user.server.rpc.RPC;
 import com.google.gwt.user.server.rpc.RPCRequest;
+import com.google.gwt.user.server.rpc.RPCServletUtils;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
+import com.google.gwt.user.server.rpc.SerializationPolicy;
 
+import org.apache.http.concurrent.Cancellable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.web.context.ServletContextAware;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.Controller;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -33,6 +50,17 @@ import javax.servlet.http.HttpServletResponse;
  * Where did we get this magical POJO from you ask? Well we injected it into the class via the
  * setRemoteService setter back in the {@link WebMvcConfig} config file.
  *
+ * When asynchronous processing is enabled and the POJO is an {@link AsyncRemoteService}, methods
+ * which it reports as asynchronous are dispatched without holding the servlet thread. The request
+ * is suspended with Servlet 3 async processing and the encoded response is written once the POJO
+ * notifies its callback, or an error is written if the call outlasts the async timeout.
+ *
+ * Requests are decoded with the serialization policy of the client's permutation, which is looked
+ * up in a {@link SerializationPolicyCache} shared by all of the controllers, and the methods they
+ * resolve to are remembered by a {@link RpcRequestDecoder}. Responses longer than the compression
+ * threshold are gzipped for clients which accept it, unless the {@link CompressionFilter} is already
+ * compressing them.
+ *
  * @see <a href="http://en.wikipedia.org/wiki/Strategy_pattern">Strategy Pattern</a>
  * @see <a href="https://technophiliac.wordpress.com/2008/08/24/giving-gwt-a-spring-in-its-step/">Giving GWT a Spring in its step</a>
  *
@@ -41,23 +69,53 @@ import javax.servlet.http.HttpServletResponse;
 public class GwtRpcController extends RemoteServiceServlet implements Controller,
                                                                       ServletContextAware {
 
+    private static final Logger LOG = LoggerFactory.getLogger(GwtRpcController.class);
+
+    /**
+     * The default length, in characters, above which responses are compressed.
+     */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
     private ServletContext servletContext;
 
     private RemoteService remoteService;
 
     private Class remoteServiceClass;
 
+    private RpcRequestDecoder requestDecoder;
+
+    private SerializationPolicyCache serializationPolicyCache;
+
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    private boolean asyncEnabled;
+
+    private long asyncTimeout;
+
     public GwtRpcController(RemoteService remoteService) {
         setRemoteService(remoteService);
     }
 
     public ModelAndView handleRequest(HttpServletRequest request,
                                       HttpServletResponse response) throws Exception {
-        // Set request on service if required.
-        if(this.remoteService instanceof HasHttpServletRequest){
+        // Bind request to this thread on the service if required.
+        final boolean hasRequest = this.remoteService instanceof HasHttpServletRequest;
+        if(hasRequest){
             ((HasHttpServletRequest)this.remoteService).setRequest(request);
         }
-        super.doPost(request, response);
+        try {
+            if (asyncEnabled
+                    && this.remoteService instanceof AsyncRemoteService
+                    && request.isAsyncSupported()) {
+                doAsyncCapablePost(request, response);
+            } else {
+                super.doPost(request, response);
+            }
+        } finally {
+            if(hasRequest){
+                ((HasHttpServletRequest)this.remoteService).clearRequest();
+            }
+        }
         return null;
     }
 
@@ -65,12 +123,14 @@ public class GwtRpcController extends RemoteServiceServlet implements Controller
     public String processCall(String payload) throws SerializationException {
         try {
 
-            RPCRequest rpcRequest = RPC.decodeRequest(payload,
-                                                      this.remoteServiceClass);
+            RPCRequest rpcRequest = requestDecoder.decode(payload, this);
 
             // delegate work to the spring injected service
-            return RPC.invokeAndEncodeResponse(this.remoteService, rpcRequest
-                                                                       .getMethod(), rpcRequest.getParameters());
+            return RPC.invokeAndEncodeResponse(this.remoteService,
+                                               rpcRequest.getMethod(),
+                                               rpcRequest.getParameters(),
+                                               rpcRequest.getSerializationPolicy(),
+                                               rpcRequest.getFlags());
         } catch (IncompatibleRemoteServiceException ex) {
             getServletContext().log("An IncompatibleRemoteServiceException was thrown while processing this call.",
                                        ex);
@@ -78,6 +138,272 @@ public class GwtRpcController extends RemoteServiceServlet implements Controller
         }
     }
 
+    /**
+     * Mirrors {@link #doPost(HttpServletRequest, HttpServletResponse)}, which is final.
+     */
+    private void doAsyncCapablePost(final HttpServletRequest request,
+                                    final HttpServletResponse response) {
+        try {
+            bindThreadLocals(request, response);
+            processAsyncCapablePost(request, response);
+        } catch (Throwable e) {
+            doUnexpectedFailure(e);
+        } finally {
+            perThreadRequest.set(null);
+            perThreadResponse.set(null);
+        }
+    }
+
+    /**
+     * Mirrors {@link RemoteServiceServlet#processPost(HttpServletRequest, HttpServletResponse)},
+     * except that asynchronous methods suspend the request instead of being invoked on this thread.
+     */
+    private void processAsyncCapablePost(final HttpServletRequest request,
+                                         final HttpServletResponse response) throws Exception {
+        checkPermutationStrongName();
+        final String requestPayload = readContent(request);
+        onBeforeRequestDeserialized(requestPayload);
+
+        final RPCRequest rpcRequest;
+        try {
+            rpcRequest = requestDecoder.decode(requestPayload, this);
+        } catch (IncompatibleRemoteServiceException ex) {
+            getServletContext().log("An IncompatibleRemoteServiceException was thrown while processing this call.",
+                                    ex);
+            writeRpcResponse(request, response, RPC.encodeResponseForFailure(null, ex));
+            return;
+        }
+        onAfterRequestDeserialized(rpcRequest);
+
+        final AsyncRemoteService asyncService = (AsyncRemoteService)this.remoteService;
+        if (!asyncService.isAsync(rpcRequest.getMethod())) {
+            writeRpcResponse(request, response, RPC.invokeAndEncodeResponse(this.remoteService,
+                                                                            rpcRequest.getMethod(),
+                                                                            rpcRequest.getParameters(),
+                                                                            rpcRequest.getSerializationPolicy(),
+                                                                            rpcRequest.getFlags()));
+            return;
+        }
+
+        final AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(asyncTimeout);
+        final AsyncRpcCallback callback = new AsyncRpcCallback(asyncContext, request, response, rpcRequest);
+        asyncContext.addListener(callback);
+        callback.setInFlight(asyncService.invokeAsync(request,
+                                                      rpcRequest.getMethod(),
+                                                      rpcRequest.getParameters(),
+                                                      callback));
+    }
+
+    private void writeRpcResponse(final HttpServletRequest request,
+                                  final HttpServletResponse response,
+                                  final String responsePayload) throws IOException {
+        onAfterResponseSerialized(responsePayload);
+        boolean gzipEncode = RPCServletUtils.acceptsGzipEncoding(request)
+                                 && shouldCompressResponse(request, response, responsePayload);
+        RPCServletUtils.writeResponse(getServletContext(), response, responsePayload, gzipEncode);
+    }
+
+    /**
+     * Looks the policy up in the shared cache before loading it from the servlet context.
+     */
+    @Override
+    protected SerializationPolicy doGetSerializationPolicy(HttpServletRequest request,
+                                                           String moduleBaseURL,
+                                                           String strongName) {
+        if (serializationPolicyCache == null) {
+            return super.doGetSerializationPolicy(request, moduleBaseURL, strongName);
+        }
+        SerializationPolicy policy = serializationPolicyCache.get(strongName);
+        if (policy == null) {
+            policy = super.doGetSerializationPolicy(request, moduleBaseURL, strongName);
+            if (policy != null) {
+                serializationPolicyCache.put(strongName, policy);
+            }
+        }
+        return policy;
+    }
+
+    @Override
+    protected boolean shouldCompressResponse(HttpServletRequest request,
+                                             HttpServletResponse response,
+                                             String responsePayload) {
+        return request.getAttribute(CompressionFilter.COMPRESSING_ATTRIBUTE) == null
+                   && responsePayload.length() > compressionThreshold;
+    }
+
+    /**
+     * Initializes the thread locals the same way {@link #doPost(HttpServletRequest, HttpServletResponse)}
+     * does, since the permutation check reads the request from them.
+     */
+    private void bindThreadLocals(final HttpServletRequest request,
+                                  final HttpServletResponse response) {
+        synchronized (this) {
+            if (perThreadRequest == null) {
+                perThreadRequest = new ThreadLocal<>();
+            }
+            if (perThreadResponse == null) {
+                perThreadResponse = new ThreadLocal<>();
+            }
+        }
+        perThreadRequest.set(request);
+        perThreadResponse.set(response);
+    }
+
+    /**
+     * Encodes the result of an asynchronous call and completes the suspended request. Whichever of
+     * the result, the failure or the async timeout arrives first wins; later notifications are
+     * ignored. A timeout also aborts the call's backend requests, so that they don't keep holding
+     * pooled connections once nobody is waiting for them.
+     */
+    private final class AsyncRpcCallback implements AsyncCallback<Object>, AsyncListener {
+
+        private final AsyncContext asyncContext;
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final RPCRequest rpcRequest;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final AtomicReference<Cancellable> inFlight = new AtomicReference<>();
+        private volatile boolean timedOut;
+
+        AsyncRpcCallback(final AsyncContext asyncContext,
+                         final HttpServletRequest request,
+                         final HttpServletResponse response,
+                         final RPCRequest rpcRequest) {
+            this.asyncContext = asyncContext;
+            this.request = request;
+            this.response = response;
+            this.rpcRequest = rpcRequest;
+        }
+
+        @Override
+        public void onSuccess(final Object result) {
+            if (done.compareAndSet(false, true)) {
+                complete(new Runnable() {
+                    @Override
+                    public void run() {
+                        final Method method = rpcRequest.getMethod();
+                        try {
+                            writeRpcResponse(request, response,
+                                             RPC.encodeResponseForSuccess(method,
+                                                                          result,
+                                                                          rpcRequest.getSerializationPolicy(),
+                                                                          rpcRequest.getFlags()));
+                        } catch (Throwable e) {
+                            writeUnexpectedFailure(e);
+                        }
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void onFailure(final Throwable caught) {
+            if (done.compareAndSet(false, true)) {
+                complete(new Runnable() {
+                    @Override
+                    public void run() {
+                        final Method method = rpcRequest.getMethod();
+                        if (!RPCServletUtils.isExpectedException(method, caught)) {
+                            writeUnexpectedFailure(caught);
+                            return;
+                        }
+                        try {
+                            writeRpcResponse(request, response,
+                                             RPC.encodeResponseForFailure(method,
+                                                                          caught,
+                                                                          rpcRequest.getSerializationPolicy(),
+                                                                          rpcRequest.getFlags()));
+                        } catch (Throwable e) {
+                            writeUnexpectedFailure(e);
+                        }
+                    }
+                });
+            }
+        }
+
+        /**
+         * @param call the handle to the call's backend requests, which is cancelled if the call
+         * times out, even if the timeout came first.
+         */
+        void setInFlight(final Cancellable call) {
+            if (call == null) {
+                return;
+            }
+            inFlight.set(call);
+            if (timedOut) {
+                cancelInFlight();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            if (done.compareAndSet(false, true)) {
+                timedOut = true;
+                cancelInFlight();
+                writeUnexpectedFailure(new TimeoutException("RPC call timed out after " + asyncTimeout + "ms: "
+                                                            + rpcRequest.getMethod().getName()));
+                finishResponse();
+                asyncContext.complete();
+            }
+        }
+
+        private void cancelInFlight() {
+            final Cancellable call = inFlight.getAndSet(null);
+            if (call != null) {
+                call.cancel();
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            LOG.warn("Asynchronous RPC call failed", event.getThrowable());
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        /**
+         * Writes the response on a container thread, since the callback is usually notified on one
+         * of the HTTP client's I/O threads.
+         */
+        private void complete(final Runnable writer) {
+            asyncContext.start(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        writer.run();
+                        finishResponse();
+                    } finally {
+                        asyncContext.complete();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Completes the response body if it's being compressed by a filter, which can't do that
+         * itself once the request has gone asynchronous.
+         */
+        private void finishResponse() {
+            try {
+                CompressionFilter.finish(response);
+            } catch (IOException e) {
+                LOG.warn("Unable to finish the response to an asynchronous RPC call", e);
+            }
+        }
+
+        private void writeUnexpectedFailure(final Throwable e) {
+            LOG.error("Exception while dispatching incoming asynchronous RPC call", e);
+            RPCServletUtils.writeResponseForUnexpectedFailure(getServletContext(), response, e);
+        }
+    }
+
     @Override
     public ServletContext getServletContext() {
         return servletContext;
@@ -90,6 +416,38 @@ public class GwtRpcController extends RemoteServiceServlet implements Controller
     public void setRemoteService(RemoteService remoteService) {
         this.remoteService = remoteService;
         this.remoteServiceClass = this.remoteService.getClass();
+        this.requestDecoder = new RpcRequestDecoder(this.remoteServiceClass);
+    }
+
+    /**
+     * @param serializationPolicyCache the serialization policies shared by the controllers.
+     */
+    public void setSerializationPolicyCache(SerializationPolicyCache serializationPolicyCache) {
+        this.serializationPolicyCache = serializationPolicyCache;
+    }
+
+    /**
+     * @param compressionThreshold the length, in characters, above which responses are gzipped
+     * for clients which accept it.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * @param asyncEnabled true if methods which the remote service reports as asynchronous should
+     * be dispatched without holding the servlet thread.
+     */
+    public void setAsyncEnabled(boolean asyncEnabled) {
+        this.asyncEnabled = asyncEnabled;
+    }
+
+    /**
+     * @param asyncTimeout the number of milliseconds an asynchronous call may take before an error
+     * is returned to the client.
+     */
+    public void setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
     }
 
 }
@@ -0,0 +1,147 @@
+package org.iplantc.de.server.rpc;
+
+import com.google.gwt.user.client.rpc.IncompatibleRemoteServiceException;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.impl.AbstractSerializationStream;
+import com.google.gwt.user.server.rpc.RPC;
+import com.google.gwt.user.server.rpc.RPCRequest;
+import com.google.gwt.user.server.rpc.SerializationPolicyProvider;
+import com.google.gwt.user.server.rpc.impl.DequeMap;
+import com.google.gwt.user.server.rpc.impl.SerializabilityUtil;
+import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamReader;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decodes the GWT-RPC requests for one remote service, remembering the method which each request
+ * signature resolves to.
+ *
+ * {@link RPC#decodeRequest(String, Class, SerializationPolicyProvider)} looks up the service
+ * interface, the parameter classes and the method by reflection on every call. Here the first
+ * request for each signature is decoded by GWT, which also checks that the service implements the
+ * requested interface, and the method it resolves is remembered. Later requests with the same
+ * signature only have their parameter values read, in the same way GWT reads them.
+ *
+ * Requests with elided type names or an RPC token, which the DE client doesn't send, are always
+ * decoded by GWT.
+ */
+final class RpcRequestDecoder {
+
+    /**
+     * The most signatures remembered per service. Only signatures which GWT resolved to a method are
+     * remembered, so this is a safeguard rather than an expected limit.
+     */
+    static final int MAX_METHODS = 256;
+
+    private static final int GWT_ONLY_FLAGS = AbstractSerializationStream.FLAG_ELIDE_TYPE_NAMES
+                                                  | AbstractSerializationStream.FLAG_RPC_TOKEN_INCLUDED;
+
+    private final Class<?> serviceClass;
+    private final ConcurrentMap<String, ResolvedMethod> methods = new ConcurrentHashMap<>();
+
+    RpcRequestDecoder(Class<?> serviceClass) {
+        this.serviceClass = serviceClass;
+    }
+
+    /**
+     * Decodes a request.
+     *
+     * @param payload the request payload.
+     * @param policyProvider provides the serialization policy named in the request.
+     * @return the request.
+     * @throws IncompatibleRemoteServiceException if the request can't be decoded.
+     */
+    RPCRequest decode(String payload, SerializationPolicyProvider policyProvider) {
+        final ServerSerializationStreamReader reader =
+                new ServerSerializationStreamReader(Thread.currentThread().getContextClassLoader(), policyProvider);
+        final String signature;
+        try {
+            reader.prepareToRead(payload);
+            signature = (reader.getFlags() & GWT_ONLY_FLAGS) == 0 ? readSignature(reader) : null;
+        } catch (SerializationException | RuntimeException e) {
+            // Let GWT report the problem.
+            return RPC.decodeRequest(payload, serviceClass, policyProvider);
+        }
+
+        final ResolvedMethod resolved = signature == null ? null : methods.get(signature);
+        if (resolved == null) {
+            final RPCRequest request = RPC.decodeRequest(payload, serviceClass, policyProvider);
+            if (signature != null && methods.size() < MAX_METHODS) {
+                methods.putIfAbsent(signature, new ResolvedMethod(request.getMethod()));
+            }
+            return request;
+        }
+
+        try {
+            return new RPCRequest(resolved.method,
+                                  resolved.readParameters(reader),
+                                  reader.getSerializationPolicy(),
+                                  reader.getFlags());
+        } catch (SerializationException ex) {
+            throw new IncompatibleRemoteServiceException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @return the number of signatures remembered.
+     */
+    int size() {
+        return methods.size();
+    }
+
+    /**
+     * Reads the interface name, method name and parameter type names of a request.
+     *
+     * @return the signature, or null if the parameter count is invalid.
+     */
+    private static String readSignature(ServerSerializationStreamReader reader) throws SerializationException {
+        final StringBuilder signature = new StringBuilder(reader.readString()).append('.')
+                                                                             .append(reader.readString())
+                                                                             .append('(');
+        final int paramCount = reader.readInt();
+        if (paramCount < 0 || paramCount > reader.getNumberOfTokens()) {
+            return null;
+        }
+        for (int i = 0; i < paramCount; i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(reader.readString());
+        }
+        return signature.append(')').toString();
+    }
+
+    /**
+     * A method resolved by GWT, and the reflective information needed to read its parameters.
+     */
+    private static final class ResolvedMethod {
+
+        private final Method method;
+        private final Class<?>[] parameterTypes;
+        private final Type[] genericParameterTypes;
+        private final TypeVariable<Method>[] typeParameters;
+
+        ResolvedMethod(Method method) {
+            this.method = method;
+            this.parameterTypes = method.getParameterTypes();
+            this.genericParameterTypes = method.getGenericParameterTypes();
+            this.typeParameters = method.getTypeParameters();
+        }
+
+        Object[] readParameters(ServerSerializationStreamReader reader) throws SerializationException {
+            final DequeMap<TypeVariable<?>, Type> resolvedTypes = new DequeMap<>();
+            for (TypeVariable<Method> typeParameter : typeParameters) {
+                SerializabilityUtil.resolveTypes(typeParameter, resolvedTypes);
+            }
+            final Object[] values = new Object[parameterTypes.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = reader.deserializeValue(parameterTypes[i], genericParameterTypes[i], resolvedTypes);
+            }
+            return values;
+        }
+    }
+}
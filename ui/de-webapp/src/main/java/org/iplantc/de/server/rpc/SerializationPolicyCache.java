@@ -0,0 +1,88 @@
+package org.iplantc.de.server.rpc;
+
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+import com.google.gwt.user.server.rpc.SerializationPolicyLoader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.ServletContextAware;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.ServletContext;
+
+/**
+ * The GWT-RPC serialization policies of the compiled modules, keyed by permutation strong name, and
+ * shared by every {@link GwtRpcController}.
+ *
+ * The policy files the GWT compiler writes to each module directory are loaded once the servlet
+ * context is available, so that the first call to each RPC service doesn't have to read and parse
+ * them. Policies which weren't preloaded, such as those served by a code server during development,
+ * are added as the controllers load them.
+ */
+public class SerializationPolicyCache implements ServletContextAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SerializationPolicyCache.class);
+
+    private static final String POLICY_FILE_SUFFIX = SerializationPolicyLoader.getSerializationPolicyFileName("");
+
+    private final ConcurrentMap<String, SerializationPolicy> policies = new ConcurrentHashMap<>();
+
+    @Override
+    public void setServletContext(ServletContext servletContext) {
+        final Set<String> topLevelPaths = servletContext.getResourcePaths("/");
+        if (topLevelPaths == null) {
+            return;
+        }
+        for (String path : topLevelPaths) {
+            if (path.endsWith("/") && !path.equals("/WEB-INF/") && !path.equals("/META-INF/")) {
+                preload(servletContext, path);
+            }
+        }
+        LOG.info("Loaded {} GWT-RPC serialization policies", policies.size());
+    }
+
+    private void preload(ServletContext servletContext, String modulePath) {
+        final Set<String> paths = servletContext.getResourcePaths(modulePath);
+        if (paths == null) {
+            return;
+        }
+        for (String path : paths) {
+            if (!path.endsWith(POLICY_FILE_SUFFIX)) {
+                continue;
+            }
+            final String strongName = path.substring(path.lastIndexOf('/') + 1,
+                                                     path.length() - POLICY_FILE_SUFFIX.length());
+            try (InputStream in = servletContext.getResourceAsStream(path)) {
+                if (in != null) {
+                    policies.put(strongName, SerializationPolicyLoader.loadFromStream(in, null));
+                }
+            } catch (IOException | ParseException e) {
+                LOG.warn("Unable to load the serialization policy {}", path, e);
+            }
+        }
+    }
+
+    /**
+     * @return the policy for a permutation, or null if it hasn't been loaded.
+     */
+    public SerializationPolicy get(String strongName) {
+        return policies.get(strongName);
+    }
+
+    /**
+     * Adds a policy which was loaded on demand.
+     */
+    public void put(String strongName, SerializationPolicy policy) {
+        policies.put(strongName, policy);
+    }
+
+    public int size() {
+        return policies.size();
+    }
+}
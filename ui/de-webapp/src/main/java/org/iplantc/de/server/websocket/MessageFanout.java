@@ -0,0 +1,155 @@
+package org.iplantc.de.server.websocket;
+
+import org.iplantc.de.server.websocket.amqp.AMQPSubscriptionHub;
+
+import com.google.common.base.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Passes the messages published with a routing key to the outbound queues of every websocket
+ * session of one handler which receives them, such as a user's browser tabs.
+ *
+ * The sessions for a routing key share a single subscription to the {@link AMQPSubscriptionHub}, so
+ * each message's supersede key is computed once on the consumer's thread, however many sessions the
+ * message goes to. The subscription is cancelled when the last of the sessions leaves.
+ */
+class MessageFanout {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MessageFanout.class);
+
+    private final AMQPSubscriptionHub subscriptionHub;
+    private final Function<String, String> supersedeKeys;
+    private final ConcurrentMap<String, Group> groups = new ConcurrentHashMap<>();
+
+    /**
+     * @param subscriptionHub the hub to subscribe to the routing keys with.
+     * @param supersedeKeys gets the supersede key of a message, or null if it has none.
+     */
+    MessageFanout(AMQPSubscriptionHub subscriptionHub, Function<String, String> supersedeKeys) {
+        this.subscriptionHub = subscriptionHub;
+        this.supersedeKeys = supersedeKeys;
+    }
+
+    /**
+     * Starts passing the messages published with a routing key to a session's queue, subscribing
+     * to the key if no other session receives it.
+     *
+     * @param routingKey the routing key.
+     * @param queue the session's outbound queue.
+     * @return the subscription, which must be cancelled when the session is closed.
+     * @throws IOException if a queue can't be bound to the routing key.
+     */
+    AMQPSubscriptionHub.Subscription subscribe(final String routingKey, final OutboundMessageQueue queue)
+            throws IOException {
+        while (true) {
+            Group group = groups.get(routingKey);
+            if (group == null) {
+                final Group created = new Group(routingKey);
+                group = groups.putIfAbsent(routingKey, created);
+                if (group == null) {
+                    group = created;
+                }
+            }
+            if (group.add(queue)) {
+                final Group joined = group;
+                return new AMQPSubscriptionHub.Subscription() {
+                    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+                    @Override
+                    public void cancel() {
+                        if (cancelled.compareAndSet(false, true)) {
+                            joined.remove(queue);
+                        }
+                    }
+                };
+            }
+            // The last session of the group left while this one was joining; start a new group.
+        }
+    }
+
+    /**
+     * @return the number of routing keys with sessions.
+     */
+    int getGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * The sessions which receive a routing key, and their shared subscription.
+     */
+    private final class Group implements AMQPSubscriptionHub.Listener {
+
+        private final String routingKey;
+        private final Set<OutboundMessageQueue> queues = new CopyOnWriteArraySet<>();
+
+        /**
+         * The subscription to the routing key, or null until the first session joins. Guarded by
+         * this.
+         */
+        private AMQPSubscriptionHub.Subscription subscription;
+
+        /**
+         * True once the last session has left, after which no session may join. Guarded by this.
+         */
+        private boolean closed;
+
+        Group(String routingKey) {
+            this.routingKey = routingKey;
+        }
+
+        /**
+         * @return false if the group was closed, and the session has to join a new one.
+         */
+        synchronized boolean add(OutboundMessageQueue queue) throws IOException {
+            if (closed) {
+                return false;
+            }
+            if (subscription == null) {
+                try {
+                    subscription = subscriptionHub.subscribe(routingKey, this);
+                } catch (IOException | RuntimeException e) {
+                    close();
+                    throw e;
+                }
+            }
+            queues.add(queue);
+            return true;
+        }
+
+        synchronized void remove(OutboundMessageQueue queue) {
+            queues.remove(queue);
+            if (queues.isEmpty() && !closed) {
+                close();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            groups.remove(routingKey, this);
+            if (subscription != null) {
+                subscription.cancel();
+                subscription = null;
+            }
+        }
+
+        @Override
+        public void onMessage(String message) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("New message to consume: " + message);
+            }
+            final String supersedeKey = supersedeKeys.apply(message);
+            for (OutboundMessageQueue queue : queues) {
+                queue.offer(message, supersedeKey);
+            }
+        }
+    }
+}
@@ -1,13 +1,11 @@
 package org.iplantc.de.server.websocket;
 
+import org.iplantc.de.server.metrics.ApiMetrics;
 import org.iplantc.de.server.util.CasUtils;
-import org.iplantc.de.server.websocket.ReceiveNotificationsDirect;
+import org.iplantc.de.server.websocket.amqp.AMQPSubscriptionHub;
+import org.iplantc.de.server.websocket.util.PropertiesUtil;
 
-import com.rabbitmq.client.AMQP;
-import com.rabbitmq.client.Channel;
-import com.rabbitmq.client.Consumer;
-import com.rabbitmq.client.DefaultConsumer;
-import com.rabbitmq.client.Envelope;
+import com.google.common.base.Function;
 
 import org.atmosphere.cpr.AtmosphereResourceEvent;
 import org.atmosphere.websocket.WebSocket;
@@ -18,40 +16,103 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.servlet.http.HttpServletResponse;
 
 /**
  * Created by sriram on 4/8/16.
+ *
+ * Each connection subscribes to its routing key in the shared {@link AMQPSubscriptionHub}, so that
+ * connections for the same key, such as a user's browser tabs, share one AMQP queue. The
+ * connections for a key also share one subscription, through a {@link MessageFanout}, so each
+ * message is only examined once. The subscription is cancelled when the last of them is closed.
+ *
+ * Messages are passed to the connection's {@link OutboundMessageQueue} rather than written on the
+ * AMQP consumer's thread, so a slow client can't delay delivery to any other connection. Messages
+ * which arrive close together are written as one frame, and handlers may let a message supersede an
+ * earlier one which hasn't been written yet; see {@link #getSupersedeKey(String)}.
+ *
+ * Open connections are tracked by the websocket in-flight gauge in {@link ApiMetrics}, and the time
+ * taken to write each message to the client is recorded as a "SEND" to the handler's path.
  */
 public abstract class MessageHandler extends WebSocketHandlerAdapter {
 
+    public static final String NOTIFICATION_ROUTING_KEY = "notification.";
+
+    public static final String SYSTEM_MESSAGE_ROUTING_KEY = "system_message";
+
     private final Logger logger = LoggerFactory.getLogger(MessageHandler.class);
+    private final ApiMetrics metrics = ApiMetrics.getInstance();
+    private final MessageFanout fanout =
+            new MessageFanout(AMQPSubscriptionHub.getInstance(), new Function<String, String>() {
+                @Override
+                public String apply(String message) {
+                    return getSupersedeKey(message);
+                }
+            });
+
+    private static final String PROPERTY_PREFIX = "org.iplantc.discoveryenvironment.notification.websocket.";
+    private static final Properties DE_PROPERTIES = PropertiesUtil.getDEProperties();
+    private static final long COALESCE_WINDOW = getLong("coalesce-window-ms", 50);
+    private static final int QUEUE_CAPACITY = (int)getLong("max-queued-messages", 256);
+    private static final ScheduledExecutorService WRITER_POOL =
+            OutboundMessageQueue.createWriterPool((int)getLong("writer-threads", 4));
+
+    private static long getLong(String name, long defaultValue) {
+        final String value = DE_PROPERTIES == null ? null : DE_PROPERTIES.getProperty(PROPERTY_PREFIX + name);
+        return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+    }
 
-    protected ReceiveNotificationsDirect notificationReceiver;
+    /**
+     * Gets the routing key of the messages to send to a user.
+     *
+     * @param username the user's name.
+     * @return the routing key.
+     */
+    public abstract String getRoutingKey(String username);
 
     /**
+     * Gets the key of the state reported by a message. A message which hasn't been written to the
+     * client yet is discarded when another message with the same key arrives. This is called once
+     * per message, on the AMQP consumer's thread, before the message is queued for each connection.
      *
-     * Bind channel to specific queue
-     * @param username
-     * @param msgChannel
-     * @return  Queue name
+     * @param message the message.
+     * @return the key, or null if the message never supersedes an earlier one.
      */
-    public abstract String bindQueue(String username, Channel msgChannel);
+    protected String getSupersedeKey(String message) {
+        return null;
+    }
 
 
     @Override
-    public void onOpen(WebSocket webSocket) throws IOException {
-        notificationReceiver = new ReceiveNotificationsDirect();
+    public void onOpen(final WebSocket webSocket) throws IOException {
         logger.info("Web socket connection opened!");
         String username = getUserName(webSocket);
         logger.info("user name:" + username);
 
-        final Channel msgChannel = notificationReceiver.createChannel();
-        String queue = bindQueue(username, msgChannel);
-        consumeMessage(msgChannel, queue, webSocket);
+        final String endpoint = ApiMetrics.endpointLabel(webSocket.resource().getRequest().getRequestURI());
+        final OutboundMessageQueue outbound = new OutboundMessageQueue(new OutboundMessageQueue.Sink() {
+            @Override
+            public void write(String frame) throws IOException {
+                final long startTime = System.nanoTime();
+                int status = ApiMetrics.FAILED;
+                try {
+                    webSocket.write(frame);
+                    status = HttpServletResponse.SC_OK;
+                } finally {
+                    metrics.record(ApiMetrics.WEBSOCKET, "SEND", endpoint, status, System.nanoTime() - startTime);
+                }
+            }
+        }, WRITER_POOL, COALESCE_WINDOW, QUEUE_CAPACITY);
+        final AMQPSubscriptionHub.Subscription subscription = fanout.subscribe(getRoutingKey(username), outbound);
 
+        metrics.opened(ApiMetrics.WEBSOCKET);
         webSocket.resource().addEventListener(new WebSocketEventListenerAdapter() {
             @Override
             public void onDisconnect(AtmosphereResourceEvent event) {
+                metrics.closed(ApiMetrics.WEBSOCKET);
                 if (event.isCancelled()) {
                     logger.info("Unexpectedly disconnected",
                                  event.getResource().uuid());
@@ -59,14 +120,8 @@ public abstract class MessageHandler extends WebSocketHandlerAdapter {
                     logger.info("Client closed the connection",
                                  event.getResource().uuid());
                 }
-                try {
-                    if (msgChannel != null) {
-                        msgChannel.abort();
-                    }
-                } catch (IOException e) {
-                    logger.error("Exception aborting channel",e);
-
-                }
+                subscription.cancel();
+                outbound.close();
             }
         });
 
@@ -81,6 +136,7 @@ public abstract class MessageHandler extends WebSocketHandlerAdapter {
     @Override
     public void onError(WebSocket webSocket, WebSocketProcessor.WebSocketException t) {
         logger.error("websocket connection error!",t);
+        metrics.error(ApiMetrics.WEBSOCKET);
     }
 
 
@@ -89,18 +145,4 @@ public abstract class MessageHandler extends WebSocketHandlerAdapter {
                        .getName();
     }
 
-    protected void consumeMessage(Channel msgChannel,String queue, final WebSocket webSocket) {
-        Consumer consumer = new DefaultConsumer(msgChannel) {
-            @Override
-            public void handleDelivery(String consumerTag, Envelope envelope,
-                                       AMQP.BasicProperties properties, byte[] body) throws IOException {
-                String message = new String(body, "UTF-8");
-                logger.info("New message to consume: " + message);
-                webSocket.write(message);
-            }
-        };
-
-        notificationReceiver.consumeMessage(msgChannel, consumer, queue);
-    }
-
 }
@@ -1,12 +1,21 @@
 package org.iplantc.de.server.websocket;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.atmosphere.config.service.WebSocketHandlerService;
 import org.atmosphere.util.SimpleBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import com.rabbitmq.client.Channel;
+import java.io.IOException;
 
 /**
  * Created by sriram on 3/31/16.
+ *
+ * An analysis status notification supersedes any earlier one for the same analysis which hasn't
+ * been sent yet, so a client which falls behind during a burst of status changes only receives the
+ * latest status of each analysis.
  */
 
 
@@ -15,15 +24,26 @@ import com.rabbitmq.client.Channel;
                                  "org.atmosphere.websocket.WebSocketProtocol=org.atmosphere.websocket.protocol.SimpleHttpProtocol" })
 public class NotificationHandler extends MessageHandler {
 
- 
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationHandler.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     @Override
-    public String bindQueue(String username, Channel msgChannel) {
-        return notificationReceiver.bind(msgChannel,
-                                         ReceiveNotificationsDirect.NOTIFICATION_ROUTING_KEY
-                                         + username);
+    public String getRoutingKey(String username) {
+        return NOTIFICATION_ROUTING_KEY + username;
     }
 
-
-
-
+    @Override
+    protected String getSupersedeKey(String message) {
+        try {
+            final JsonNode notification = MAPPER.readTree(message).path("message");
+            if (!"analysis".equalsIgnoreCase(notification.path("type").asText())) {
+                return null;
+            }
+            final JsonNode id = notification.path("payload").path("id");
+            return id.isValueNode() ? "analysis:" + id.asText() : null;
+        } catch (IOException e) {
+            LOG.debug("Unable to parse notification", e);
+            return null;
+        }
+    }
 }
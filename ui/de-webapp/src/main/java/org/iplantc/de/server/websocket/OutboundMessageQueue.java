@@ -0,0 +1,195 @@
+package org.iplantc.de.server.websocket;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded queue of messages waiting to be written to one websocket session.
+ *
+ * Messages are not written on the thread which queues them. Instead, the first message queued
+ * after a flush schedules the next flush on a shared writer pool, after a short coalescing window.
+ * Every message queued during the window is written by that flush, in arrival order; consecutive
+ * JSON objects are sent together as a single JSON array frame. A session is flushed by at most one
+ * writer at a time, so a slow client only holds up one writer thread and its own queue.
+ *
+ * A message may be queued with a supersede key, such as the ID of the analysis whose status it
+ * reports. A queued message with the same key is discarded, since only the latest state matters.
+ * When the queue is full, the oldest message is dropped.
+ */
+public class OutboundMessageQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboundMessageQueue.class);
+
+    /**
+     * Writes frames to the client.
+     */
+    public interface Sink {
+
+        void write(String frame) throws IOException;
+    }
+
+    /**
+     * Creates the pool of threads which write to the websocket sessions.
+     */
+    static ScheduledExecutorService createWriterPool(int threads) {
+        return Executors.newScheduledThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("websocket-writer-%d")
+                                                                                   .setDaemon(true)
+                                                                                   .build());
+    }
+
+    private final Sink sink;
+    private final ScheduledExecutorService writerPool;
+    private final long coalesceWindow;
+    private final int capacity;
+
+    /**
+     * The queued messages in arrival order, keyed by their supersede key, or by a unique object if
+     * they don't have one. Guarded by this.
+     */
+    private final LinkedHashMap<Object, String> pending = new LinkedHashMap<>();
+
+    /**
+     * True while a flush is scheduled or in progress. Guarded by this.
+     */
+    private boolean flushScheduled;
+    private boolean closed;
+    private long supersededCount;
+    private long droppedCount;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    /**
+     * @param sink the sink which writes frames to the client.
+     * @param writerPool the pool on which the queue is flushed.
+     * @param coalesceWindow the time to wait for more messages before a flush, in milliseconds.
+     * @param capacity the largest number of messages which may be waiting.
+     */
+    public OutboundMessageQueue(Sink sink, ScheduledExecutorService writerPool, long coalesceWindow, int capacity) {
+        this.sink = sink;
+        this.writerPool = writerPool;
+        this.coalesceWindow = coalesceWindow;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues a message to be written.
+     *
+     * @param message the message.
+     * @param supersedeKey the key of the state reported by the message, or null if the message never
+     *                     supersedes an earlier one.
+     */
+    public synchronized void offer(String message, String supersedeKey) {
+        if (closed) {
+            return;
+        }
+        final Object key = supersedeKey == null ? new Object() : supersedeKey;
+        // Remove any superseded message rather than replacing it, so the new one keeps its place in
+        // the arrival order.
+        if (pending.remove(key) != null) {
+            supersededCount++;
+        }
+        pending.put(key, message);
+        if (pending.size() > capacity) {
+            final Iterator<Map.Entry<Object, String>> oldest = pending.entrySet().iterator();
+            oldest.next();
+            oldest.remove();
+            droppedCount++;
+            LOG.debug("Outbound websocket queue full; dropped the oldest message");
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            writerPool.schedule(flushTask, coalesceWindow, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Discards any queued messages, and stops accepting new ones.
+     */
+    public synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    public synchronized long getSupersededCount() {
+        return supersededCount;
+    }
+
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    void flush() {
+        final List<String> messages;
+        synchronized (this) {
+            messages = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        try {
+            write(messages);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to write {} messages to a websocket", messages.size(), e);
+        } finally {
+            synchronized (this) {
+                if (pending.isEmpty() || closed) {
+                    flushScheduled = false;
+                } else {
+                    writerPool.schedule(flushTask, coalesceWindow, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the messages in arrival order. Consecutive JSON objects are sent together as one frame,
+     * or as they are if there is only one, and any other message is sent in its own frame.
+     */
+    private void write(List<String> messages) throws IOException {
+        final List<String> objects = new ArrayList<>(messages.size());
+        for (String message : messages) {
+            if (message.startsWith("{")) {
+                objects.add(message);
+            } else {
+                writeObjects(objects);
+                objects.clear();
+                sink.write(message);
+            }
+        }
+        writeObjects(objects);
+    }
+
+    private void writeObjects(List<String> objects) throws IOException {
+        if (objects.size() == 1) {
+            sink.write(objects.get(0));
+        } else if (!objects.isEmpty()) {
+            int length = objects.size() + 1;
+            for (String object : objects) {
+                length += object.length();
+            }
+            final StringBuilder frame = new StringBuilder(length).append('[');
+            for (String object : objects) {
+                if (frame.length() > 1) {
+                    frame.append(',');
+                }
+                frame.append(object);
+            }
+            sink.write(frame.append(']').toString());
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package org.iplantc.de.server.websocket;
 
-import com.rabbitmq.client.Channel;
-
 import org.atmosphere.config.service.WebSocketHandlerService;
 import org.atmosphere.util.SimpleBroadcaster;
 
@@ -13,9 +11,8 @@ import org.atmosphere.util.SimpleBroadcaster;
                                  "org.atmosphere.websocket.WebSocketProtocol=org.atmosphere.websocket.protocol.SimpleHttpProtocol" })
 public class SystemMessageHandler extends MessageHandler {
 
-   @Override
-    public String bindQueue(String username, Channel msgChannel) {
-        return notificationReceiver.bind(msgChannel,
-                                         ReceiveNotificationsDirect.SYSTEM_MESSAGE_ROUTING_KEY);
+    @Override
+    public String getRoutingKey(String username) {
+        return SYSTEM_MESSAGE_ROUTING_KEY;
     }
 }
@@ -2,70 +2,355 @@ package org.iplantc.de.server.websocket.amqp;
 
 import org.iplantc.de.server.websocket.util.PropertiesUtil;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.RecoveryListener;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by sriram on 4/7/16.
+ *
+ * Manages the AMQP connection shared by the websocket handlers.
+ *
+ * The connection is created with automatic connection and topology recovery, so after a network
+ * failure the client library reconnects and redeclares the channels, queues, bindings and consumers
+ * which were open on it. If the connection can't be established at all, or is lost in a way which
+ * the library doesn't recover from, this manager retries in the background, doubling the delay after
+ * each failure up to a limit, and notifies its {@link ConnectionListener}s once a new connection is
+ * open, so that they can redeclare their topology on it.
+ *
+ * The number of channels opened through the manager is bounded, so that a flood of subscriptions
+ * can't exhaust the broker's channel limit. Health and throughput counters are exposed for
+ * monitoring.
  */
 public class AMQPConnectionManager {
 
-    public static AMQPConnectionManager instance;
+    private static final Logger LOG = LoggerFactory.getLogger(AMQPConnectionManager.class);
 
-    private final Logger LOG = LoggerFactory.getLogger(AMQPConnectionManager.class);
+    private static final String PROPERTY_PREFIX = "org.iplantc.discoveryenvironment.notification.amqp.";
 
-    private String amqpHost;
+    private static AMQPConnectionManager instance;
 
-    private String amqpPort;
+    /**
+     * Notified whenever the manager opens a new connection. This doesn't include connections which
+     * were recovered by the client library, since their topology is recovered with them.
+     */
+    public interface ConnectionListener {
 
-    private String user;
+        void onConnected(Connection connection);
+    }
 
-    private String password;
+    private final ConnectionFactory factory;
+    private final ScheduledExecutorService reconnectExecutor;
+    private final long initialReconnectDelay;
+    private final long maxReconnectDelay;
+    private final int maxChannels;
+    private final Semaphore channelPermits;
+    private final List<ConnectionListener> listeners = new CopyOnWriteArrayList<>();
 
-    Properties deprops = PropertiesUtil.getDEProperties();
-    private Connection connection;
+    private volatile Connection connection;
 
-    private AMQPConnectionManager() {
-        amqpHost = deprops.getProperty("org.iplantc.discoveryenvironment.notification.amqp.host");
-        amqpPort = deprops.getProperty("org.iplantc.discoveryenvironment.notification.amqp.port");
-        user = deprops.getProperty("org.iplantc.discoveryenvironment.notification.amqp.user");
-        password = deprops.getProperty("org.iplantc.discoveryenvironment.notification.amqp.password");
-        ConnectionFactory factory = new ConnectionFactory();
-        factory.setHost(amqpHost);
-        factory.setPort(Integer.parseInt(amqpPort));
-        factory.setUsername(user);
-        factory.setPassword(password);
-        try {
-            connection = factory.newConnection();
-            LOG.info("amqp connection created!");
-        } catch (IOException e) {
-            e.printStackTrace();
-            LOG.error("IOEException when creating amqp connection!" + e.getMessage());
-        } catch (TimeoutException e) {
-            e.printStackTrace();
-            LOG.error("Timeout Exception when creating amqp connection!" + e.getMessage());
-        } catch (Exception e) {
-            e.printStackTrace();
-            LOG.error("Exception when creating AMQP connection!" + e.getMessage());
-        }
+    /**
+     * The delay before the next reconnection attempt, in milliseconds. Guarded by this.
+     */
+    private long reconnectDelay;
+
+    /**
+     * True if a reconnection attempt has been scheduled. Guarded by this.
+     */
+    private boolean reconnectScheduled;
+
+    private final AtomicLong connectionAttempts = new AtomicLong();
+    private final AtomicLong connectionFailures = new AtomicLong();
+    private final AtomicLong disconnections = new AtomicLong();
+    private final AtomicLong recoveries = new AtomicLong();
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    private AMQPConnectionManager(Properties deprops) {
+        this(createFactory(deprops),
+             Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("amqp-reconnect")
+                                                                                  .setDaemon(true)
+                                                                                  .build()),
+             getLong(deprops, "reconnect-interval-ms", 1000),
+             getLong(deprops, "max-reconnect-interval-ms", 60000),
+             (int)getLong(deprops, "max-channels", 1024));
+    }
 
+    AMQPConnectionManager(ConnectionFactory factory,
+                          ScheduledExecutorService reconnectExecutor,
+                          long initialReconnectDelay,
+                          long maxReconnectDelay,
+                          int maxChannels) {
+        this.factory = factory;
+        this.reconnectExecutor = reconnectExecutor;
+        this.initialReconnectDelay = initialReconnectDelay;
+        this.maxReconnectDelay = maxReconnectDelay;
+        this.maxChannels = maxChannels;
+        this.channelPermits = new Semaphore(maxChannels);
+        this.reconnectDelay = initialReconnectDelay;
     }
 
-    public static AMQPConnectionManager getInstance() {
-        if(instance == null) {
-            instance = new AMQPConnectionManager();
+    public static synchronized AMQPConnectionManager getInstance() {
+        if (instance == null) {
+            final Properties deprops = PropertiesUtil.getDEProperties();
+            instance = new AMQPConnectionManager(deprops == null ? new Properties() : deprops);
+            instance.connect();
         }
         return instance;
     }
 
+    private static ConnectionFactory createFactory(Properties deprops) {
+        ConnectionFactory factory = new ConnectionFactory();
+        factory.setHost(deprops.getProperty(PROPERTY_PREFIX + "host"));
+        factory.setPort(Integer.parseInt(deprops.getProperty(PROPERTY_PREFIX + "port", "5672")));
+        factory.setUsername(deprops.getProperty(PROPERTY_PREFIX + "user"));
+        factory.setPassword(deprops.getProperty(PROPERTY_PREFIX + "password"));
+        factory.setRequestedHeartbeat((int)getLong(deprops, "heartbeat-seconds", 30));
+        factory.setRequestedChannelMax((int)getLong(deprops, "max-channels", 1024) + 1);
+        factory.setAutomaticRecoveryEnabled(true);
+        factory.setTopologyRecoveryEnabled(true);
+        factory.setNetworkRecoveryInterval(getLong(deprops, "recovery-interval-ms", 5000));
+        return factory;
+    }
+
+    private static long getLong(Properties deprops, String name, long defaultValue) {
+        final String value = deprops.getProperty(PROPERTY_PREFIX + name);
+        return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    /**
+     * Adds a listener which is notified whenever a new connection is opened.
+     */
+    public void addConnectionListener(ConnectionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return the connection, or null if there is no connection yet.
+     */
     public Connection getConnection() {
         return connection;
     }
+
+    /**
+     * Opens a connection unless one is already open, and schedules another attempt if it fails.
+     */
+    void connect() {
+        final Connection opened;
+        synchronized (this) {
+            reconnectScheduled = false;
+            if (connection != null) {
+                return;
+            }
+            connectionAttempts.incrementAndGet();
+            try {
+                opened = factory.newConnection();
+            } catch (IOException | TimeoutException | RuntimeException e) {
+                connectionFailures.incrementAndGet();
+                LOG.error("Unable to create the AMQP connection; retrying in {}ms", reconnectDelay, e);
+                scheduleReconnect();
+                return;
+            }
+            watch(opened);
+            connection = opened;
+            reconnectDelay = initialReconnectDelay;
+        }
+        LOG.info("amqp connection created!");
+
+        for (ConnectionListener listener : listeners) {
+            try {
+                listener.onConnected(opened);
+            } catch (RuntimeException e) {
+                LOG.error("AMQP connection listener failed", e);
+            }
+        }
+    }
+
+    private void watch(final Connection opened) {
+        opened.addShutdownListener(new ShutdownListener() {
+            @Override
+            public void shutdownCompleted(ShutdownSignalException cause) {
+                if (cause.isInitiatedByApplication()) {
+                    return;
+                }
+                disconnections.incrementAndGet();
+                if (opened instanceof Recoverable) {
+                    LOG.warn("AMQP connection lost; waiting for it to recover", cause);
+                } else {
+                    LOG.warn("AMQP connection lost; reconnecting", cause);
+                    connectionLost(opened);
+                }
+            }
+        });
+        if (opened instanceof Recoverable) {
+            ((Recoverable)opened).addRecoveryListener(new RecoveryListener() {
+                @Override
+                public void handleRecovery(Recoverable recoverable) {
+                    recoveries.incrementAndGet();
+                    LOG.info("AMQP connection recovered");
+                }
+            });
+        }
+    }
+
+    private synchronized void connectionLost(Connection lost) {
+        if (connection == lost) {
+            connection = null;
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * Schedules a connection attempt, unless one is already scheduled. Must hold the lock on this.
+     */
+    private void scheduleReconnect() {
+        if (reconnectScheduled) {
+            return;
+        }
+        reconnectScheduled = true;
+        reconnectExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                connect();
+            }
+        }, reconnectDelay, TimeUnit.MILLISECONDS);
+        reconnectDelay = Math.min(reconnectDelay * 2, maxReconnectDelay);
+    }
+
+    /**
+     * Runs a task on the reconnection thread after a delay, such as another attempt to open a channel
+     * which the broker closed.
+     *
+     * @param task the task.
+     * @param delay the delay, in milliseconds.
+     */
+    public void schedule(Runnable task, long delay) {
+        reconnectExecutor.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the delay before the first reconnection attempt, in milliseconds.
+     */
+    public long getInitialReconnectDelay() {
+        return initialReconnectDelay;
+    }
+
+    /**
+     * @return the longest delay between reconnection attempts, in milliseconds.
+     */
+    public long getMaxReconnectDelay() {
+        return maxReconnectDelay;
+    }
+
+    /**
+     * Opens a channel on the shared connection. Every channel opened this way must be closed with
+     * {@link #closeChannel(Channel)}, even if the broker has already closed it.
+     *
+     * @return the channel.
+     * @throws IOException if there is no open connection, too many channels are open, or the channel
+     *         can't be created.
+     */
+    public Channel openChannel() throws IOException {
+        final Connection current = connection;
+        if (current == null || !current.isOpen()) {
+            throw new IOException("The AMQP connection is not available");
+        }
+        if (!channelPermits.tryAcquire()) {
+            throw new IOException("The limit of " + maxChannels + " AMQP channels has been reached");
+        }
+        try {
+            final Channel channel = current.createChannel();
+            if (channel == null) {
+                throw new IOException("No AMQP channel numbers are available");
+            }
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            channelPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes a channel which was opened with {@link #openChannel()}.
+     */
+    public void closeChannel(Channel channel) {
+        try {
+            channel.abort();
+        } catch (IOException e) {
+            LOG.error("Exception aborting channel", e);
+        } finally {
+            channelPermits.release();
+        }
+    }
+
+    /**
+     * Counts a message received by a consumer on one of the manager's channels.
+     *
+     * @param size the size of the message body, in bytes.
+     */
+    public void messageReceived(int size) {
+        messagesReceived.incrementAndGet();
+        bytesReceived.addAndGet(size);
+    }
+
+    /**
+     * @return true if the connection is open.
+     */
+    public boolean isConnected() {
+        final Connection current = connection;
+        return current != null && current.isOpen();
+    }
+
+    public int getOpenChannelCount() {
+        return maxChannels - channelPermits.availablePermits();
+    }
+
+    public long getConnectionAttemptCount() {
+        return connectionAttempts.get();
+    }
+
+    public long getConnectionFailureCount() {
+        return connectionFailures.get();
+    }
+
+    /**
+     * @return the number of times the connection was lost, whether or not it was recovered.
+     */
+    public long getDisconnectionCount() {
+        return disconnections.get();
+    }
+
+    /**
+     * @return the number of times the client library recovered the connection.
+     */
+    public long getRecoveryCount() {
+        return recoveries.get();
+    }
+
+    public long getMessagesReceivedCount() {
+        return messagesReceived.get();
+    }
+
+    public long getBytesReceivedCount() {
+        return bytesReceived.get();
+    }
 }
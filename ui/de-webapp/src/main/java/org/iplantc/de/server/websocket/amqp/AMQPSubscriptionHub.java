@@ -0,0 +1,356 @@
+package org.iplantc.de.server.websocket.amqp;
+
+import org.iplantc.de.server.websocket.util.PropertiesUtil;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shares AMQP consumers between websocket sessions.
+ *
+ * Each routing key which has at least one subscriber is bound to a single server-named queue, which
+ * is consumed on its own channel. Every message delivered to that queue is decoded once and passed
+ * to all of the key's subscribers in memory. Listeners are expected to hand messages off rather than
+ * write them to a client, and each message is acknowledged once every listener has received it; the
+ * consumer's prefetch limit caps the number of unacknowledged messages per queue.
+ *
+ * A message is therefore acknowledged once it's queued for each websocket session, not once it has
+ * been written to the client. A message which is still queued when a session or the webapp goes
+ * away, or which its session's queue drops or supersedes, isn't redelivered. Waiting for every
+ * session's write wouldn't change that, since the queues are deleted along with their channels.
+ *
+ * Bindings are reference counted: the queue is declared when the first subscriber for its routing
+ * key arrives, and the channel is closed, which deletes the queue, when the last one leaves. A user
+ * with several browser tabs open therefore costs one channel and one queue for their notifications,
+ * and all users share those for system messages.
+ *
+ * Channels are opened through the {@link AMQPConnectionManager}. Queues on a connection which the
+ * client library recovers are redeclared by the library; if the manager has to open a new connection
+ * instead, the affected queues are bound again on it, without disturbing their subscribers. If the
+ * broker closes a single channel, its queue is bound again on a new channel, retrying with the same
+ * backoff as the manager's reconnections until it succeeds or its subscribers leave.
+ */
+public class AMQPSubscriptionHub {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AMQPSubscriptionHub.class);
+
+    private static final String EXCHANGE_NAME_KEY = "org.iplantc.discoveryenvironment.notification.amqp.exchange.name";
+    private static final String PREFETCH_KEY = "org.iplantc.discoveryenvironment.notification.amqp.prefetch";
+    private static final int DEFAULT_PREFETCH = 100;
+
+    private static AMQPSubscriptionHub instance;
+
+    /**
+     * Receives the messages published with a routing key.
+     */
+    public interface Listener {
+
+        /**
+         * Called on the consumer's delivery thread for each message.
+         *
+         * @param message the message body.
+         * @throws IOException if the message can't be passed on; other subscribers still receive it.
+         */
+        void onMessage(String message) throws IOException;
+    }
+
+    /**
+     * A listener's subscription to a routing key.
+     */
+    public interface Subscription {
+
+        /**
+         * Stops delivering messages to the listener. Calling this more than once has no effect.
+         */
+        void cancel();
+    }
+
+    /**
+     * The bindings with at least one subscriber, keyed by routing key. Guarded by this.
+     */
+    private final Map<String, Binding> bindings = new HashMap<>();
+
+    private final AMQPConnectionManager connectionManager;
+    private final String exchangeName;
+    private final int prefetch;
+
+    AMQPSubscriptionHub(AMQPConnectionManager connectionManager, String exchangeName, int prefetch) {
+        this.connectionManager = connectionManager;
+        this.exchangeName = exchangeName;
+        this.prefetch = prefetch;
+        connectionManager.addConnectionListener(new AMQPConnectionManager.ConnectionListener() {
+            @Override
+            public void onConnected(Connection connection) {
+                rebindAll();
+            }
+        });
+    }
+
+    public static synchronized AMQPSubscriptionHub getInstance() {
+        if (instance == null) {
+            final Properties props = PropertiesUtil.getDEProperties();
+            final String prefetch = props == null ? null : props.getProperty(PREFETCH_KEY);
+            instance = new AMQPSubscriptionHub(AMQPConnectionManager.getInstance(),
+                                               props == null ? null : props.getProperty(EXCHANGE_NAME_KEY),
+                                               prefetch == null ? DEFAULT_PREFETCH : Integer.parseInt(prefetch.trim()));
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes a listener to the messages published with a routing key, binding a queue to the
+     * key if it has no other subscribers.
+     *
+     * @param routingKey the routing key.
+     * @param listener the listener to pass the messages to.
+     * @return the subscription, which must be cancelled once the listener is no longer needed.
+     * @throws IOException if a queue can't be bound to the routing key.
+     */
+    public Subscription subscribe(final String routingKey, final Listener listener) throws IOException {
+        final Binding binding;
+        synchronized (this) {
+            Binding existing = bindings.get(routingKey);
+            if (existing == null) {
+                existing = new Binding(routingKey);
+                bindings.put(routingKey, existing);
+            }
+            existing.listeners.add(listener);
+            binding = existing;
+        }
+
+        final Subscription subscription = new Subscription() {
+            private final AtomicBoolean cancelled = new AtomicBoolean();
+
+            @Override
+            public void cancel() {
+                if (cancelled.compareAndSet(false, true)) {
+                    unsubscribe(binding, listener);
+                }
+            }
+        };
+        try {
+            binding.start();
+        } catch (IOException | RuntimeException e) {
+            subscription.cancel();
+            throw e;
+        }
+        return subscription;
+    }
+
+    private void unsubscribe(final Binding binding, final Listener listener) {
+        synchronized (this) {
+            binding.listeners.remove(listener);
+            if (!binding.listeners.isEmpty()) {
+                return;
+            }
+            bindings.remove(binding.routingKey);
+        }
+        binding.stop();
+    }
+
+    /**
+     * Binds the queues of every routing key with subscribers on a new connection.
+     */
+    private void rebindAll() {
+        final List<Binding> current;
+        synchronized (this) {
+            current = new ArrayList<>(bindings.values());
+        }
+        for (Binding binding : current) {
+            binding.restart();
+        }
+    }
+
+    /**
+     * @return the number of routing keys with subscribers.
+     */
+    public synchronized int getBindingCount() {
+        return bindings.size();
+    }
+
+    /**
+     * @return the number of listeners subscribed to any routing key.
+     */
+    public synchronized int getSubscriberCount() {
+        int count = 0;
+        for (Binding binding : bindings.values()) {
+            count += binding.listeners.size();
+        }
+        return count;
+    }
+
+    /**
+     * A queue bound to a routing key, and the listeners subscribed to it.
+     */
+    private final class Binding {
+
+        private final String routingKey;
+        private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
+
+        /**
+         * The channel on which the queue is consumed, or null if it isn't bound. This is cleared
+         * without holding the lock when the broker closes the channel, since that happens on the
+         * connection's thread.
+         */
+        private final AtomicReference<Channel> channel = new AtomicReference<>();
+        private volatile boolean stopped;
+
+        /**
+         * Whether another attempt to bind the queue has been scheduled, and the delay before the
+         * next one after that, in milliseconds.
+         */
+        private final AtomicBoolean retryScheduled = new AtomicBoolean();
+        private final AtomicLong retryDelay = new AtomicLong(connectionManager.getInitialReconnectDelay());
+
+        Binding(String routingKey) {
+            this.routingKey = routingKey;
+        }
+
+        /**
+         * Declares and binds the queue, and starts consuming it, unless that has already been done.
+         */
+        synchronized void start() throws IOException {
+            if (channel.get() != null || stopped) {
+                return;
+            }
+            if (exchangeName == null) {
+                throw new IOException("The AMQP exchange name isn't configured");
+            }
+
+            final Channel newChannel = connectionManager.openChannel();
+            try {
+                final String queueName = newChannel.queueDeclare().getQueue();
+                newChannel.queueBind(queueName, exchangeName, routingKey);
+                newChannel.basicQos(prefetch);
+                newChannel.basicConsume(queueName, false, new DefaultConsumer(newChannel) {
+                    @Override
+                    public void handleDelivery(String consumerTag,
+                                               Envelope envelope,
+                                               AMQP.BasicProperties properties,
+                                               byte[] body) throws IOException {
+                        connectionManager.messageReceived(body.length);
+                        deliver(new String(body, "UTF-8"));
+                        getChannel().basicAck(envelope.getDeliveryTag(), false);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                connectionManager.closeChannel(newChannel);
+                throw e;
+            }
+            newChannel.addShutdownListener(new ShutdownListener() {
+                @Override
+                public void shutdownCompleted(ShutdownSignalException cause) {
+                    // The client library recovers the channels of a recoverable connection.
+                    if (!cause.isInitiatedByApplication()
+                            && !(cause.isHardError() && newChannel instanceof Recoverable)) {
+                        LOG.warn("The channel for {} was closed", routingKey, cause);
+                        channelLost(newChannel);
+                    }
+                }
+            });
+            channel.set(newChannel);
+            LOG.info("Bound a queue to {}", routingKey);
+        }
+
+        /**
+         * Binds the queue again on a new connection.
+         */
+        synchronized void restart() {
+            if (stopped) {
+                return;
+            }
+            final Channel old = channel.getAndSet(null);
+            if (old != null) {
+                connectionManager.closeChannel(old);
+            }
+            try {
+                start();
+            } catch (IOException | RuntimeException e) {
+                LOG.error("Unable to bind a queue to {}", routingKey, e);
+            }
+        }
+
+        /**
+         * Forgets a channel which the broker closed, and schedules binding the queue on a new one.
+         */
+        void channelLost(Channel lost) {
+            if (channel.compareAndSet(lost, null)) {
+                connectionManager.closeChannel(lost);
+                scheduleRetry();
+            }
+        }
+
+        /**
+         * Schedules another attempt to bind the queue, doubling the delay each time up to the
+         * manager's limit. This doesn't take the lock, since it's called on the connection's thread,
+         * which {@link #start()} may be waiting on.
+         */
+        private void scheduleRetry() {
+            if (stopped || !retryScheduled.compareAndSet(false, true)) {
+                return;
+            }
+            final long delay = retryDelay.get();
+            retryDelay.set(Math.min(delay * 2, connectionManager.getMaxReconnectDelay()));
+            connectionManager.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    retry();
+                }
+            }, delay);
+        }
+
+        private void retry() {
+            retryScheduled.set(false);
+            try {
+                start();
+                retryDelay.set(connectionManager.getInitialReconnectDelay());
+            } catch (IOException | RuntimeException e) {
+                LOG.error("Unable to bind a queue to {}; retrying in {}ms", routingKey, retryDelay.get(), e);
+                scheduleRetry();
+            }
+        }
+
+        /**
+         * Closes the channel, which deletes the queue.
+         */
+        synchronized void stop() {
+            stopped = true;
+            final Channel old = channel.getAndSet(null);
+            if (old != null) {
+                connectionManager.closeChannel(old);
+                LOG.info("Unbound the queue for {}", routingKey);
+            }
+        }
+
+        private void deliver(String message) {
+            for (Listener listener : listeners) {
+                try {
+                    listener.onMessage(message);
+                } catch (Exception e) {
+                    LOG.warn("Unable to pass a message for {} to a subscriber", routingKey, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.iplantc.de.server;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.cas.ServiceProperties;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class DeLandingPageTest {
+
+    private MaintenanceStateWatcher maintenanceState;
+    private HttpServletRequest request;
+    private DeLandingPage uut;
+
+    @Before public void setUp() throws Exception {
+        final DiscoveryEnvironmentMaintenance available = maintenance(false);
+        maintenanceState = mock(MaintenanceStateWatcher.class);
+        when(maintenanceState.getMaintenance()).thenReturn(available);
+
+        final ServiceProperties casService = new ServiceProperties();
+        casService.setService("https://de.example.org/de/j_spring_cas_security_check");
+
+        request = mock(HttpServletRequest.class);
+        when(request.getContextPath()).thenReturn("");
+        when(request.getParameterMap()).thenReturn(Collections.<String, String[]>emptyMap());
+
+        uut = new DeLandingPage();
+        uut.setMaintenanceState(maintenanceState);
+        uut.setLoginUrl("https://cas.example.org/login");
+        uut.setCasService(casService);
+        uut.afterPropertiesSet();
+    }
+
+    @Test public void insertsTheRequestParametersIntoTheLoginForm() throws Exception {
+        when(request.getParameterMap()).thenReturn(Collections.singletonMap("view", new String[] {"data"}));
+
+        final String page = display();
+
+        assertTrue(page.contains("action=\"https://cas.example.org/login\">"
+                                     + "\n        <input type=\"hidden\" name=\"view\" value=\"data\" />"));
+        assertFalse(page.contains("\u0000"));
+    }
+
+    @Test public void rendersTheMaintenanceStateWhenItChanges() throws Exception {
+        assertTrue(display().contains("Log in with your CyVerse ID"));
+
+        final DiscoveryEnvironmentMaintenance underMaintenance = maintenance(true);
+        when(maintenanceState.getMaintenance()).thenReturn(underMaintenance);
+
+        final String page = display();
+        assertFalse(page.contains("Log in with your CyVerse ID"));
+        assertTrue(page.contains("from 10:00 to 12:00"));
+    }
+
+    private String display() throws Exception {
+        final StringWriter content = new StringWriter();
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getWriter()).thenReturn(new PrintWriter(content));
+        uut.display(request, response);
+        return content.toString();
+    }
+
+    private static DiscoveryEnvironmentMaintenance maintenance(boolean bounded) {
+        final DiscoveryEnvironmentMaintenance maintenance = mock(DiscoveryEnvironmentMaintenance.class);
+        when(maintenance.isUnderMaintenance()).thenReturn(bounded);
+        when(maintenance.hasMaintenanceTimes()).thenReturn(bounded);
+        when(maintenance.getStartTime()).thenReturn("10:00");
+        when(maintenance.getEndTime()).thenReturn("12:00");
+        return maintenance;
+    }
+}
@@ -0,0 +1,112 @@
+package org.iplantc.de.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+public class MaintenanceStateWatcherTest {
+
+    private static final long TIMEOUT_MS = 15000;
+
+    @Rule public TemporaryFolder directory = new TemporaryFolder();
+
+    private MaintenanceStateWatcher uut;
+
+    @After public void tearDown() {
+        if (uut != null) {
+            uut.destroy();
+        }
+    }
+
+    @Test public void keepsTheStateUntilTheFileChanges() throws Exception {
+        final File file = new File(directory.getRoot(), "maintenance");
+        uut = new MaintenanceStateWatcher(file.getPath());
+        uut.afterPropertiesSet();
+
+        final DiscoveryEnvironmentMaintenance initial = uut.getMaintenance();
+        assertFalse(initial.isUnderMaintenance());
+        assertSame(initial, uut.getMaintenance());
+
+        write(file, "10:00\n12:00\n");
+        final DiscoveryEnvironmentMaintenance bounded = awaitChange(initial);
+        assertTrue(bounded.isUnderMaintenance());
+        assertEquals("10:00", bounded.getStartTime());
+        assertEquals("12:00", bounded.getEndTime());
+
+        assertTrue(file.delete());
+        awaitChange(bounded);
+        assertFalse(awaitState(false).isUnderMaintenance());
+    }
+
+    @Test public void keepsTheInstanceWhenTheFileIsRewrittenUnchanged() throws Exception {
+        final File file = new File(directory.getRoot(), "maintenance");
+        write(file, "10:00\n12:00\n");
+        uut = new MaintenanceStateWatcher(file.getPath());
+        uut.afterPropertiesSet();
+        final DiscoveryEnvironmentMaintenance initial = uut.getMaintenance();
+
+        write(file, "10:00\n12:00\n");
+        uut.reload();
+        assertSame(initial, uut.getMaintenance());
+
+        write(file, "10:00\n13:00\n");
+        uut.reload();
+        assertNotSame(initial, uut.getMaintenance());
+        assertEquals("13:00", uut.getMaintenance().getEndTime());
+    }
+
+    @Test public void ignoresOtherFiles() throws Exception {
+        uut = new MaintenanceStateWatcher(new File(directory.getRoot(), "maintenance").getPath());
+        uut.afterPropertiesSet();
+        final DiscoveryEnvironmentMaintenance initial = uut.getMaintenance();
+
+        write(new File(directory.getRoot(), "other"), "10:00\n12:00\n");
+        Thread.sleep(500);
+
+        assertSame(initial, uut.getMaintenance());
+    }
+
+    @Test public void readsTheFileWhenItsDirectoryCanNotBeWatched() throws Exception {
+        final File file = new File(directory.getRoot(), "missing/maintenance");
+        uut = new MaintenanceStateWatcher(file.getPath());
+        uut.afterPropertiesSet();
+
+        assertFalse(uut.getMaintenance().isUnderMaintenance());
+    }
+
+    private DiscoveryEnvironmentMaintenance awaitChange(DiscoveryEnvironmentMaintenance previous)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (uut.getMaintenance() == previous && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return uut.getMaintenance();
+    }
+
+    private DiscoveryEnvironmentMaintenance awaitState(boolean underMaintenance) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (uut.getMaintenance().isUnderMaintenance() != underMaintenance
+                   && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return uut.getMaintenance();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (Writer out = new FileWriter(file)) {
+            out.write(content);
+        }
+    }
+}
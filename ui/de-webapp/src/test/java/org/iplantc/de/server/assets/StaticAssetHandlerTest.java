@@ -0,0 +1,233 @@
+package org.iplantc.de.server.assets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.iplantc.de.server.compression.CompressionFilter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class StaticAssetHandlerTest {
+
+    private static final byte[] SCRIPT = "var answer = 42;\n".getBytes(StandardCharsets.UTF_8);
+
+    @Rule public TemporaryFolder root = new TemporaryFolder();
+
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private ByteArrayOutputStream sent;
+    private StaticAssetHandler uut;
+
+    @Before public void setUp() throws IOException {
+        write(new File(root.getRoot(), "scripts/app.js"), SCRIPT);
+
+        final ServletContext servletContext = mock(ServletContext.class);
+        when(servletContext.getRealPath(anyString())).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                return new File(root.getRoot(), (String)invocation.getArguments()[0]).getPath();
+            }
+        });
+        when(servletContext.getResourceAsStream(anyString())).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(InvocationOnMock invocation) throws IOException {
+                final File file = new File(root.getRoot(), (String)invocation.getArguments()[0]);
+                return file.isFile() ? new FileInputStream(file) : null;
+            }
+        });
+        when(servletContext.getMimeType("/scripts/app.js")).thenReturn("application/javascript");
+
+        request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE)).thenReturn("scripts/app.js");
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(-1L);
+
+        sent = new ByteArrayOutputStream();
+        response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(new CapturingStream(sent));
+
+        uut = new StaticAssetHandler();
+        uut.setServletContext(servletContext);
+    }
+
+    @Test public void servesFilesWithValidators() throws Exception {
+        final String etag = etag();
+
+        uut.handleRequest(request, response);
+
+        verify(response).setHeader("ETag", etag);
+        verify(response).setDateHeader("Last-Modified", new File(root.getRoot(), "scripts/app.js").lastModified());
+        verify(response).setContentType("application/javascript");
+        verify(response).setContentLengthLong(SCRIPT.length);
+        verify(response, never()).setHeader("Content-Encoding", "gzip");
+        assertArrayEquals(SCRIPT, sent.toByteArray());
+    }
+
+    @Test public void servesTheGzipVariantToClientsWhichAcceptIt() throws Exception {
+        final byte[] compressed = gzip(SCRIPT);
+        write(new File(root.getRoot(), "scripts/app.js.gz"), compressed);
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+        uut.handleRequest(request, response);
+
+        verify(response).setHeader("Content-Encoding", "gzip");
+        verify(response).addHeader("Vary", "Accept-Encoding");
+        verify(response).setContentLengthLong(compressed.length);
+        assertArrayEquals(compressed, sent.toByteArray());
+    }
+
+    @Test public void representationsHaveDifferentTags() throws Exception {
+        write(new File(root.getRoot(), "scripts/app.js.gz"), gzip(SCRIPT));
+        final String identityTag = etag();
+
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        assertNotEquals(identityTag, etag());
+    }
+
+    @Test public void answersMatchingTagsWithNotModified() throws Exception {
+        final String etag = etag();
+        when(request.getHeader("If-None-Match")).thenReturn("\"other\", " + etag);
+
+        uut.handleRequest(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test public void answersUnmodifiedFilesWithNotModified() throws Exception {
+        final File file = new File(root.getRoot(), "scripts/app.js");
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(file.lastModified());
+
+        uut.handleRequest(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test public void recomputesTheTagOfChangedFiles() throws Exception {
+        final String before = etag();
+
+        final File file = new File(root.getRoot(), "scripts/app.js");
+        write(file, "var answer = 43;\n".getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(file.lastModified() + 2000);
+
+        assertNotEquals(before, etag());
+    }
+
+    @Test public void usesSendfileWhenTheContainerSupportsIt() throws Exception {
+        when(request.getAttribute(StaticAssetHandler.SENDFILE_SUPPORT_ATTRIBUTE)).thenReturn(Boolean.TRUE);
+
+        uut.handleRequest(request, response);
+
+        verify(request).setAttribute(StaticAssetHandler.SENDFILE_FILENAME_ATTRIBUTE,
+                                     new File(root.getRoot(), "scripts/app.js").getCanonicalPath());
+        verify(request).setAttribute(StaticAssetHandler.SENDFILE_START_ATTRIBUTE, 0L);
+        verify(request).setAttribute(StaticAssetHandler.SENDFILE_END_ATTRIBUTE, (long)SCRIPT.length);
+        assertEquals(0, sent.size());
+    }
+
+    @Test public void usesSendfileWhileCompressingOnlyForIncompressibleFiles() throws Exception {
+        when(request.getAttribute(StaticAssetHandler.SENDFILE_SUPPORT_ATTRIBUTE)).thenReturn(Boolean.TRUE);
+        when(request.getAttribute(CompressionFilter.COMPRESSING_ATTRIBUTE)).thenReturn(Boolean.TRUE);
+        when(response.getContentType()).thenReturn("application/javascript");
+
+        uut.handleRequest(request, response);
+
+        verify(request, never()).setAttribute(eq(StaticAssetHandler.SENDFILE_FILENAME_ATTRIBUTE), anyString());
+        assertArrayEquals(SCRIPT, sent.toByteArray());
+
+        when(response.getContentType()).thenReturn("image/png");
+        uut.handleRequest(request, response);
+
+        verify(request).setAttribute(StaticAssetHandler.SENDFILE_FILENAME_ATTRIBUTE,
+                                     new File(root.getRoot(), "scripts/app.js").getCanonicalPath());
+        assertEquals(SCRIPT.length, sent.size());
+    }
+
+    @Test public void hidesPrivateAndMissingFiles() throws Exception {
+        write(new File(root.getRoot(), "WEB-INF/jsp/de.jsp"), SCRIPT);
+        for (String path : new String[] {"WEB-INF/jsp/de.jsp", "scripts/../WEB-INF/jsp/de.jsp", "scripts/missing.js"}) {
+            response = mock(HttpServletResponse.class);
+            when(request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE)).thenReturn(path);
+
+            uut.handleRequest(request, response);
+
+            verify(response).sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    private String etag() throws Exception {
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(new CapturingStream(new ByteArrayOutputStream()));
+        uut.handleRequest(request, response);
+        final ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+        verify(response).setHeader(eq("ETag"), etag.capture());
+        return etag.getValue();
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        file.getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static final class CapturingStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream out;
+
+        CapturingStream(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) {
+            out.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) { }
+    }
+}
@@ -0,0 +1,245 @@
+package org.iplantc.de.server.compression;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class CompressionFilterTest {
+
+    private static final int MIN_SIZE = 64;
+
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private ByteArrayOutputStream sent;
+    private DeflaterPool pool;
+    private CompressionFilter uut;
+
+    @Before public void setUp() throws IOException {
+        request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getContextPath()).thenReturn("/de");
+        when(request.getRequestURI()).thenReturn("/de/discoveryenvironment/foo");
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip, deflate");
+
+        sent = new ByteArrayOutputStream();
+        response = mock(HttpServletResponse.class);
+        when(response.getStatus()).thenReturn(200);
+        when(response.getContentType()).thenReturn("application/json; charset=utf-8");
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        when(response.getOutputStream()).thenReturn(new CapturingStream(sent));
+
+        pool = new DeflaterPool(6, 2);
+        uut = new CompressionFilter(MIN_SIZE, pool, Arrays.asList("/secured/fileDownload"), new CompressionMetrics());
+    }
+
+    @Test public void compressesLargeResponses() throws Exception {
+        final byte[] content = content(1000);
+
+        uut.doFilter(request, response, writing(content));
+
+        verify(response).setHeader("Content-Encoding", "gzip");
+        verify(response).addHeader("Vary", "Accept-Encoding");
+        verify(response, never()).setContentLengthLong(any(Long.class));
+        assertTrue(sent.size() < content.length);
+        assertArrayEquals(content, gunzip(sent.toByteArray()));
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test public void sendsSmallResponsesAsTheyAre() throws Exception {
+        final byte[] content = content(MIN_SIZE - 1);
+
+        uut.doFilter(request, response, writing(content));
+
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        verify(response).setContentLengthLong(content.length);
+        assertArrayEquals(content, sent.toByteArray());
+    }
+
+    @Test public void passesTheLengthOfContentSentByTheContainer() throws Exception {
+        final FilterChain chain = mock(FilterChain.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                ((ServletResponse)invocation.getArguments()[1]).setContentLengthLong(1000);
+                return null;
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        uut.doFilter(request, response, chain);
+
+        verify(response).setContentLengthLong(1000);
+        assertEquals(0, sent.size());
+    }
+
+    @Test public void leavesEncodedResponsesAlone() throws Exception {
+        when(response.containsHeader("Content-Encoding")).thenReturn(true);
+        final byte[] content = content(1000);
+
+        uut.doFilter(request, response, writing(content));
+
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        assertArrayEquals(content, sent.toByteArray());
+    }
+
+    @Test public void leavesIncompressibleTypesAlone() throws Exception {
+        when(response.getContentType()).thenReturn("image/png");
+        final byte[] content = content(1000);
+
+        uut.doFilter(request, response, writing(content));
+
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        assertArrayEquals(content, sent.toByteArray());
+    }
+
+    @Test public void honoursRefusedEncodings() throws Exception {
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip;q=0, *");
+        final FilterChain chain = mock(FilterChain.class);
+
+        uut.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verify(request, never()).setAttribute(CompressionFilter.COMPRESSING_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    @Test public void doesNotWrapExcludedPaths() throws Exception {
+        when(request.getRequestURI()).thenReturn("/de/secured/fileDownload?path=/foo");
+        final FilterChain chain = mock(FilterChain.class);
+
+        uut.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verify(response, never()).addHeader("Vary", "Accept-Encoding");
+    }
+
+    @Test public void passesWriteListenersToTheContainersStream() throws Exception {
+        final ServletOutputStream containerStream = mock(ServletOutputStream.class);
+        when(containerStream.isReady()).thenReturn(false);
+        when(response.getOutputStream()).thenReturn(containerStream);
+        final WriteListener listener = mock(WriteListener.class);
+        final boolean[] ready = new boolean[] {true};
+        final FilterChain chain = mock(FilterChain.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                final ServletOutputStream out = ((ServletResponse)invocation.getArguments()[1]).getOutputStream();
+                out.setWriteListener(listener);
+                ready[0] = out.isReady();
+                return null;
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        uut.doFilter(request, response, chain);
+
+        verify(containerStream).setWriteListener(listener);
+        assertFalse(ready[0]);
+    }
+
+    @Test public void parsesAcceptEncoding() {
+        assertTrue(accepts("gzip"));
+        assertTrue(accepts("deflate, x-gzip;q=0.5"));
+        assertTrue(accepts("br, *"));
+        assertFalse(accepts("identity"));
+        assertFalse(accepts("gzip;q=0.0, *"));
+        assertFalse(accepts("*;q=0"));
+    }
+
+    private boolean accepts(String acceptEncoding) {
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        return CompressionFilter.acceptsGzip(request);
+    }
+
+    private static byte[] content(int length) {
+        final byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte)('a' + i % 7);
+        }
+        return content;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * A filter chain which writes the given content in two parts.
+     */
+    private FilterChain writing(final byte[] content) throws IOException, ServletException {
+        final FilterChain chain = mock(FilterChain.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                final ServletResponse wrapped = (ServletResponse)invocation.getArguments()[1];
+                assertSame(CompressingResponseWrapper.class, wrapped.getClass());
+                final ServletOutputStream out = wrapped.getOutputStream();
+                final int half = content.length / 2;
+                out.write(content, 0, half);
+                out.flush();
+                out.write(content, half, content.length - half);
+                return null;
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+        return chain;
+    }
+
+    private static final class CapturingStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream out;
+
+        CapturingStream(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) {
+            out.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) { }
+    }
+}
@@ -0,0 +1,85 @@
+package org.iplantc.de.server.controllers;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.iplantc.de.server.services.DEServiceImpl;
+import org.iplantc.de.shared.services.BaseServiceCallWrapper;
+import org.iplantc.de.shared.services.ServiceCallWrapper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class ServiceDataStreamControllerTest {
+
+    private static final String ADDRESS = "org.iplantc.services.filesystem/paged-directory?path=/iplant/home";
+
+    private DEServiceImpl deService;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private ServiceDataStreamController uut;
+
+    @Before
+    public void setUp() {
+        deService = mock(DEServiceImpl.class);
+        request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
+        when(request.getHeader(ServiceDataStreamController.PERMUTATION_HEADER)).thenReturn("ABCDEF0123456789");
+        when(request.getContentType()).thenReturn("application/json; charset=utf-8");
+        uut = new ServiceDataStreamController(deService);
+    }
+
+    @Test
+    public void getCallsAreRelayed() throws Exception {
+        uut.relayServiceData(BaseServiceCallWrapper.Type.GET, ADDRESS, null, request, response);
+
+        ArgumentCaptor<ServiceCallWrapper> wrapper = ArgumentCaptor.forClass(ServiceCallWrapper.class);
+        verify(deService).relayServiceData(eq(request), wrapper.capture(), eq(response));
+        assertEquals(BaseServiceCallWrapper.Type.GET, wrapper.getValue().getType());
+        assertEquals(ADDRESS, wrapper.getValue().getAddress());
+    }
+
+    @Test
+    public void requestsWithoutThePermutationHeaderAreRejected() throws Exception {
+        when(request.getHeader(ServiceDataStreamController.PERMUTATION_HEADER)).thenReturn(null);
+
+        uut.relayServiceData(BaseServiceCallWrapper.Type.GET, ADDRESS, null, request, response);
+
+        verify(response).sendError(HttpServletResponse.SC_FORBIDDEN);
+        verify(deService, never()).relayServiceData(any(HttpServletRequest.class),
+                                                    any(ServiceCallWrapper.class),
+                                                    any(HttpServletResponse.class));
+    }
+
+    @Test
+    public void requestsWithFormContentTypesAreRejected() throws Exception {
+        when(request.getContentType()).thenReturn("text/plain; charset=utf-8");
+
+        uut.relayServiceData(BaseServiceCallWrapper.Type.GET, ADDRESS, null, request, response);
+
+        verify(response).sendError(HttpServletResponse.SC_FORBIDDEN);
+        verify(deService, never()).relayServiceData(any(HttpServletRequest.class),
+                                                    any(ServiceCallWrapper.class),
+                                                    any(HttpServletResponse.class));
+    }
+
+    @Test
+    public void nonGetCallsAreRejected() throws Exception {
+        uut.relayServiceData(BaseServiceCallWrapper.Type.DELETE, ADDRESS, null, request, response);
+
+        verify(response).sendError(eq(HttpServletResponse.SC_METHOD_NOT_ALLOWED), anyString());
+        verify(deService, never()).relayServiceData(any(HttpServletRequest.class),
+                                                    any(ServiceCallWrapper.class),
+                                                    any(HttpServletResponse.class));
+    }
+}
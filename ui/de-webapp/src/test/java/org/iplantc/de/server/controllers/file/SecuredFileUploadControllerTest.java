@@ -0,0 +1,164 @@
+package org.iplantc.de.server.controllers.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.iplantc.de.server.auth.JwtBuilder;
+import org.iplantc.de.server.http.PooledHttpClientEngine;
+
+import org.apache.http.Header;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+
+public class SecuredFileUploadControllerTest {
+
+    private static final String BOUNDARY = "----DEUploadBoundary";
+    private static final String CONTENTS = "ID\tNAME\n1\tsample\n";
+    private static final String DEST = "/iplant/home/ipcdev/uploads";
+
+    private CloseableHttpClient client;
+    private HttpServletRequest request;
+    private SecuredFileUploadController uut;
+
+    /** The request sent to the upload service, and the body it was sent with. */
+    private HttpPost relayed;
+    private String relayedBody;
+
+    @Before
+    public void setUp() throws Exception {
+        final JwtBuilder jwtBuilder = mock(JwtBuilder.class);
+        final PooledHttpClientEngine httpClientEngine = mock(PooledHttpClientEngine.class);
+        client = mock(CloseableHttpClient.class);
+        request = mock(HttpServletRequest.class);
+        when(jwtBuilder.buildJwt(request)).thenReturn("jwt");
+        when(httpClientEngine.getClient()).thenReturn(client);
+        when(client.execute(any(HttpUriRequest.class))).thenAnswer(new Answer<CloseableHttpResponse>() {
+            @Override
+            public CloseableHttpResponse answer(InvocationOnMock invocation) throws IOException {
+                relayed = (HttpPost)invocation.getArguments()[0];
+                final ByteArrayOutputStream body = new ByteArrayOutputStream();
+                relayed.getEntity().writeTo(body);
+                relayedBody = body.toString("UTF-8");
+                return createResponse();
+            }
+        });
+
+        uut = new SecuredFileUploadController(jwtBuilder, httpClientEngine);
+        uut.securedFileUploadUrl = "http://file-io.example.org/upload";
+        uut.maxUploadRequestBytes = 1024 * 1024;
+    }
+
+    @Test
+    public void destinationBeforeFileIsRelayed() throws Exception {
+        post(field("dest", DEST) + file() + end());
+
+        final ResponseEntity<Object> response = uut.doSecureFileUpload(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertRelayed();
+    }
+
+    @Test
+    public void destinationAfterFileIsRelayed() throws Exception {
+        post(file() + field("user", "ipcdev") + field("dest", DEST) + end());
+
+        final ResponseEntity<Object> response = uut.doSecureFileUpload(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertRelayed();
+    }
+
+    @Test
+    public void fileWithoutDestinationIsRejected() throws Exception {
+        post(file() + field("user", "ipcdev") + end());
+
+        final ResponseEntity<Object> response = uut.doSecureFileUpload(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(client, never()).execute(any(HttpUriRequest.class));
+    }
+
+    private void assertRelayed() {
+        assertEquals(DEST, new URIBuilder(relayed.getURI()).getQueryParams().get(0).getValue());
+        assertTrue(relayedBody, relayedBody.contains("filename=\"samples.tsv\""));
+        assertTrue(relayedBody, relayedBody.contains(CONTENTS));
+    }
+
+    private void post(String body) throws IOException {
+        final ByteArrayInputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getContentType()).thenReturn("multipart/form-data; boundary=" + BOUNDARY);
+        when(request.getContentLength()).thenReturn(body.length());
+        when(request.getInputStream()).thenReturn(new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new IllegalStateException("Not an asynchronous request");
+            }
+        });
+    }
+
+    private static String field(String name, String value) {
+        return "--" + BOUNDARY + "\r\n"
+               + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+               + value + "\r\n";
+    }
+
+    private static String file() {
+        return "--" + BOUNDARY + "\r\n"
+               + "Content-Disposition: form-data; name=\"file\"; filename=\"samples.tsv\"\r\n"
+               + "Content-Type: text/tab-separated-values\r\n\r\n"
+               + CONTENTS + "\r\n";
+    }
+
+    private static String end() {
+        return "--" + BOUNDARY + "--\r\n";
+    }
+
+    private static CloseableHttpResponse createResponse() throws IOException {
+        final CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"));
+        when(response.getAllHeaders()).thenReturn(new Header[0]);
+        when(response.getEntity()).thenReturn(new StringEntity("{\"file\":{}}"));
+        return response;
+    }
+}
@@ -0,0 +1,132 @@
+package org.iplantc.de.server.rpc;
+
+import static org.mockito.Mockito.mock;
+
+import org.iplantc.de.shared.services.BaseServiceCallWrapper;
+import org.iplantc.de.shared.services.DEService;
+import org.iplantc.de.shared.services.ServiceCallWrapper;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.server.rpc.RPC;
+import com.google.gwt.user.server.rpc.RPCRequest;
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+import com.google.gwt.user.server.rpc.SerializationPolicyProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures the per-call overhead of decoding and encoding {@code api.rpc} calls: decoding a
+ * {@link DEService#getServiceData(ServiceCallWrapper)} request with GWT and with
+ * {@link RpcRequestDecoder}, encoding a typical JSON response, and gzipping the encoded response.
+ *
+ * This isn't run with the tests. Run it with the test classpath, optionally passing the number of
+ * iterations per measurement.
+ */
+public class GwtRpcCodecBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+        final SerializationPolicy policy = RPC.getDefaultSerializationPolicy();
+        final SerializationPolicyProvider policyProvider = new SerializationPolicyProvider() {
+            @Override
+            public SerializationPolicy getSerializationPolicy(String moduleBaseURL, String strongName) {
+                return policy;
+            }
+        };
+        final Class<?> serviceClass = mock(DEService.class).getClass();
+        final Method method = DEService.class.getMethod("getServiceData", ServiceCallWrapper.class);
+        final String payload = RpcPayloads.encode(policy, method, new ServiceCallWrapper(BaseServiceCallWrapper.Type.POST,
+                                                                                        "https://de.example.org/terrain/secured/analyses",
+                                                                                        "{\"filter\":[{\"field\":\"name\",\"value\":\"\"}]}"));
+        final RpcRequestDecoder decoder = new RpcRequestDecoder(serviceClass);
+        final String response = createResponse(40);
+
+        System.out.printf("request: %d chars, response: %d chars%n", payload.length(), response.length());
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("round %d: gwt decode %,d ns, cached decode %,d ns, encode %,d ns, encode+gzip %,d ns%n",
+                              round,
+                              gwtDecode(payload, serviceClass, policyProvider, iterations),
+                              cachedDecode(payload, decoder, policyProvider, iterations),
+                              encode(method, response, policy, iterations, false),
+                              encode(method, response, policy, iterations / 10, true));
+        }
+    }
+
+    private static long gwtDecode(String payload,
+                                  Class<?> serviceClass,
+                                  SerializationPolicyProvider policyProvider,
+                                  int iterations) {
+        long sink = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            final RPCRequest request = RPC.decodeRequest(payload, serviceClass, policyProvider);
+            sink += request.getParameters().length;
+        }
+        return perCall(start, iterations, sink);
+    }
+
+    private static long cachedDecode(String payload,
+                                     RpcRequestDecoder decoder,
+                                     SerializationPolicyProvider policyProvider,
+                                     int iterations) {
+        long sink = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            final RPCRequest request = decoder.decode(payload, policyProvider);
+            sink += request.getParameters().length;
+        }
+        return perCall(start, iterations, sink);
+    }
+
+    private static long encode(Method method,
+                               String response,
+                               SerializationPolicy policy,
+                               int iterations,
+                               boolean gzip) throws SerializationException, IOException {
+        long sink = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            final String encoded = RPC.encodeResponseForSuccess(method, response, policy, 0);
+            if (gzip) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.length() / 4);
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                    gzipOut.write(encoded.getBytes("UTF-8"));
+                }
+                sink += out.size();
+            } else {
+                sink += encoded.length();
+            }
+        }
+        return perCall(start, iterations, sink);
+    }
+
+    private static long perCall(long start, int iterations, long sink) {
+        final long elapsed = System.nanoTime() - start;
+        // Use the results, so that the loops can't be optimized away.
+        return sink == Long.MIN_VALUE ? 0 : elapsed / iterations;
+    }
+
+    /**
+     * @return a JSON listing of analyses, like the responses of the busiest endpoints.
+     */
+    private static String createResponse(int count) {
+        final StringBuilder json = new StringBuilder("{\"analyses\":[");
+        final char[] padding = new char[64];
+        Arrays.fill(padding, 'x');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(i).append("\",\"name\":\"analysis ").append(i)
+                .append("\",\"status\":\"Completed\",\"description\":\"").append(padding).append("\"}");
+        }
+        return json.append("],\"total\":").append(count).append('}').toString();
+    }
+}
@@ -0,0 +1,129 @@
+package org.iplantc.de.server.rpc;
+
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+import com.google.gwt.user.server.rpc.impl.SerializabilityUtil;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes GWT-RPC requests the way the client does, for the types used by the tests: strings, ints,
+ * enums, array lists, and beans whose fields are of those types.
+ */
+final class RpcPayloads {
+
+    static final String MODULE_BASE_URL = "http://localhost/de/discoveryenvironment/";
+    static final String STRONG_NAME = "0123456789ABCDEF0123456789ABCDEF";
+
+    private final SerializationPolicy policy;
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private final List<String> tokens = new ArrayList<>();
+
+    private RpcPayloads(SerializationPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @return the payload of a call to a method.
+     */
+    static String encode(SerializationPolicy policy, Method method, Object... args) {
+        return encode(policy, method.getDeclaringClass().getName(), method, args);
+    }
+
+    /**
+     * @return the payload of a call to a method, as if it were declared by another interface.
+     */
+    static String encode(SerializationPolicy policy, String interfaceName, Method method, Object... args) {
+        final RpcPayloads payload = new RpcPayloads(policy);
+        payload.writeString(MODULE_BASE_URL);
+        payload.writeString(STRONG_NAME);
+        payload.writeString(interfaceName);
+        payload.writeString(method.getName());
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        payload.tokens.add(Integer.toString(parameterTypes.length));
+        for (Class<?> parameterType : parameterTypes) {
+            payload.writeString(SerializabilityUtil.getSerializedTypeName(parameterType));
+        }
+        for (int i = 0; i < args.length; i++) {
+            payload.writeValue(parameterTypes[i], args[i]);
+        }
+        return payload.toString();
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            tokens.add("0");
+            return;
+        }
+        Integer index = stringIndexes.get(value);
+        if (index == null) {
+            strings.add(value);
+            index = strings.size();
+            stringIndexes.put(value, index);
+        }
+        tokens.add(index.toString());
+    }
+
+    private void writeValue(Class<?> type, Object value) {
+        if (type == int.class) {
+            tokens.add(value.toString());
+        } else if (type == String.class) {
+            writeString((String)value);
+        } else {
+            writeObject(value);
+        }
+    }
+
+    private void writeObject(Object value) {
+        if (value == null) {
+            tokens.add("0");
+            return;
+        }
+        writeString(SerializabilityUtil.encodeSerializedInstanceReference(value.getClass(), policy));
+        if (value instanceof String) {
+            writeString((String)value);
+        } else if (value instanceof Enum) {
+            tokens.add(Integer.toString(((Enum<?>)value).ordinal()));
+        } else if (value instanceof ArrayList) {
+            final ArrayList<?> list = (ArrayList<?>)value;
+            tokens.add(Integer.toString(list.size()));
+            for (Object element : list) {
+                writeObject(element);
+            }
+        } else {
+            writeFields(value.getClass(), value);
+        }
+    }
+
+    private void writeFields(Class<?> type, Object value) {
+        try {
+            for (Field field : SerializabilityUtil.applyFieldSerializationPolicy(type, policy)) {
+                field.setAccessible(true);
+                writeValue(field.getType(), field.get(value));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        final Class<?> superclass = type.getSuperclass();
+        if (policy.shouldDeserializeFields(superclass)) {
+            writeFields(superclass, value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder payload = new StringBuilder("7|0|").append(strings.size()).append('|');
+        for (String string : strings) {
+            payload.append(string.replace("\\", "\\\\").replace("|", "\\!")).append('|');
+        }
+        for (String token : tokens) {
+            payload.append(token).append('|');
+        }
+        return payload.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package org.iplantc.de.server.rpc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import org.iplantc.de.shared.services.BaseServiceCallWrapper;
+import org.iplantc.de.shared.services.DEService;
+import org.iplantc.de.shared.services.ServiceCallWrapper;
+
+import com.google.gwt.user.client.rpc.IncompatibleRemoteServiceException;
+import com.google.gwt.user.client.rpc.RemoteService;
+import com.google.gwt.user.server.rpc.RPC;
+import com.google.gwt.user.server.rpc.RPCRequest;
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+import com.google.gwt.user.server.rpc.SerializationPolicyProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class RpcRequestDecoderTest {
+
+    interface OtherService extends RemoteService {
+
+        String getServiceData(ServiceCallWrapper wrapper);
+    }
+
+    private final SerializationPolicy policy = RPC.getDefaultSerializationPolicy();
+    private final SerializationPolicyProvider policyProvider = new SerializationPolicyProvider() {
+        @Override
+        public SerializationPolicy getSerializationPolicy(String moduleBaseURL, String strongName) {
+            return policy;
+        }
+    };
+
+    private Method getServiceData;
+    private Method getServiceDataBatch;
+    private RpcRequestDecoder uut;
+
+    @Before public void setUp() throws Exception {
+        getServiceData = DEService.class.getMethod("getServiceData", ServiceCallWrapper.class);
+        getServiceDataBatch = DEService.class.getMethod("getServiceDataBatch", ArrayList.class);
+        uut = new RpcRequestDecoder(mock(DEService.class).getClass());
+    }
+
+    @Test public void remembersTheMethodsRequestsResolveTo() {
+        final String payload = RpcPayloads.encode(policy, getServiceData, wrapper("/apps/de/1", "first"));
+
+        final RPCRequest first = uut.decode(payload, policyProvider);
+        final RPCRequest second = uut.decode(payload, policyProvider);
+
+        assertEquals(getServiceData, first.getMethod());
+        assertSame(first.getMethod(), second.getMethod());
+        assertSame(policy, second.getSerializationPolicy());
+        assertEquals(1, uut.size());
+    }
+
+    @Test public void decodesRememberedMethodsLikeGwt() {
+        uut.decode(RpcPayloads.encode(policy, getServiceData, wrapper("/apps", null)), policyProvider);
+        final String payload = RpcPayloads.encode(policy, getServiceData, wrapper("/apps/de/2", "{\"a\":\"b|c\"}"));
+
+        final RPCRequest expected = RPC.decodeRequest(payload, DEService.class, policyProvider);
+        final RPCRequest actual = uut.decode(payload, policyProvider);
+
+        assertEquals(expected.getMethod(), actual.getMethod());
+        assertEquals(expected.getFlags(), actual.getFlags());
+        assertWrapperEquals((ServiceCallWrapper)expected.getParameters()[0],
+                            (ServiceCallWrapper)actual.getParameters()[0]);
+    }
+
+    @Test public void decodesGenericParameters() {
+        final ArrayList<ServiceCallWrapper> wrappers = new ArrayList<>(Arrays.asList(wrapper("/a", "1"),
+                                                                                    wrapper("/b", null)));
+        final String payload = RpcPayloads.encode(policy, getServiceDataBatch, wrappers);
+        uut.decode(payload, policyProvider);
+
+        final RPCRequest actual = uut.decode(payload, policyProvider);
+
+        assertEquals(getServiceDataBatch, actual.getMethod());
+        final ArrayList<?> decoded = (ArrayList<?>)actual.getParameters()[0];
+        assertEquals(2, decoded.size());
+        assertWrapperEquals(wrappers.get(0), (ServiceCallWrapper)decoded.get(0));
+        assertWrapperEquals(wrappers.get(1), (ServiceCallWrapper)decoded.get(1));
+    }
+
+    @Test public void rejectsInterfacesTheServiceDoesNotImplement() throws Exception {
+        final String payload = RpcPayloads.encode(policy,
+                                                  OtherService.class.getName(),
+                                                  OtherService.class.getMethod("getServiceData", ServiceCallWrapper.class),
+                                                  wrapper("/apps", null));
+        for (int i = 0; i < 2; i++) {
+            try {
+                uut.decode(payload, policyProvider);
+                fail("the request should have been rejected");
+            } catch (IncompatibleRemoteServiceException expected) {
+                // expected
+            }
+        }
+        assertEquals(0, uut.size());
+    }
+
+    @Test(expected = IncompatibleRemoteServiceException.class)
+    public void rejectsTruncatedRequests() {
+        final String payload = RpcPayloads.encode(policy, getServiceData, wrapper("/apps", null));
+        uut.decode(payload, policyProvider);
+
+        uut.decode(payload.substring(0, payload.length() - 4), policyProvider);
+    }
+
+    private static ServiceCallWrapper wrapper(String address, String body) {
+        return new ServiceCallWrapper(BaseServiceCallWrapper.Type.POST, address, body);
+    }
+
+    private static void assertWrapperEquals(ServiceCallWrapper expected, ServiceCallWrapper actual) {
+        assertArrayEquals(new Object[] {expected.getType(), expected.getAddress(), expected.getArguments(), expected.getBody()},
+                          new Object[] {actual.getType(), actual.getAddress(), actual.getArguments(), actual.getBody()});
+    }
+}
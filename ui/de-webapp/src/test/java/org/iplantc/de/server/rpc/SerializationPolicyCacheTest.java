@@ -0,0 +1,38 @@
+package org.iplantc.de.server.rpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import javax.servlet.ServletContext;
+
+public class SerializationPolicyCacheTest {
+
+    @Test public void preloadsThePolicyFilesOfEachModule() {
+        final ServletContext servletContext = mock(ServletContext.class);
+        when(servletContext.getResourcePaths("/")).thenReturn(new HashSet<>(Arrays.asList("/discoveryenvironment/",
+                                                                                          "/WEB-INF/",
+                                                                                          "/index.html")));
+        when(servletContext.getResourcePaths("/discoveryenvironment/")).thenReturn(new HashSet<>(Arrays.asList("/discoveryenvironment/ABC123.gwt.rpc",
+                                                                                                               "/discoveryenvironment/ABC123.cache.js")));
+        when(servletContext.getResourceAsStream("/discoveryenvironment/ABC123.gwt.rpc")).thenReturn(new ByteArrayInputStream(new byte[0]));
+
+        final SerializationPolicyCache uut = new SerializationPolicyCache();
+        uut.setServletContext(servletContext);
+
+        assertEquals(1, uut.size());
+        assertNotNull(uut.get("ABC123"));
+        assertNull(uut.get("ABC123.cache"));
+        verify(servletContext, never()).getResourcePaths("/WEB-INF/");
+    }
+}
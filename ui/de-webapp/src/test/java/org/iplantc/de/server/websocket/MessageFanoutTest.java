@@ -0,0 +1,90 @@
+package org.iplantc.de.server.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.iplantc.de.server.websocket.amqp.AMQPSubscriptionHub;
+
+import com.google.common.base.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MessageFanoutTest {
+
+    private static final String ROUTING_KEY = "notification.ipcdev";
+
+    private final List<String> examined = new ArrayList<>();
+    private AMQPSubscriptionHub hub;
+    private AMQPSubscriptionHub.Subscription hubSubscription;
+    private MessageFanout uut;
+
+    @Before public void setUp() throws IOException {
+        hub = mock(AMQPSubscriptionHub.class);
+        hubSubscription = mock(AMQPSubscriptionHub.Subscription.class);
+        when(hub.subscribe(anyString(), any(AMQPSubscriptionHub.Listener.class))).thenReturn(hubSubscription);
+        uut = new MessageFanout(hub, new Function<String, String>() {
+            @Override
+            public String apply(String message) {
+                examined.add(message);
+                return "analysis:1";
+            }
+        });
+    }
+
+    @Test public void eachMessageIsExaminedOnceForAllSessions() throws IOException {
+        final OutboundMessageQueue firstTab = mock(OutboundMessageQueue.class);
+        final OutboundMessageQueue secondTab = mock(OutboundMessageQueue.class);
+        uut.subscribe(ROUTING_KEY, firstTab);
+        uut.subscribe(ROUTING_KEY, secondTab);
+
+        final ArgumentCaptor<AMQPSubscriptionHub.Listener> listener =
+                ArgumentCaptor.forClass(AMQPSubscriptionHub.Listener.class);
+        verify(hub).subscribe(eq(ROUTING_KEY), listener.capture());
+        listener.getValue().onMessage("{\"message\":{}}");
+
+        assertEquals(1, examined.size());
+        verify(firstTab).offer("{\"message\":{}}", "analysis:1");
+        verify(secondTab).offer("{\"message\":{}}", "analysis:1");
+    }
+
+    @Test public void theSubscriptionIsCancelledWhenTheLastSessionLeaves() throws IOException {
+        final AMQPSubscriptionHub.Subscription first = uut.subscribe(ROUTING_KEY, mock(OutboundMessageQueue.class));
+        final AMQPSubscriptionHub.Subscription second = uut.subscribe(ROUTING_KEY, mock(OutboundMessageQueue.class));
+
+        first.cancel();
+        first.cancel();
+        verify(hubSubscription, never()).cancel();
+
+        second.cancel();
+        verify(hubSubscription).cancel();
+        assertEquals(0, uut.getGroupCount());
+
+        uut.subscribe(ROUTING_KEY, mock(OutboundMessageQueue.class));
+        verify(hub, times(2)).subscribe(eq(ROUTING_KEY), any(AMQPSubscriptionHub.Listener.class));
+    }
+
+    @Test public void aFailedSubscriptionLeavesNoGroup() throws IOException {
+        when(hub.subscribe(anyString(), any(AMQPSubscriptionHub.Listener.class))).thenThrow(new IOException("no broker"));
+
+        try {
+            uut.subscribe(ROUTING_KEY, mock(OutboundMessageQueue.class));
+            fail("The subscription should have failed");
+        } catch (IOException expected) {
+            assertEquals(0, uut.getGroupCount());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.iplantc.de.server.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class OutboundMessageQueueTest {
+
+    private final List<String> frames = new ArrayList<>();
+    private ScheduledExecutorService writerPool;
+    private OutboundMessageQueue uut;
+
+    @Before public void setUp() {
+        writerPool = mock(ScheduledExecutorService.class);
+        uut = new OutboundMessageQueue(new OutboundMessageQueue.Sink() {
+            @Override
+            public void write(String frame) {
+                frames.add(frame);
+            }
+        }, writerPool, 50, 3);
+    }
+
+    @Test public void messagesWithinTheWindowAreCoalesced() {
+        uut.offer("{\"a\":1}", null);
+        uut.offer("{\"b\":2}", null);
+        uut.offer("{\"c\":3}", null);
+        verify(writerPool).schedule(any(Runnable.class), eq(50L), eq(TimeUnit.MILLISECONDS));
+
+        uut.flush();
+        assertEquals(Arrays.asList("[{\"a\":1},{\"b\":2},{\"c\":3}]"), frames);
+    }
+
+    @Test public void singleMessagesAreWrittenAsTheyAre() {
+        uut.offer("{\"a\":1}", null);
+        uut.offer("not json", null);
+        uut.flush();
+
+        assertEquals(Arrays.asList("{\"a\":1}", "not json"), frames);
+    }
+
+    @Test public void arrivalOrderIsKeptAroundOtherMessages() {
+        uut = new OutboundMessageQueue(new OutboundMessageQueue.Sink() {
+            @Override
+            public void write(String frame) {
+                frames.add(frame);
+            }
+        }, writerPool, 50, 10);
+        uut.offer("{\"a\":1}", null);
+        uut.offer("{\"b\":2}", null);
+        uut.offer("not json", null);
+        uut.offer("{\"c\":3}", null);
+        uut.flush();
+
+        assertEquals(Arrays.asList("[{\"a\":1},{\"b\":2}]", "not json", "{\"c\":3}"), frames);
+    }
+
+    @Test public void supersededMessagesAreReplacedByTheLatest() {
+        uut.offer("{\"job\":\"Running\"}", "analysis:1");
+        uut.offer("{\"other\":true}", null);
+        uut.offer("{\"job\":\"Completed\"}", "analysis:1");
+        uut.flush();
+
+        assertEquals(Arrays.asList("[{\"other\":true},{\"job\":\"Completed\"}]"), frames);
+        assertEquals(1, uut.getSupersededCount());
+    }
+
+    @Test public void oldestMessagesAreDroppedWhenFull() {
+        for (int i = 0; i < 5; i++) {
+            uut.offer("{\"n\":" + i + "}", null);
+        }
+        uut.flush();
+
+        assertEquals(Arrays.asList("[{\"n\":2},{\"n\":3},{\"n\":4}]"), frames);
+        assertEquals(2, uut.getDroppedCount());
+    }
+
+    @Test public void messagesQueuedDuringAWriteAreFlushedNext() throws Exception {
+        uut = new OutboundMessageQueue(new OutboundMessageQueue.Sink() {
+            @Override
+            public void write(String frame) {
+                frames.add(frame);
+                if (frames.size() == 1) {
+                    uut.offer("{\"late\":true}", null);
+                }
+            }
+        }, writerPool, 50, 3);
+        uut.offer("{\"early\":true}", null);
+        uut.flush();
+        uut.flush();
+        uut.flush();
+
+        assertEquals(Arrays.asList("{\"early\":true}", "{\"late\":true}"), frames);
+        verify(writerPool, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test public void closedQueuesDiscardMessages() throws IOException {
+        uut.offer("{\"a\":1}", null);
+        uut.close();
+        uut.offer("{\"b\":2}", null);
+        uut.flush();
+
+        assertTrue(frames.isEmpty());
+    }
+}
@@ -0,0 +1,295 @@
+package org.iplantc.de.server.websocket.amqp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class AMQPSubscriptionHubTest {
+
+    private static final String EXCHANGE = "de";
+
+    private FakeBroker broker;
+    private ScheduledExecutorService reconnectExecutor;
+    private AMQPConnectionManager connectionManager;
+    private AMQPSubscriptionHub uut;
+
+    @Before public void setUp() throws Exception {
+        broker = new FakeBroker();
+        reconnectExecutor = Executors.newSingleThreadScheduledExecutor();
+        connectionManager = new AMQPConnectionManager(broker.factory, reconnectExecutor, 10, 50, 4);
+        uut = new AMQPSubscriptionHub(connectionManager, EXCHANGE, 10);
+        connectionManager.connect();
+    }
+
+    @After public void tearDown() {
+        reconnectExecutor.shutdownNow();
+    }
+
+    @Test public void subscribersShareOneQueuePerRoutingKey() throws Exception {
+        final Inbox first = new Inbox();
+        final Inbox second = new Inbox();
+        final Inbox other = new Inbox();
+        final AMQPSubscriptionHub.Subscription firstSubscription = uut.subscribe("notification.ipcdev", first);
+        final AMQPSubscriptionHub.Subscription secondSubscription = uut.subscribe("notification.ipcdev", second);
+        uut.subscribe("notification.ipctest", other);
+
+        assertEquals(2, broker.queueCount());
+        assertEquals(2, connectionManager.getOpenChannelCount());
+        broker.publish("notification.ipcdev", "hello");
+        assertEquals("hello", first.next());
+        assertEquals("hello", second.next());
+        assertTrue(other.messages.isEmpty());
+
+        firstSubscription.cancel();
+        firstSubscription.cancel();
+        assertEquals(2, broker.queueCount());
+        secondSubscription.cancel();
+        assertEquals(1, broker.queueCount());
+        assertEquals(1, connectionManager.getOpenChannelCount());
+        assertEquals(1, uut.getBindingCount());
+    }
+
+    @Test public void deliveryResumesAfterForcedDisconnect() throws Exception {
+        final Inbox inbox = new Inbox();
+        uut.subscribe("system_message", inbox);
+        broker.publish("system_message", "before");
+        assertEquals("before", inbox.next());
+
+        broker.failNextConnections(2);
+        broker.disconnect();
+        assertFalse(connectionManager.isConnected());
+
+        broker.awaitQueue("system_message");
+        broker.publish("system_message", "after");
+        assertEquals("after", inbox.next());
+        assertTrue(connectionManager.isConnected());
+        assertEquals(1, connectionManager.getDisconnectionCount());
+        assertEquals(2, connectionManager.getConnectionFailureCount());
+        assertEquals(1, connectionManager.getOpenChannelCount());
+    }
+
+    @Test public void queueIsBoundAgainWhenTheBrokerClosesItsChannel() throws Exception {
+        final Inbox inbox = new Inbox();
+        uut.subscribe("notification.ipcdev", inbox);
+
+        broker.failNextChannels(2);
+        broker.closeChannel("notification.ipcdev");
+        assertEquals(0, broker.queueCount());
+
+        broker.awaitQueue("notification.ipcdev");
+        broker.publish("notification.ipcdev", "after");
+        assertEquals("after", inbox.next());
+        assertEquals(1, connectionManager.getOpenChannelCount());
+        assertEquals(0, connectionManager.getDisconnectionCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void channelsAreBounded() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            uut.subscribe("notification.user" + i, new Inbox());
+        }
+    }
+
+    private static class Inbox implements AMQPSubscriptionHub.Listener {
+
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onMessage(String message) {
+            messages.add(message);
+        }
+
+        String next() throws InterruptedException {
+            return messages.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stands in for a broker with a direct exchange: queues are bound to routing keys, and are
+     * deleted when their channel is closed, along with every channel of a closed connection.
+     */
+    private static class FakeBroker {
+
+        private final ConnectionFactory factory = mock(ConnectionFactory.class);
+        private final Map<String, Consumer> queues = new ConcurrentHashMap<>();
+        private final List<ShutdownListener> shutdownListeners = new CopyOnWriteArrayList<>();
+        private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+        private final Map<Channel, ShutdownListener> channelShutdownListeners = new ConcurrentHashMap<>();
+        private volatile boolean open;
+        private volatile int failures;
+        private volatile int channelFailures;
+        private int queueNumber;
+
+        FakeBroker() throws Exception {
+            when(factory.newConnection()).thenAnswer(new Answer<Connection>() {
+                @Override
+                public Connection answer(InvocationOnMock invocation) throws Throwable {
+                    if (failures > 0) {
+                        failures--;
+                        throw new ConnectException("Connection refused");
+                    }
+                    return connect();
+                }
+            });
+        }
+
+        private Connection connect() throws IOException {
+            open = true;
+            shutdownListeners.clear();
+            final Connection connection = mock(Connection.class);
+            when(connection.isOpen()).thenAnswer(new Answer<Boolean>() {
+                @Override
+                public Boolean answer(InvocationOnMock invocation) {
+                    return open;
+                }
+            });
+            doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) {
+                    shutdownListeners.add((ShutdownListener)invocation.getArguments()[0]);
+                    return null;
+                }
+            }).when(connection).addShutdownListener(any(ShutdownListener.class));
+            when(connection.createChannel()).thenAnswer(new Answer<Channel>() {
+                @Override
+                public Channel answer(InvocationOnMock invocation) throws Throwable {
+                    return createChannel();
+                }
+            });
+            return connection;
+        }
+
+        private synchronized Channel createChannel() throws IOException {
+            if (channelFailures > 0) {
+                channelFailures--;
+                throw new IOException("Channel limit reached");
+            }
+            final String queue = "amq.gen-" + queueNumber++;
+            final List<String> routingKeys = new ArrayList<>();
+            final Channel channel = mock(Channel.class);
+            final AMQP.Queue.DeclareOk declareOk = mock(AMQP.Queue.DeclareOk.class);
+            when(declareOk.getQueue()).thenReturn(queue);
+            when(channel.queueDeclare()).thenReturn(declareOk);
+            when(channel.queueBind(eq(queue), eq(EXCHANGE), anyString())).thenAnswer(new Answer<AMQP.Queue.BindOk>() {
+                @Override
+                public AMQP.Queue.BindOk answer(InvocationOnMock invocation) {
+                    routingKeys.add((String)invocation.getArguments()[2]);
+                    return null;
+                }
+            });
+            when(channel.basicConsume(eq(queue), anyBoolean(), any(Consumer.class))).thenAnswer(new Answer<String>() {
+                @Override
+                public String answer(InvocationOnMock invocation) {
+                    for (String routingKey : routingKeys) {
+                        queues.put(routingKey, (Consumer)invocation.getArguments()[2]);
+                        channels.put(routingKey, channel);
+                    }
+                    return "consumer";
+                }
+            });
+            doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) {
+                    for (String routingKey : routingKeys) {
+                        queues.remove(routingKey);
+                    }
+                    return null;
+                }
+            }).when(channel).abort();
+            doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) {
+                    channelShutdownListeners.put(channel, (ShutdownListener)invocation.getArguments()[0]);
+                    return null;
+                }
+            }).when(channel).addShutdownListener(any(ShutdownListener.class));
+            return channel;
+        }
+
+        int queueCount() {
+            return queues.size();
+        }
+
+        void publish(String routingKey, String message) throws IOException {
+            final Consumer consumer = queues.get(routingKey);
+            if (consumer != null) {
+                consumer.handleDelivery("consumer",
+                                        new Envelope(1, false, EXCHANGE, routingKey),
+                                        new AMQP.BasicProperties(),
+                                        message.getBytes("UTF-8"));
+            }
+        }
+
+        void failNextConnections(int count) {
+            failures = count;
+        }
+
+        void failNextChannels(int count) {
+            channelFailures = count;
+        }
+
+        /**
+         * Closes the channel on which a routing key's queue is consumed, as if the broker had closed
+         * it with a channel error, which deletes the queue.
+         */
+        void closeChannel(String routingKey) {
+            final Channel channel = channels.remove(routingKey);
+            queues.remove(routingKey);
+            final ShutdownSignalException cause = new ShutdownSignalException(false, false, null, channel);
+            channelShutdownListeners.get(channel).shutdownCompleted(cause);
+        }
+
+        /**
+         * Closes the connection as if the broker had been restarted.
+         */
+        void disconnect() {
+            open = false;
+            queues.clear();
+            final ShutdownSignalException cause = new ShutdownSignalException(true, false, null, null);
+            for (ShutdownListener listener : shutdownListeners) {
+                listener.shutdownCompleted(cause);
+            }
+        }
+
+        void awaitQueue(String routingKey) throws InterruptedException {
+            for (int i = 0; i < 500 && !queues.containsKey(routingKey); i++) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}